@@ -46,6 +46,20 @@ public interface HTTPConstants {
 
   String PahForObjectTypeByQueryAndSelectAndOrder = "/{objectType}/{query}/{select}/{order}";
 
+  String PahForObjectStreamByQuery = "/{objectType}/{query}/stream";
+
+  String PahForObjectStreamByQueryAndSelect = "/{objectType}/{query}/{select}/stream";
+
+  String PahForObjectRetrieve = "/{objectType}/retrieve";
+
+  String PahForObjectRetrieveAndSelect = "/{objectType}/retrieve/{select}";
+
+  String PahForObjectUpsertByExternalId = "/{objectType}/upsert/{externalIdField}";
+
+  String PahForObjectChanges = "/{objectType}/changes";
+
+  String PahForObjectChangesByWatermark = "/{objectType}/changes/{watermark}";
+
   String PathForProcessLogLevelChangeRequest = "/log";
 
   String resetById = "/reset/{id}";
@@ -64,6 +78,8 @@ public interface HTTPConstants {
 
   String mimeTypeJSON = "application/json";
 
+  String mimeTypeNDJSON = "application/x-ndjson";
+
   String query = "query";
 
   String fileName = "fileName";
@@ -72,6 +88,10 @@ public interface HTTPConstants {
 
   String order = "order";
 
+  String externalIdField = "externalIdField";
+
+  String watermark = "watermark";
+
   String andClause = "&";
 
   String orClause = "|";
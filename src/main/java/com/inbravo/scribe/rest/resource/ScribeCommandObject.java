@@ -43,6 +43,9 @@ public final class ScribeCommandObject {
   @XmlElement(name = "Batch")
   private String batch;
 
+  @XmlElement(name = "Watermark")
+  private String watermark;
+
   @XmlElement(name = "Error")
   private String error;
 
@@ -111,6 +114,14 @@ public final class ScribeCommandObject {
     this.batch = batch;
   }
 
+  public final String getWatermark() {
+    return watermark;
+  }
+
+  public final void setWatermark(final String watermark) {
+    this.watermark = watermark;
+  }
+
   public final String getError() {
     return error;
   }
@@ -146,6 +157,6 @@ public final class ScribeCommandObject {
   @Override
   public String toString() {
     return "ScribeCommandObject [intTansId=" + intTansId + ", extTransId=" + extTransId + ", ObjectType=" + ObjectType + ", batch=" + batch
-        + ", error=" + error + ", timeZone=" + timeZone + ", metaObject=" + metaObject + ", object=" + Arrays.toString(object) + "]";
+        + ", watermark=" + watermark + ", error=" + error + ", timeZone=" + timeZone + ", metaObject=" + metaObject + ", object=" + Arrays.toString(object) + "]";
   }
 }
@@ -42,6 +42,7 @@ import com.inbravo.scribe.exception.ScribeResponseCodes;
 import com.inbravo.scribe.rest.constants.HTTPConstants;
 import com.inbravo.scribe.rest.resource.ScribeCommandObject;
 import com.inbravo.scribe.rest.service.basic.ScribeInternalService;
+import com.inbravo.scribe.rest.service.msg.type.ScribeObjectStream;
 import com.inbravo.scribe.rest.service.validator.ScribeRequestValidator;
 import com.inbravo.scribe.rest.utils.MutualDiagnosticLogUtils;
 
@@ -345,6 +346,102 @@ public final class ScribeObjectService {
     return Response.ok(scribeCommandObject).build();
   }
 
+  /**
+   * This API will stream all objects of CRM query. CRM is queried page by page while the response is
+   * being written; as XML or as one JSON object per line
+   * 
+   * @return
+   * @throws Exception
+   */
+  @GET
+  @Path(HTTPConstants.PahForObjectStreamByQuery)
+  @Produces({HTTPConstants.mimeTypeXML, HTTPConstants.mimeTypeNDJSON})
+  public final Response streamObjects(@QueryParam("") ScribeCommandObject scribeCommandObject, final @PathParam(HTTPConstants.query) String query,
+      final @PathParam(HTTPConstants.ObjectType) String ObjectType) throws Exception {
+    final long transactionId = System.currentTimeMillis();
+    logger.info("==**== Request received from " + httpServletRequest.getRemoteHost() + "; Transaction started, Scribe-TransId : [" + transactionId
+        + "]; Ext-TransId : [" + scribeCommandObject.getExtTransId() + "] ==**== ");
+    logger.debug("----Inside streamObjects object type: " + ObjectType);
+
+    ScribeObjectStream scribeObjectStream = null;
+
+    try {
+
+      /* Set transaction id */
+      scribeCommandObject.setIntTansId("" + transactionId);
+
+      /* Set transaction info in logs */
+      mutualDiagnosticLogUtils.addTransactionInfo(scribeCommandObject);
+
+      /* Update the request object for requestObject from URL */
+      scribeCommandObject.setObjectType(ObjectType);
+
+      /* Validate the request */
+      scribeRequestValidator.validateRequestObject(scribeCommandObject, ObjectType, false);
+
+      scribeObjectStream =
+          scribeInternalService.getServiceFactory(scribeCommandObject).getService(scribeCommandObject)
+              .streamObjects(scribeCommandObject, scribeRequestValidator.decodeRequestParam(query), null);
+
+      logger.info("==**== Transaction completed, objects will be streamed, Scribe-TransId : [" + transactionId + "]; Ext-TransId : ["
+          + scribeCommandObject.getExtTransId() + "] ==**== ");
+    } finally {
+
+      /* Set transaction info in logs */
+      mutualDiagnosticLogUtils.discardTransactionInfo();
+    }
+
+    return Response.ok(scribeObjectStream).build();
+  }
+
+  /**
+   * This API will stream the selected fields of all objects of CRM query. CRM is queried page by page
+   * while the response is being written; as XML or as one JSON object per line
+   * 
+   * @return
+   * @throws Exception
+   */
+  @GET
+  @Path(HTTPConstants.PahForObjectStreamByQueryAndSelect)
+  @Produces({HTTPConstants.mimeTypeXML, HTTPConstants.mimeTypeNDJSON})
+  public final Response streamObjects(@QueryParam("") ScribeCommandObject scribeCommandObject, final @PathParam(HTTPConstants.query) String query,
+      final @PathParam(HTTPConstants.ObjectType) String ObjectType, final @PathParam(HTTPConstants.select) String select) throws Exception {
+    final long transactionId = System.currentTimeMillis();
+    logger.info("==**== Request received from " + httpServletRequest.getRemoteHost() + "; Transaction started, Scribe-TransId : [" + transactionId
+        + "]; Ext-TransId : [" + scribeCommandObject.getExtTransId() + "] ==**== ");
+    logger.debug("----Inside streamObjects object type: " + ObjectType);
+
+    ScribeObjectStream scribeObjectStream = null;
+
+    try {
+
+      /* Set transaction id */
+      scribeCommandObject.setIntTansId("" + transactionId);
+
+      /* Set transaction info in logs */
+      mutualDiagnosticLogUtils.addTransactionInfo(scribeCommandObject);
+
+      /* Update the request object for requestObject from URL */
+      scribeCommandObject.setObjectType(ObjectType);
+
+      /* Validate the request */
+      scribeRequestValidator.validateRequestObject(scribeCommandObject, ObjectType, false);
+
+      scribeObjectStream =
+          scribeInternalService.getServiceFactory(scribeCommandObject).getService(scribeCommandObject)
+              .streamObjects(scribeCommandObject, scribeRequestValidator.decodeRequestParam(query), scribeRequestValidator.decodeRequestParam(select));
+
+      logger.info("==**== Transaction completed, objects will be streamed, Scribe-TransId : [" + transactionId + "]; Ext-TransId : ["
+          + scribeCommandObject.getExtTransId() + "] ==**== ");
+    } finally {
+
+      /* Set transaction info in logs */
+      mutualDiagnosticLogUtils.discardTransactionInfo();
+    }
+
+    return Response.ok(scribeObjectStream).build();
+  }
+
   /**
    * This API will do count the number of objects in CRM query.
    * 
@@ -537,6 +634,301 @@ public final class ScribeObjectService {
     }
   }
 
+  /**
+   * Deletes all objects of request; each object should have its 'Id'
+   * 
+   * @return
+   * @throws Exception
+   */
+  @DELETE
+  @Path(HTTPConstants.PahForObjectType)
+  @Consumes(HTTPConstants.mimeTypeXML)
+  @Produces({HTTPConstants.mimeTypeXML, HTTPConstants.mimeTypeJSON})
+  public final Response deleteObjects(ScribeCommandObject scribeCommandObject, final @PathParam(HTTPConstants.ObjectType) String ObjectType)
+      throws Exception {
+    final long transactionId = System.currentTimeMillis();
+    logger.info("==**== Request received from " + httpServletRequest.getRemoteHost() + "; Transaction started, Scribe-TransId : [" + transactionId
+        + "]; Ext-TransId : [" + scribeCommandObject.getExtTransId() + "] ==**== ");
+    logger.debug("----Inside deleteObjects object type: " + ObjectType);
+
+    try {
+
+      /* Set transaction id */
+      scribeCommandObject.setIntTansId("" + transactionId);
+
+      /* Set transaction info in logs */
+      mutualDiagnosticLogUtils.addTransactionInfo(scribeCommandObject);
+
+      /* Update the request object for requestObject from URL */
+      scribeCommandObject.setObjectType(ObjectType);
+
+      /* Validate the request */
+      scribeRequestValidator.validateRequestObject(scribeCommandObject, ObjectType, true);
+
+      scribeCommandObject = scribeInternalService.getServiceFactory(scribeCommandObject).getService(scribeCommandObject).deleteObjects(scribeCommandObject);
+
+      /* Update the object for removing requestObject */
+      scribeCommandObject.setObjectType(null);
+
+      logger.info("==**== Transaction completed, Scribe-TransId : [" + transactionId + "]; Ext-TransId : [" + scribeCommandObject.getExtTransId()
+          + "] ==**== ");
+
+    } finally {
+
+      /* Set transaction info in logs */
+      mutualDiagnosticLogUtils.discardTransactionInfo();
+    }
+
+    return Response.ok(scribeCommandObject).build();
+  }
+
+  /**
+   * Retrieves all fields of objects of request by 'Id' of each object
+   * 
+   * @return
+   * @throws Exception
+   */
+  @POST
+  @Path(HTTPConstants.PahForObjectRetrieve)
+  @Consumes(HTTPConstants.mimeTypeXML)
+  @Produces({HTTPConstants.mimeTypeXML, HTTPConstants.mimeTypeJSON})
+  public final Response retrieveObjects(ScribeCommandObject scribeCommandObject, final @PathParam(HTTPConstants.ObjectType) String ObjectType)
+      throws Exception {
+    final long transactionId = System.currentTimeMillis();
+    logger.info("==**== Request received from " + httpServletRequest.getRemoteHost() + "; Transaction started, Scribe-TransId : [" + transactionId
+        + "]; Ext-TransId : [" + scribeCommandObject.getExtTransId() + "] ==**== ");
+    logger.debug("----Inside retrieveObjects object type: " + ObjectType);
+
+    try {
+
+      /* Set transaction id */
+      scribeCommandObject.setIntTansId("" + transactionId);
+
+      /* Set transaction info in logs */
+      mutualDiagnosticLogUtils.addTransactionInfo(scribeCommandObject);
+
+      /* Update the request object for requestObject from URL */
+      scribeCommandObject.setObjectType(ObjectType);
+
+      /* Validate the request */
+      scribeRequestValidator.validateRequestObject(scribeCommandObject, ObjectType, true);
+
+      scribeCommandObject =
+          scribeInternalService.getServiceFactory(scribeCommandObject).getService(scribeCommandObject).retrieveObjects(scribeCommandObject, null);
+
+      /* Update the object for removing requestObject */
+      scribeCommandObject.setObjectType(null);
+
+      logger.info("==**== Transaction completed, Scribe-TransId : [" + transactionId + "]; Ext-TransId : [" + scribeCommandObject.getExtTransId()
+          + "] ==**== ");
+
+    } finally {
+
+      /* Set transaction info in logs */
+      mutualDiagnosticLogUtils.discardTransactionInfo();
+    }
+
+    return Response.ok(scribeCommandObject).build();
+  }
+
+  /**
+   * Retrieves the selected fields of objects of request by 'Id' of each object
+   * 
+   * @return
+   * @throws Exception
+   */
+  @POST
+  @Path(HTTPConstants.PahForObjectRetrieveAndSelect)
+  @Consumes(HTTPConstants.mimeTypeXML)
+  @Produces({HTTPConstants.mimeTypeXML, HTTPConstants.mimeTypeJSON})
+  public final Response retrieveObjects(ScribeCommandObject scribeCommandObject, final @PathParam(HTTPConstants.ObjectType) String ObjectType,
+      final @PathParam(HTTPConstants.select) String select) throws Exception {
+    final long transactionId = System.currentTimeMillis();
+    logger.info("==**== Request received from " + httpServletRequest.getRemoteHost() + "; Transaction started, Scribe-TransId : [" + transactionId
+        + "]; Ext-TransId : [" + scribeCommandObject.getExtTransId() + "] ==**== ");
+    logger.debug("----Inside retrieveObjects object type: " + ObjectType + " & select: " + select);
+
+    try {
+
+      /* Set transaction id */
+      scribeCommandObject.setIntTansId("" + transactionId);
+
+      /* Set transaction info in logs */
+      mutualDiagnosticLogUtils.addTransactionInfo(scribeCommandObject);
+
+      /* Update the request object for requestObject from URL */
+      scribeCommandObject.setObjectType(ObjectType);
+
+      /* Validate the request */
+      scribeRequestValidator.validateRequestObject(scribeCommandObject, ObjectType, true);
+
+      scribeCommandObject =
+          scribeInternalService.getServiceFactory(scribeCommandObject).getService(scribeCommandObject)
+              .retrieveObjects(scribeCommandObject, scribeRequestValidator.decodeRequestParam(select));
+
+      /* Update the object for removing requestObject */
+      scribeCommandObject.setObjectType(null);
+
+      logger.info("==**== Transaction completed, Scribe-TransId : [" + transactionId + "]; Ext-TransId : [" + scribeCommandObject.getExtTransId()
+          + "] ==**== ");
+
+    } finally {
+
+      /* Set transaction info in logs */
+      mutualDiagnosticLogUtils.discardTransactionInfo();
+    }
+
+    return Response.ok(scribeCommandObject).build();
+  }
+
+  /**
+   * Creates or updates all objects of request; existing objects are matched by external id field
+   * 
+   * @return
+   * @throws Exception
+   */
+  @POST
+  @Path(HTTPConstants.PahForObjectUpsertByExternalId)
+  @Consumes(HTTPConstants.mimeTypeXML)
+  @Produces({HTTPConstants.mimeTypeXML, HTTPConstants.mimeTypeJSON})
+  public final Response upsertObjects(ScribeCommandObject scribeCommandObject, final @PathParam(HTTPConstants.ObjectType) String ObjectType,
+      final @PathParam(HTTPConstants.externalIdField) String externalIdField) throws Exception {
+    final long transactionId = System.currentTimeMillis();
+    logger.info("==**== Request received from " + httpServletRequest.getRemoteHost() + "; Transaction started, Scribe-TransId : [" + transactionId
+        + "]; Ext-TransId : [" + scribeCommandObject.getExtTransId() + "] ==**== ");
+    logger.debug("----Inside upsertObjects object type: " + ObjectType + " & external id field: " + externalIdField);
+
+    try {
+
+      /* Set transaction id */
+      scribeCommandObject.setIntTansId("" + transactionId);
+
+      /* Set transaction info in logs */
+      mutualDiagnosticLogUtils.addTransactionInfo(scribeCommandObject);
+
+      /* Update the request object for requestObject from URL */
+      scribeCommandObject.setObjectType(ObjectType);
+
+      /* Validate the request */
+      scribeRequestValidator.validateRequestObject(scribeCommandObject, ObjectType, true);
+
+      scribeCommandObject =
+          scribeInternalService.getServiceFactory(scribeCommandObject).getService(scribeCommandObject)
+              .upsertObjects(scribeCommandObject, scribeRequestValidator.decodeRequestParam(externalIdField));
+
+      /* Update the object for removing requestObject */
+      scribeCommandObject.setObjectType(null);
+
+      logger.info("==**== Transaction completed, Scribe-TransId : [" + transactionId + "]; Ext-TransId : [" + scribeCommandObject.getExtTransId()
+          + "] ==**== ");
+
+    } finally {
+
+      /* Set transaction info in logs */
+      mutualDiagnosticLogUtils.discardTransactionInfo();
+    }
+
+    return Response.ok(scribeCommandObject).build();
+  }
+
+  /**
+   * This API will return all objects with a watermark. Next changes are asked using the watermark;
+   * remaining pages are asked using 'batch'
+   * 
+   * @return
+   * @throws Exception
+   */
+  @GET
+  @Path(HTTPConstants.PahForObjectChanges)
+  @Produces({HTTPConstants.mimeTypeXML, HTTPConstants.mimeTypeJSON})
+  public final Response getChanges(@QueryParam("") ScribeCommandObject scribeCommandObject, final @PathParam(HTTPConstants.ObjectType) String ObjectType)
+      throws Exception {
+    final long transactionId = System.currentTimeMillis();
+    logger.info("==**== Request received from " + httpServletRequest.getRemoteHost() + "; Transaction started, Scribe-TransId : [" + transactionId
+        + "]; Ext-TransId : [" + scribeCommandObject.getExtTransId() + "] ==**== ");
+    logger.debug("----Inside getChanges object type: " + ObjectType);
+
+    try {
+
+      /* Set transaction id */
+      scribeCommandObject.setIntTansId("" + transactionId);
+
+      /* Set transaction info in logs */
+      mutualDiagnosticLogUtils.addTransactionInfo(scribeCommandObject);
+
+      /* Update the request object for requestObject from URL */
+      scribeCommandObject.setObjectType(ObjectType);
+
+      /* Validate the request */
+      scribeRequestValidator.validateRequestObject(scribeCommandObject, ObjectType, false);
+
+      scribeCommandObject =
+          scribeInternalService.getServiceFactory(scribeCommandObject).getService(scribeCommandObject).getChanges(scribeCommandObject, null);
+
+      /* Update the object for removing requestObject */
+      scribeCommandObject.setObjectType(null);
+
+      logger.info("==**== Transaction completed, Scribe-TransId : [" + transactionId + "]; Ext-TransId : [" + scribeCommandObject.getExtTransId()
+          + "] ==**== ");
+
+    } finally {
+
+      /* Set transaction info in logs */
+      mutualDiagnosticLogUtils.discardTransactionInfo();
+    }
+
+    return Response.ok(scribeCommandObject).build();
+  }
+
+  /**
+   * This API will return objects changed or deleted since the watermark of previous call, with a new
+   * watermark for next call; remaining pages of changed objects are asked using 'batch'
+   * 
+   * @return
+   * @throws Exception
+   */
+  @GET
+  @Path(HTTPConstants.PahForObjectChangesByWatermark)
+  @Produces({HTTPConstants.mimeTypeXML, HTTPConstants.mimeTypeJSON})
+  public final Response getChanges(@QueryParam("") ScribeCommandObject scribeCommandObject, final @PathParam(HTTPConstants.ObjectType) String ObjectType,
+      final @PathParam(HTTPConstants.watermark) String watermark) throws Exception {
+    final long transactionId = System.currentTimeMillis();
+    logger.info("==**== Request received from " + httpServletRequest.getRemoteHost() + "; Transaction started, Scribe-TransId : [" + transactionId
+        + "]; Ext-TransId : [" + scribeCommandObject.getExtTransId() + "] ==**== ");
+    logger.debug("----Inside getChanges object type: " + ObjectType + " & watermark: " + watermark);
+
+    try {
+
+      /* Set transaction id */
+      scribeCommandObject.setIntTansId("" + transactionId);
+
+      /* Set transaction info in logs */
+      mutualDiagnosticLogUtils.addTransactionInfo(scribeCommandObject);
+
+      /* Update the request object for requestObject from URL */
+      scribeCommandObject.setObjectType(ObjectType);
+
+      /* Validate the request */
+      scribeRequestValidator.validateRequestObject(scribeCommandObject, ObjectType, false);
+
+      scribeCommandObject =
+          scribeInternalService.getServiceFactory(scribeCommandObject).getService(scribeCommandObject).getChanges(scribeCommandObject, scribeRequestValidator.decodeRequestParam(watermark));
+
+      /* Update the object for removing requestObject */
+      scribeCommandObject.setObjectType(null);
+
+      logger.info("==**== Transaction completed, Scribe-TransId : [" + transactionId + "]; Ext-TransId : [" + scribeCommandObject.getExtTransId()
+          + "] ==**== ");
+
+    } finally {
+
+      /* Set transaction info in logs */
+      mutualDiagnosticLogUtils.discardTransactionInfo();
+    }
+
+    return Response.ok(scribeCommandObject).build();
+  }
+
   public final HttpServletRequest getHttpServletRequest() {
     return httpServletRequest;
   }
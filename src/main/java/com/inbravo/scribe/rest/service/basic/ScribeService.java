@@ -22,6 +22,7 @@
 package com.inbravo.scribe.rest.service.basic;
 
 import com.inbravo.scribe.rest.resource.ScribeCommandObject;
+import com.inbravo.scribe.rest.service.msg.type.ScribeObjectStream;
 
 /**
  * 
@@ -49,4 +50,15 @@ public interface ScribeService {
   public abstract ScribeCommandObject updateObject(final ScribeCommandObject scribeCommandObject) throws Exception;
 
   public abstract boolean deleteObject(final ScribeCommandObject scribeCommandObject, final String idToBeDeleted) throws Exception;
+
+  public abstract ScribeCommandObject deleteObjects(final ScribeCommandObject scribeCommandObject) throws Exception;
+
+  public abstract ScribeObjectStream streamObjects(final ScribeCommandObject scribeCommandObject, final String query, final String select)
+      throws Exception;
+
+  public abstract ScribeCommandObject retrieveObjects(final ScribeCommandObject scribeCommandObject, final String select) throws Exception;
+
+  public abstract ScribeCommandObject upsertObjects(final ScribeCommandObject scribeCommandObject, final String externalIdField) throws Exception;
+
+  public abstract ScribeCommandObject getChanges(final ScribeCommandObject scribeCommandObject, final String watermark) throws Exception;
 }
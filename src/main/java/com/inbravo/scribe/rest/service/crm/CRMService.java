@@ -21,7 +21,11 @@
 
 package com.inbravo.scribe.rest.service.crm;
 
+import com.inbravo.scribe.exception.ScribeException;
+import com.inbravo.scribe.exception.ScribeResponseCodes;
+import com.inbravo.scribe.rest.resource.ScribeCommandObject;
 import com.inbravo.scribe.rest.service.basic.ScribeService;
+import com.inbravo.scribe.rest.service.msg.type.ScribeObjectStream;
 
 /**
  * 
@@ -30,4 +34,79 @@ import com.inbravo.scribe.rest.service.basic.ScribeService;
  */
 public abstract class CRMService implements ScribeService {
 
+  /**
+   * Deletes all objects of request; CRMs supporting bulk delete override this
+   * 
+   * @param scribeCommandObject
+   * @return
+   * @throws Exception
+   */
+  @Override
+  public ScribeCommandObject deleteObjects(final ScribeCommandObject scribeCommandObject) throws Exception {
+
+    /* Inform user about error */
+    throw new ScribeException(ScribeResponseCodes._1003 + " Following operation is not supported by the CRM");
+  }
+
+  /**
+   * Streams all objects of query; CRMs supporting streaming override this
+   * 
+   * @param scribeCommandObject
+   * @param query
+   * @param select
+   * @return
+   * @throws Exception
+   */
+  @Override
+  public ScribeObjectStream streamObjects(final ScribeCommandObject scribeCommandObject, final String query, final String select) throws Exception {
+
+    /* Inform user about error */
+    throw new ScribeException(ScribeResponseCodes._1003 + " Following operation is not supported by the CRM");
+  }
+
+  /**
+   * Retrieves objects by 'Id' of each object of request; CRMs supporting bulk retrieve override this
+   * 
+   * @param scribeCommandObject
+   * @param select
+   * @return
+   * @throws Exception
+   */
+  @Override
+  public ScribeCommandObject retrieveObjects(final ScribeCommandObject scribeCommandObject, final String select) throws Exception {
+
+    /* Inform user about error */
+    throw new ScribeException(ScribeResponseCodes._1003 + " Following operation is not supported by the CRM");
+  }
+
+  /**
+   * Creates or updates all objects of request, matched by external id field; CRMs supporting upsert
+   * override this
+   * 
+   * @param scribeCommandObject
+   * @param externalIdField
+   * @return
+   * @throws Exception
+   */
+  @Override
+  public ScribeCommandObject upsertObjects(final ScribeCommandObject scribeCommandObject, final String externalIdField) throws Exception {
+
+    /* Inform user about error */
+    throw new ScribeException(ScribeResponseCodes._1003 + " Following operation is not supported by the CRM");
+  }
+
+  /**
+   * Finds objects changed since the watermark; CRMs supporting change feed override this
+   * 
+   * @param scribeCommandObject
+   * @param watermark given by previous call; null for all objects
+   * @return changed objects and new watermark
+   * @throws Exception
+   */
+  @Override
+  public ScribeCommandObject getChanges(final ScribeCommandObject scribeCommandObject, final String watermark) throws Exception {
+
+    /* Inform user about error */
+    throw new ScribeException(ScribeResponseCodes._1003 + " Following operation is not supported by the CRM");
+  }
 }
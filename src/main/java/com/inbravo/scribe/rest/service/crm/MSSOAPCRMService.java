@@ -32,6 +32,7 @@ import com.inbravo.scribe.rest.service.crm.cache.CRMSessionCache;
 import com.inbravo.scribe.rest.service.crm.cache.ScribeCacheObject;
 import com.inbravo.scribe.rest.service.crm.ms.MSCRMObjectService;
 import com.inbravo.scribe.rest.service.crm.ms.auth.MSAuthManager;
+import com.inbravo.scribe.rest.service.msg.type.ScribeObjectStream;
 
 /**
  * 
@@ -66,6 +67,12 @@ public final class MSSOAPCRMService extends CRMService {
     return this.getmSCRMObjectService(cADCommandObject).deleteObject(cADCommandObject, idToBeDeleted);
   }
 
+  @Override
+  public final ScribeCommandObject deleteObjects(final ScribeCommandObject cADCommandObject) throws Exception {
+    logger.debug("----Inside deleteObjects");
+    return this.getmSCRMObjectService(cADCommandObject).deleteObjects(cADCommandObject);
+  }
+
   @Override
   public final ScribeCommandObject getObjects(final ScribeCommandObject cADCommandObject) throws Exception {
     logger.debug("----Inside getObjects");
@@ -91,6 +98,13 @@ public final class MSSOAPCRMService extends CRMService {
     return this.getmSCRMObjectService(cADCommandObject).getObjects(cADCommandObject, query, select, order);
   }
 
+  @Override
+  public final ScribeObjectStream streamObjects(final ScribeCommandObject cADCommandObject, final String query, final String select)
+      throws Exception {
+    logger.debug("----Inside streamObjects query: " + query + " & select: " + select);
+    return this.getmSCRMObjectService(cADCommandObject).streamObjects(cADCommandObject, query, select);
+  }
+
   @Override
   public ScribeCommandObject getObjectsCount(ScribeCommandObject cADCommandObject) throws Exception {
     return this.getmSCRMObjectService(cADCommandObject).getObjectsCount(cADCommandObject);
@@ -22,27 +22,44 @@
 package com.inbravo.scribe.rest.service.crm;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Calendar;
 import java.util.List;
 import java.util.StringTokenizer;
+import java.util.TimeZone;
 
 import org.apache.axis.message.MessageElement;
 import org.apache.log4j.Logger;
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
 import org.w3c.dom.Element;
 
 import com.inbravo.scribe.exception.ScribeException;
 import com.inbravo.scribe.exception.ScribeResponseCodes;
 import com.inbravo.scribe.rest.resource.ScribeCommandObject;
 import com.inbravo.scribe.rest.resource.ScribeObject;
+import com.inbravo.scribe.rest.service.crm.sf.SalesForceBulkClient;
+import com.inbravo.scribe.rest.service.crm.sf.SalesForceBulkClient.SessionRenewer;
+import com.inbravo.scribe.rest.service.crm.sf.SalesForceDescribeCache;
 import com.inbravo.scribe.rest.service.crm.sf.SalesForceMessageFormatUtils;
+import com.inbravo.scribe.rest.service.crm.sf.SalesForceQueryPrefetcher;
+import com.inbravo.scribe.rest.service.crm.sf.SalesForceQueryStream;
+import com.inbravo.scribe.rest.service.crm.sf.SalesForceSOAPClient;
+import com.inbravo.scribe.rest.service.crm.sf.SalesForceSearchCache;
 import com.inbravo.scribe.rest.service.crm.sf.session.SalesForceCRMSessionManager;
+import com.inbravo.scribe.rest.service.msg.type.ScribeObjectStream;
 import com.sforce.soap.partner.DeleteResult;
-import com.sforce.soap.partner.DescribeSObjectResult;
-import com.sforce.soap.partner.Field;
+import com.sforce.soap.partner.DeletedRecord;
+import com.sforce.soap.partner.GetDeletedResult;
 import com.sforce.soap.partner.QueryResult;
 import com.sforce.soap.partner.SaveResult;
-import com.sforce.soap.partner.SearchRecord;
 import com.sforce.soap.partner.SearchResult;
 import com.sforce.soap.partner.SoapBindingStub;
+import com.sforce.soap.partner.UpsertResult;
+import com.sforce.soap.partner.fault.ApiFault;
+import com.sforce.soap.partner.fault.ExceptionCode;
+import com.sforce.soap.partner.fault.InvalidFieldFault;
+import com.sforce.soap.partner.fault.InvalidSObjectFault;
 import com.sforce.soap.partner.sobject.SObject;
 
 /**
@@ -60,11 +77,42 @@ public final class SFSOAPCRMService extends CRMService {
 
   private String orderFieldsSeparator;
 
+  /* Sales Force describe cache */
+  private SalesForceDescribeCache sFDescribeCache;
+
+  /* Sales Force client for many objects */
+  private SalesForceBulkClient sFBulkClient;
+
+  /* Fetches next batch of queries in background */
+  private SalesForceQueryPrefetcher sFQueryPrefetcher;
+
+  /* Short lived cache of SOSL searches */
+  private SalesForceSearchCache sFSearchCache;
+
+  /* Replication API of Sales Force works on a span of at least one minute */
+  private static final long minChangesSpan = 60 * 1000;
+
+  /* Format of date time literals in SOQL */
+  private static final String soqlDateTimeFormat = "yyyy-MM-dd'T'HH:mm:ss'Z'";
+
   @Override
   public final ScribeCommandObject createObject(final ScribeCommandObject cADCommandObject) throws Exception {
+    return this.executeWrite(cADCommandObject, new SalesForceCall<ScribeCommandObject>() {
 
-    /* Get Sales Force stub for the agent */
-    final SoapBindingStub soapBindingStub = cRMSessionManager.getSoapBindingStub(cADCommandObject.getCrmUserId(), cADCommandObject.getCrmPassword());
+      @Override
+      public final ScribeCommandObject call(final SoapBindingStub soapBindingStub) throws Exception {
+        return createObject(soapBindingStub, cADCommandObject);
+      }
+    });
+  }
+
+  private final ScribeCommandObject createObject(final SoapBindingStub soapBindingStub, final ScribeCommandObject cADCommandObject) throws Exception {
+
+    /* Many objects are sent to Sales Force in chunks */
+    if (cADCommandObject.getObject().length > 1) {
+      return this.setSaveResults(cADCommandObject,
+          sFBulkClient.create(soapBindingStub, this.createSessionRenewer(cADCommandObject), this.createSObjectArray(cADCommandObject)), "created");
+    }
 
     /* Create message element array */
     final MessageElement[] messageElementArray = SalesForceMessageFormatUtils.createMessageElementArray(cADCommandObject.getObject()[0]);
@@ -108,9 +156,17 @@ public final class SFSOAPCRMService extends CRMService {
 
   @Override
   public final boolean deleteObject(final ScribeCommandObject cADCommandObject, final String idToBeDeleted) throws Exception {
+    return this.executeWrite(cADCommandObject, new SalesForceCall<Boolean>() {
 
-    /* Get Sales Force stub for the agent */
-    final SoapBindingStub soapBindingStub = cRMSessionManager.getSoapBindingStub(cADCommandObject.getCrmUserId(), cADCommandObject.getCrmPassword());
+      @Override
+      public final Boolean call(final SoapBindingStub soapBindingStub) throws Exception {
+        return deleteObject(soapBindingStub, cADCommandObject, idToBeDeleted);
+      }
+    });
+  }
+
+  private final boolean deleteObject(final SoapBindingStub soapBindingStub, final ScribeCommandObject cADCommandObject,
+      final String idToBeDeleted) throws Exception {
 
     /* Find start time */
     final long startTime = System.currentTimeMillis();
@@ -143,9 +199,16 @@ public final class SFSOAPCRMService extends CRMService {
 
   @Override
   public final ScribeCommandObject getObjects(final ScribeCommandObject cADCommandObject) throws Exception {
+    return this.execute(cADCommandObject, new SalesForceCall<ScribeCommandObject>() {
 
-    /* Get Sales Force stub for the agent */
-    final SoapBindingStub soapBindingStub = cRMSessionManager.getSoapBindingStub(cADCommandObject.getCrmUserId(), cADCommandObject.getCrmPassword());
+      @Override
+      public final ScribeCommandObject call(final SoapBindingStub soapBindingStub) throws Exception {
+        return getObjects(soapBindingStub, cADCommandObject);
+      }
+    });
+  }
+
+  private final ScribeCommandObject getObjects(final SoapBindingStub soapBindingStub, final ScribeCommandObject cADCommandObject) throws Exception {
 
     QueryResult queryResult = null;
 
@@ -153,80 +216,28 @@ public final class SFSOAPCRMService extends CRMService {
     if (cADCommandObject.getBatch() != null) {
       logger.debug("----Inside getObjects going to fetch a batch with query locator: " + cADCommandObject.getBatch());
       /* Query Sales Force with batch information */
-      queryResult = soapBindingStub.queryMore(cADCommandObject.getBatch());
+      queryResult = sFQueryPrefetcher.queryMore(soapBindingStub, cADCommandObject.getCrmUserId(), cADCommandObject.getBatch());
     } else {
-      /* Make a Sales Force query to know the Object Fields */
-      final DescribeSObjectResult describeSObjectResult = soapBindingStub.describeSObject(cADCommandObject.getObjectType());
-
-      /* Create a string object for query */
-      String query = null;
-
-      /* Iterate over records */
-      if (describeSObjectResult != null) {
-
-        if (describeSObjectResult.getFields() != null) {
-          query = "Select ";
-          for (int i = 0; i < describeSObjectResult.getFields().length; i++) {
-            final Field field = describeSObjectResult.getFields()[i];
-            query = query + field.getName() + " , ";
-          }
-
-          /* Remove comma (,) from the end of string */
-          query = query.substring(0, query.length() - 2);
-
-          /* Add 'From' clause */
-          query = query + " From " + cADCommandObject.getObjectType();
-        } else {
-          logger.debug("----Inside getObjects no records in response");
-          throw new ScribeException(ScribeResponseCodes._1004 + "Any " + cADCommandObject.getObjectType() + " at Sales Force");
-        }
-      } else {
-        logger.debug("----Inside getObjects no response from Sales Force");
-        throw new ScribeException(ScribeResponseCodes._1005);
-      }
+      /* Select all fields; describe of object is cached per organization */
+      final String query = sFDescribeCache.getSelectAllQuery(soapBindingStub, cADCommandObject.getObjectType());
 
       logger.debug("----Inside getObjects SOQL query: " + query);
 
       /* Query Sales Force without batch information */
-      queryResult = soapBindingStub.query(query);
+      queryResult = this.query(soapBindingStub, cADCommandObject.getObjectType(), query);
     }
 
+    /* Fetch next batch while this batch is being converted */
+    this.prefetchNextBatch(soapBindingStub, cADCommandObject, queryResult);
+
     /* Iterate over records */
     if (queryResult != null) {
 
       if (queryResult.getRecords() != null) {
 
-        /* Create Object array with query result length */
-        final ScribeObject[] cADbjectArray = new ScribeObject[queryResult.getRecords().length];
-        for (int i = 0; i < queryResult.getRecords().length; i++) {
-
-          /* Create one Object each record */
-          final ScribeObject cADbject = new ScribeObject();
-
-          /* Get record number i */
-          final SObject sObject = queryResult.getRecords()[i];
-
-          /* Get all fields from the record */
-          final MessageElement[] fields = sObject.get_any();
-
-          /* Set object type */
-          cADbject.setObjectType(sObject.getType());
-
-          /* Create list of elements */
-          final List<Element> elementList = new ArrayList<Element>();
-
-          for (int j = 0; j < fields.length; j++) {
-
-            /* Create inner tags <Field_Name> inside <Object> */
-            elementList.add(SalesForceMessageFormatUtils.createMessageElement(fields[j].getName(), fields[j].getValue()));
-          }
-
-          /* Add all CRM fields */
-          cADbject.setXmlContent(elementList);
+        /* Convert all records of the page */
+        final ScribeObject[] cADbjectArray = SalesForceMessageFormatUtils.createScribeObjectArray(queryResult.getRecords());
 
-          /* Set the object at array */
-          cADbjectArray[i] = cADbject;
-        }
         logger.debug("----Inside getObjects object length: " + cADbjectArray.length);
 
         /* Add batch id(query locator) information for pagination */
@@ -249,54 +260,25 @@ public final class SFSOAPCRMService extends CRMService {
     return cADCommandObject;
   }
 
-  private final ScribeCommandObject getObjectsBySelectCriteria(final ScribeCommandObject cADCommandObject, final String selectCriteria) throws Exception {
+  private final ScribeCommandObject getObjectsBySelectCriteria(final SoapBindingStub soapBindingStub, final ScribeCommandObject cADCommandObject,
+      final String selectCriteria) throws Exception {
 
     logger.debug("----Inside getObjectsBySelectCriteria selectCriteria: " + selectCriteria);
 
-    /* Get Sales Force stub for the agent */
-    final SoapBindingStub soapBindingStub = cRMSessionManager.getSoapBindingStub(cADCommandObject.getCrmUserId(), cADCommandObject.getCrmPassword());
-
-
     /* Query Sales Force without batch information */
     final QueryResult queryResult = soapBindingStub.query(selectCriteria);
 
+    /* Fetch next batch while this batch is being converted */
+    this.prefetchNextBatch(soapBindingStub, cADCommandObject, queryResult);
+
     /* Iterate over records */
     if (queryResult != null) {
 
       if (queryResult.getRecords() != null) {
 
-        /* Create Object array with query result length */
-        final ScribeObject[] cADbjectArray = new ScribeObject[queryResult.getRecords().length];
-
-        for (int i = 0; i < queryResult.getRecords().length; i++) {
-
-          /* Create one Object each record */
-          final ScribeObject cADbject = new ScribeObject();
-
-          /* Get record number i */
-          final SObject sObject = queryResult.getRecords()[i];
-
-          /* Get all fields from the record */
-          final MessageElement[] fields = sObject.get_any();
-
-          /* Set object type */
-          cADbject.setObjectType(sObject.getType());
-
-          /* Create list of elements */
-          final List<Element> elementList = new ArrayList<Element>();
-
-          for (int j = 0; j < fields.length; j++) {
-
-            /* Create inner tags <Field_Name> inside <Object> */
-            elementList.add(SalesForceMessageFormatUtils.createMessageElement(fields[j].getName(), fields[j].getValue()));
-          }
-
-          /* Add all CRM fields */
-          cADbject.setXmlContent(elementList);
+        /* Convert all records of the page */
+        final ScribeObject[] cADbjectArray = SalesForceMessageFormatUtils.createScribeObjectArray(queryResult.getRecords());
 
-          /* Set the object at array */
-          cADbjectArray[i] = cADbject;
-        }
         logger.debug("----Inside getObjectsBySelectCriteria object length: " + cADbjectArray.length);
 
         /* Add batch id(query locator) information for pagination */
@@ -321,20 +303,28 @@ public final class SFSOAPCRMService extends CRMService {
 
   @Override
   public final ScribeCommandObject getObjects(final ScribeCommandObject cADCommandObject, final String query) throws Exception {
+    return this.execute(cADCommandObject, new SalesForceCall<ScribeCommandObject>() {
+
+      @Override
+      public final ScribeCommandObject call(final SoapBindingStub soapBindingStub) throws Exception {
+        return getObjects(soapBindingStub, cADCommandObject, query);
+      }
+    });
+  }
+
+  private final ScribeCommandObject getObjects(final SoapBindingStub soapBindingStub, final ScribeCommandObject cADCommandObject,
+      final String query) throws Exception {
     logger.debug("----Inside getObjects query: " + query);
 
     /* Check if query is a SFDC find type */
     if (query != null && query.trim().startsWith("find")) {
-      return this.getObjectsBySearchCriteria(cADCommandObject, query);
+      return this.getObjectsBySearchCriteria(soapBindingStub, cADCommandObject, query);
     }
     /* Check if query is a SFDC select type */
     else if (query != null && query.trim().startsWith("select")) {
-      return this.getObjectsBySelectCriteria(cADCommandObject, query);
+      return this.getObjectsBySelectCriteria(soapBindingStub, cADCommandObject, query);
     }
 
-    /* Get Sales Force stub for the agent */
-    final SoapBindingStub soapBindingStub = cRMSessionManager.getSoapBindingStub(cADCommandObject.getCrmUserId(), cADCommandObject.getCrmPassword());
-
     QueryResult queryResult = null;
 
     /* Check if batch is required */
@@ -342,92 +332,39 @@ public final class SFSOAPCRMService extends CRMService {
       logger.debug("----Inside getObjects going to fetch a batch with query locator: " + cADCommandObject.getBatch());
 
       /* Query Sales Force with batch information */
-      queryResult = soapBindingStub.queryMore(cADCommandObject.getBatch());
+      queryResult = sFQueryPrefetcher.queryMore(soapBindingStub, cADCommandObject.getCrmUserId(), cADCommandObject.getBatch());
     } else {
 
-      /* Make a Sales Force query to know the Object Fields */
-      final DescribeSObjectResult describeSObjectResult = soapBindingStub.describeSObject(cADCommandObject.getObjectType());
-
-      /* Create a string object for query */
-      String cadQuery = null;
-
-      /* Iterate over records */
-      if (describeSObjectResult != null) {
-
-        if (describeSObjectResult.getFields() != null) {
-          cadQuery = "Select ";
-          for (int i = 0; i < describeSObjectResult.getFields().length; i++) {
-            Field field = describeSObjectResult.getFields()[i];
-            cadQuery = cadQuery + field.getName() + " , ";
-          }
-
-          /* Remove comma (,) from the end of string */
-          cadQuery = cadQuery.substring(0, cadQuery.length() - 2);
+      /* Select all fields; describe of object is cached per organization */
+      String cadQuery = sFDescribeCache.getSelectAllQuery(soapBindingStub, cADCommandObject.getObjectType());
 
-          /* Add 'From' clause */
-          cadQuery = cadQuery + " From " + cADCommandObject.getObjectType();
+      /* Add where clause */
+      if (query != null && !query.equalsIgnoreCase("NONE")) {
 
-          /* Add where clause */
-          if (query != null && !query.equalsIgnoreCase("NONE")) {
-
-            /* Create where clause */
-            final String whereClause = SalesForceMessageFormatUtils.createWhereClause(query);
+        /* Create where clause */
+        final String whereClause = SalesForceMessageFormatUtils.createWhereClause(query);
 
-            /* Complete the cadQuery */
-            cadQuery = cadQuery + whereClause;
-          }
-        } else {
-          logger.debug("----Inside getObjects no records in response");
-          throw new ScribeException(ScribeResponseCodes._1004 + "Any " + cADCommandObject.getObjectType() + " at Sales Force");
-        }
-      } else {
-        logger.debug("----Inside getObjects no response from Sales Force");
-        throw new ScribeException(ScribeResponseCodes._1005);
+        /* Complete the cadQuery */
+        cadQuery = cadQuery + whereClause;
       }
 
       logger.debug("----Inside getObjects SOQL query: " + cadQuery);
 
       /* Query Sales Force without batch information */
-      queryResult = soapBindingStub.query(cadQuery);
+      queryResult = this.query(soapBindingStub, cADCommandObject.getObjectType(), cadQuery);
     }
 
+    /* Fetch next batch while this batch is being converted */
+    this.prefetchNextBatch(soapBindingStub, cADCommandObject, queryResult);
+
     /* Iterate over records */
     if (queryResult != null) {
 
       if (queryResult.getRecords() != null) {
 
-        /* Create Object array with query result length */
-        final ScribeObject[] cADbjectArray = new ScribeObject[queryResult.getRecords().length];
-
-        for (int i = 0; i < queryResult.getRecords().length; i++) {
-
-          /* Create one Object each record */
-          final ScribeObject cADbject = new ScribeObject();
-
-          /* Get record number i */
-          final SObject sObject = queryResult.getRecords()[i];
-
-          /* Get all fields from the record */
-          final MessageElement[] fields = sObject.get_any();
-
-          /* Set object type */
-          cADbject.setObjectType(sObject.getType());
+        /* Convert all records of the page */
+        final ScribeObject[] cADbjectArray = SalesForceMessageFormatUtils.createScribeObjectArray(queryResult.getRecords());
 
-          /* Create list of elements */
-          final List<Element> elementList = new ArrayList<Element>();
-
-          for (int j = 0; j < fields.length; j++) {
-
-            /* Create inner tags <Field_Name> inside <Object> */
-            elementList.add(SalesForceMessageFormatUtils.createMessageElement(fields[j].getName(), fields[j].getValue()));
-          }
-
-          /* Add all CRM fields */
-          cADbject.setXmlContent(elementList);
-
-          /* Set the object at array */
-          cADbjectArray[i] = cADbject;
-        }
         logger.debug("----Inside getObjects object length: " + cADbjectArray.length);
 
         /* Add batch id(query locator) information for pagination */
@@ -450,57 +387,24 @@ public final class SFSOAPCRMService extends CRMService {
     return cADCommandObject;
   }
 
-  private final ScribeCommandObject getObjectsBySearchCriteria(final ScribeCommandObject cADCommandObject, final String searchCriteria) throws Exception {
+  private final ScribeCommandObject getObjectsBySearchCriteria(final SoapBindingStub soapBindingStub, final ScribeCommandObject cADCommandObject,
+      final String searchCriteria) throws Exception {
     logger.debug("----Inside getObjectsBySearchCriteria searchCriteria: " + searchCriteria);
 
-    /* Get Sales Force stub for the agent */
-    final SoapBindingStub soapBindingStub = cRMSessionManager.getSoapBindingStub(cADCommandObject.getCrmUserId(), cADCommandObject.getCrmPassword());
-
     logger.debug("----Inside getObjectsBySearchCriteria SOSL query: " + searchCriteria);
 
     /* Search Sales Force without batch information */
-    final SearchResult searchResult = soapBindingStub.search(searchCriteria);
+    final SearchResult searchResult =
+        sFSearchCache.search(soapBindingStub, cADCommandObject.getCrmUserId(), cADCommandObject.getObjectType(), searchCriteria);
 
     /* Iterate over records */
     if (searchResult != null) {
 
       if (searchResult.getSearchRecords() != null) {
 
-        /* Create Object array with query result length */
-        final ScribeObject[] cADbjectArray = new ScribeObject[searchResult.getSearchRecords().length];
-
-        for (int i = 0; i < searchResult.getSearchRecords().length; i++) {
-
-          /* Create one Object each record */
-          final ScribeObject cADbject = new ScribeObject();
-
-          /* Get record number i */
-          final SearchRecord searchRecord = searchResult.getSearchRecords()[i];
-
-          /* Get SObject from the record */
-          final SObject sObject = searchRecord.getRecord();
-
-          /* Set object type */
-          cADbject.setObjectType(sObject.getType());
+        /* Convert all records of the page */
+        final ScribeObject[] cADbjectArray = SalesForceMessageFormatUtils.createScribeObjectArray(searchResult.getSearchRecords());
 
-          /* Get all fields from the SObject */
-          final MessageElement[] fields = sObject.get_any();
-
-          /* Create list of elements */
-          final List<Element> elementList = new ArrayList<Element>();
-
-          for (int j = 0; j < fields.length; j++) {
-
-            /* Create inner tags <Field_Name> inside <Object> */
-            elementList.add(SalesForceMessageFormatUtils.createMessageElement(fields[j].getName(), fields[j].getValue()));
-          }
-
-          /* Add all CRM fields */
-          cADbject.setXmlContent(elementList);
-
-          /* Set the object at array */
-          cADbjectArray[i] = cADbject;
-        }
         logger.debug("----Inside getObjectsBySearchCriteria object length: " + cADbjectArray.length);
 
         /* Set the final object in command object */
@@ -518,10 +422,18 @@ public final class SFSOAPCRMService extends CRMService {
 
   @Override
   public final ScribeCommandObject getObjects(final ScribeCommandObject cADCommandObject, final String query, final String select) throws Exception {
-    logger.debug("----Inside getObjects query: " + query + " & select: " + select);
+    return this.execute(cADCommandObject, new SalesForceCall<ScribeCommandObject>() {
 
-    /* Get Sales Force stub for the agent */
-    final SoapBindingStub soapBindingStub = cRMSessionManager.getSoapBindingStub(cADCommandObject.getCrmUserId(), cADCommandObject.getCrmPassword());
+      @Override
+      public final ScribeCommandObject call(final SoapBindingStub soapBindingStub) throws Exception {
+        return getObjects(soapBindingStub, cADCommandObject, query, select);
+      }
+    });
+  }
+
+  private final ScribeCommandObject getObjects(final SoapBindingStub soapBindingStub, final ScribeCommandObject cADCommandObject, final String query,
+      final String select) throws Exception {
+    logger.debug("----Inside getObjects query: " + query + " & select: " + select);
 
     QueryResult queryResult = null;
 
@@ -530,7 +442,7 @@ public final class SFSOAPCRMService extends CRMService {
       logger.debug("----Inside getObjects going to fetch a batch with query locator: " + cADCommandObject.getBatch());
 
       /* Query Sales Force with batch information */
-      queryResult = soapBindingStub.queryMore(cADCommandObject.getBatch());
+      queryResult = sFQueryPrefetcher.queryMore(soapBindingStub, cADCommandObject.getCrmUserId(), cADCommandObject.getBatch());
     } else {
 
       String cadQuery = null;
@@ -565,41 +477,17 @@ public final class SFSOAPCRMService extends CRMService {
             cadQuery = cadQuery + sfdcQuery;
           }
         } else {
-          /* Make a Sales Force query to know the Object Fields */
-          final DescribeSObjectResult describeSObjectResult = soapBindingStub.describeSObject(cADCommandObject.getObjectType());
-
-          /* Iterate over records */
-          if (describeSObjectResult != null) {
-
-            if (describeSObjectResult.getFields() != null) {
-              cadQuery = "Select ";
-              for (int i = 0; i < describeSObjectResult.getFields().length; i++) {
-                final Field field = describeSObjectResult.getFields()[i];
-                cadQuery = cadQuery + field.getName() + " , ";
-              }
-
-              /* Remove comma (,) from the end of string */
-              cadQuery = cadQuery.substring(0, cadQuery.length() - 2);
-
-              /* Add 'From' clause */
-              cadQuery = cadQuery + " From " + cADCommandObject.getObjectType();
-
-              /* Add where clause */
-              if (query != null && !query.equalsIgnoreCase("NONE")) {
-
-                /* Create where clause */
-                String sfdcQuery = SalesForceMessageFormatUtils.createWhereClause(query);
-
-                /* Complete the cadQuery */
-                cadQuery = cadQuery + sfdcQuery;
-              }
-            } else {
-              logger.debug("----Inside getObjects no records in response");
-              throw new ScribeException(ScribeResponseCodes._1004 + "Any " + cADCommandObject.getObjectType() + " at Sales Force");
-            }
-          } else {
-            logger.debug("----Inside getObjects no response from Sales Force");
-            throw new ScribeException(ScribeResponseCodes._1005);
+          /* Select all fields; describe of object is cached per organization */
+          cadQuery = sFDescribeCache.getSelectAllQuery(soapBindingStub, cADCommandObject.getObjectType());
+
+          /* Add where clause */
+          if (query != null && !query.equalsIgnoreCase("NONE")) {
+
+            /* Create where clause */
+            final String sfdcQuery = SalesForceMessageFormatUtils.createWhereClause(query);
+
+            /* Complete the cadQuery */
+            cadQuery = cadQuery + sfdcQuery;
           }
         }
       } else {
@@ -610,46 +498,20 @@ public final class SFSOAPCRMService extends CRMService {
       logger.debug("----Inside getObjects SOQL query: " + cadQuery);
 
       /* Query Sales Force without batch information */
-      queryResult = soapBindingStub.query(cadQuery);
+      queryResult = this.query(soapBindingStub, cADCommandObject.getObjectType(), cadQuery);
     }
 
+    /* Fetch next batch while this batch is being converted */
+    this.prefetchNextBatch(soapBindingStub, cADCommandObject, queryResult);
+
     /* Iterate over records */
     if (queryResult != null) {
 
       if (queryResult.getRecords() != null) {
 
-        /* Create Object array with query result length */
-        final ScribeObject[] cADbjectArray = new ScribeObject[queryResult.getRecords().length];
-
-        for (int i = 0; i < queryResult.getRecords().length; i++) {
-
-          /* Create one Object each record */
-          final ScribeObject cADbject = new ScribeObject();
-
-          /* Get record number i */
-          final SObject sObject = queryResult.getRecords()[i];
-
-          /* Get all fields from the record */
-          final MessageElement[] fields = sObject.get_any();
-
-          /* Set object type */
-          cADbject.setObjectType(sObject.getType());
-
-          /* Create list of elements */
-          final List<Element> elementList = new ArrayList<Element>();
+        /* Convert all records of the page */
+        final ScribeObject[] cADbjectArray = SalesForceMessageFormatUtils.createScribeObjectArray(queryResult.getRecords());
 
-          for (int j = 0; j < fields.length; j++) {
-
-            /* Create inner tags <Field_Name> inside <Object> */
-            elementList.add(SalesForceMessageFormatUtils.createMessageElement(fields[j].getName(), fields[j].getValue()));
-          }
-
-          /* Add all CRM fields */
-          cADbject.setXmlContent(elementList);
-
-          /* Set the object at array */
-          cADbjectArray[i] = cADbject;
-        }
         logger.debug("----Inside getObjects Object length: " + cADbjectArray.length);
 
         /* Add batch id(query locator) information for pagination */
@@ -674,10 +536,18 @@ public final class SFSOAPCRMService extends CRMService {
 
   public final ScribeCommandObject getObjects(final ScribeCommandObject cADCommandObject, final String query, final String select, final String order)
       throws Exception {
-    logger.debug("----Inside getObjects query: " + query + " & select: " + select + " & order: " + order);
+    return this.execute(cADCommandObject, new SalesForceCall<ScribeCommandObject>() {
 
-    /* Get Sales Force stub for the agent */
-    final SoapBindingStub soapBindingStub = cRMSessionManager.getSoapBindingStub(cADCommandObject.getCrmUserId(), cADCommandObject.getCrmPassword());
+      @Override
+      public final ScribeCommandObject call(final SoapBindingStub soapBindingStub) throws Exception {
+        return getObjects(soapBindingStub, cADCommandObject, query, select, order);
+      }
+    });
+  }
+
+  private final ScribeCommandObject getObjects(final SoapBindingStub soapBindingStub, final ScribeCommandObject cADCommandObject, final String query,
+      final String select, final String order) throws Exception {
+    logger.debug("----Inside getObjects query: " + query + " & select: " + select + " & order: " + order);
 
     QueryResult queryResult = null;
 
@@ -686,7 +556,7 @@ public final class SFSOAPCRMService extends CRMService {
       logger.debug("----Inside getObjects going to fetch a batch with query locator: " + cADCommandObject.getBatch());
 
       /* Query Sales Force with batch information */
-      queryResult = soapBindingStub.queryMore(cADCommandObject.getBatch());
+      queryResult = sFQueryPrefetcher.queryMore(soapBindingStub, cADCommandObject.getCrmUserId(), cADCommandObject.getBatch());
     } else {
 
       String cadQuery = null;
@@ -721,41 +591,17 @@ public final class SFSOAPCRMService extends CRMService {
             cadQuery = cadQuery + sfdcQuery;
           }
         } else {
-          /* Make a Sales Force query to know the Object Fields */
-          final DescribeSObjectResult describeSObjectResult = soapBindingStub.describeSObject(cADCommandObject.getObjectType());
-
-          /* Iterate over records */
-          if (describeSObjectResult != null) {
-
-            if (describeSObjectResult.getFields() != null) {
-              cadQuery = "Select ";
-              for (int i = 0; i < describeSObjectResult.getFields().length; i++) {
-                final Field field = describeSObjectResult.getFields()[i];
-                cadQuery = cadQuery + field.getName() + " , ";
-              }
-
-              /* Remove comma (,) from the end of string */
-              cadQuery = cadQuery.substring(0, cadQuery.length() - 2);
-
-              /* Add 'From' clause */
-              cadQuery = cadQuery + " From " + cADCommandObject.getObjectType();
-
-              /* Add where clause */
-              if (query != null && !query.equalsIgnoreCase("NONE")) {
-
-                /* Create where clause */
-                final String sfdcQuery = SalesForceMessageFormatUtils.createWhereClause(query);
-
-                /* Complete the cadQuery */
-                cadQuery = cadQuery + sfdcQuery;
-              }
-            } else {
-              logger.debug("----Inside getObjects no records in response");
-              throw new ScribeException(ScribeResponseCodes._1004 + "Any " + cADCommandObject.getObjectType() + " at Sales Force");
-            }
-          } else {
-            logger.debug("----Inside getObjects no response from Sales Force");
-            throw new ScribeException(ScribeResponseCodes._1005);
+          /* Select all fields; describe of object is cached per organization */
+          cadQuery = sFDescribeCache.getSelectAllQuery(soapBindingStub, cADCommandObject.getObjectType());
+
+          /* Add where clause */
+          if (query != null && !query.equalsIgnoreCase("NONE")) {
+
+            /* Create where clause */
+            final String sfdcQuery = SalesForceMessageFormatUtils.createWhereClause(query);
+
+            /* Complete the cadQuery */
+            cadQuery = cadQuery + sfdcQuery;
           }
         }
       } else {
@@ -793,46 +639,20 @@ public final class SFSOAPCRMService extends CRMService {
       logger.debug("----Inside getObjects SOQL query: " + cadQuery);
 
       /* Query Sales Force without batch information */
-      queryResult = soapBindingStub.query(cadQuery);
+      queryResult = this.query(soapBindingStub, cADCommandObject.getObjectType(), cadQuery);
     }
 
+    /* Fetch next batch while this batch is being converted */
+    this.prefetchNextBatch(soapBindingStub, cADCommandObject, queryResult);
+
     /* Iterate over records */
     if (queryResult != null) {
 
       if (queryResult.getRecords() != null) {
 
-        /* Create Object array with query result length */
-        final ScribeObject[] cADbjectArray = new ScribeObject[queryResult.getRecords().length];
+        /* Convert all records of the page */
+        final ScribeObject[] cADbjectArray = SalesForceMessageFormatUtils.createScribeObjectArray(queryResult.getRecords());
 
-        for (int i = 0; i < queryResult.getRecords().length; i++) {
-
-          /* Create one Object each record */
-          final ScribeObject cADbject = new ScribeObject();
-
-          /* Get record number i */
-          final SObject sObject = queryResult.getRecords()[i];
-
-          /* Get all fields from the record */
-          final MessageElement[] fields = sObject.get_any();
-
-          /* Set object type */
-          cADbject.setObjectType(sObject.getType());
-
-          /* Create list of elements */
-          final List<Element> elementList = new ArrayList<Element>();
-
-          for (int j = 0; j < fields.length; j++) {
-
-            /* Create inner tags <Field_Name> inside <Object> */
-            elementList.add(SalesForceMessageFormatUtils.createMessageElement(fields[j].getName(), fields[j].getValue()));
-          }
-
-          /* Add all CRM fields */
-          cADbject.setXmlContent(elementList);
-
-          /* Set the object at array */
-          cADbjectArray[i] = cADbject;
-        }
         logger.debug("----Inside getObjects Object length: " + cADbjectArray.length);
 
         /* Add batch id(query locator) information for pagination */
@@ -857,10 +677,18 @@ public final class SFSOAPCRMService extends CRMService {
 
   @Override
   public final ScribeCommandObject getObjectsCount(final ScribeCommandObject cADCommandObject) throws Exception {
-    logger.debug("----Inside getObjectsCount");
+    return this.execute(cADCommandObject, new SalesForceCall<ScribeCommandObject>() {
 
-    /* Get Sales Force stub for the agent */
-    final SoapBindingStub soapBindingStub = cRMSessionManager.getSoapBindingStub(cADCommandObject.getCrmUserId(), cADCommandObject.getCrmPassword());
+      @Override
+      public final ScribeCommandObject call(final SoapBindingStub soapBindingStub) throws Exception {
+        return getObjectsCount(soapBindingStub, cADCommandObject);
+      }
+    });
+  }
+
+  private final ScribeCommandObject getObjectsCount(final SoapBindingStub soapBindingStub,
+      final ScribeCommandObject cADCommandObject) throws Exception {
+    logger.debug("----Inside getObjectsCount");
 
     /* Create a string object for query */
     final String cadQuery = "Select count() from " + cADCommandObject.getObjectType();
@@ -898,10 +726,18 @@ public final class SFSOAPCRMService extends CRMService {
 
   @Override
   public final ScribeCommandObject getObjectsCount(final ScribeCommandObject cADCommandObject, final String query) throws Exception {
-    logger.debug("----Inside getObjectsCount");
+    return this.execute(cADCommandObject, new SalesForceCall<ScribeCommandObject>() {
 
-    /* Get Sales Force stub for the agent */
-    final SoapBindingStub soapBindingStub = cRMSessionManager.getSoapBindingStub(cADCommandObject.getCrmUserId(), cADCommandObject.getCrmPassword());
+      @Override
+      public final ScribeCommandObject call(final SoapBindingStub soapBindingStub) throws Exception {
+        return getObjectsCount(soapBindingStub, cADCommandObject, query);
+      }
+    });
+  }
+
+  private final ScribeCommandObject getObjectsCount(final SoapBindingStub soapBindingStub, final ScribeCommandObject cADCommandObject,
+      final String query) throws Exception {
+    logger.debug("----Inside getObjectsCount");
 
     /* Create a string object for query */
     String cadQuery = "Select count() from " + cADCommandObject.getObjectType();
@@ -954,9 +790,22 @@ public final class SFSOAPCRMService extends CRMService {
 
   @Override
   public final ScribeCommandObject updateObject(final ScribeCommandObject cADCommandObject) throws Exception {
+    return this.executeWrite(cADCommandObject, new SalesForceCall<ScribeCommandObject>() {
 
-    /* Get Sales Force stub for the agent */
-    final SoapBindingStub soapBindingStub = cRMSessionManager.getSoapBindingStub(cADCommandObject.getCrmUserId(), cADCommandObject.getCrmPassword());
+      @Override
+      public final ScribeCommandObject call(final SoapBindingStub soapBindingStub) throws Exception {
+        return updateObject(soapBindingStub, cADCommandObject);
+      }
+    });
+  }
+
+  private final ScribeCommandObject updateObject(final SoapBindingStub soapBindingStub, final ScribeCommandObject cADCommandObject) throws Exception {
+
+    /* Many objects are sent to Sales Force in chunks */
+    if (cADCommandObject.getObject().length > 1) {
+      return this.setSaveResults(cADCommandObject,
+          sFBulkClient.update(soapBindingStub, this.createSessionRenewer(cADCommandObject), this.createSObjectArray(cADCommandObject)), "updated");
+    }
 
     /* Create message element array */
     MessageElement[] messageElementArray = SalesForceMessageFormatUtils.createMessageElementArray(cADCommandObject.getObject()[0]);
@@ -998,6 +847,640 @@ public final class SFSOAPCRMService extends CRMService {
     return cADCommandObject;
   }
 
+  @Override
+  public final ScribeCommandObject deleteObjects(final ScribeCommandObject cADCommandObject) throws Exception {
+    return this.executeWrite(cADCommandObject, new SalesForceCall<ScribeCommandObject>() {
+
+      @Override
+      public final ScribeCommandObject call(final SoapBindingStub soapBindingStub) throws Exception {
+        return deleteObjects(soapBindingStub, cADCommandObject);
+      }
+    });
+  }
+
+  private final ScribeCommandObject deleteObjects(final SoapBindingStub soapBindingStub,
+      final ScribeCommandObject cADCommandObject) throws Exception {
+
+    final ScribeObject[] cADbjectArray = cADCommandObject.getObject();
+
+    /* Collect ids of all objects */
+    final String[] idsToBeDeleted = new String[cADbjectArray.length];
+
+    for (int i = 0; i < cADbjectArray.length; i++) {
+
+      idsToBeDeleted[i] = SalesForceMessageFormatUtils.getNodeValue("Id", cADbjectArray[i]);
+
+      if (idsToBeDeleted[i] == null) {
+        throw new ScribeException(ScribeResponseCodes._1008 + "Id of each " + cADCommandObject.getObjectType() + " to be deleted");
+      }
+    }
+
+    /* Delete in chunks */
+    final DeleteResult[] deleteResults = sFBulkClient.delete(soapBindingStub, this.createSessionRenewer(cADCommandObject), idsToBeDeleted);
+
+    int failedCount = 0;
+
+    for (int i = 0; i < cADbjectArray.length; i++) {
+
+      if (deleteResults[i] != null && deleteResults[i].isSuccess()) {
+        logger.debug("----Inside deleteObjects object with id: " + deleteResults[i].getId() + " is deleted");
+      } else {
+        failedCount++;
+
+        /* Add error at the object */
+        this.setRecordNode("Error", this.createErrorMessage(deleteResults[i] != null ? deleteResults[i].getErrors() : null), cADbjectArray[i]);
+      }
+    }
+
+    return this.setFailedCount(cADCommandObject, failedCount, "deleted");
+  }
+
+  @Override
+  public final ScribeCommandObject upsertObjects(final ScribeCommandObject cADCommandObject, final String externalIdField) throws Exception {
+    return this.executeWrite(cADCommandObject, new SalesForceCall<ScribeCommandObject>() {
+
+      @Override
+      public final ScribeCommandObject call(final SoapBindingStub soapBindingStub) throws Exception {
+        return upsertObjects(soapBindingStub, cADCommandObject, externalIdField);
+      }
+    });
+  }
+
+  private final ScribeCommandObject upsertObjects(final SoapBindingStub soapBindingStub, final ScribeCommandObject cADCommandObject,
+      final String externalIdField) throws Exception {
+    logger.debug("----Inside upsertObjects externalIdField: " + externalIdField);
+
+    if (externalIdField == null || externalIdField.trim().length() == 0) {
+      throw new ScribeException(ScribeResponseCodes._1008 + "External id field of " + cADCommandObject.getObjectType());
+    }
+
+    /* Upsert in chunks; Sales Force creates or updates each record as per its external id */
+    final UpsertResult[] upsertResults =
+        sFBulkClient.upsert(soapBindingStub, this.createSessionRenewer(cADCommandObject), externalIdField.trim(),
+            this.createSObjectArray(cADCommandObject));
+
+    final ScribeObject[] cADbjectArray = cADCommandObject.getObject();
+
+    int failedCount = 0;
+
+    for (int i = 0; i < cADbjectArray.length; i++) {
+
+      if (upsertResults[i] != null && upsertResults[i].isSuccess()) {
+
+        logger.debug("----Inside upsertObjects object with id: " + upsertResults[i].getId() + " is "
+            + (upsertResults[i].isCreated() ? "created" : "updated"));
+
+        /* Set object id in object before sending back */
+        this.setRecordNode("Id", upsertResults[i].getId(), cADbjectArray[i]);
+      } else {
+        failedCount++;
+
+        /* Add error at the object */
+        this.setRecordNode("Error", this.createErrorMessage(upsertResults[i] != null ? upsertResults[i].getErrors() : null), cADbjectArray[i]);
+      }
+    }
+
+    return this.setFailedCount(cADCommandObject, failedCount, "upserted");
+  }
+
+  @Override
+  public final ScribeCommandObject retrieveObjects(final ScribeCommandObject cADCommandObject, final String select) throws Exception {
+    return this.execute(cADCommandObject, new SalesForceCall<ScribeCommandObject>() {
+
+      @Override
+      public final ScribeCommandObject call(final SoapBindingStub soapBindingStub) throws Exception {
+        return retrieveObjects(soapBindingStub, cADCommandObject, select);
+      }
+    });
+  }
+
+  private final ScribeCommandObject retrieveObjects(final SoapBindingStub soapBindingStub, final ScribeCommandObject cADCommandObject,
+      final String select) throws Exception {
+    logger.debug("----Inside retrieveObjects select: " + select);
+
+    final ScribeObject[] cADbjectArray = cADCommandObject.getObject();
+
+    /* Collect ids of all objects */
+    final String[] idsToBeRetrieved = new String[cADbjectArray.length];
+
+    for (int i = 0; i < cADbjectArray.length; i++) {
+
+      idsToBeRetrieved[i] = SalesForceMessageFormatUtils.getNodeValue("Id", cADbjectArray[i]);
+
+      if (idsToBeRetrieved[i] == null) {
+        throw new ScribeException(ScribeResponseCodes._1008 + "Id of each " + cADCommandObject.getObjectType() + " to be retrieved");
+      }
+    }
+
+    String fieldList = null;
+
+    /* Check of request is not select ALL */
+    if (select != null && !select.equalsIgnoreCase("ALL")) {
+      final StringTokenizer stringTokenizer = new StringTokenizer(select, crmFieldsSeparator);
+
+      final StringBuilder selectedFields = new StringBuilder();
+
+      /* Iterate on all select fields */
+      while (stringTokenizer.hasMoreTokens()) {
+        selectedFields.append(stringTokenizer.nextToken());
+
+        if (stringTokenizer.hasMoreTokens()) {
+          selectedFields.append(", ");
+        }
+      }
+
+      fieldList = selectedFields.toString();
+    } else {
+
+      /* Retrieve all fields; describe of object is cached per organization */
+      fieldList = sFDescribeCache.getFieldList(soapBindingStub, cADCommandObject.getObjectType());
+    }
+
+    /* Retrieve in chunks */
+    final SObject[] sObjects =
+        sFBulkClient.retrieve(soapBindingStub, this.createSessionRenewer(cADCommandObject), fieldList, cADCommandObject.getObjectType(),
+            idsToBeRetrieved);
+
+    /* Convert all records; records not found are null */
+    final ScribeObject[] records = SalesForceMessageFormatUtils.createScribeObjectArray(sObjects);
+
+    int failedCount = 0;
+
+    for (int i = 0; i < cADbjectArray.length; i++) {
+
+      if (records[i] != null) {
+
+        /* Replace requested object with the record */
+        cADbjectArray[i] = records[i];
+      } else {
+        failedCount++;
+
+        /* Add error at the object */
+        this.setRecordNode("Error", "Record is not found at Sales Force", cADbjectArray[i]);
+      }
+    }
+
+    return this.setFailedCount(cADCommandObject, failedCount, "retrieved");
+  }
+
+  @Override
+  public final ScribeCommandObject getChanges(final ScribeCommandObject cADCommandObject, final String watermark) throws Exception {
+    return this.execute(cADCommandObject, new SalesForceCall<ScribeCommandObject>() {
+
+      @Override
+      public final ScribeCommandObject call(final SoapBindingStub soapBindingStub) throws Exception {
+        return getChanges(soapBindingStub, cADCommandObject, watermark);
+      }
+    });
+  }
+
+  /**
+   * Finds objects modified since the watermark using 'SystemModstamp' and objects deleted since the
+   * watermark using replication API. Watermark is the time till which changes are covered; first
+   * page carries the new watermark which is valid once all pages are fetched using 'batch'
+   * 
+   * @param soapBindingStub
+   * @param cADCommandObject
+   * @param watermark
+   * @return
+   * @throws Exception
+   */
+  private final ScribeCommandObject getChanges(final SoapBindingStub soapBindingStub, final ScribeCommandObject cADCommandObject,
+      final String watermark) throws Exception {
+    logger.debug("----Inside getChanges watermark: " + watermark + " & batch: " + cADCommandObject.getBatch());
+
+    QueryResult queryResult = null;
+
+    DeletedRecord[] deletedRecords = null;
+
+    /* Check if batch is required */
+    if (cADCommandObject.getBatch() != null) {
+
+      /* Query Sales Force with batch information */
+      queryResult = sFQueryPrefetcher.queryMore(soapBindingStub, cADCommandObject.getCrmUserId(), cADCommandObject.getBatch());
+
+      /* Watermark of first page is still valid */
+      cADCommandObject.setWatermark(watermark);
+    } else {
+
+      /* Select all fields; describe of object is cached per organization */
+      final String query = sFDescribeCache.getSelectAllQuery(soapBindingStub, cADCommandObject.getObjectType());
+
+      /* Server time is used; time of this host may not be same */
+      final Calendar serverTime = soapBindingStub.getServerTimestamp().getTimestamp();
+
+      Calendar to = null;
+
+      String where = null;
+
+      if (watermark == null) {
+
+        /* Changes are covered till last whole minute; same as replication API */
+        to = (Calendar) serverTime.clone();
+        to.set(Calendar.SECOND, 0);
+        to.set(Calendar.MILLISECOND, 0);
+
+        where = " Where SystemModstamp <= " + this.formatDateTime(to);
+      } else {
+
+        final Calendar from = this.parseWatermark(watermark);
+
+        /* Replication API needs a span of at least one minute */
+        if (serverTime.getTimeInMillis() - from.getTimeInMillis() < minChangesSpan) {
+
+          logger.debug("----Inside getChanges no changes since less than a minute");
+
+          cADCommandObject.setWatermark(watermark);
+          cADCommandObject.setBatch(null);
+          cADCommandObject.setObject(new ScribeObject[0]);
+          return cADCommandObject;
+        }
+
+        final GetDeletedResult getDeletedResult = this.getDeleted(soapBindingStub, cADCommandObject.getObjectType(), from, serverTime);
+
+        /* Sales Force tells the time till which deletes are covered */
+        to = getDeletedResult.getLatestDateCovered();
+
+        deletedRecords = getDeletedResult.getDeletedRecords();
+
+        where = " Where SystemModstamp > " + this.formatDateTime(from) + " And SystemModstamp <= " + this.formatDateTime(to);
+      }
+
+      logger.debug("----Inside getChanges SOQL query: " + query + where);
+
+      /* Query Sales Force without batch information */
+      queryResult = this.query(soapBindingStub, cADCommandObject.getObjectType(), query + where);
+
+      /* Next call will ask for changes after this time */
+      cADCommandObject.setWatermark(this.createWatermark(to));
+    }
+
+    if (queryResult == null) {
+      logger.debug("----Inside getChanges no response from Sales Force");
+      throw new ScribeException(ScribeResponseCodes._1005);
+    }
+
+    /* Fetch next batch while this batch is being converted */
+    this.prefetchNextBatch(soapBindingStub, cADCommandObject, queryResult);
+
+    final List<ScribeObject> cADbjectList = new ArrayList<ScribeObject>();
+
+    /* Convert all records of the page */
+    if (queryResult.getRecords() != null) {
+      cADbjectList.addAll(Arrays.asList(SalesForceMessageFormatUtils.createScribeObjectArray(queryResult.getRecords())));
+    }
+
+    /* Add deleted records with first page */
+    if (deletedRecords != null) {
+
+      for (final DeletedRecord deletedRecord : deletedRecords) {
+
+        final List<Element> elementList = new ArrayList<Element>();
+        elementList.add(SalesForceMessageFormatUtils.createMessageElement("Id", deletedRecord.getId()));
+        elementList.add(SalesForceMessageFormatUtils.createMessageElement("IsDeleted", "true"));
+        elementList.add(SalesForceMessageFormatUtils.createMessageElement("DeletedDate", this.formatDateTime(deletedRecord.getDeletedDate())));
+
+        final ScribeObject cADbject = new ScribeObject();
+        cADbject.setObjectType(cADCommandObject.getObjectType());
+        cADbject.setXmlContent(elementList);
+
+        cADbjectList.add(cADbject);
+      }
+    }
+
+    logger.debug("----Inside getChanges object length: " + cADbjectList.size());
+
+    /* Add batch id(query locator) information for pagination */
+    if (!queryResult.isDone() && queryResult.getQueryLocator() != null) {
+      cADCommandObject.setBatch(queryResult.getQueryLocator());
+    } else {
+      cADCommandObject.setBatch(null);
+    }
+
+    /* Set the final object in command object */
+    cADCommandObject.setObject(cADbjectList.toArray(new ScribeObject[cADbjectList.size()]));
+
+    return cADCommandObject;
+  }
+
+  @Override
+  public final ScribeObjectStream streamObjects(final ScribeCommandObject cADCommandObject, final String query, final String select) throws Exception {
+    return this.execute(cADCommandObject, new SalesForceCall<ScribeObjectStream>() {
+
+      @Override
+      public final ScribeObjectStream call(final SoapBindingStub soapBindingStub) throws Exception {
+        return streamObjects(soapBindingStub, cADCommandObject, query, select);
+      }
+    });
+  }
+
+  private final ScribeObjectStream streamObjects(final SoapBindingStub soapBindingStub, final ScribeCommandObject cADCommandObject,
+      final String query, final String select) throws Exception {
+    logger.debug("----Inside streamObjects query: " + query + " & select: " + select);
+
+    /* Check if query is a SFDC find type */
+    if (query != null && query.trim().startsWith("find")) {
+      throw new ScribeException(ScribeResponseCodes._1003 + "Streaming of find query");
+    }
+
+    String cadQuery = null;
+
+    /* Check if query is a SFDC select type */
+    if (query != null && query.trim().startsWith("select")) {
+      cadQuery = query;
+    } else {
+
+      /* Check of request is not select ALL */
+      if (select != null && !select.equalsIgnoreCase("ALL")) {
+        final StringTokenizer stringTokenizer = new StringTokenizer(select, crmFieldsSeparator);
+
+        final StringBuilder selectQuery = new StringBuilder("Select ");
+
+        /* Iterate on all select fields */
+        while (stringTokenizer.hasMoreTokens()) {
+          selectQuery.append(stringTokenizer.nextToken());
+
+          if (stringTokenizer.hasMoreTokens()) {
+            selectQuery.append(" , ");
+          }
+        }
+
+        /* Add 'From' clause */
+        cadQuery = selectQuery.append(" From ").append(cADCommandObject.getObjectType()).toString();
+      } else {
+
+        /* Select all fields; describe of object is cached per organization */
+        cadQuery = sFDescribeCache.getSelectAllQuery(soapBindingStub, cADCommandObject.getObjectType());
+      }
+
+      /* Add where clause */
+      if (query != null && !query.equalsIgnoreCase("NONE")) {
+
+        /* Complete the cadQuery */
+        cadQuery = cadQuery + SalesForceMessageFormatUtils.createWhereClause(query);
+      }
+    }
+
+    logger.debug("----Inside streamObjects SOQL query: " + cadQuery);
+
+    /* First batch is fetched before response is started; so that query errors are sent as usual */
+    final QueryResult queryResult = this.query(soapBindingStub, cADCommandObject.getObjectType(), cadQuery);
+
+    /* Next batches are fetched by writer thread after this request is returned; stream uses its own copy of stub */
+    return new SalesForceQueryStream(SalesForceSOAPClient.copySoapBinding(soapBindingStub), this.createSessionRenewer(cADCommandObject), queryResult,
+        sFQueryPrefetcher);
+  }
+
+  /**
+   * Invokes the operation with stub of the user; login again and retry once if Sales Force session is expired.
+   * Session error reaches here only if nothing is written: a single record write is rejected as a
+   * whole, and chunks of many records are sent again by bulk client with a fresh session
+   * 
+   * @param cADCommandObject
+   * @param call
+   * @return
+   * @throws Exception
+   */
+  private final <T> T execute(final ScribeCommandObject cADCommandObject, final SalesForceCall<T> call) throws Exception {
+
+    /* Get Sales Force stub for the agent */
+    final SoapBindingStub soapBindingStub = cRMSessionManager.getSoapBindingStub(cADCommandObject.getCrmUserId(), cADCommandObject.getCrmPassword());
+
+    try {
+      return call.call(soapBindingStub);
+    } catch (final ApiFault e) {
+
+      /* Only expired session is recovered */
+      if (!ExceptionCode.INVALID_SESSION_ID.equals(e.getExceptionCode())) {
+        throw e;
+      }
+
+      logger.debug("----Inside execute found INVALID_SESSION_ID from Sales Force; going to relogin");
+
+      /* Login again and retry with fresh stub */
+      return call.call(cRMSessionManager.resetSoapBindingStub(cADCommandObject.getCrmUserId(), cADCommandObject.getCrmPassword(), soapBindingStub));
+    }
+  }
+
+  /**
+   * 
+   * @param cADCommandObject
+   * @return login of the user which gives fresh stub to bulk client if session is expired
+   */
+  private final SessionRenewer createSessionRenewer(final ScribeCommandObject cADCommandObject) {
+    return new SessionRenewer() {
+
+      @Override
+      public final SoapBindingStub renew(final SoapBindingStub invalidStub) throws Exception {
+        return cRMSessionManager.resetSoapBindingStub(cADCommandObject.getCrmUserId(), cADCommandObject.getCrmPassword(), invalidStub);
+      }
+    };
+  }
+
+  /**
+   * Invokes the write operation; cached searches of the organization are removed after the write
+   * 
+   * @param cADCommandObject
+   * @param call
+   * @return
+   * @throws Exception
+   */
+  private final <T> T executeWrite(final ScribeCommandObject cADCommandObject, final SalesForceCall<T> call) throws Exception {
+    return this.execute(cADCommandObject, new SalesForceCall<T>() {
+
+      @Override
+      public final T call(final SoapBindingStub soapBindingStub) throws Exception {
+
+        try {
+          return call.call(soapBindingStub);
+        } finally {
+
+          /* Searches of the organization may return changed records now */
+          sFSearchCache.invalidate(soapBindingStub);
+        }
+      }
+    });
+  }
+
+  private final void prefetchNextBatch(final SoapBindingStub soapBindingStub, final ScribeCommandObject cADCommandObject, final QueryResult queryResult) {
+
+    if (queryResult != null && !queryResult.isDone()) {
+
+      /* User will ask for this batch with query locator */
+      sFQueryPrefetcher.prefetch(soapBindingStub, cADCommandObject.getCrmUserId(), queryResult.getQueryLocator());
+    }
+  }
+
+  private final SObject[] createSObjectArray(final ScribeCommandObject cADCommandObject) throws Exception {
+
+    final SObject[] sObjects = new SObject[cADCommandObject.getObject().length];
+
+    for (int i = 0; i < sObjects.length; i++) {
+
+      /* Create Sales force CRM object */
+      sObjects[i] = new SObject();
+      sObjects[i].setType(cADCommandObject.getObjectType());
+      sObjects[i].set_any(SalesForceMessageFormatUtils.createMessageElementArray(cADCommandObject.getObject()[i]));
+    }
+    return sObjects;
+  }
+
+  /**
+   * Sets id of each created or updated object; error is added at the objects which are failed
+   * 
+   * @param cADCommandObject
+   * @param saveResults
+   * @param operation
+   * @return
+   * @throws Exception
+   */
+  private final ScribeCommandObject setSaveResults(final ScribeCommandObject cADCommandObject, final SaveResult[] saveResults, final String operation)
+      throws Exception {
+
+    final ScribeObject[] cADbjectArray = cADCommandObject.getObject();
+
+    int failedCount = 0;
+
+    for (int i = 0; i < cADbjectArray.length; i++) {
+
+      if (saveResults[i] != null && saveResults[i].isSuccess()) {
+
+        /* Set object id in object before sending back */
+        this.setRecordNode("Id", saveResults[i].getId(), cADbjectArray[i]);
+      } else {
+        failedCount++;
+
+        /* Add error at the object */
+        this.setRecordNode("Error", this.createErrorMessage(saveResults[i] != null ? saveResults[i].getErrors() : null), cADbjectArray[i]);
+      }
+    }
+
+    return this.setFailedCount(cADCommandObject, failedCount, operation);
+  }
+
+  private final ScribeCommandObject setFailedCount(final ScribeCommandObject cADCommandObject, final int failedCount, final String operation) {
+
+    final int count = cADCommandObject.getObject().length;
+
+    logger.debug("----Inside setFailedCount " + (count - failedCount) + " of " + count + " objects are " + operation);
+
+    if (failedCount > 0) {
+
+      logger.info("----Inside setFailedCount: " + failedCount + " of " + count + " objects are not " + operation + " at Sales Force");
+
+      /* Inform user about failed objects */
+      cADCommandObject.setError(ScribeResponseCodes._1001 + cADCommandObject.getObjectType() + " : " + failedCount + " of " + count
+          + " objects are not " + operation);
+    }
+    return cADCommandObject;
+  }
+
+  private final String createErrorMessage(final com.sforce.soap.partner.Error[] errors) {
+
+    if (errors == null || errors.length == 0) {
+      return "No response from Sales Force";
+    }
+    return "Message : " + errors[0].getMessage() + " : Status Code : " + errors[0].getStatusCode() + " : Fields : "
+        + Arrays.toString(errors[0].getFields());
+  }
+
+  private final void setRecordNode(final String nodeName, final String nodeValue, final ScribeObject cADbject) throws Exception {
+
+    if (SalesForceMessageFormatUtils.getNodeValue(nodeName, cADbject) != null) {
+      SalesForceMessageFormatUtils.setNodeValue(nodeName, nodeValue, cADbject);
+    } else {
+      SalesForceMessageFormatUtils.addNode(nodeName, nodeValue, cADbject);
+    }
+  }
+
+  /**
+   * Query Sales Force; cached describe of object is removed if Sales Force reports the object or its
+   * fields as invalid
+   * 
+   * @param soapBindingStub
+   * @param objectType
+   * @param query
+   * @return
+   * @throws Exception
+   */
+  private final QueryResult query(final SoapBindingStub soapBindingStub, final String objectType, final String query) throws Exception {
+
+    try {
+      return soapBindingStub.query(query);
+    } catch (final InvalidFieldFault e) {
+
+      logger.debug("----Inside query invalid field in query; removing describe of: " + objectType);
+
+      /* Fields of object are changed at Sales Force */
+      sFDescribeCache.invalidate(soapBindingStub, objectType);
+      throw e;
+    } catch (final InvalidSObjectFault e) {
+
+      logger.debug("----Inside query invalid object in query; removing describe of: " + objectType);
+
+      /* Object is changed at Sales Force */
+      sFDescribeCache.invalidate(soapBindingStub, objectType);
+      throw e;
+    }
+  }
+
+  /**
+   * Finds deleted objects using replication API; watermark older than the period for which Sales
+   * Force keeps deleted objects is reported to user
+   * 
+   * @param soapBindingStub
+   * @param objectType
+   * @param from
+   * @param to
+   * @return
+   * @throws Exception
+   */
+  private final GetDeletedResult getDeleted(final SoapBindingStub soapBindingStub, final String objectType, final Calendar from, final Calendar to)
+      throws Exception {
+
+    try {
+      return soapBindingStub.getDeleted(objectType, from, to);
+    } catch (final ApiFault e) {
+
+      if (ExceptionCode.INVALID_REPLICATION_DATE.equals(e.getExceptionCode())) {
+
+        /* Inform user to fetch all objects again */
+        throw new ScribeException(ScribeResponseCodes._1008 + "Watermark is too old; ask for all objects without watermark", e);
+      }
+      throw e;
+    }
+  }
+
+  private final String formatDateTime(final Calendar calendar) {
+
+    /* SOQL date time literal in UTC */
+    return new DateTime(calendar.getTimeInMillis(), DateTimeZone.UTC).toString(soqlDateTimeFormat);
+  }
+
+  private final String createWatermark(final Calendar calendar) {
+    return Long.toString(calendar.getTimeInMillis(), Character.MAX_RADIX);
+  }
+
+  private final Calendar parseWatermark(final String watermark) {
+
+    final Calendar calendar = Calendar.getInstance(TimeZone.getTimeZone("UTC"));
+
+    try {
+      calendar.setTimeInMillis(Long.parseLong(watermark.trim(), Character.MAX_RADIX));
+    } catch (final NumberFormatException e) {
+      throw new ScribeException(ScribeResponseCodes._1008 + "Watermark", e);
+    }
+    return calendar;
+  }
+
+  /**
+   * Sales Force operation which needs stub of the user
+   */
+  private static interface SalesForceCall<T> {
+
+    public T call(final SoapBindingStub soapBindingStub) throws Exception;
+  }
+
   public final SalesForceCRMSessionManager getcRMSessionManager() {
     return cRMSessionManager;
   }
@@ -1021,4 +1504,36 @@ public final class SFSOAPCRMService extends CRMService {
   public final void setOrderFieldsSeparator(final String orderFieldsSeparator) {
     this.orderFieldsSeparator = orderFieldsSeparator;
   }
+
+  public final SalesForceDescribeCache getsFDescribeCache() {
+    return sFDescribeCache;
+  }
+
+  public final void setsFDescribeCache(final SalesForceDescribeCache sFDescribeCache) {
+    this.sFDescribeCache = sFDescribeCache;
+  }
+
+  public final SalesForceBulkClient getsFBulkClient() {
+    return sFBulkClient;
+  }
+
+  public final void setsFBulkClient(final SalesForceBulkClient sFBulkClient) {
+    this.sFBulkClient = sFBulkClient;
+  }
+
+  public final SalesForceQueryPrefetcher getsFQueryPrefetcher() {
+    return sFQueryPrefetcher;
+  }
+
+  public final void setsFQueryPrefetcher(final SalesForceQueryPrefetcher sFQueryPrefetcher) {
+    this.sFQueryPrefetcher = sFQueryPrefetcher;
+  }
+
+  public final SalesForceSearchCache getsFSearchCache() {
+    return sFSearchCache;
+  }
+
+  public final void setsFSearchCache(final SalesForceSearchCache sFSearchCache) {
+    this.sFSearchCache = sFSearchCache;
+  }
 }
@@ -21,15 +21,36 @@
 
 package com.inbravo.scribe.rest.service.crm.cache;
 
-import java.util.ConcurrentModificationException;
-import java.util.Timer;
-import java.util.TimerTask;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
-import org.apache.commons.collections.MapIterator;
-import org.apache.commons.collections.map.LRUMap;
 import org.apache.log4j.Logger;
 
 /**
+ * Session cache shared by all CRM session managers. Entries are kept in a concurrent hash map so
+ * that readers never block; when the cache grows beyond its maximum quantity, entries are evicted in
+ * approximate LRU order using a second chance (CLOCK) queue. Expiry is driven by a queue ordered on
+ * expiry deadline, so the cost of expiry is proportional to the number of objects actually expiring.
+ * If a weigher and a maximum weight are set, cache is limited by total weight of objects instead of
+ * their quantity. Objects admitted or discarded by application are passed on to a session store,
+ * which may share them with other nodes. If a partitioner is set, objects are partitioned e.g. by
+ * tenant or CRM type; each partition has its own eviction queue and a minimum and maximum share of
+ * cache, so that one partition can not push the objects of others out of cache. Partitions are
+ * created at first use and removed when their last object leaves; when cache is full a clock hand
+ * over partitions finds the next partition beyond its share, so that admissions do not scan all
+ * partitions.
  * 
  * @author amit.dixit
  * 
@@ -44,28 +65,77 @@ public final class CRMSessionCache {
 
   public static final long DEFAULT_TIMER_INTERVAL = 2 * 60 * 1000;
 
-  private long ttl = DEFAULT_TIME_TO_LIVE;
+  /* Partition of objects when no partitioner is set */
+  public static final String DEFAULT_PARTITION = "DEFAULT";
 
-  private long ato = DEFAULT_ACCESS_TIMEOUT;
+  /* Read by expiry thread; changed at runtime */
+  private volatile long ttl = DEFAULT_TIME_TO_LIVE;
+
+  private volatile long ato = DEFAULT_ACCESS_TIMEOUT;
 
   private long tiv = DEFAULT_TIMER_INTERVAL;
 
   private int mcq = 100;
 
-  private LRUMap cacheMap;
+  /* Maximum total weight; zero means cache is limited by quantity */
+  private long maximumWeight;
+
+  /* Estimates the weight of cached objects; no weights are kept if not set */
+  private CRMSessionWeigher weigher;
+
+  /* Total weight of cached objects */
+  private final AtomicLong totalWeight = new AtomicLong();
+
+  /* Store behind this cache */
+  private CRMSessionStore store = new LocalCRMSessionStore();
+
+  private final ConcurrentHashMap<Object, CachedObject> cacheMap = new ConcurrentHashMap<Object, CachedObject>();
+
+  /* Partitions of cache by name; only partitions with objects, or being given their first object */
+  private final ConcurrentHashMap<String, Partition> partitions = new ConcurrentHashMap<String, Partition>();
+
+  /* Clock hand over partitions; removed partitions are dropped when the hand reaches them */
+  private final ConcurrentLinkedQueue<Partition> partitionRing = new ConcurrentLinkedQueue<Partition>();
+
+  /* Number of partitions in ring; ConcurrentLinkedQueue.size is not constant time */
+  private final AtomicInteger partitionRingSize = new AtomicInteger();
+
+  /* Number of partitions with objects */
+  private final AtomicInteger nonEmptyPartitions = new AtomicInteger();
+
+  /* Finds partition of cached objects; all objects are in one partition if not set */
+  private CRMSessionPartitioner partitioner;
+
+  /* Share of cache below which a partition is not evicted */
+  private double minimumShare = 0;
+
+  /* Share of cache beyond which a partition evicts its own objects */
+  private double maximumShare = 1;
+
+  /* Shares of specific partitions */
+  private Map<String, Double> minimumShares = new HashMap<String, Double>();
+
+  private Map<String, Double> maximumShares = new HashMap<String, Double>();
+
+  /* Only one thread evicts at a time; others continue without waiting */
+  private final AtomicBoolean evictionInProgress = new AtomicBoolean();
+
+  /* Expiry tickets ordered on deadline; tickets of accessed objects are rescheduled when due */
+  private final DelayQueue<ExpiryTicket> expiryQueue = new DelayQueue<ExpiryTicket>();
 
-  private Timer cacheManager;
+  /* Listeners of cache admissions */
+  private final CopyOnWriteArrayList<CRMSessionCacheListener> listeners = new CopyOnWriteArrayList<CRMSessionCacheListener>();
+
+  /* Single expiry thread of this cache */
+  private Thread cacheManager;
 
   protected final void finalize() throws Throwable {
 
-    if (cacheManager != null) {
-      cacheManager.cancel();
-    }
+    this.destroy();
     super.finalize();
   }
 
   public CRMSessionCache() {
-    cacheMap = new LRUMap(mcq);
     initialize();
   }
 
@@ -74,7 +144,7 @@ public final class CRMSessionCache {
     ttl = timeToLive;
     ato = accessTimeout;
     tiv = timerInterval;
-    cacheMap = new LRUMap(maximumCachedQuantity);
+    mcq = maximumCachedQuantity;
 
     if (logger.isDebugEnabled()) {
       logger.debug("----Inside CRMSessionCache: initialization started Time to live:" + ttl + " & Access timeout:" + ato + " & Cache timer interval: "
@@ -83,54 +153,160 @@ public final class CRMSessionCache {
     initialize();
   }
 
+  /**
+   * Applies to cached objects too; objects which expire earlier now are scheduled again
+   * 
+   * @param milliSecs
+   */
   public final void setTimeToLive(final long milliSecs) {
+
+    final boolean dropped = milliSecs < ttl;
     ttl = milliSecs;
-    initialize();
+
+    if (dropped) {
+      this.reschedule();
+    }
   }
 
+  /**
+   * Applies to cached objects too; objects which expire earlier now are scheduled again
+   * 
+   * @param milliSecs
+   */
   public final void setAccessTimeout(final long milliSecs) {
+
+    final boolean dropped = milliSecs < ato;
     ato = milliSecs;
-    initialize();
+
+    if (dropped) {
+      this.reschedule();
+    }
   }
 
   public final void setCleaningInterval(final long milliSecs) {
     tiv = milliSecs;
-    initialize();
   }
 
-  public final void initialize() {
-    if (cacheManager != null) {
-      cacheManager.cancel();
+  /**
+   * Starts the expiry thread, if not already running. Changes in time to live or access timeout are
+   * picked up by the running thread; it is not recreated.
+   */
+  public final synchronized void initialize() {
+
+    if (cacheManager != null && cacheManager.isAlive()) {
+      return;
     }
-    cacheManager = new Timer(true);
-    cacheManager.schedule(new TimerTask() {
+
+    cacheManager = new Thread(new Runnable() {
+
+      /* Last time partition and weight distribution was logged */
+      private long lastReported = System.currentTimeMillis();
+
+      @Override
       public void run() {
-        long now = System.currentTimeMillis();
-        try {
-          MapIterator itr = cacheMap.mapIterator();
-          while (itr.hasNext()) {
-            Object key = itr.next();
-            final CachedObject cobj = (CachedObject) itr.getValue();
-            if (cobj == null || cobj.hasExpired(now)) {
-
-              if (logger.isDebugEnabled()) {
-                logger.debug("----Inside CRMSessionCache: removing " + key + ": Idle time= " + (now - cobj.timeAccessedLast) + "; Stale time= "
-                    + (now - cobj.timeCached) + "; Object count in cache= " + cacheMap.size());
-              }
-              itr.remove();
-              Thread.yield();
-            }
+
+        while (!Thread.currentThread().isInterrupted()) {
+
+          ExpiryTicket ticket = null;
+          try {
+
+            /* Wake up at timer interval even if nothing is due */
+            ticket = expiryQueue.poll(tiv, TimeUnit.MILLISECONDS);
+          } catch (final InterruptedException e) {
+
+            /* Cache is destroyed */
+            return;
           }
-        } catch (ConcurrentModificationException cme) {
-          /*
-           * This is just a timer cleaning up. It will catch up on cleaning next time it runs.
-           */
-          if (logger.isDebugEnabled()) {
-            logger.debug("----Inside CRMSessionCache:Ignorable ConcurrentModificationException");
+
+          if (ticket != null) {
+            expire(ticket);
+          }
+
+          if (logger.isDebugEnabled() && System.currentTimeMillis() - lastReported >= tiv) {
+            lastReported = System.currentTimeMillis();
+            logger.debug("----Inside CRMSessionCache: object count= " + cacheMap.size() + "; total weight= " + totalWeight.get() + "; partitions= "
+                + partitionSummaries());
+
+            if (weigher != null) {
+              logger.debug("----Inside CRMSessionCache: weight by CRM type= " + weightByCRMType());
+            }
           }
         }
       }
-    }, 0, tiv);
+    }, "CRMSessionCache-Expiry");
+
+    cacheManager.setDaemon(true);
+    cacheManager.start();
+  }
+
+  /**
+   * Stops the expiry thread
+   */
+  public final synchronized void destroy() {
+
+    if (cacheManager != null) {
+      cacheManager.interrupt();
+      cacheManager = null;
+    }
+  }
+
+  /**
+   * Removes the object of a due ticket if expired; otherwise schedules it again at its new deadline
+   * 
+   * @param ticket
+   */
+  private final void expire(final ExpiryTicket ticket) {
+
+    final CachedObject cobj = ticket.cobj;
+
+    /* Skip the objects which are already removed or replaced, and tickets which are issued again */
+    if (cacheMap.get(cobj.key) != cobj || cobj.expiryTicket != ticket) {
+      return;
+    }
+
+    final long now = System.currentTimeMillis();
+
+    if (cobj.hasExpired(now)) {
+
+      if (logger.isDebugEnabled()) {
+        logger.debug("----Inside CRMSessionCache: removing " + cobj.key + ": Idle time= " + (now - cobj.timeAccessedLast) + "; Stale time= "
+            + (now - cobj.timeCached) + "; Object count in cache= " + cacheMap.size());
+      }
+
+      /* Remove only if not replaced in between */
+      this.remove(cobj);
+    } else {
+
+      /* Object was accessed or re-admitted after ticket was issued */
+      this.schedule(cobj);
+    }
+  }
+
+  /**
+   * Issues a new expiry ticket for the current deadline of object; earlier tickets of object are
+   * skipped when due
+   * 
+   * @param cobj
+   */
+  private final void schedule(final CachedObject cobj) {
+
+    final ExpiryTicket ticket = new ExpiryTicket(cobj);
+    cobj.expiryTicket = ticket;
+    expiryQueue.offer(ticket);
+  }
+
+  /**
+   * Tickets have fixed deadlines; objects using time to live and access timeout of cache get new
+   * tickets when these are lowered
+   */
+  private final void reschedule() {
+
+    for (final CachedObject cobj : cacheMap.values()) {
+
+      if (!cobj.userTimeouts) {
+        this.schedule(cobj);
+      }
+    }
   }
 
   public final int howManyObjects() {
@@ -138,7 +314,13 @@ public final class CRMSessionCache {
   }
 
   public final void clear() {
-    cacheMap.clear();
+    for (final CachedObject cobj : cacheMap.values()) {
+      this.remove(cobj);
+    }
+    for (final Partition partition : partitions.values()) {
+      partition.evictionQueue.clear();
+      partition.evictionQueueSize.set(0);
+    }
   }
 
   /**
@@ -154,12 +336,17 @@ public final class CRMSessionCache {
       logger.debug("----Inside CRMSessionCache: admiting object with key= " + key + "; existing object count in cache= " + cacheMap.size());
     }
 
+    /* Concurrent map does not support null keys */
+    if (key == null) {
+      return null;
+    }
+
     /* Get object from cache */
-    final CachedObject cobj = (CachedObject) cacheMap.get(key);
+    final CachedObject cobj = cacheMap.get(key);
 
     /* If object is not found in cache */
     if (cobj == null) {
-      cacheMap.put(key, new CachedObject(dataToCache));
+      this.put(key, new CachedObject(key, dataToCache));
       return null;
     } else {
 
@@ -173,7 +360,7 @@ public final class CRMSessionCache {
           cobj.timeCached = cobj.timeAccessedLast = System.currentTimeMillis();
           return null;
         } else {
-          cacheMap.put(key, new CachedObject(dataToCache));
+          this.put(key, new CachedObject(key, dataToCache));
           return null;
         }
 
@@ -181,9 +368,15 @@ public final class CRMSessionCache {
 
         /* Avoids creating unnecessary new cachedObject */
         cobj.timeCached = cobj.timeAccessedLast = System.currentTimeMillis();
+
+        /* Object may have grown since it was weighed */
+        this.reweigh(cobj);
+        this.evict(cobj.partition);
+        this.notifyListeners(cobj);
+        this.publish(cobj);
         return null;
       } else {
-        cacheMap.put(key, new CachedObject(dataToCache));
+        this.put(key, new CachedObject(key, dataToCache));
         return obj;
       }
     }
@@ -195,13 +388,18 @@ public final class CRMSessionCache {
       logger.debug("----Inside CRMSessionCache: admiting object with key= " + key + "; existing object count in cache= " + cacheMap.size());
     }
 
+    /* Concurrent map does not support null keys */
+    if (key == null) {
+      return null;
+    }
+
     /* Get object from cache */
-    final CachedObject cobj = (CachedObject) cacheMap.get(key);
+    final CachedObject cobj = cacheMap.get(key);
 
     if (cobj == null) {
 
       /* Put object in cache */
-      cacheMap.put(key, new CachedObject(dataToCache, objectTimeToLive, objectIdleTimeout));
+      this.put(key, new CachedObject(key, dataToCache, objectTimeToLive, objectIdleTimeout));
       return null;
     } else {
       Object obj = cobj.getCachedData(key);
@@ -214,7 +412,7 @@ public final class CRMSessionCache {
           cobj.userTimeouts = true;
           return null;
         } else {
-          cacheMap.put(key, new CachedObject(dataToCache, objectTimeToLive, objectIdleTimeout));
+          this.put(key, new CachedObject(key, dataToCache, objectTimeToLive, objectIdleTimeout));
           return null;
         }
       } else if (obj.equals(dataToCache)) {
@@ -222,9 +420,13 @@ public final class CRMSessionCache {
         cobj.objectTTL = objectTimeToLive;
         cobj.objectIdleTimeout = objectIdleTimeout;
         cobj.userTimeouts = true;
+        this.reweigh(cobj);
+        this.evict(cobj.partition);
+        this.notifyListeners(cobj);
+        this.publish(cobj);
         return null;
       } else {
-        cacheMap.put(key, new CachedObject(dataToCache, objectTimeToLive, objectIdleTimeout));
+        this.put(key, new CachedObject(key, dataToCache, objectTimeToLive, objectIdleTimeout));
         return obj;
       }
     }
@@ -232,7 +434,19 @@ public final class CRMSessionCache {
 
   public final Object recover(final Object key) {
 
-    final CachedObject cobj = (CachedObject) cacheMap.get(key);
+    if (key == null) {
+      return null;
+    }
+
+    CachedObject cobj = cacheMap.get(key);
+
+    if (cobj == null) {
+
+      /* Object may be available at store */
+      store.load(key);
+      cobj = cacheMap.get(key);
+    }
+
     if (cobj == null) {
       return null;
     } else {
@@ -240,16 +454,97 @@ public final class CRMSessionCache {
     }
   }
 
+  /**
+   * Returns the cached object without updating its access information
+   * 
+   * @param key
+   * @return
+   */
+  public final Object peek(final Object key) {
+
+    final CachedObject cobj = (key == null) ? null : cacheMap.get(key);
+    if (cobj == null || cobj.hasExpired(System.currentTimeMillis())) {
+      return null;
+    }
+    return cobj.cachedData;
+  }
+
   public final void discard(final Object key) {
 
     if (logger.isDebugEnabled()) {
       logger.debug("----Inside CRMSessionCache.discard removing: " + key + "; existing object count in cache= " + cacheMap.size());
     }
-    cacheMap.remove(key);
+
+    if (key != null) {
+      final CachedObject cobj = cacheMap.remove(key);
+      if (cobj != null) {
+        this.unaccount(cobj);
+      }
+      store.discarded(key);
+    }
+  }
+
+  /**
+   * Admits an object received from session store. Object is not admitted if it is expired or if
+   * cache already has a copy cached later. Object is not passed back to the store.
+   * 
+   * @return true if object is admitted
+   */
+  public final boolean replicate(final Object key, final Object dataToCache, final long timeCached, final long timeAccessedLast,
+      final long objectTimeToLive, final long objectIdleTimeout) {
+
+    if (key == null || dataToCache == null) {
+      return false;
+    }
+
+    final CachedObject cobj = new CachedObject(key, dataToCache, objectTimeToLive, objectIdleTimeout);
+    cobj.timeCached = timeCached;
+    cobj.timeAccessedLast = timeAccessedLast;
+
+    if (cobj.hasExpired(System.currentTimeMillis())) {
+      return false;
+    }
+
+    while (true) {
+
+      final CachedObject existing = cacheMap.get(key);
+
+      if (existing == null) {
+        if (cacheMap.putIfAbsent(key, cobj) == null) {
+          break;
+        }
+      } else if (existing.timeCached > timeCached) {
+
+        /* Local copy is newer */
+        return false;
+      } else if (cacheMap.replace(key, existing, cobj)) {
+        this.unaccount(existing);
+        break;
+      }
+    }
+
+    this.account(cobj);
+    this.track(cobj);
+    return true;
+  }
+
+  /**
+   * Discards an object on request of session store; discard is not passed back to the store
+   * 
+   * @param key
+   */
+  public final void discardReplica(final Object key) {
+
+    if (key != null) {
+      final CachedObject cobj = cacheMap.remove(key);
+      if (cobj != null) {
+        this.unaccount(cobj);
+      }
+    }
   }
 
   public final long whenCached(final Object key) {
-    final CachedObject cobj = (CachedObject) cacheMap.get(key);
+    final CachedObject cobj = (key == null) ? null : cacheMap.get(key);
     if (cobj == null) {
       return 0;
     }
@@ -257,7 +552,7 @@ public final class CRMSessionCache {
   }
 
   public final long whenLastAccessed(final Object key) {
-    CachedObject cobj = (CachedObject) cacheMap.get(key);
+    final CachedObject cobj = (key == null) ? null : cacheMap.get(key);
     if (cobj == null) {
       return 0;
     }
@@ -265,78 +560,782 @@ public final class CRMSessionCache {
   }
 
   public final int howManyTimesAccessed(final Object key) {
-    CachedObject cobj = (CachedObject) cacheMap.get(key);
+    final CachedObject cobj = (key == null) ? null : cacheMap.get(key);
     if (cobj == null) {
       return 0;
     }
-    return cobj.numberOfAccesses;
+    return cobj.numberOfAccesses.get();
+  }
+
+  /**
+   * Admits an object which was cached earlier, e.g. before a restart, with its original cache and
+   * access times. Object is not admitted if it is already expired or if key is already in cache.
+   * 
+   * @return true if object is admitted
+   */
+  public final boolean restore(final Object key, final Object dataToCache, final long timeCached, final long timeAccessedLast,
+      final long objectTimeToLive, final long objectIdleTimeout) {
+
+    if (key == null || dataToCache == null) {
+      return false;
+    }
+
+    final CachedObject cobj = new CachedObject(key, dataToCache, objectTimeToLive, objectIdleTimeout);
+    cobj.timeCached = timeCached;
+    cobj.timeAccessedLast = timeAccessedLast;
+
+    if (cobj.hasExpired(System.currentTimeMillis()) || cacheMap.putIfAbsent(key, cobj) != null) {
+      return false;
+    }
+
+    this.account(cobj);
+    this.track(cobj);
+    return true;
+  }
+
+  /**
+   * Keys of all objects in cache at the time of call
+   * 
+   * @return
+   */
+  public final Set<Object> keys() {
+    return new HashSet<Object>(cacheMap.keySet());
+  }
+
+  public final long timeToLive(final Object key) {
+    final CachedObject cobj = (key == null) ? null : cacheMap.get(key);
+    if (cobj == null) {
+      return 0;
+    }
+    return cobj.timeToLive();
+  }
+
+  public final long accessTimeout(final Object key) {
+    final CachedObject cobj = (key == null) ? null : cacheMap.get(key);
+    if (cobj == null) {
+      return 0;
+    }
+    return cobj.accessTimeout();
+  }
+
+  /**
+   * Put the object in map and queue it for eviction
+   * 
+   * @param key
+   * @param cobj
+   */
+  private final void put(final Object key, final CachedObject cobj) {
+
+    final CachedObject replaced = cacheMap.put(key, cobj);
+    if (replaced != null) {
+      this.unaccount(replaced);
+    }
+
+    this.account(cobj);
+    this.track(cobj);
+    this.publish(cobj);
+  }
+
+  /* Pass admission on to store */
+  private final void publish(final CachedObject cobj) {
+
+    if (cobj.cachedData == null) {
+      return;
+    }
+
+    try {
+      store.stored(cobj.key, cobj.cachedData, cobj.timeCached, cobj.timeAccessedLast, cobj.timeToLive(), cobj.accessTimeout());
+    } catch (final RuntimeException e) {
+
+      /* Store must not break admission */
+      logger.error("=*=Inside CRMSessionCache: error in session store", e);
+    }
+  }
+
+  /**
+   * Removes the object only if it is not replaced in between
+   * 
+   * @return true if object is removed
+   */
+  private final boolean remove(final CachedObject cobj) {
+
+    if (cacheMap.remove(cobj.key, cobj)) {
+      this.unaccount(cobj);
+      return true;
+    }
+    return false;
+  }
+
+  /**
+   * Accounts a newly mapped object in its partition. Accounting of an object is changed only under
+   * its lock, so that it is never accounted after the object is removed. Count of a partition is
+   * changed only under lock of partition, so that no object is accounted in a removed partition
+   */
+  private final void account(final CachedObject cobj) {
+
+    final int weight = (weigher == null) ? 0 : Math.max(0, weigher.weigh(cobj.key, cobj.cachedData));
+
+    synchronized (cobj) {
+
+      if (cobj.accounted || cacheMap.get(cobj.key) != cobj) {
+        return;
+      }
+
+      while (true) {
+
+        final Partition partition = this.partitionOf(cobj.key, cobj.cachedData);
+
+        synchronized (partition) {
+
+          /* Partition is removed after it is found; find again */
+          if (partition.removed) {
+            continue;
+          }
+
+          if (partition.count.getAndIncrement() == 0) {
+            nonEmptyPartitions.incrementAndGet();
+          }
+
+          partition.weight.addAndGet(weight);
+          cobj.partition = partition;
+          cobj.accounted = true;
+          cobj.weight = weight;
+          totalWeight.addAndGet(weight);
+          return;
+        }
+      }
+    }
   }
 
-  public final void setCacheMap(final LRUMap cacheMap) {
-    this.cacheMap = cacheMap;
+  /* Updates the weight of an accounted object */
+  private final void reweigh(final CachedObject cobj) {
+
+    if (weigher == null) {
+      return;
+    }
+
+    final int weight = Math.max(0, weigher.weigh(cobj.key, cobj.cachedData));
+
+    synchronized (cobj) {
+      if (cobj.accounted) {
+        cobj.partition.weight.addAndGet(weight - cobj.weight);
+        totalWeight.addAndGet(weight - cobj.weight);
+        cobj.weight = weight;
+      }
+    }
   }
 
-  public final LRUMap getCacheMap() {
-    return cacheMap;
+  private final void unaccount(final CachedObject cobj) {
+
+    synchronized (cobj) {
+
+      if (!cobj.accounted) {
+        return;
+      }
+
+      final Partition partition = cobj.partition;
+
+      synchronized (partition) {
+
+        partition.weight.addAndGet(-cobj.weight);
+
+        /* Partition is removed with its last object */
+        if (partition.count.decrementAndGet() == 0) {
+          partition.removed = true;
+          partitions.remove(partition.name, partition);
+          nonEmptyPartitions.decrementAndGet();
+        }
+      }
+
+      cobj.accounted = false;
+      totalWeight.addAndGet(-cobj.weight);
+      cobj.weight = 0;
+    }
+  }
+
+  private final boolean isWeighted() {
+    return weigher != null && maximumWeight > 0;
+  }
+
+  /* Capacity in the unit of usage; weight or quantity */
+  private final long capacity() {
+    return this.isWeighted() ? maximumWeight : mcq;
+  }
+
+  private final long usage() {
+    return this.isWeighted() ? totalWeight.get() : cacheMap.size();
+  }
+
+  private final long usage(final Partition partition) {
+    return this.isWeighted() ? partition.weight.get() : partition.count.get();
+  }
+
+  /**
+   * Finds the partition from which an object must be evicted. Partition which has grown is evicted if
+   * it is beyond its maximum share; only a growing partition can go beyond it. If cache is full, the
+   * clock hand moves over partitions to the next one beyond its minimum share and its fair share of
+   * cache; partitions within their minimum share are evicted only if every partition is.
+   * 
+   * @param grown partition which has grown; may be null
+   * @return null if no eviction is needed
+   */
+  private final Partition selectVictim(final Partition grown) {
+
+    final long capacity = this.capacity();
+
+    /* Partition is evicted for its own growth */
+    if (grown != null && !grown.removed && this.usage(grown) > grown.maximumShare * capacity) {
+      return grown;
+    }
+
+    if (this.usage() <= capacity) {
+      return null;
+    }
+
+    /* Some partition is always beyond this share when cache is full */
+    final double fairShare = (double) capacity / Math.max(1, nonEmptyPartitions.get());
+
+    Partition fallback = null;
+    double fallbackExcess = 0;
+
+    for (int i = partitionRingSize.get(); i > 0; i--) {
+
+      final Partition partition = partitionRing.poll();
+
+      if (partition == null) {
+        break;
+      }
+
+      /* Drop removed partition from ring */
+      if (partition.removed) {
+        partitionRingSize.decrementAndGet();
+        continue;
+      }
+
+      /* Move hand past this partition */
+      partitionRing.offer(partition);
+
+      final long usage = this.usage(partition);
+
+      if (usage == 0) {
+        continue;
+      }
+
+      final double minimum = partition.minimumShare * capacity;
+
+      if (usage > minimum && usage > fairShare) {
+        return partition;
+      }
+
+      /* Partition most beyond its minimum share, if no partition is beyond both shares */
+      if (fallback == null || usage - minimum > fallbackExcess) {
+        fallback = partition;
+        fallbackExcess = usage - minimum;
+      }
+    }
+
+    return fallback;
+  }
+
+  /* Moves clock hand over given number of partitions, dropping the removed ones */
+  private final void sweepPartitionRing(final int steps) {
+
+    for (int i = steps; i > 0; i--) {
+
+      final Partition partition = partitionRing.poll();
+
+      if (partition == null) {
+        return;
+      }
+
+      if (partition.removed) {
+        partitionRingSize.decrementAndGet();
+      } else {
+        partitionRing.offer(partition);
+      }
+    }
+  }
+
+  /* Eviction queue may hold removed objects; it is compacted when it grows beyond twice the live objects */
+  private final boolean hasQueueGarbage(final Partition partition) {
+    return partition.evictionQueueSize.get() > 2 * Math.max(16, partition.count.get());
+  }
+
+  /**
+   * Partition of an object; created at first use, and added to clock hand
+   */
+  private final Partition partitionOf(final Object key, final Object cachedData) {
+
+    String name = (partitioner == null) ? null : partitioner.partitionOf(key, cachedData);
+    name = (name == null) ? DEFAULT_PARTITION : name;
+
+    Partition partition = partitions.get(name);
+
+    if (partition == null) {
+
+      final Double minimum = minimumShares.get(name);
+      final Double maximum = maximumShares.get(name);
+      final Partition newPartition = new Partition(name, (minimum == null) ? minimumShare : minimum, (maximum == null) ? maximumShare : maximum);
+
+      partition = partitions.putIfAbsent(name, newPartition);
+      if (partition == null) {
+        partition = newPartition;
+        partitionRing.offer(newPartition);
+        partitionRingSize.incrementAndGet();
+
+        /* Ring is swept faster than it grows, so that removed partitions leave it even if cache is never full */
+        this.sweepPartitionRing(2);
+      }
+    }
+    return partition;
+  }
+
+  /**
+   * Occupancy and eviction counters of all partitions
+   * 
+   * @return
+   */
+  public final Map<String, PartitionSummary> partitionSummaries() {
+
+    final Map<String, PartitionSummary> summaries = new TreeMap<String, PartitionSummary>();
+
+    for (final Partition partition : partitions.values()) {
+      summaries.put(partition.name, new PartitionSummary(partition.count.get(), partition.weight.get(), partition.evictions.get(),
+          partition.minimumShare, partition.maximumShare));
+    }
+    return summaries;
+  }
+
+  public final long totalWeight() {
+    return totalWeight.get();
+  }
+
+  /**
+   * Distribution of cached objects and their weight over CRM types
+   * 
+   * @return
+   */
+  public final Map<String, WeightSummary> weightByCRMType() {
+
+    final Map<String, WeightSummary> summaries = new TreeMap<String, WeightSummary>();
+
+    for (final CachedObject cobj : cacheMap.values()) {
+
+      final Object cachedData = cobj.cachedData;
+      String crmType = null;
+
+      if (cachedData instanceof ScribeCacheObject && ((ScribeCacheObject) cachedData).getScribeMetaObject() != null) {
+        crmType = ((ScribeCacheObject) cachedData).getScribeMetaObject().getCrmType();
+      }
+
+      crmType = (crmType == null) ? "UNKNOWN" : crmType.toUpperCase();
+
+      WeightSummary summary = summaries.get(crmType);
+      if (summary == null) {
+        summary = new WeightSummary();
+        summaries.put(crmType, summary);
+      }
+      summary.add(cobj.weight);
+    }
+
+    return summaries;
+  }
+
+  /**
+   * Number of objects and their weight, of one CRM type
+   */
+  public static final class WeightSummary {
+
+    private int count;
+
+    private long totalWeight;
+
+    private long maximumWeight;
+
+    final void add(final long weight) {
+      count++;
+      totalWeight += weight;
+      maximumWeight = Math.max(maximumWeight, weight);
+    }
+
+    public final int getCount() {
+      return count;
+    }
+
+    public final long getTotalWeight() {
+      return totalWeight;
+    }
+
+    public final long getMaximumWeight() {
+      return maximumWeight;
+    }
+
+    public final long getAverageWeight() {
+      return (count == 0) ? 0 : totalWeight / count;
+    }
+
+    @Override
+    public final String toString() {
+      return "[count=" + count + ", total=" + totalWeight + ", average=" + getAverageWeight() + ", maximum=" + maximumWeight + "]";
+    }
+  }
+
+  private final void track(final CachedObject cobj) {
+
+    /* Schedule expiry */
+    this.schedule(cobj);
+
+    final Partition partition = cobj.partition;
+
+    /* Queue for eviction in its partition; object is not accounted if removed in between */
+    if (partition != null) {
+      partition.evictionQueue.offer(cobj);
+      partition.evictionQueueSize.incrementAndGet();
+    }
+
+    /* Check if cache limit is reached */
+    this.evict(partition);
+
+    this.notifyListeners(cobj);
+  }
+
+  public final void addListener(final CRMSessionCacheListener listener) {
+    listeners.addIfAbsent(listener);
+  }
+
+  public final void removeListener(final CRMSessionCacheListener listener) {
+    listeners.remove(listener);
+  }
+
+  private final void notifyListeners(final CachedObject cobj) {
+
+    if (cobj.cachedData == null) {
+      return;
+    }
+
+    for (final CRMSessionCacheListener listener : listeners) {
+      try {
+        listener.admitted(cobj.key, cobj.cachedData, cobj.timeToLive());
+      } catch (final RuntimeException e) {
+
+        /* Listener must not break admission */
+        logger.error("=*=Inside CRMSessionCache: error in cache listener", e);
+      }
+    }
+  }
+
+  /**
+   * Evicts objects until the cache and each of its partitions are within their capacity. Objects are
+   * evicted only from the partition which is beyond its share; within a partition recently accessed
+   * objects are given a second chance by moving them to the tail of its eviction queue.
+   * 
+   * @param grown partition which has grown; may be null
+   */
+  private final void evict(final Partition grown) {
+
+    /* Check again after eviction; objects admitted meanwhile by other threads are not evicted by them */
+    while (true) {
+
+      /* Some other thread is already evicting */
+      if (!evictionInProgress.compareAndSet(false, true)) {
+        return;
+      }
+
+      try {
+
+        /* Drop removed objects from eviction queue; queue grows only in partition which has grown */
+        if (grown != null && this.hasQueueGarbage(grown)) {
+          this.compact(grown);
+        }
+
+        Partition victim = null;
+
+        while ((victim = this.selectVictim(grown)) != null) {
+
+          if (victim != grown && this.hasQueueGarbage(victim)) {
+            this.compact(victim);
+          }
+
+          /* Objects of partition are still being queued by their admitting threads, which evict after queuing */
+          if (!this.evictOne(victim)) {
+            return;
+          }
+        }
+      } finally {
+        evictionInProgress.set(false);
+      }
+
+      if (this.selectVictim(grown) == null) {
+        return;
+      }
+    }
+  }
+
+  /**
+   * Evicts one object of partition
+   * 
+   * @return false if partition has no object to evict
+   */
+  private final boolean evictOne(final Partition partition) {
+
+    /* Upper bound on second chances; protects from looping when all objects are referenced */
+    int secondChances = partition.evictionQueueSize.get();
+
+    CachedObject cobj = null;
+
+    while ((cobj = partition.evictionQueue.poll()) != null) {
+
+      partition.evictionQueueSize.decrementAndGet();
+
+      /* Skip the objects which are already removed or replaced */
+      if (cacheMap.get(cobj.key) != cobj) {
+        continue;
+      }
+
+      if (cobj.referenced && secondChances-- > 0) {
+
+        /* Give second chance to recently used object */
+        cobj.referenced = false;
+        partition.evictionQueue.offer(cobj);
+        partition.evictionQueueSize.incrementAndGet();
+      } else if (this.remove(cobj)) {
+
+        partition.evictions.incrementAndGet();
+
+        if (logger.isDebugEnabled()) {
+          logger.debug("----Inside CRMSessionCache: evicted " + cobj.key + " from partition " + partition.name + "; Object count in cache= "
+              + cacheMap.size() + "; Total weight= " + totalWeight.get());
+        }
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /* Removes the objects which are no longer in cache from eviction queue of partition */
+  private final void compact(final Partition partition) {
+
+    for (int i = partition.evictionQueueSize.get(); i > 0; i--) {
+
+      final CachedObject cobj = partition.evictionQueue.poll();
+
+      if (cobj == null) {
+        return;
+      }
+
+      partition.evictionQueueSize.decrementAndGet();
+
+      if (cacheMap.get(cobj.key) == cobj) {
+        partition.evictionQueue.offer(cobj);
+        partition.evictionQueueSize.incrementAndGet();
+      }
+    }
+  }
+
+  /**
+   * A partition of cache with its own eviction queue
+   */
+  private static final class Partition {
+
+    private final String name;
+
+    private final double minimumShare;
+
+    private final double maximumShare;
+
+    /* Eviction order of objects of this partition; may contain objects which are already removed from map */
+    private final ConcurrentLinkedQueue<CachedObject> evictionQueue = new ConcurrentLinkedQueue<CachedObject>();
+
+    /* Number of objects in eviction queue; ConcurrentLinkedQueue.size is not constant time */
+    private final AtomicInteger evictionQueueSize = new AtomicInteger();
+
+    private final AtomicInteger count = new AtomicInteger();
+
+    private final AtomicLong weight = new AtomicLong();
+
+    private final AtomicLong evictions = new AtomicLong();
+
+    /* Set under lock of this partition, when its last object leaves */
+    private volatile boolean removed;
+
+    Partition(final String name, final double minimumShare, final double maximumShare) {
+      this.name = name;
+      this.minimumShare = minimumShare;
+      this.maximumShare = maximumShare;
+    }
+  }
+
+  /**
+   * Occupancy and evictions of one partition
+   */
+  public static final class PartitionSummary {
+
+    private final int count;
+
+    private final long weight;
+
+    private final long evictions;
+
+    private final double minimumShare;
+
+    private final double maximumShare;
+
+    PartitionSummary(final int count, final long weight, final long evictions, final double minimumShare, final double maximumShare) {
+      this.count = count;
+      this.weight = weight;
+      this.evictions = evictions;
+      this.minimumShare = minimumShare;
+      this.maximumShare = maximumShare;
+    }
+
+    public final int getCount() {
+      return count;
+    }
+
+    public final long getWeight() {
+      return weight;
+    }
+
+    public final long getEvictions() {
+      return evictions;
+    }
+
+    public final double getMinimumShare() {
+      return minimumShare;
+    }
+
+    public final double getMaximumShare() {
+      return maximumShare;
+    }
+
+    @Override
+    public final String toString() {
+      return "[count=" + count + ", weight=" + weight + ", evictions=" + evictions + ", share=" + minimumShare + "-" + maximumShare + "]";
+    }
   }
 
   /**
    * A cached object, needed to store attributes such as the last time it was accessed.
    */
   protected final class CachedObject {
-    private Object cachedData;
 
-    private long timeCached;
+    private final Object key;
+
+    private volatile Object cachedData;
 
-    private long timeAccessedLast;
+    private volatile long timeCached;
 
-    private int numberOfAccesses;
+    private volatile long timeAccessedLast;
 
-    private long objectTTL;
+    private final AtomicInteger numberOfAccesses = new AtomicInteger();
 
-    private long objectIdleTimeout;
+    private volatile long objectTTL;
 
-    private boolean userTimeouts;
+    private volatile long objectIdleTimeout;
 
-    CachedObject(final Object cachedData) {
+    private volatile boolean userTimeouts;
+
+    /* Set on every access; cleared when object gets second chance at eviction */
+    private volatile boolean referenced;
+
+    /* Estimated weight; changed only under lock of this object */
+    private volatile int weight;
+
+    /* Set while object is counted in its partition; changed only under lock of this object */
+    private boolean accounted;
+
+    /* Set when object is accounted */
+    private volatile Partition partition;
+
+    /* Latest expiry ticket; earlier tickets are skipped */
+    private volatile ExpiryTicket expiryTicket;
+
+    CachedObject(final Object key, final Object cachedData) {
       long now = System.currentTimeMillis();
+      this.key = key;
       this.cachedData = cachedData;
       timeCached = now;
       timeAccessedLast = now;
-      ++numberOfAccesses;
+      numberOfAccesses.incrementAndGet();
     }
 
-    CachedObject(final Object cachedData, final long timeToLive, final long idleTimeout) {
+    CachedObject(final Object key, final Object cachedData, final long timeToLive, final long idleTimeout) {
       long now = System.currentTimeMillis();
+      this.key = key;
       this.cachedData = cachedData;
       objectTTL = timeToLive;
       objectIdleTimeout = idleTimeout;
       userTimeouts = true;
       timeCached = now;
       timeAccessedLast = now;
-      ++numberOfAccesses;
+      numberOfAccesses.incrementAndGet();
     }
 
     final Object getCachedData(final Object key) {
       long now = System.currentTimeMillis();
       if (hasExpired(now)) {
-        cachedData = null;
-        cacheMap.remove(key);
+        remove(this);
         return null;
       }
       timeAccessedLast = now;
-      ++numberOfAccesses;
+      referenced = true;
+      numberOfAccesses.incrementAndGet();
       return cachedData;
     }
 
     final boolean hasExpired(final long now) {
-      long usedTTL = userTimeouts ? objectTTL : ttl;
-      long usedATO = userTimeouts ? objectIdleTimeout : ato;
-      if (now > timeAccessedLast + usedATO || now > timeCached + usedTTL) {
-        return true;
-      } else {
-        return false;
+      return now > expiresAt();
+    }
+
+    final long timeToLive() {
+      return userTimeouts ? objectTTL : ttl;
+    }
+
+    final long accessTimeout() {
+      return userTimeouts ? objectIdleTimeout : ato;
+    }
+
+    /**
+     * Last instant at which this object is still valid
+     * 
+     * @return
+     */
+    final long expiresAt() {
+      return Math.min(timeAccessedLast + accessTimeout(), timeCached + timeToLive());
+    }
+  }
+
+  /**
+   * Entry of expiry queue. Deadline is fixed at creation, as delay queue does not support changing
+   * the order of queued elements.
+   */
+  private final class ExpiryTicket implements Delayed {
+
+    private final CachedObject cobj;
+
+    private final long deadline;
+
+    ExpiryTicket(final CachedObject cobj) {
+      this.cobj = cobj;
+
+      /* Object expires just after this instant */
+      this.deadline = cobj.expiresAt() + 1;
+    }
+
+    @Override
+    public final long getDelay(final TimeUnit unit) {
+      return unit.convert(deadline - System.currentTimeMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public final int compareTo(final Delayed other) {
+
+      if (other instanceof ExpiryTicket) {
+        final long otherDeadline = ((ExpiryTicket) other).deadline;
+        return deadline < otherDeadline ? -1 : (deadline == otherDeadline ? 0 : 1);
       }
+      final long diff = getDelay(TimeUnit.MILLISECONDS) - other.getDelay(TimeUnit.MILLISECONDS);
+      return diff < 0 ? -1 : (diff == 0 ? 0 : 1);
     }
   }
 
@@ -345,7 +1344,7 @@ public final class CRMSessionCache {
   }
 
   public final void setTtl(final long ttl) {
-    this.ttl = ttl;
+    this.setTimeToLive(ttl);
   }
 
   public final long getAto() {
@@ -353,7 +1352,7 @@ public final class CRMSessionCache {
   }
 
   public final void setAto(final long ato) {
-    this.ato = ato;
+    this.setAccessTimeout(ato);
   }
 
   public final long getTiv() {
@@ -364,6 +1363,71 @@ public final class CRMSessionCache {
     this.tiv = tiv;
   }
 
+  public final CRMSessionPartitioner getPartitioner() {
+    return partitioner;
+  }
+
+  public final void setPartitioner(final CRMSessionPartitioner partitioner) {
+    this.partitioner = partitioner;
+  }
+
+  public final double getMinimumShare() {
+    return minimumShare;
+  }
+
+  public final void setMinimumShare(final double minimumShare) {
+    this.minimumShare = minimumShare;
+  }
+
+  public final double getMaximumShare() {
+    return maximumShare;
+  }
+
+  public final void setMaximumShare(final double maximumShare) {
+    this.maximumShare = maximumShare;
+  }
+
+  public final Map<String, Double> getMinimumShares() {
+    return minimumShares;
+  }
+
+  public final void setMinimumShares(final Map<String, Double> minimumShares) {
+    this.minimumShares = new HashMap<String, Double>(minimumShares);
+  }
+
+  public final Map<String, Double> getMaximumShares() {
+    return maximumShares;
+  }
+
+  public final void setMaximumShares(final Map<String, Double> maximumShares) {
+    this.maximumShares = new HashMap<String, Double>(maximumShares);
+  }
+
+  public final CRMSessionStore getStore() {
+    return store;
+  }
+
+  public final void setStore(final CRMSessionStore store) {
+    this.store = store;
+    store.attach(this);
+  }
+
+  public final long getMaximumWeight() {
+    return maximumWeight;
+  }
+
+  public final void setMaximumWeight(final long maximumWeight) {
+    this.maximumWeight = maximumWeight;
+  }
+
+  public final CRMSessionWeigher getWeigher() {
+    return weigher;
+  }
+
+  public final void setWeigher(final CRMSessionWeigher weigher) {
+    this.weigher = weigher;
+  }
+
   public final int getMcq() {
     return mcq;
   }
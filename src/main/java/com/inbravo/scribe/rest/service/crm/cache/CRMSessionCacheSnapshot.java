@@ -0,0 +1,305 @@
+/*
+ * MIT License
+ * 
+ * Copyright (c) 2016 Amit Dixit (github.com/inbravo)
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.inbravo.scribe.rest.service.crm.cache;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+import org.apache.log4j.Logger;
+
+/**
+ * Keeps CRM sessions across restarts. At shutdown the CRM information of each cached object is
+ * written to an encrypted, memory mapped local file; at startup the file is read back and the
+ * objects are admitted with their original cache and access times, so that still valid sessions
+ * are used without a new login. SOAP stubs are not saved; these are created again at next login.
+ * 
+ * @author amit.dixit
+ * 
+ */
+public final class CRMSessionCacheSnapshot {
+
+  private final Logger logger = Logger.getLogger(CRMSessionCacheSnapshot.class.getName());
+
+  private static final int FILE_MAGIC = 0x53435346;
+
+  private static final int CONTENT_MAGIC = 0x53435343;
+
+  private static final int VERSION = 1;
+
+  /* CRM session cache */
+  private CRMSessionCache cRMSessionCache;
+
+  private boolean enabled;
+
+  private String snapshotFile;
+
+  private String snapshotKey;
+
+  /**
+   * Loads the snapshot written at last shutdown. Snapshot file is deleted after reading, so that
+   * it is never loaded twice
+   */
+  public final void load() {
+
+    if (!this.isUsable()) {
+      return;
+    }
+
+    final File file = new File(snapshotFile);
+
+    if (!file.isFile()) {
+      logger.debug("----Inside load, no session cache snapshot found at: " + snapshotFile);
+      return;
+    }
+
+    try {
+
+      /* Read and decrypt the snapshot */
+      final byte[] content = this.decrypt(this.readFile(file));
+
+      final DataInputStream in = new DataInputStream(new ByteArrayInputStream(content));
+
+      if (in.readInt() != CONTENT_MAGIC || in.readInt() != VERSION) {
+        logger.error("=*=Inside load, session cache snapshot is not readable: " + snapshotFile);
+        return;
+      }
+
+      final int count = in.readInt();
+      int restored = 0;
+
+      for (int i = 0; i < count; i++) {
+
+        final String key = ScribeCacheObjectCodec.readString(in);
+        final long timeCached = in.readLong();
+        final long timeAccessedLast = in.readLong();
+        final long timeToLive = in.readLong();
+        final long accessTimeout = in.readLong();
+        final ScribeCacheObject cacheObject = ScribeCacheObjectCodec.readCacheObject(in);
+
+        /* Expired sessions are dropped by cache */
+        if (cRMSessionCache.restore(key, cacheObject, timeCached, timeAccessedLast, timeToLive, accessTimeout)) {
+          restored++;
+        }
+      }
+
+      logger.debug("----Inside load, restored " + restored + " of " + count + " sessions from snapshot: " + snapshotFile);
+    } catch (final Exception e) {
+
+      /* Users will login again */
+      logger.error("=*=Inside load, problem in loading session cache snapshot: " + snapshotFile, e);
+    } finally {
+
+      if (!file.delete()) {
+        logger.error("=*=Inside load, unable to delete session cache snapshot: " + snapshotFile);
+      }
+    }
+  }
+
+  /**
+   * Writes all cached sessions to snapshot file
+   */
+  public final void save() {
+
+    if (!this.isUsable()) {
+      return;
+    }
+
+    try {
+
+      final ByteArrayOutputStream content = new ByteArrayOutputStream();
+      final DataOutputStream out = new DataOutputStream(content);
+
+      /* Take only CRM sessions; count is known only at end */
+      final ByteArrayOutputStream entries = new ByteArrayOutputStream();
+      final DataOutputStream entryOut = new DataOutputStream(entries);
+      int count = 0;
+
+      for (final Object key : cRMSessionCache.keys()) {
+
+        final Object cachedData = cRMSessionCache.peek(key);
+
+        if (!(key instanceof String) || !(cachedData instanceof ScribeCacheObject)
+            || ((ScribeCacheObject) cachedData).getScribeMetaObject() == null) {
+          continue;
+        }
+
+        ScribeCacheObjectCodec.writeString(entryOut, (String) key);
+        entryOut.writeLong(cRMSessionCache.whenCached(key));
+        entryOut.writeLong(cRMSessionCache.whenLastAccessed(key));
+        entryOut.writeLong(cRMSessionCache.timeToLive(key));
+        entryOut.writeLong(cRMSessionCache.accessTimeout(key));
+        ScribeCacheObjectCodec.writeCacheObject(entryOut, (ScribeCacheObject) cachedData);
+        count++;
+      }
+
+      entryOut.flush();
+
+      out.writeInt(CONTENT_MAGIC);
+      out.writeInt(VERSION);
+      out.writeInt(count);
+      entries.writeTo(out);
+      out.flush();
+
+      this.writeFile(new File(snapshotFile), this.encrypt(content.toByteArray()));
+
+      logger.debug("----Inside save, saved " + count + " sessions in snapshot: " + snapshotFile);
+    } catch (final Exception e) {
+      logger.error("=*=Inside save, problem in saving session cache snapshot: " + snapshotFile, e);
+    }
+  }
+
+  private final boolean isUsable() {
+
+    if (!enabled) {
+      return false;
+    }
+
+    if (snapshotFile == null || "".equals(snapshotFile.trim()) || snapshotKey == null || "".equals(snapshotKey.trim())) {
+      logger.error("=*=Inside CRMSessionCacheSnapshot, snapshot file or key is not configured; session cache snapshot is disabled");
+      return false;
+    }
+
+    return true;
+  }
+
+  private final byte[] readFile(final File file) throws IOException {
+
+    final RandomAccessFile raf = new RandomAccessFile(file, "r");
+
+    try {
+
+      /* Map the file into memory for reading only */
+      final MappedByteBuffer mbb = raf.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, raf.length());
+
+      final byte[] data = new byte[mbb.remaining()];
+      mbb.get(data);
+      return data;
+    } finally {
+      raf.close();
+    }
+  }
+
+  private final void writeFile(final File file, final byte[] data) throws IOException {
+
+    /* Write at side and move in place, so that a half written snapshot is never read */
+    final File tempFile = new File(file.getPath() + ".tmp");
+
+    /* Snapshot carries CRM credentials; keep it readable to owner only */
+    tempFile.delete();
+    tempFile.createNewFile();
+    tempFile.setReadable(false, false);
+    tempFile.setWritable(false, false);
+    tempFile.setReadable(true, true);
+    tempFile.setWritable(true, true);
+
+    final RandomAccessFile raf = new RandomAccessFile(tempFile, "rw");
+
+    try {
+
+      /* Map the file into memory for writing */
+      final MappedByteBuffer mbb = raf.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, data.length);
+      mbb.put(data);
+      mbb.force();
+    } finally {
+      raf.close();
+    }
+
+    if (!tempFile.renameTo(file)) {
+
+      /* Some platforms do not replace existing file on rename */
+      file.delete();
+
+      if (!tempFile.renameTo(file)) {
+        throw new IOException("Unable to move session cache snapshot to: " + file);
+      }
+    }
+  }
+
+  private final byte[] encrypt(final byte[] content) throws Exception {
+
+    /* Fresh salt for every snapshot */
+    final byte[] salt = CRMSessionCipher.createSalt();
+    final byte[] sealed = new CRMSessionCipher(snapshotKey, salt).seal(content);
+
+    final ByteArrayOutputStream file = new ByteArrayOutputStream();
+    final DataOutputStream out = new DataOutputStream(file);
+    out.writeInt(FILE_MAGIC);
+    out.write(salt);
+    out.writeInt(sealed.length);
+    out.write(sealed);
+    out.flush();
+
+    return file.toByteArray();
+  }
+
+  private final byte[] decrypt(final byte[] data) throws Exception {
+
+    final DataInputStream in = new DataInputStream(new ByteArrayInputStream(data));
+
+    if (in.readInt() != FILE_MAGIC) {
+      throw new IOException("Not a session cache snapshot");
+    }
+
+    final byte[] salt = new byte[CRMSessionCipher.SALT_LENGTH];
+    in.readFully(salt);
+
+    final byte[] sealed = new byte[in.readInt()];
+    in.readFully(sealed);
+
+    return new CRMSessionCipher(snapshotKey, salt).open(sealed);
+  }
+
+  public final CRMSessionCache getcRMSessionCache() {
+    return cRMSessionCache;
+  }
+
+  public final void setcRMSessionCache(final CRMSessionCache cRMSessionCache) {
+    this.cRMSessionCache = cRMSessionCache;
+  }
+
+  public final boolean isEnabled() {
+    return enabled;
+  }
+
+  public final void setEnabled(final boolean enabled) {
+    this.enabled = enabled;
+  }
+
+  public final String getSnapshotFile() {
+    return snapshotFile;
+  }
+
+  public final void setSnapshotFile(final String snapshotFile) {
+    this.snapshotFile = snapshotFile;
+  }
+
+  public final void setSnapshotKey(final String snapshotKey) {
+    this.snapshotKey = snapshotKey;
+  }
+}
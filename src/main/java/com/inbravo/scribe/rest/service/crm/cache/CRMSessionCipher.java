@@ -0,0 +1,126 @@
+/*
+ * MIT License
+ * 
+ * Copyright (c) 2016 Amit Dixit (github.com/inbravo)
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.inbravo.scribe.rest.service.crm.cache;
+
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+
+import javax.crypto.Cipher;
+import javax.crypto.Mac;
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.IvParameterSpec;
+import javax.crypto.spec.PBEKeySpec;
+import javax.crypto.spec.SecretKeySpec;
+
+/**
+ * Encrypts and authenticates CRM session information which leaves the process. Keys are derived
+ * once from a secret; each sealed content carries its own random IV and a MAC over IV and cipher
+ * text.
+ * 
+ * @author amit.dixit
+ * 
+ */
+final class CRMSessionCipher {
+
+  static final int SALT_LENGTH = 16;
+
+  private static final int IV_LENGTH = 16;
+
+  private static final int MAC_LENGTH = 32;
+
+  private static final int KEY_ITERATIONS = 65536;
+
+  private final SecureRandom random = new SecureRandom();
+
+  private final SecretKeySpec cipherKey;
+
+  private final SecretKeySpec macKey;
+
+  CRMSessionCipher(final String secret, final byte[] salt) throws GeneralSecurityException {
+
+    final SecretKeyFactory factory = SecretKeyFactory.getInstance("PBKDF2WithHmacSHA1");
+    final byte[] key = factory.generateSecret(new PBEKeySpec(secret.toCharArray(), salt, KEY_ITERATIONS, 256)).getEncoded();
+
+    /* Separate keys for encryption and authentication */
+    final byte[] cipherKeyBytes = new byte[16];
+    final byte[] macKeyBytes = new byte[16];
+    System.arraycopy(key, 0, cipherKeyBytes, 0, 16);
+    System.arraycopy(key, 16, macKeyBytes, 0, 16);
+
+    cipherKey = new SecretKeySpec(cipherKeyBytes, "AES");
+    macKey = new SecretKeySpec(macKeyBytes, "HmacSHA256");
+  }
+
+  static final byte[] createSalt() {
+
+    final byte[] salt = new byte[SALT_LENGTH];
+    new SecureRandom().nextBytes(salt);
+    return salt;
+  }
+
+  final byte[] seal(final byte[] content) throws GeneralSecurityException {
+
+    final byte[] iv = new byte[IV_LENGTH];
+    random.nextBytes(iv);
+
+    final Cipher cipher = Cipher.getInstance("AES/CBC/PKCS5Padding");
+    cipher.init(Cipher.ENCRYPT_MODE, cipherKey, new IvParameterSpec(iv));
+    final byte[] encrypted = cipher.doFinal(content);
+
+    final byte[] sealed = new byte[IV_LENGTH + encrypted.length + MAC_LENGTH];
+    System.arraycopy(iv, 0, sealed, 0, IV_LENGTH);
+    System.arraycopy(encrypted, 0, sealed, IV_LENGTH, encrypted.length);
+    System.arraycopy(this.mac(sealed, IV_LENGTH + encrypted.length), 0, sealed, IV_LENGTH + encrypted.length, MAC_LENGTH);
+
+    return sealed;
+  }
+
+  final byte[] open(final byte[] sealed) throws GeneralSecurityException {
+
+    if (sealed.length < IV_LENGTH + MAC_LENGTH) {
+      throw new GeneralSecurityException("Sealed content is too short");
+    }
+
+    final int signedLength = sealed.length - MAC_LENGTH;
+    final byte[] mac = new byte[MAC_LENGTH];
+    System.arraycopy(sealed, signedLength, mac, 0, MAC_LENGTH);
+
+    /* Reject content which is not sealed with same secret */
+    if (!MessageDigest.isEqual(mac, this.mac(sealed, signedLength))) {
+      throw new GeneralSecurityException("Sealed content is not authentic");
+    }
+
+    final Cipher cipher = Cipher.getInstance("AES/CBC/PKCS5Padding");
+    cipher.init(Cipher.DECRYPT_MODE, cipherKey, new IvParameterSpec(sealed, 0, IV_LENGTH));
+
+    return cipher.doFinal(sealed, IV_LENGTH, signedLength - IV_LENGTH);
+  }
+
+  private final byte[] mac(final byte[] data, final int length) throws GeneralSecurityException {
+
+    final Mac mac = Mac.getInstance("HmacSHA256");
+    mac.init(macKey);
+    mac.update(data, 0, length);
+    return mac.doFinal();
+  }
+}
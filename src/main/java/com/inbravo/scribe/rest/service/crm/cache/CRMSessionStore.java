@@ -0,0 +1,62 @@
+/*
+ * MIT License
+ * 
+ * Copyright (c) 2016 Amit Dixit (github.com/inbravo)
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.inbravo.scribe.rest.service.crm.cache;
+
+/**
+ * Store behind the CRM session cache. Cache informs the store about the objects admitted or
+ * discarded by application, and asks the store for objects which are not found locally. A store
+ * gives objects back to the cache through {@link CRMSessionCache#replicate} and
+ * {@link CRMSessionCache#discardReplica}
+ * 
+ * @author amit.dixit
+ * 
+ */
+public interface CRMSessionStore {
+
+  /**
+   * Called once, when store is set at cache
+   * 
+   * @param cRMSessionCache
+   */
+  void attach(final CRMSessionCache cRMSessionCache);
+
+  /**
+   * Called when an object is admitted in cache by application
+   */
+  void stored(final Object key, final Object cachedData, final long timeCached, final long timeAccessedLast, final long timeToLive,
+      final long accessTimeout);
+
+  /**
+   * Called when an object is discarded from cache by application
+   * 
+   * @param key
+   */
+  void discarded(final Object key);
+
+  /**
+   * Called when an object is not found in cache. Store should replicate the object in cache, if it
+   * has one
+   * 
+   * @param key
+   */
+  void load(final Object key);
+}
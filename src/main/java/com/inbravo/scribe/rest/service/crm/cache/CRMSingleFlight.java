@@ -0,0 +1,104 @@
+/*
+ * MIT License
+ * 
+ * Copyright (c) 2016 Amit Dixit (github.com/inbravo)
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.inbravo.scribe.rest.service.crm.cache;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+
+import org.apache.log4j.Logger;
+
+/**
+ * Single flight call: concurrent calls with the same key wait on the call started first and share
+ * its result, instead of calling CRM again
+ * 
+ * @author amit.dixit
+ * 
+ */
+public final class CRMSingleFlight<K> {
+
+  private final Logger logger = Logger.getLogger(CRMSingleFlight.class.getName());
+
+  /* Calls in progress */
+  private final ConcurrentHashMap<K, FutureTask<?>> inFlightCalls = new ConcurrentHashMap<K, FutureTask<?>>();
+
+  /**
+   * Executes the call, or waits for the call already in progress for the key
+   * 
+   * @param key
+   * @param call
+   * @return
+   * @throws Exception
+   */
+  @SuppressWarnings("unchecked")
+  public final <T> T execute(final K key, final Callable<T> call) throws Exception {
+
+    final FutureTask<T> newCall = new FutureTask<T>(call);
+
+    /* Check if call is already in progress */
+    final FutureTask<T> inFlightCall = (FutureTask<T>) inFlightCalls.putIfAbsent(key, newCall);
+
+    if (inFlightCall != null) {
+
+      logger.debug("----Inside execute, call is in progress for: " + key + "; waiting for its result");
+
+      return this.getResult(inFlightCall);
+    }
+
+    try {
+
+      /* Call in current thread */
+      newCall.run();
+    } finally {
+
+      /* Following requests should call again */
+      inFlightCalls.remove(key, newCall);
+    }
+
+    return this.getResult(newCall);
+  }
+
+  /**
+   * 
+   * @return number of calls in progress
+   */
+  public final int getInFlightCount() {
+    return inFlightCalls.size();
+  }
+
+  private final <T> T getResult(final FutureTask<T> call) throws Exception {
+
+    try {
+      return call.get();
+    } catch (final ExecutionException e) {
+
+      /* Throw the original error of call */
+      if (e.getCause() instanceof Exception) {
+        throw (Exception) e.getCause();
+      } else if (e.getCause() instanceof Error) {
+        throw (Error) e.getCause();
+      }
+      throw e;
+    }
+  }
+}
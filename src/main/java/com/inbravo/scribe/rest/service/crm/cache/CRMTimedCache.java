@@ -0,0 +1,246 @@
+/*
+ * MIT License
+ * 
+ * Copyright (c) 2016 Amit Dixit (github.com/inbravo)
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.inbravo.scribe.rest.service.crm.cache;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.log4j.Logger;
+
+/**
+ * Keeps values loaded from CRM for a time to live. A missing or expired value is loaded once for
+ * all concurrent requests of the same key. A value whose load started before an invalidation is
+ * not cached, and is not given to requests which started after the invalidation
+ * 
+ * @author amit.dixit
+ * 
+ */
+public final class CRMTimedCache<K, V> {
+
+  private final Logger logger = Logger.getLogger(CRMTimedCache.class.getName());
+
+  /* Cached values */
+  private final ConcurrentHashMap<K, TimedEntry<V>> entryMap = new ConcurrentHashMap<K, TimedEntry<V>>();
+
+  /* Loads in progress */
+  private final CRMSingleFlight<K> loads = new CRMSingleFlight<K>();
+
+  /* Incremented at each invalidation */
+  private final AtomicLong generation = new AtomicLong();
+
+  /* Time to live of a value in msec(s); zero or less disables caching */
+  private long timeToLive;
+
+  /* Maximum cached values */
+  private int maxEntries = Integer.MAX_VALUE;
+
+  public CRMTimedCache(final long timeToLive) {
+    this.timeToLive = timeToLive;
+  }
+
+  /**
+   * 
+   * @param key
+   * @param loader loads the value if not found in cache
+   * @return cached value, or a new value from loader
+   * @throws Exception
+   */
+  public final V get(final K key, final Callable<V> loader) throws Exception {
+
+    final TimedEntry<V> cachedEntry = entryMap.get(key);
+
+    if (cachedEntry != null && cachedEntry.expiresAt > System.currentTimeMillis()) {
+      return cachedEntry.value;
+    }
+
+    logger.debug("----Inside get value is not found in cache; going to load: " + key);
+
+    final long requestGeneration = generation.get();
+
+    while (true) {
+
+      /* Load once for all concurrent requests of same key */
+      final LoadedValue<V> loadedValue = loads.execute(key, new Callable<LoadedValue<V>>() {
+
+        @Override
+        public final LoadedValue<V> call() throws Exception {
+
+          final long loadGeneration = generation.get();
+
+          /* Entry may be cached by a load which is finished meanwhile */
+          final TimedEntry<V> latestEntry = entryMap.get(key);
+
+          if (latestEntry != null && latestEntry != cachedEntry && latestEntry.expiresAt > System.currentTimeMillis()) {
+            return new LoadedValue<V>(latestEntry.value, loadGeneration);
+          }
+
+          final V value = loader.call();
+
+          put(key, value, loadGeneration);
+
+          return new LoadedValue<V>(value, loadGeneration);
+        }
+      });
+
+      /* Load started before an invalidation seen by this request is not used; next load starts after it */
+      if (loadedValue.generation >= requestGeneration) {
+        return loadedValue.value;
+      }
+
+      logger.debug("----Inside get value is invalidated while being loaded; going to load again: " + key);
+    }
+  }
+
+  /**
+   * Removes value of the key
+   * 
+   * @param key
+   */
+  public final void invalidate(final K key) {
+
+    generation.incrementAndGet();
+    entryMap.remove(key);
+  }
+
+  /**
+   * Removes values of all keys accepted by the filter
+   * 
+   * @param keyFilter
+   */
+  public final void invalidate(final KeyFilter<K> keyFilter) {
+
+    generation.incrementAndGet();
+
+    for (final Iterator<K> iterator = entryMap.keySet().iterator(); iterator.hasNext();) {
+      if (keyFilter.accept(iterator.next())) {
+        iterator.remove();
+      }
+    }
+  }
+
+  /**
+   * Removes all values
+   */
+  public final void invalidateAll() {
+
+    generation.incrementAndGet();
+    entryMap.clear();
+  }
+
+  /**
+   * 
+   * @return number of cached values, including expired values not yet removed
+   */
+  public final int size() {
+    return entryMap.size();
+  }
+
+  private final void put(final K key, final V value, final long loadGeneration) {
+
+    /* Value may be changed at CRM since its load started */
+    if (timeToLive <= 0 || generation.get() != loadGeneration) {
+      return;
+    }
+
+    /* Make room for new value; remove expired values */
+    if (entryMap.size() >= maxEntries) {
+      this.removeExpiredEntries();
+    }
+
+    if (entryMap.size() < maxEntries) {
+
+      final TimedEntry<V> newEntry = new TimedEntry<V>(value, System.currentTimeMillis() + timeToLive);
+
+      entryMap.put(key, newEntry);
+
+      /* Invalidation which started after above check may have missed the new entry */
+      if (generation.get() != loadGeneration) {
+        entryMap.remove(key, newEntry);
+      }
+    } else {
+      logger.debug("----Inside put, maximum values are cached; not caching: " + key);
+    }
+  }
+
+  private final void removeExpiredEntries() {
+
+    final long now = System.currentTimeMillis();
+
+    for (final Iterator<Map.Entry<K, TimedEntry<V>>> iterator = entryMap.entrySet().iterator(); iterator.hasNext();) {
+
+      if (iterator.next().getValue().expiresAt <= now) {
+        iterator.remove();
+      }
+    }
+  }
+
+  public final long getTimeToLive() {
+    return timeToLive;
+  }
+
+  public final void setTimeToLive(final long timeToLive) {
+    this.timeToLive = timeToLive;
+  }
+
+  public final int getMaxEntries() {
+    return maxEntries;
+  }
+
+  public final void setMaxEntries(final int maxEntries) {
+    this.maxEntries = maxEntries;
+  }
+
+  /**
+   * Selects keys to be invalidated
+   */
+  public static interface KeyFilter<K> {
+
+    public boolean accept(final K key);
+  }
+
+  private static final class LoadedValue<V> {
+
+    private final V value;
+
+    private final long generation;
+
+    private LoadedValue(final V value, final long generation) {
+      this.value = value;
+      this.generation = generation;
+    }
+  }
+
+  private static final class TimedEntry<V> {
+
+    private final V value;
+
+    private final long expiresAt;
+
+    private TimedEntry(final V value, final long expiresAt) {
+      this.value = value;
+      this.expiresAt = expiresAt;
+    }
+  }
+}
@@ -0,0 +1,52 @@
+/*
+ * MIT License
+ * 
+ * Copyright (c) 2016 Amit Dixit (github.com/inbravo)
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.inbravo.scribe.rest.service.crm.cache;
+
+/**
+ * In process store; cache itself is the only copy of CRM sessions
+ * 
+ * @author amit.dixit
+ * 
+ */
+public final class LocalCRMSessionStore implements CRMSessionStore {
+
+  @Override
+  public final void attach(final CRMSessionCache cRMSessionCache) {
+    /* Nothing to attach */
+  }
+
+  @Override
+  public final void stored(final Object key, final Object cachedData, final long timeCached, final long timeAccessedLast, final long timeToLive,
+      final long accessTimeout) {
+    /* Cache holds the only copy */
+  }
+
+  @Override
+  public final void discarded(final Object key) {
+    /* Cache holds the only copy */
+  }
+
+  @Override
+  public final void load(final Object key) {
+    /* No other copy to load from */
+  }
+}
@@ -0,0 +1,836 @@
+/*
+ * MIT License
+ * 
+ * Copyright (c) 2016 Amit Dixit (github.com/inbravo)
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.inbravo.scribe.rest.service.crm.cache;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.NetworkInterface;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.log4j.Logger;
+
+import com.inbravo.scribe.exception.ScribeException;
+import com.inbravo.scribe.exception.ScribeResponseCodes;
+
+/**
+ * Session store which shares CRM sessions with peer nodes over TCP. Admissions and discards are
+ * pushed to all peers in background; an object not found locally is asked from peers in background,
+ * at most once per key in a retry interval. Requesting thread waits for the peers only up to load
+ * timeout, and otherwise continues with a normal login. All messages are encrypted and authenticated
+ * with a secret shared by the cluster. SOAP stubs are not shared; session managers create these
+ * again from the shared session information.
+ * 
+ * @author amit.dixit
+ * 
+ */
+public final class PeerCRMSessionStore implements CRMSessionStore {
+
+  private final Logger logger = Logger.getLogger(PeerCRMSessionStore.class.getName());
+
+  private static final byte OP_STORE = 1;
+
+  private static final byte OP_DISCARD = 2;
+
+  private static final byte OP_LOAD = 3;
+
+  private static final byte OP_FOUND = 4;
+
+  private static final byte OP_NOT_FOUND = 5;
+
+  /* Messages older than this are rejected as replays */
+  private static final long MAXIMUM_MESSAGE_AGE = 5 * 60 * 1000;
+
+  /* Largest message accepted from a peer */
+  private static final int MAXIMUM_MESSAGE_LENGTH = 4 * 1024 * 1024;
+
+  /* All nodes of a cluster derive same key from the shared secret */
+  private static final byte[] KEY_SALT = "scribe-crm-session-store".getBytes();
+
+  /* CRM session cache */
+  private CRMSessionCache cRMSessionCache;
+
+  private String bindAddress = "0.0.0.0";
+
+  private int port;
+
+  /* Comma separated host:port of all nodes; this node is skipped */
+  private String peers;
+
+  private String secret;
+
+  /* Socket connect and read timeout in milliseconds */
+  private int timeout = 1000;
+
+  /* Period for which an unreachable peer is not contacted, and a key not found at peers is not asked again */
+  private long retryInterval = 30000;
+
+  /* Maximum time for which a request waits for its object from peers */
+  private long loadTimeout = 200;
+
+  /* Maximum number of keys being asked from peers at same time */
+  private int maxLoads = 64;
+
+  /* Pending pushes per peer; oldest are dropped if peer is slow */
+  private int queueSize = 1000;
+
+  private int maxConnections = 32;
+
+  private CRMSessionCipher cipher;
+
+  private ServerSocket serverSocket;
+
+  private Thread acceptor;
+
+  private ExecutorService connectionHandlers;
+
+  /* Asks peers for objects not found locally */
+  private ThreadPoolExecutor loaders;
+
+  /* Recent lookups of keys at peers */
+  private final ConcurrentHashMap<String, Lookup> lookups = new ConcurrentHashMap<String, Lookup>();
+
+  /* Old lookups are purged when this many are kept; doubled if most are still recent */
+  private volatile int lookupPurgeSize;
+
+  private final List<Peer> peerList = new ArrayList<Peer>();
+
+  public final synchronized void start() throws Exception {
+
+    if (acceptor != null) {
+      return;
+    }
+
+    if (secret == null || "".equals(secret.trim())) {
+      throw new ScribeException(ScribeResponseCodes._1008 + "CRM session store secret is not configured");
+    }
+
+    cipher = new CRMSessionCipher(secret, KEY_SALT);
+
+    serverSocket = new ServerSocket();
+    serverSocket.setReuseAddress(true);
+    serverSocket.bind(new InetSocketAddress(bindAddress, port));
+
+    final AtomicInteger threadCount = new AtomicInteger();
+
+    connectionHandlers =
+        new ThreadPoolExecutor(0, maxConnections, 60, TimeUnit.SECONDS, new SynchronousQueue<Runnable>(), new ThreadFactory() {
+
+          @Override
+          public final Thread newThread(final Runnable runnable) {
+            final Thread thread = new Thread(runnable, "CRMSessionStore-Connection-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+          }
+        }, new ThreadPoolExecutor.AbortPolicy());
+
+    final AtomicInteger loaderCount = new AtomicInteger();
+
+    loaders =
+        new ThreadPoolExecutor(0, Math.max(1, Math.min(maxLoads, 4)), 60, TimeUnit.SECONDS, new ArrayBlockingQueue<Runnable>(Math.max(1, maxLoads)),
+            new ThreadFactory() {
+
+              @Override
+              public final Thread newThread(final Runnable runnable) {
+                final Thread thread = new Thread(runnable, "CRMSessionStore-Loader-" + loaderCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+              }
+            }, new ThreadPoolExecutor.AbortPolicy());
+
+    if (peers != null) {
+      for (final String peer : peers.split(",")) {
+
+        final String address = peer.trim();
+
+        if ("".equals(address)) {
+          continue;
+        }
+
+        final int separator = address.lastIndexOf(':');
+        final String host = address.substring(0, separator).trim();
+        final int peerPort = Integer.parseInt(address.substring(separator + 1).trim());
+
+        if (this.isSelf(host, peerPort)) {
+          continue;
+        }
+
+        peerList.add(new Peer(host, peerPort));
+      }
+    }
+
+    acceptor = new Thread(new Runnable() {
+
+      @Override
+      public void run() {
+        accept();
+      }
+    }, "CRMSessionStore-Acceptor");
+
+    acceptor.setDaemon(true);
+    acceptor.start();
+
+    logger.debug("----Inside start, CRM session store is listening at: " + bindAddress + ":" + port + " with peers: " + peerList);
+  }
+
+  public final synchronized void stop() {
+
+    if (acceptor == null) {
+      return;
+    }
+
+    acceptor.interrupt();
+
+    try {
+      serverSocket.close();
+    } catch (final IOException e) {
+      logger.error("=*=Inside stop, problem in closing CRM session store socket", e);
+    }
+
+    connectionHandlers.shutdownNow();
+    loaders.shutdownNow();
+    lookups.clear();
+
+    for (final Peer peer : peerList) {
+      peer.shutdown();
+    }
+
+    peerList.clear();
+    acceptor = null;
+  }
+
+  @Override
+  public final void attach(final CRMSessionCache cRMSessionCache) {
+    this.cRMSessionCache = cRMSessionCache;
+  }
+
+  @Override
+  public final void stored(final Object key, final Object cachedData, final long timeCached, final long timeAccessedLast, final long timeToLive,
+      final long accessTimeout) {
+
+    if (!(key instanceof String) || !(cachedData instanceof ScribeCacheObject) || ((ScribeCacheObject) cachedData).getScribeMetaObject() == null) {
+      return;
+    }
+
+    try {
+
+      /* Encode now; object may change before push */
+      final ByteArrayOutputStream message = new ByteArrayOutputStream();
+      final DataOutputStream out = this.createMessage(message, OP_STORE, (String) key);
+      out.writeLong(timeCached);
+      out.writeLong(timeAccessedLast);
+      out.writeLong(timeToLive);
+      out.writeLong(accessTimeout);
+      ScribeCacheObjectCodec.writeCacheObject(out, (ScribeCacheObject) cachedData);
+      out.flush();
+
+      this.push(message.toByteArray());
+    } catch (final Exception e) {
+      logger.error("=*=Inside stored, problem in sharing session of: " + key, e);
+    }
+  }
+
+  @Override
+  public final void discarded(final Object key) {
+
+    if (!(key instanceof String)) {
+      return;
+    }
+
+    try {
+      final ByteArrayOutputStream message = new ByteArrayOutputStream();
+      this.createMessage(message, OP_DISCARD, (String) key).flush();
+
+      this.push(message.toByteArray());
+    } catch (final Exception e) {
+      logger.error("=*=Inside discarded, problem in sharing discard of: " + key, e);
+    }
+  }
+
+  @Override
+  public final void load(final Object key) {
+
+    if (!(key instanceof String) || cRMSessionCache == null || loaders == null || peerList.isEmpty()) {
+      return;
+    }
+
+    final Lookup lookup = this.lookupOf((String) key);
+
+    /* Key was asked from peers recently, or too many keys are being asked */
+    if (lookup == null) {
+      return;
+    }
+
+    try {
+
+      /* Wait for peers only for a while; lookup continues in background and replicates when found */
+      lookup.task.get(loadTimeout, TimeUnit.MILLISECONDS);
+    } catch (final TimeoutException e) {
+      logger.debug("----Inside load, session of: " + key + " is not received from peers in: " + loadTimeout + " ms");
+    } catch (final InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } catch (final Exception e) {
+      logger.error("=*=Inside load, problem in loading session of: " + key + " from peers", e);
+    }
+  }
+
+  /**
+   * Lookup of key at peers; a new lookup is started if key is not asked in retry interval
+   * 
+   * @return null if key is already asked and answered in retry interval, or if lookup can not be
+   *         started
+   */
+  private final Lookup lookupOf(final String key) {
+
+    final long now = System.currentTimeMillis();
+
+    while (true) {
+
+      final Lookup existing = lookups.get(key);
+
+      if (existing != null) {
+
+        /* Running lookup is shared */
+        if (!existing.task.isDone()) {
+          return existing;
+        }
+
+        /* Key is not found at peers recently */
+        if (now - existing.finishedAt < retryInterval) {
+          return null;
+        }
+
+        lookups.remove(key, existing);
+        continue;
+      }
+
+      final Lookup lookup = new Lookup(key);
+
+      if (lookups.putIfAbsent(key, lookup) != null) {
+        continue;
+      }
+
+      /* Forget old lookups; keeps memory bounded by recent misses */
+      if (lookups.size() > Math.max(maxLoads, lookupPurgeSize)) {
+        this.purgeLookups(now);
+        lookupPurgeSize = 2 * lookups.size();
+      }
+
+      try {
+        loaders.execute(lookup.task);
+      } catch (final RejectedExecutionException e) {
+
+        logger.debug("----Inside load, too many sessions are being loaded from peers; skipping: " + key);
+        lookups.remove(key, lookup);
+        return null;
+      }
+      return lookup;
+    }
+  }
+
+  private final void purgeLookups(final long now) {
+
+    for (final Map.Entry<String, Lookup> entry : lookups.entrySet()) {
+
+      final Lookup lookup = entry.getValue();
+
+      if (lookup.task.isDone() && now - lookup.finishedAt >= retryInterval) {
+        lookups.remove(entry.getKey(), lookup);
+      }
+    }
+  }
+
+  /**
+   * Asks each peer for the object of key, until one has it
+   * 
+   * @return true if object is replicated in cache
+   */
+  private final boolean loadFromPeers(final String key) throws Exception {
+
+    final ByteArrayOutputStream message = new ByteArrayOutputStream();
+    this.createMessage(message, OP_LOAD, key).flush();
+    final byte[] request = cipher.seal(message.toByteArray());
+
+    for (final Peer peer : peerList) {
+
+      final byte[] response = peer.call(request);
+
+      /* Peer is unreachable */
+      if (response == null) {
+        continue;
+      }
+
+      final DataInputStream in = this.openMessage(cipher.open(response));
+
+      if (in != null && in.readByte() == OP_FOUND && key.equals(ScribeCacheObjectCodec.readString(in))) {
+
+        logger.debug("----Inside load, found session of: " + key + " at peer: " + peer);
+
+        this.replicate(key, in);
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private final void push(final byte[] message) throws Exception {
+
+    final byte[] sealed = cipher.seal(message);
+
+    for (final Peer peer : peerList) {
+      peer.send(sealed);
+    }
+  }
+
+  private final DataOutputStream createMessage(final ByteArrayOutputStream message, final byte op, final String key) throws IOException {
+
+    final DataOutputStream out = new DataOutputStream(message);
+    out.writeLong(System.currentTimeMillis());
+    out.writeByte(op);
+    ScribeCacheObjectCodec.writeString(out, key);
+    return out;
+  }
+
+  /**
+   * Opens a message, positioned at its operation
+   * 
+   * @return null if message is too old
+   */
+  private final DataInputStream openMessage(final byte[] message) throws IOException {
+
+    final DataInputStream in = new DataInputStream(new ByteArrayInputStream(message));
+
+    if (Math.abs(System.currentTimeMillis() - in.readLong()) > MAXIMUM_MESSAGE_AGE) {
+      logger.error("=*=Inside CRMSessionStore: rejecting an old message; check clocks of nodes");
+      return null;
+    }
+    return in;
+  }
+
+  private final void replicate(final String key, final DataInputStream in) throws IOException {
+
+    final long timeCached = in.readLong();
+    final long timeAccessedLast = in.readLong();
+    final long timeToLive = in.readLong();
+    final long accessTimeout = in.readLong();
+    final ScribeCacheObject cacheObject = ScribeCacheObjectCodec.readCacheObject(in);
+
+    cRMSessionCache.replicate(key, cacheObject, timeCached, timeAccessedLast, timeToLive, accessTimeout);
+  }
+
+  private final void accept() {
+
+    while (!Thread.currentThread().isInterrupted()) {
+
+      final Socket socket;
+
+      try {
+        socket = serverSocket.accept();
+      } catch (final IOException e) {
+
+        /* Socket is closed at stop */
+        if (!serverSocket.isClosed()) {
+          logger.error("=*=Inside accept, problem in accepting peer connection", e);
+        }
+        return;
+      }
+
+      try {
+        connectionHandlers.execute(new Runnable() {
+
+          @Override
+          public void run() {
+            serve(socket);
+          }
+        });
+      } catch (final Exception e) {
+        logger.error("=*=Inside accept, too many peer connections; closing: " + socket.getRemoteSocketAddress());
+        closeQuietly(socket);
+      }
+    }
+  }
+
+  /**
+   * Serves the messages of one peer connection until it is closed
+   */
+  private final void serve(final Socket socket) {
+
+    try {
+
+      final DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+      final DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+
+      while (!Thread.currentThread().isInterrupted()) {
+
+        final byte[] sealed = readFrame(in);
+
+        /* Peer closed the connection */
+        if (sealed == null) {
+          return;
+        }
+
+        final DataInputStream message = this.openMessage(cipher.open(sealed));
+
+        if (message == null || cRMSessionCache == null) {
+          continue;
+        }
+
+        final byte op = message.readByte();
+        final String key = ScribeCacheObjectCodec.readString(message);
+
+        if (op == OP_STORE) {
+          this.replicate(key, message);
+        } else if (op == OP_DISCARD) {
+          cRMSessionCache.discardReplica(key);
+        } else if (op == OP_LOAD) {
+          writeFrame(out, cipher.seal(this.createLoadResponse(key)));
+          out.flush();
+        }
+      }
+    } catch (final Exception e) {
+      logger.error("=*=Inside serve, closing peer connection: " + socket.getRemoteSocketAddress() + " : " + e);
+    } finally {
+      closeQuietly(socket);
+    }
+  }
+
+  private final byte[] createLoadResponse(final String key) throws IOException {
+
+    final Object cachedData = cRMSessionCache.peek(key);
+    final ByteArrayOutputStream message = new ByteArrayOutputStream();
+
+    if (cachedData instanceof ScribeCacheObject && ((ScribeCacheObject) cachedData).getScribeMetaObject() != null) {
+
+      final DataOutputStream out = this.createMessage(message, OP_FOUND, key);
+      out.writeLong(cRMSessionCache.whenCached(key));
+      out.writeLong(cRMSessionCache.whenLastAccessed(key));
+      out.writeLong(cRMSessionCache.timeToLive(key));
+      out.writeLong(cRMSessionCache.accessTimeout(key));
+      ScribeCacheObjectCodec.writeCacheObject(out, (ScribeCacheObject) cachedData);
+      out.flush();
+    } else {
+      this.createMessage(message, OP_NOT_FOUND, key).flush();
+    }
+
+    return message.toByteArray();
+  }
+
+  private final boolean isSelf(final String host, final int peerPort) {
+
+    if (peerPort != port) {
+      return false;
+    }
+
+    try {
+      final InetAddress address = InetAddress.getByName(host);
+      return address.isLoopbackAddress() || address.isAnyLocalAddress() || NetworkInterface.getByInetAddress(address) != null;
+    } catch (final IOException e) {
+      return false;
+    }
+  }
+
+  private static final byte[] readFrame(final DataInputStream in) throws IOException {
+
+    final int length;
+
+    try {
+      length = in.readInt();
+    } catch (final EOFException e) {
+      return null;
+    }
+
+    if (length < 0 || length > MAXIMUM_MESSAGE_LENGTH) {
+      throw new IOException("Invalid message length: " + length);
+    }
+
+    final byte[] frame = new byte[length];
+    in.readFully(frame);
+    return frame;
+  }
+
+  private static final void writeFrame(final DataOutputStream out, final byte[] frame) throws IOException {
+    out.writeInt(frame.length);
+    out.write(frame);
+  }
+
+  private static final void closeQuietly(final Socket socket) {
+    try {
+      socket.close();
+    } catch (final IOException e) {
+      /* Nothing to do */
+    }
+  }
+
+  /**
+   * Lookup of one key at peers
+   */
+  private final class Lookup {
+
+    private final FutureTask<Boolean> task;
+
+    /* Time at which lookup is finished */
+    private volatile long finishedAt;
+
+    Lookup(final String key) {
+
+      task = new FutureTask<Boolean>(new Callable<Boolean>() {
+
+        @Override
+        public final Boolean call() throws Exception {
+
+          try {
+            final boolean found = loadFromPeers(key);
+
+            /* Object is in cache now; a later miss is asked again */
+            if (found) {
+              lookups.remove(key, Lookup.this);
+            }
+            return found;
+          } finally {
+            finishedAt = System.currentTimeMillis();
+          }
+        }
+      });
+    }
+  }
+
+  /**
+   * Connection to one peer. Pushes are sent by a single background thread; loads are sent by loader
+   * threads. Both share one connection, under lock of this peer.
+   */
+  private final class Peer {
+
+    private final String host;
+
+    private final int port;
+
+    private final ThreadPoolExecutor sender;
+
+    private Socket socket;
+
+    private DataInputStream in;
+
+    private DataOutputStream out;
+
+    /* Peer is not contacted before this time after a failure */
+    private volatile long retryAt;
+
+    Peer(final String host, final int port) {
+
+      this.host = host;
+      this.port = port;
+
+      sender =
+          new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<Runnable>(queueSize), new ThreadFactory() {
+
+            @Override
+            public final Thread newThread(final Runnable runnable) {
+              final Thread thread = new Thread(runnable, "CRMSessionStore-Peer-" + Peer.this);
+              thread.setDaemon(true);
+              return thread;
+            }
+          }, new ThreadPoolExecutor.DiscardOldestPolicy());
+    }
+
+    final void send(final byte[] sealed) {
+
+      if (System.currentTimeMillis() < retryAt) {
+        return;
+      }
+
+      sender.execute(new Runnable() {
+
+        @Override
+        public void run() {
+          exchange(sealed, false);
+        }
+      });
+    }
+
+    final byte[] call(final byte[] sealed) {
+
+      if (System.currentTimeMillis() < retryAt) {
+        return null;
+      }
+      return this.exchange(sealed, true);
+    }
+
+    private final synchronized byte[] exchange(final byte[] sealed, final boolean expectResponse) {
+
+      try {
+
+        if (socket == null) {
+          socket = new Socket();
+          socket.connect(new InetSocketAddress(host, port), timeout);
+          socket.setSoTimeout(timeout);
+          socket.setTcpNoDelay(true);
+          in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+          out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+        }
+
+        writeFrame(out, sealed);
+        out.flush();
+
+        byte[] response = null;
+
+        if (expectResponse) {
+
+          response = readFrame(in);
+
+          if (response == null) {
+            throw new IOException("Connection closed by peer");
+          }
+        }
+
+        /* Peer is reachable again */
+        retryAt = 0;
+        return response;
+      } catch (final IOException e) {
+
+        logger.error("=*=Inside CRMSessionStore: peer " + this + " is unreachable; retrying after " + retryInterval + " ms : " + e);
+
+        retryAt = System.currentTimeMillis() + retryInterval;
+        this.close();
+        return null;
+      }
+    }
+
+    final void shutdown() {
+      sender.shutdownNow();
+      this.close();
+    }
+
+    final synchronized void close() {
+
+      if (socket != null) {
+        closeQuietly(socket);
+        socket = null;
+        in = null;
+        out = null;
+      }
+    }
+
+    @Override
+    public final String toString() {
+      return host + ":" + port;
+    }
+  }
+
+  public final String getBindAddress() {
+    return bindAddress;
+  }
+
+  public final void setBindAddress(final String bindAddress) {
+    this.bindAddress = bindAddress;
+  }
+
+  public final int getPort() {
+    return port;
+  }
+
+  public final void setPort(final int port) {
+    this.port = port;
+  }
+
+  public final String getPeers() {
+    return peers;
+  }
+
+  public final void setPeers(final String peers) {
+    this.peers = peers;
+  }
+
+  public final void setSecret(final String secret) {
+    this.secret = secret;
+  }
+
+  public final int getTimeout() {
+    return timeout;
+  }
+
+  public final void setTimeout(final int timeout) {
+    this.timeout = timeout;
+  }
+
+  public final long getRetryInterval() {
+    return retryInterval;
+  }
+
+  public final void setRetryInterval(final long retryInterval) {
+    this.retryInterval = retryInterval;
+  }
+
+  public final long getLoadTimeout() {
+    return loadTimeout;
+  }
+
+  public final void setLoadTimeout(final long loadTimeout) {
+    this.loadTimeout = loadTimeout;
+  }
+
+  public final int getMaxLoads() {
+    return maxLoads;
+  }
+
+  public final void setMaxLoads(final int maxLoads) {
+    this.maxLoads = maxLoads;
+  }
+
+  public final int getQueueSize() {
+    return queueSize;
+  }
+
+  public final void setQueueSize(final int queueSize) {
+    this.queueSize = queueSize;
+  }
+
+  public final int getMaxConnections() {
+    return maxConnections;
+  }
+
+  public final void setMaxConnections(final int maxConnections) {
+    this.maxConnections = maxConnections;
+  }
+}
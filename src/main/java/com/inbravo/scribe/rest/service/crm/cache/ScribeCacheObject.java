@@ -42,7 +42,7 @@ public final class ScribeCacheObject implements BasicObject {
 
   private ScribeMetaObject scribeMetaObject;
 
-  /* For MS/NS CRM */
+  /* For MS/NS/SFDC CRM */
   private Map<String, String> additionalInfo;
 
   public ScribeCacheObject(final ScribeMetaObject scribeMetaObject) {
@@ -74,6 +74,32 @@ public final class ScribeCacheObject implements BasicObject {
     this.scribeMetaObject = scribeMetaObject;
   }
 
+  /**
+   * Checks if this cached object can serve the requests of given CRM user. CRM credentials must be
+   * same; CRM service information which is not sent by user may be resolved at login
+   * 
+   * @param metaObject
+   * @return
+   */
+  public final boolean isSessionOf(final ScribeMetaObject metaObject) {
+
+    if (scribeMetaObject == null || metaObject == null) {
+      return false;
+    }
+
+    return equal(scribeMetaObject.getCrmType(), metaObject.getCrmType()) && equal(scribeMetaObject.getCrmUserId(), metaObject.getCrmUserId())
+        && equal(scribeMetaObject.getCrmPassword(), metaObject.getCrmPassword())
+        && equal(scribeMetaObject.getCrmAccountId(), metaObject.getCrmAccountId())
+        && (metaObject.getCrmURL() == null || equal(scribeMetaObject.getCrmURL(), metaObject.getCrmURL()))
+        && (metaObject.getCrmServiceURL() == null || equal(scribeMetaObject.getCrmServiceURL(), metaObject.getCrmServiceURL()))
+        && (metaObject.getCrmServiceProtocol() == null || equal(scribeMetaObject.getCrmServiceProtocol(), metaObject.getCrmServiceProtocol()))
+        && (metaObject.getCrmPort() == null || equal(scribeMetaObject.getCrmPort(), metaObject.getCrmPort()));
+  }
+
+  private static final boolean equal(final String first, final String second) {
+    return (first == null) ? second == null : first.equals(second);
+  }
+
   /**
    * 
    * @param cADCommandObject
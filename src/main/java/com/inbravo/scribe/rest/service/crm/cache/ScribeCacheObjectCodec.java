@@ -0,0 +1,147 @@
+/*
+ * MIT License
+ * 
+ * Copyright (c) 2016 Amit Dixit (github.com/inbravo)
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.inbravo.scribe.rest.service.crm.cache;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+import com.inbravo.scribe.rest.resource.ScribeMetaObject;
+
+/**
+ * Binary form of the CRM information of a cached object. SOAP stubs are not written; these are
+ * created again at next login.
+ * 
+ * @author amit.dixit
+ * 
+ */
+final class ScribeCacheObjectCodec {
+
+  private ScribeCacheObjectCodec() {}
+
+  static final void writeCacheObject(final DataOutputStream out, final ScribeCacheObject cacheObject) throws IOException {
+
+    final ScribeMetaObject metaObject = cacheObject.getScribeMetaObject();
+
+    writeString(out, metaObject.getCrmUserId());
+    writeString(out, metaObject.getCrmPassword());
+    writeString(out, metaObject.getCrmType());
+    writeString(out, metaObject.getCrmURL());
+    writeString(out, metaObject.getCrmAccountId());
+    writeString(out, metaObject.getCrmSessionId());
+    writeString(out, metaObject.getCrmOrgName());
+    writeString(out, metaObject.getCrmServiceURL());
+    writeString(out, metaObject.getCrmServiceProtocol());
+    writeString(out, metaObject.getCrmPort());
+
+    final String[] crmSecurityToken = metaObject.getCrmSecurityToken();
+
+    if (crmSecurityToken == null) {
+      out.writeInt(-1);
+    } else {
+      out.writeInt(crmSecurityToken.length);
+      for (final String token : crmSecurityToken) {
+        writeString(out, token);
+      }
+    }
+
+    final Map<String, String> additionalInfo = cacheObject.getAdditionalInfo();
+
+    if (additionalInfo == null) {
+      out.writeInt(-1);
+    } else {
+      final Map<String, String> info = new HashMap<String, String>(additionalInfo);
+      out.writeInt(info.size());
+      for (final Map.Entry<String, String> entry : info.entrySet()) {
+        writeString(out, entry.getKey());
+        writeString(out, entry.getValue());
+      }
+    }
+  }
+
+  static final ScribeCacheObject readCacheObject(final DataInputStream in) throws IOException {
+
+    final ScribeMetaObject metaObject = new ScribeMetaObject();
+
+    metaObject.setCrmUserId(readString(in));
+    metaObject.setCrmPassword(readString(in));
+    metaObject.setCrmType(readString(in));
+    metaObject.setCrmURL(readString(in));
+    metaObject.setCrmAccountId(readString(in));
+    metaObject.setCrmSessionId(readString(in));
+    metaObject.setCrmOrgName(readString(in));
+    metaObject.setCrmServiceURL(readString(in));
+    metaObject.setCrmServiceProtocol(readString(in));
+    metaObject.setCrmPort(readString(in));
+
+    final int tokens = in.readInt();
+
+    if (tokens >= 0) {
+      final String[] crmSecurityToken = new String[tokens];
+      for (int i = 0; i < tokens; i++) {
+        crmSecurityToken[i] = readString(in);
+      }
+      metaObject.setCrmSecurityToken(crmSecurityToken);
+    }
+
+    final ScribeCacheObject cacheObject = new ScribeCacheObject(metaObject);
+
+    final int infos = in.readInt();
+
+    if (infos >= 0) {
+      final Map<String, String> additionalInfo = new HashMap<String, String>();
+      for (int i = 0; i < infos; i++) {
+        additionalInfo.put(readString(in), readString(in));
+      }
+      cacheObject.setAdditionalInfo(additionalInfo);
+    }
+
+    return cacheObject;
+  }
+
+  /* Security tokens may be longer than the limit of writeUTF */
+  static final void writeString(final DataOutputStream out, final String value) throws IOException {
+
+    if (value == null) {
+      out.writeInt(-1);
+    } else {
+      final byte[] bytes = value.getBytes("UTF-8");
+      out.writeInt(bytes.length);
+      out.write(bytes);
+    }
+  }
+
+  static final String readString(final DataInputStream in) throws IOException {
+
+    final int length = in.readInt();
+
+    if (length < 0) {
+      return null;
+    }
+
+    final byte[] bytes = new byte[length];
+    in.readFully(bytes);
+    return new String(bytes, "UTF-8");
+  }
+}
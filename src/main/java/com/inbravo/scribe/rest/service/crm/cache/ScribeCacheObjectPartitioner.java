@@ -0,0 +1,85 @@
+/*
+ * MIT License
+ * 
+ * Copyright (c) 2016 Amit Dixit (github.com/inbravo)
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.inbravo.scribe.rest.service.crm.cache;
+
+import com.inbravo.scribe.rest.resource.ScribeMetaObject;
+
+/**
+ * Partitions cached CRM sessions by CRM type, or by tenant. A tenant is a CRM account; or the CRM
+ * instance if account is not known.
+ * 
+ * @author amit.dixit
+ * 
+ */
+public final class ScribeCacheObjectPartitioner implements CRMSessionPartitioner {
+
+  public static final String PARTITION_BY_CRM_TYPE = "crmType";
+
+  public static final String PARTITION_BY_TENANT = "tenant";
+
+  /* All objects in default partition */
+  public static final String PARTITION_BY_NONE = "none";
+
+  private String partitionBy = PARTITION_BY_CRM_TYPE;
+
+  @Override
+  public final String partitionOf(final Object key, final Object cachedData) {
+
+    if (PARTITION_BY_NONE.equalsIgnoreCase(partitionBy) || !(cachedData instanceof ScribeCacheObject)
+        || ((ScribeCacheObject) cachedData).getScribeMetaObject() == null) {
+      return null;
+    }
+
+    final ScribeMetaObject metaObject = ((ScribeCacheObject) cachedData).getScribeMetaObject();
+
+    if (metaObject.getCrmType() == null) {
+      return null;
+    }
+
+    final String crmType = metaObject.getCrmType().toUpperCase();
+
+    if (PARTITION_BY_TENANT.equalsIgnoreCase(partitionBy)) {
+
+      String tenant = metaObject.getCrmAccountId();
+
+      if (tenant == null) {
+        tenant = metaObject.getCrmURL();
+      }
+
+      if (tenant == null) {
+        tenant = metaObject.getCrmServiceURL();
+      }
+
+      return (tenant == null) ? crmType : crmType + "/" + tenant.trim().toLowerCase();
+    }
+
+    return crmType;
+  }
+
+  public final String getPartitionBy() {
+    return partitionBy;
+  }
+
+  public final void setPartitionBy(final String partitionBy) {
+    this.partitionBy = partitionBy;
+  }
+}
@@ -0,0 +1,152 @@
+/*
+ * MIT License
+ * 
+ * Copyright (c) 2016 Amit Dixit (github.com/inbravo)
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.inbravo.scribe.rest.service.crm.cache;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import com.inbravo.scribe.rest.resource.ScribeMetaObject;
+
+/**
+ * Estimates the retained heap size of a cached CRM session. Strings, arrays and maps held by the
+ * session are measured; SOAP stubs are too deep to be measured on every admission, hence their
+ * weight is configured for each CRM type.
+ * 
+ * @author amit.dixit
+ * 
+ */
+public final class ScribeCacheObjectWeigher implements CRMSessionWeigher {
+
+  /* Object header and padding */
+  private static final int OBJECT_OVERHEAD = 16;
+
+  private static final int REFERENCE_SIZE = 8;
+
+  /* String object with its character array */
+  private static final int STRING_OVERHEAD = 2 * OBJECT_OVERHEAD + 8;
+
+  /* Hash map entry with key, value, hash and next */
+  private static final int MAP_ENTRY_OVERHEAD = OBJECT_OVERHEAD + 3 * REFERENCE_SIZE + 8;
+
+  /* Weight of a stub of CRM type which is not configured */
+  private long defaultStubWeight;
+
+  /* Weight of stub by CRM type */
+  private Map<String, Long> stubWeights = new HashMap<String, Long>();
+
+  @Override
+  public final int weigh(final Object key, final Object cachedData) {
+
+    long weight = OBJECT_OVERHEAD + REFERENCE_SIZE;
+
+    if (key instanceof String) {
+      weight += weigh((String) key);
+    }
+
+    if (cachedData instanceof ScribeCacheObject) {
+      weight += this.weigh((ScribeCacheObject) cachedData);
+    } else if (cachedData != null) {
+      weight += OBJECT_OVERHEAD;
+    }
+
+    return (int) Math.min(Integer.MAX_VALUE, weight);
+  }
+
+  private final long weigh(final ScribeCacheObject cacheObject) {
+
+    long weight = OBJECT_OVERHEAD + 3 * REFERENCE_SIZE;
+
+    final ScribeMetaObject metaObject = cacheObject.getScribeMetaObject();
+
+    if (metaObject != null) {
+
+      weight += OBJECT_OVERHEAD + 11 * REFERENCE_SIZE;
+      weight += weigh(metaObject.getCrmUserId());
+      weight += weigh(metaObject.getCrmPassword());
+      weight += weigh(metaObject.getCrmType());
+      weight += weigh(metaObject.getCrmURL());
+      weight += weigh(metaObject.getCrmAccountId());
+      weight += weigh(metaObject.getCrmSessionId());
+      weight += weigh(metaObject.getCrmOrgName());
+      weight += weigh(metaObject.getCrmServiceURL());
+      weight += weigh(metaObject.getCrmServiceProtocol());
+      weight += weigh(metaObject.getCrmPort());
+
+      final String[] crmSecurityToken = metaObject.getCrmSecurityToken();
+
+      if (crmSecurityToken != null) {
+        weight += OBJECT_OVERHEAD + crmSecurityToken.length * REFERENCE_SIZE;
+        for (final String token : crmSecurityToken) {
+          weight += weigh(token);
+        }
+      }
+    }
+
+    final Map<String, String> additionalInfo = cacheObject.getAdditionalInfo();
+
+    if (additionalInfo != null) {
+
+      /* Map with its table; table is at least twice the entries at default load factor */
+      weight += 3 * OBJECT_OVERHEAD + 2 * additionalInfo.size() * REFERENCE_SIZE;
+
+      for (final Map.Entry<String, String> entry : new HashMap<String, String>(additionalInfo).entrySet()) {
+        weight += MAP_ENTRY_OVERHEAD + weigh(entry.getKey()) + weigh(entry.getValue());
+      }
+    }
+
+    if (cacheObject.getSoapStub() != null) {
+
+      final String crmType = (metaObject == null || metaObject.getCrmType() == null) ? null : metaObject.getCrmType().toUpperCase();
+      final Long stubWeight = (crmType == null) ? null : stubWeights.get(crmType);
+
+      weight += (stubWeight == null) ? defaultStubWeight : stubWeight;
+    }
+
+    return weight;
+  }
+
+  private static final long weigh(final String value) {
+    return (value == null) ? 0 : STRING_OVERHEAD + 2L * value.length();
+  }
+
+  public final long getDefaultStubWeight() {
+    return defaultStubWeight;
+  }
+
+  public final void setDefaultStubWeight(final long defaultStubWeight) {
+    this.defaultStubWeight = defaultStubWeight;
+  }
+
+  public final Map<String, Long> getStubWeights() {
+    return stubWeights;
+  }
+
+  public final void setStubWeights(final Map<String, Long> stubWeights) {
+
+    this.stubWeights = new HashMap<String, Long>();
+
+    /* CRM type is matched without case */
+    for (final Map.Entry<String, Long> entry : stubWeights.entrySet()) {
+      this.stubWeights.put(entry.getKey().trim().toUpperCase(), entry.getValue());
+    }
+  }
+}
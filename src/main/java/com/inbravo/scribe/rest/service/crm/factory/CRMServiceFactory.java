@@ -21,6 +21,10 @@
 
 package com.inbravo.scribe.rest.service.crm.factory;
 
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
 import org.apache.log4j.Logger;
 import org.springframework.beans.BeansException;
 import org.springframework.context.ApplicationContext;
@@ -79,13 +83,75 @@ public final class CRMServiceFactory implements ApplicationContextAware, ScribeS
   /* Constant for holding Zoho CRM name */
   private String zohoCRMConst = CRMConstants.zohoCRM;
 
+  /* Services of enabled CRMs by upper case CRM type; built once at startup and never changed */
+  private volatile Map<String, CRMService> dispatchTable = Collections.emptyMap();
+
+  /**
+   * Builds the table of services of enabled CRMs. Services are stateless; one instance of each
+   * serves all requests
+   */
+  public final void initialize() {
+
+    final Map<String, CRMService> table = new HashMap<String, CRMService>();
+
+    if (sfdcCRMEnabled) {
+
+      /* Retrieve Sales Force CRM implementation */
+      table.put(salesForceCRMConst.toUpperCase(), (CRMService) getApplicationContext().getBean("sFSOAPCRMService"));
+    }
+
+    if (microsoftCRMEnabled) {
+
+      /* Retrieve Microsoft CRM implementation */
+      table.put(microsoftCRMConst.toUpperCase(), (CRMService) getApplicationContext().getBean("mSSOAPCRMService"));
+    }
+
+    if (zendeskCRMEnabled) {
+
+      /* Retrieve Zendesk CRM implementation */
+      table.put(zendeskCRMConst.toUpperCase(), (CRMService) getApplicationContext().getBean("zDRESTCRMService"));
+    }
+
+    if (netsuiteCRMEnabled) {
+
+      /* Retrieve Netsuite CRM implementation */
+      table.put(netsuiteCRMConst.toUpperCase(), (CRMService) getApplicationContext().getBean("nSSOAPCRMService"));
+    }
+
+    if (zohoCRMEnabled) {
+
+      /* Retrieve ZOHO CRM implementation */
+      table.put(zohoCRMConst.toUpperCase(), (CRMService) getApplicationContext().getBean("zHRESTCRMService"));
+    }
+
+    logger.debug("----Inside initialize, enabled CRM services: " + table.keySet());
+
+    dispatchTable = Collections.unmodifiableMap(table);
+  }
+
+  /**
+   * 
+   * @param crmType
+   * @return service of CRM type; null if CRM is not enabled
+   */
+  private final CRMService lookupService(final String crmType) {
+
+    final CRMService cRMService = dispatchTable.get(crmType.toUpperCase());
+
+    /* Zendesk CRM types carry version information */
+    if (cRMService == null && crmType.contains(zendeskCRMConst)) {
+      return dispatchTable.get(zendeskCRMConst.toUpperCase());
+    }
+    return cRMService;
+  }
+
   /**
    * This method will check the cacheObject/agent configuration and instantiate the relevant service
    * class
    * 
    * @return
    */
-  public final synchronized CRMService getService(final ScribeCommandObject scribeCommandObject) throws Exception {
+  public final CRMService getService(final ScribeCommandObject scribeCommandObject) throws Exception {
 
     logger.debug("----Inside getService, Object type: " + scribeCommandObject.getObjectType() + ", providing CRM service");
     CRMService cRMService = null;
@@ -109,6 +175,15 @@ public final class CRMServiceFactory implements ApplicationContextAware, ScribeS
 
         cacheObject = ScribeCacheObject.build(scribeCommandObject);
       }
+
+      /* Reuse the cached session of this user; all its requests share one CRM login */
+      final ScribeCacheObject cachedObject = (ScribeCacheObject) cRMSessionCache.recover(scribeCommandObject.getCrmUserId());
+
+      if (cachedObject != null && cachedObject.isSessionOf(cacheObject.getScribeMetaObject())) {
+
+        logger.debug("----Inside getService: found cached session of user: " + scribeCommandObject.getCrmUserId());
+        cacheObject = cachedObject;
+      }
     }
 
     /* Validate cacheObject CRM information */
@@ -118,82 +193,20 @@ public final class CRMServiceFactory implements ApplicationContextAware, ScribeS
       throw new ScribeException(ScribeResponseCodes._1012 + "CRM integration information is missing");
     }
 
-    /* Check target CRM service type */
-    if (cacheObject.getScribeMetaObject().getCrmType().equalsIgnoreCase(salesForceCRMConst)) {
-
-      /* Check if SFDC CRM is enabled */
-      if (sfdcCRMEnabled) {
-
-        /* Retrieve Sales Force CRM implementation */
-        cRMService = (CRMService) getApplicationContext().getBean("sFSOAPCRMService");
-      } else {
-        /* Inform cacheObject about missing implementation */
-        throw new ScribeException(ScribeResponseCodes._1003 + "Following CRM: " + cacheObject.getScribeMetaObject().getCrmType()
-            + " : integration is not enabled");
-      }
-
-    } else if (cacheObject.getScribeMetaObject().getCrmType().equalsIgnoreCase(microsoftCRMConst)) {
-
-      /* Check if Microsoft CRM is enabled */
-      if (microsoftCRMEnabled) {
-
-        /* Retrieve Microsoft CRM implementation */
-        cRMService = (CRMService) getApplicationContext().getBean("mSSOAPCRMService");
-      } else {
-
-        /* Inform cacheObject about missing implementation */
-        throw new ScribeException(ScribeResponseCodes._1003 + "Following CRM: " + cacheObject.getScribeMetaObject().getCrmType()
-            + " : integration is not enabled");
-      }
-    } else if (cacheObject.getScribeMetaObject().getCrmType().contains(zendeskCRMConst)) {
-
-      /* Check if Zendesk CRM is enabled */
-      if (zendeskCRMEnabled) {
+    /* Find target CRM service */
+    cRMService = this.lookupService(cacheObject.getScribeMetaObject().getCrmType());
 
-        /* Retrieve Zendesk CRM implementation */
-        cRMService = (CRMService) getApplicationContext().getBean("zDRESTCRMService");
-      } else {
-
-        /* Inform cacheObject about missing implementation */
-        throw new ScribeException(ScribeResponseCodes._1003 + "Following CRM: " + cacheObject.getScribeMetaObject().getCrmType()
-            + " : integration is not enabled");
-      }
-    } else if (cacheObject.getScribeMetaObject().getCrmType().equalsIgnoreCase(netsuiteCRMConst)) {
-
-      /* Check if Netsuite CRM is enabled */
-      if (netsuiteCRMEnabled) {
-
-        /* Retrieve Netsuite CRM implementation */
-        cRMService = (CRMService) getApplicationContext().getBean("nSSOAPCRMService");
-      } else {
-
-        /* Inform cacheObject about missing implementation */
-        throw new ScribeException(ScribeResponseCodes._1003 + "Following CRM: " + cacheObject.getScribeMetaObject().getCrmType()
-            + " : integration is not enabled");
-      }
-    } else if (cacheObject.getScribeMetaObject().getCrmType().equalsIgnoreCase(zohoCRMConst)) {
-
-      /* Check if Zoho CRM is enabled */
-      if (zohoCRMEnabled) {
-
-        /* Retrieve ZOHO CRM implementation */
-        cRMService = (CRMService) getApplicationContext().getBean("zHRESTCRMService");
-      } else {
-
-        /* Inform cacheObject about missing implementation */
-        throw new ScribeException(ScribeResponseCodes._1003 + "Following CRM: " + cacheObject.getScribeMetaObject().getCrmType()
-            + " : integration is not enabled");
-      }
-    } else {
+    if (cRMService == null) {
 
       /* Inform cacheObject about missing implementation */
       throw new ScribeException(ScribeResponseCodes._1003 + "Following CRM: " + cacheObject.getScribeMetaObject().getCrmType()
           + " : integration is not enabled");
     }
 
-
-    /* Save this cacheObject in cache */
-    cRMSessionCache.admit(scribeCommandObject.getCrmUserId(), cacheObject);
+    /* Save this cacheObject in cache; a reused session keeps its time to live */
+    if (cRMSessionCache.recover(scribeCommandObject.getCrmUserId()) != cacheObject) {
+      cRMSessionCache.admit(scribeCommandObject.getCrmUserId(), cacheObject);
+    }
 
     return cRMService;
   }
@@ -94,6 +94,31 @@ public final class MSCRMMessageFormatUtils extends CRMMessageFormatUtils {
 
   private static final String regardingObjectidConst = "RegardingObjectid";
 
+  /* MS CRM V5 attribute types which are set using a simple value; value is the type used in field names */
+  private static final Map<String, String> v5AttributeDataTypes = new HashMap<String, String>();
+
+  /* XML schema types of query criteria values; values of other attribute types are sent as string */
+  private static final Map<String, String> v5ConditionValueTypes = new HashMap<String, String>();
+
+  static {
+    v5AttributeDataTypes.put("String", MSV5DataTypes.TEXT);
+    v5AttributeDataTypes.put("Memo", MSV5DataTypes.TEXT);
+    v5AttributeDataTypes.put("Integer", MSV5DataTypes.WHOLE_NUMBER);
+    v5AttributeDataTypes.put("Double", MSV5DataTypes.FLOATING_POINT);
+    v5AttributeDataTypes.put("Boolean", MSV5DataTypes.TWO_OPTIONS);
+    v5AttributeDataTypes.put("DateTime", MSV5DataTypes.DATE_TIME);
+
+    v5ConditionValueTypes.put("Integer", "int");
+    v5ConditionValueTypes.put("Picklist", "int");
+    v5ConditionValueTypes.put("State", "int");
+    v5ConditionValueTypes.put("Status", "int");
+    v5ConditionValueTypes.put("BigInt", "long");
+    v5ConditionValueTypes.put("Double", "double");
+    v5ConditionValueTypes.put("Decimal", "decimal");
+    v5ConditionValueTypes.put("Money", "decimal");
+    v5ConditionValueTypes.put("Boolean", "boolean");
+  }
+
   /**
    * 
    * @param fileName
@@ -456,12 +481,13 @@ public final class MSCRMMessageFormatUtils extends CRMMessageFormatUtils {
    * @param queryExpression
    * @param crmFieldsSeparator
    * @param orderFieldsSeparator
+   * @param attributeTypes attribute types from entity metadata; values are sent as string if null
    * @return
    * @throws Exception
    */
   public static final com.microsoft.schemas.xrm._2011.contracts.QueryExpression createV5FilterInQuery(final String query, final String order,
       final com.microsoft.schemas.xrm._2011.contracts.QueryExpression queryExpression, final String crmFieldsSeparator,
-      final String orderFieldsSeparator) throws Exception {
+      final String orderFieldsSeparator, final Map<String, String> attributeTypes) throws Exception {
 
     if (query != null) {
 
@@ -517,7 +543,7 @@ public final class MSCRMMessageFormatUtils extends CRMMessageFormatUtils {
             arrayOfAnyType.setAnyTypeArray(0, XmlString.Factory.newValue(tempElement.split(notEqualOperator)[1].trim()));
 
             /* Add type information to avoid MS error */
-            addMSSpecificNS(arrayOfAnyType);
+            addMSSpecificNS(arrayOfAnyType, getV5ConditionValueType(tempElement.split(notEqualOperator)[0].trim(), attributeTypes));
 
             conditionExpression.setValues(arrayOfAnyType);
           }
@@ -553,7 +579,7 @@ public final class MSCRMMessageFormatUtils extends CRMMessageFormatUtils {
             aoat.setAnyTypeArray(0, XmlString.Factory.newValue(tempElement.split(equalOperator)[1].trim()));
 
             /* Add type information to avoid MS error */
-            addMSSpecificNS(aoat);
+            addMSSpecificNS(aoat, getV5ConditionValueType(tempElement.split(equalOperator)[0].trim(), attributeTypes));
 
             /* Set values in condition */
             conditionExpression.setValues(aoat);
@@ -592,7 +618,7 @@ public final class MSCRMMessageFormatUtils extends CRMMessageFormatUtils {
             arrayOfAnyType.setAnyTypeArray(0, XmlString.Factory.newValue(tempElement.split(likeOperator)[1].trim()));
 
             /* Add type information to avoid MS error */
-            addMSSpecificNS(arrayOfAnyType);
+            addMSSpecificNS(arrayOfAnyType, "string");
 
             conditionExpression.setValues(arrayOfAnyType);
           }
@@ -640,8 +666,10 @@ public final class MSCRMMessageFormatUtils extends CRMMessageFormatUtils {
    * This method is to avoid error from MS about missing NS
    * 
    * @param aoat
+   * @param valueType XML schema type of value
    */
-  private static final void addMSSpecificNS(final com.microsoft.schemas._2003._10.serialization.arrays.ArrayOfanyType aoat) {
+  private static final void addMSSpecificNS(final com.microsoft.schemas._2003._10.serialization.arrays.ArrayOfanyType aoat,
+      final String valueType) {
 
     /* Create new cursor to add type information */
     final XmlCursor xc = aoat.getAnyTypeArray(0).newCursor();
@@ -651,10 +679,38 @@ public final class MSCRMMessageFormatUtils extends CRMMessageFormatUtils {
 
     /* Add attribute with namespace */
     xc.insertNamespace("xs", "http://www.w3.org/2001/XMLSchema");
-    xc.insertAttributeWithValue(new QName("http://www.w3.org/2001/XMLSchema-instance", "type"), "xs:string");
+    xc.insertAttributeWithValue(new QName("http://www.w3.org/2001/XMLSchema-instance", "type"), "xs:" + valueType);
     xc.dispose();
   }
 
+  /**
+   * 
+   * @param attributeName
+   * @param attributeTypes
+   * @return XML schema type of query criteria value of the attribute
+   */
+  private static final String getV5ConditionValueType(final String attributeName, final Map<String, String> attributeTypes) {
+
+    final String attributeType = (attributeTypes != null) ? attributeTypes.get(attributeName.toLowerCase()) : null;
+
+    final String valueType = (attributeType != null) ? v5ConditionValueTypes.get(attributeType) : null;
+
+    return (valueType != null) ? valueType : "string";
+  }
+
+  /**
+   * 
+   * @param crmFieldName
+   * @param attributeTypes
+   * @return type of field as used in field names; null if not known from entity metadata
+   */
+  private static final String getV5DataType(final String crmFieldName, final Map<String, String> attributeTypes) {
+
+    final String attributeType = (attributeTypes != null) ? attributeTypes.get(crmFieldName.toLowerCase()) : null;
+
+    return (attributeType != null) ? v5AttributeDataTypes.get(attributeType) : null;
+  }
+
   /**
    * 
    * @param br
@@ -739,7 +795,7 @@ public final class MSCRMMessageFormatUtils extends CRMMessageFormatUtils {
    * @throws Exception
    */
   public static final Entity createV5RetrieveCRMObjectReq(final ScribeObject cADbject, final String crmFieldIntraSeparator,
-      final String permittedDateFormats) throws Exception {
+      final String permittedDateFormats, final Map<String, String> attributeTypes) throws Exception {
 
     /* Check for supported objects */
     if (cADbject.getObjectType().equalsIgnoreCase(MSCRMObjectType.Account.toString())
@@ -751,7 +807,7 @@ public final class MSCRMMessageFormatUtils extends CRMMessageFormatUtils {
         || (cADbject.getObjectType().equalsIgnoreCase(MSCRMObjectType.Case.toString()))) {
 
       /* Create new V5 MS CRM object */
-      return createV5CRMObject(cADbject, crmFieldIntraSeparator, permittedDateFormats);
+      return createV5CRMObject(cADbject, crmFieldIntraSeparator, permittedDateFormats, attributeTypes);
     } else {
 
       /* Else send not supported error to user */
@@ -760,16 +816,18 @@ public final class MSCRMMessageFormatUtils extends CRMMessageFormatUtils {
   }
 
   /**
-   * This method is to support custom fields in CRM objects
+   * This method is to support custom fields in CRM objects; type of field is taken from entity metadata
+   * if known, else from field name
    * 
    * @param account
    * @param accountId
    * @param cADbject
+   * @param attributeTypes attribute types from entity metadata; may be null
    * @return
    * @throws Exception
    */
-  public static final Entity createV5CRMObject(final ScribeObject cADbject, final String crmFieldIntraSeparator, final String permittedDateFormats)
-      throws Exception {
+  public static final Entity createV5CRMObject(final ScribeObject cADbject, final String crmFieldIntraSeparator, final String permittedDateFormats,
+      final Map<String, String> attributeTypes) throws Exception {
 
     /* Create xml beans object */
     final Entity entity = Entity.Factory.newInstance();
@@ -794,13 +852,21 @@ public final class MSCRMMessageFormatUtils extends CRMMessageFormatUtils {
         final String crmField = element.getNodeName();
 
         /* Break the field name using field/type seperator */
-        if (crmField.contains(crmFieldIntraSeparator)) {
+        final String[] crmFieldInfo = crmField.split(crmFieldIntraSeparator);
 
-          /* Get field name */
-          final String crmFieldName = crmField.split(crmFieldIntraSeparator)[0];
+        /* Get field name */
+        final String crmFieldName = crmFieldInfo[0];
+
+        /* Type known from entity metadata is preferred over type in field name */
+        String crmFieldtype = getV5DataType(crmFieldName, attributeTypes);
+
+        if (crmFieldtype == null && crmFieldInfo.length > 1) {
 
           /* Get field type */
-          final String crmFieldtype = crmField.split(crmFieldIntraSeparator)[1];
+          crmFieldtype = crmFieldInfo[1];
+        }
+
+        if (crmFieldtype != null) {
 
           if (logger.isDebugEnabled()) {
             logger.debug("----Inside createV5CRMObject: crmFieldName: '" + crmFieldName + "' & crmFieldtype : '" + crmFieldtype + "'");
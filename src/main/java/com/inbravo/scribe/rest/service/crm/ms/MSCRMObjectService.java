@@ -21,7 +21,10 @@
 
 package com.inbravo.scribe.rest.service.crm.ms;
 
+import com.inbravo.scribe.exception.ScribeException;
+import com.inbravo.scribe.exception.ScribeResponseCodes;
 import com.inbravo.scribe.rest.resource.ScribeCommandObject;
+import com.inbravo.scribe.rest.service.msg.type.ScribeObjectStream;
 
 /**
  * 
@@ -36,6 +39,17 @@ public abstract class MSCRMObjectService {
 
   public abstract boolean deleteObject(final ScribeCommandObject cADCommandObject, final String idToBeDeleted) throws Exception;
 
+  /**
+   * Deletes all objects of request; versions supporting batch of requests override this
+   * 
+   * @param cADCommandObject
+   * @return
+   * @throws Exception
+   */
+  public ScribeCommandObject deleteObjects(final ScribeCommandObject cADCommandObject) throws Exception {
+    throw new ScribeException(ScribeResponseCodes._1003 + notSupportedError);
+  }
+
   public abstract ScribeCommandObject getObjects(final ScribeCommandObject cADCommandObject) throws Exception;
 
   public abstract ScribeCommandObject getObjects(final ScribeCommandObject cADCommandObject, final String query) throws Exception;
@@ -45,6 +59,19 @@ public abstract class MSCRMObjectService {
   public abstract ScribeCommandObject getObjects(final ScribeCommandObject cADCommandObject, final String query, final String select, final String order)
       throws Exception;
 
+  /**
+   * Streams all objects of the query; versions supporting streaming override this
+   * 
+   * @param cADCommandObject
+   * @param query
+   * @param select
+   * @return
+   * @throws Exception
+   */
+  public ScribeObjectStream streamObjects(final ScribeCommandObject cADCommandObject, final String query, final String select) throws Exception {
+    throw new ScribeException(ScribeResponseCodes._1003 + notSupportedError);
+  }
+
   public abstract ScribeCommandObject getObjectsCount(ScribeCommandObject cADCommandObject) throws Exception;
 
   public abstract ScribeCommandObject getObjectsCount(final ScribeCommandObject cADCommandObject, final String query) throws Exception;
@@ -38,6 +38,13 @@ public interface MSCRMSchemaConstants {
     String _Retrieve = "http://schemas.microsoft.com/xrm/2011/Contracts/Services/IOrganizationService/Retrieve";
     String _CORETYPES = "http://schemas.microsoft.com/crm/2007/CoreTypes";
     String _IORGANIZATIONSERVICE = "http://schemas.microsoft.com/xrm/2011/Contracts/Services/IOrganizationService/";
+    String _CONTRACTS = "http://schemas.microsoft.com/xrm/2011/Contracts";
+    String _METADATA = "http://schemas.microsoft.com/xrm/2011/Metadata";
+    String _SERIALIZATION = "http://schemas.microsoft.com/2003/10/Serialization/";
+  }
+
+  interface MSCRM_2012_Schema_Constants {
+    String _CONTRACTS = "http://schemas.microsoft.com/xrm/2012/Contracts";
   }
 
   interface MSCRM_2007_Schema_Constants {
@@ -52,12 +59,14 @@ public interface MSCRMSchemaConstants {
 
   interface XML_Constants {
     String _XML_SCHEMA_INSTANCE = "http://www.w3.org/2001/XMLSchema-instance";
+    String _XML_SCHEMA = "http://www.w3.org/2001/XMLSchema";
   }
 
   String WEBSERVICES = MSCRM_2007_Schema_Constants._WEBSERVICES;
   String CORETYPE = MSCRM_2007_Schema_Constants._CORETYPES;
   String QUERY = MSCRM_2006_Schema_Constants._QUERY;
   String XML_SCHEMA_INSTANCE = XML_Constants._XML_SCHEMA_INSTANCE;
+  String XML_SCHEMA = XML_Constants._XML_SCHEMA;
 
   String CRM_AUTH_TOKEN_TAG = "CrmAuthenticationToken";
   String CRM_AUTH_TYPE_TAG = "AuthenticationType";
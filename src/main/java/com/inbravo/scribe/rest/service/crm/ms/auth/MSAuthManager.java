@@ -23,6 +23,7 @@ package com.inbravo.scribe.rest.service.crm.ms.auth;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.Callable;
 
 import org.apache.log4j.Logger;
 import org.springframework.beans.BeansException;
@@ -31,6 +32,7 @@ import org.springframework.context.ApplicationContextAware;
 
 import com.inbravo.scribe.exception.ScribeException;
 import com.inbravo.scribe.exception.ScribeResponseCodes;
+import com.inbravo.scribe.rest.service.crm.cache.CRMSingleFlight;
 import com.inbravo.scribe.rest.service.crm.cache.ScribeCacheObject;
 import com.inbravo.scribe.rest.service.crm.ms.MSCRMMessageFormatUtils;
 import com.inbravo.scribe.rest.service.crm.ms.MSCRMSchemaConstants;
@@ -46,6 +48,9 @@ public abstract class MSAuthManager implements ApplicationContextAware {
 
   private ApplicationContext applicationContext;
 
+  /* Organization information requests in progress, per organization URL */
+  private final CRMSingleFlight<String> organizationInfoCoalescer = new CRMSingleFlight<String>();
+
   protected abstract String[] getCRMAuthToken(final ScribeCacheObject cadUser) throws Exception;
 
   /**
@@ -54,9 +59,26 @@ public abstract class MSAuthManager implements ApplicationContextAware {
    * @param cADCommandObject
    * @return
    */
-  public final synchronized Map<String, String> getMSCRMOrganizationInfo(final String serviceURL, final String serviceProtocol) throws Exception {
+  public final Map<String, String> getMSCRMOrganizationInfo(final String serviceURL, final String serviceProtocol) throws Exception {
 
     logger.debug("----Inside getMSCRMOrganizationInfo, serviceURL: " + serviceURL + " & serviceProtocol : " + serviceProtocol);
+
+    /* Fetch once for all concurrent requests of same organization; other organizations are not blocked */
+    final Map<String, String> nodeMap =
+        organizationInfoCoalescer.execute(serviceProtocol + "://" + serviceURL, new Callable<Map<String, String>>() {
+
+          @Override
+          public final Map<String, String> call() throws Exception {
+            return fetchMSCRMOrganizationInfo(serviceURL, serviceProtocol);
+          }
+        });
+
+    /* Callers keep this map at agent; each one gets its own copy */
+    return new HashMap<String, String>(nodeMap);
+  }
+
+  private final Map<String, String> fetchMSCRMOrganizationInfo(final String serviceURL, final String serviceProtocol) throws Exception {
+
     try {
       /* Get SOAP executer */
       final SOAPExecutor executor = (SOAPExecutor) getApplicationContext().getBean("sOAPExecutor");
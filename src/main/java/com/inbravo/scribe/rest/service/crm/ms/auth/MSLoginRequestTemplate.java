@@ -0,0 +1,110 @@
+/*
+ * MIT License
+ * 
+ * Copyright (c) 2016 Amit Dixit (github.com/inbravo)
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.inbravo.scribe.rest.service.crm.ms.auth;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.inbravo.scribe.exception.ScribeException;
+import com.inbravo.scribe.exception.ScribeResponseCodes;
+
+/**
+ * Login request template compiled once; '%s' place holders are filled without parsing the template
+ * again for each login
+ * 
+ * @author amit.dixit
+ * 
+ */
+public final class MSLoginRequestTemplate {
+
+  /* Text of template between place holders */
+  private final String[] parts;
+
+  /* Length of template without place holders */
+  private final int length;
+
+  public MSLoginRequestTemplate(final String template) throws Exception {
+
+    final List<String> partList = new ArrayList<String>();
+
+    final StringBuilder part = new StringBuilder();
+
+    int partsLength = 0;
+
+    for (int i = 0; i < template.length(); i++) {
+
+      final char c = template.charAt(i);
+
+      if (c != '%') {
+        part.append(c);
+      } else if (i + 1 < template.length() && template.charAt(i + 1) == 's') {
+
+        /* Place holder ends the current part */
+        partList.add(part.toString());
+        partsLength += part.length();
+        part.setLength(0);
+        i++;
+      } else if (i + 1 < template.length() && template.charAt(i + 1) == '%') {
+
+        /* Escaped '%' */
+        part.append('%');
+        i++;
+      } else {
+        throw new ScribeException(ScribeResponseCodes._1000 + "Only '%s' place holders are supported in login template");
+      }
+    }
+
+    partList.add(part.toString());
+
+    this.parts = partList.toArray(new String[partList.size()]);
+    this.length = partsLength + part.length();
+  }
+
+  /**
+   * 
+   * @param values value of each place holder in order
+   * @return
+   * @throws Exception
+   */
+  public final String format(final String... values) throws Exception {
+
+    if (values.length != parts.length - 1) {
+      throw new ScribeException(ScribeResponseCodes._1000 + "Login template requires " + (parts.length - 1) + " values; found: " + values.length);
+    }
+
+    int valuesLength = 0;
+
+    for (final String value : values) {
+      valuesLength += (value != null) ? value.length() : 4;
+    }
+
+    final StringBuilder request = new StringBuilder(length + valuesLength);
+
+    request.append(parts[0]);
+
+    for (int i = 0; i < values.length; i++) {
+      request.append(values[i]).append(parts[i + 1]);
+    }
+
+    return request.toString();
+  }
+}
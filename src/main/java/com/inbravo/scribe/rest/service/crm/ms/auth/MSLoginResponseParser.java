@@ -0,0 +1,134 @@
+/*
+ * MIT License
+ * 
+ * Copyright (c) 2016 Amit Dixit (github.com/inbravo)
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.inbravo.scribe.rest.service.crm.ms.auth;
+
+import java.io.StringReader;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamReader;
+
+import com.inbravo.scribe.rest.service.crm.ms.MSCRMSchemaConstants.MSCRM_2007_Schema_Constants;
+
+/**
+ * Reads values of MS login responses in a single streaming pass; no DOM or XPath is created
+ * 
+ * @author amit.dixit
+ * 
+ */
+public final class MSLoginResponseParser {
+
+  /* Factory is configured once and shared; it only creates readers */
+  private static final XMLInputFactory xmlInputFactory = createXMLInputFactory();
+
+  private MSLoginResponseParser() {
+    super();
+  }
+
+  /**
+   * 
+   * @param response
+   * @return first two 'CipherValue's and first 'KeyIdentifier' of response; a value is null if not
+   *         found
+   * @throws Exception
+   */
+  public static final String[] getSecurityTokens(final String response) throws Exception {
+
+    final String[] securityTokens = new String[3];
+
+    int cipherValues = 0;
+
+    final XMLStreamReader reader = xmlInputFactory.createXMLStreamReader(new StringReader(response));
+
+    try {
+      while (reader.hasNext()) {
+
+        if (reader.next() == XMLStreamConstants.START_ELEMENT) {
+
+          final String localName = reader.getLocalName();
+
+          if (cipherValues < 2 && "CipherValue".equals(localName)) {
+            securityTokens[cipherValues++] = reader.getElementText();
+          } else if (securityTokens[2] == null && "KeyIdentifier".equals(localName)) {
+            securityTokens[2] = reader.getElementText();
+          }
+
+          /* Rest of the response is not read once all values are found */
+          if (cipherValues == 2 && securityTokens[2] != null) {
+            break;
+          }
+        }
+      }
+    } finally {
+      reader.close();
+    }
+
+    return securityTokens;
+  }
+
+  /**
+   * 
+   * @param response
+   * @return text of SOAP fault reason; null if not found
+   * @throws Exception
+   */
+  public static final String getFaultReason(final String response) throws Exception {
+
+    boolean inReason = false;
+
+    final XMLStreamReader reader = xmlInputFactory.createXMLStreamReader(new StringReader(response));
+
+    try {
+      while (reader.hasNext()) {
+
+        final int event = reader.next();
+
+        if (event == XMLStreamConstants.START_ELEMENT && MSCRM_2007_Schema_Constants._SOAPENV.equals(reader.getNamespaceURI())) {
+
+          if ("Reason".equals(reader.getLocalName())) {
+            inReason = true;
+          } else if (inReason && "Text".equals(reader.getLocalName())) {
+            return reader.getElementText();
+          }
+        } else if (event == XMLStreamConstants.END_ELEMENT && "Reason".equals(reader.getLocalName())) {
+          inReason = false;
+        }
+      }
+    } finally {
+      reader.close();
+    }
+
+    return null;
+  }
+
+  private static final XMLInputFactory createXMLInputFactory() {
+
+    final XMLInputFactory factory = XMLInputFactory.newInstance();
+
+    /* Login responses do not need DTDs or external entities */
+    factory.setProperty(XMLInputFactory.SUPPORT_DTD, Boolean.FALSE);
+    factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, Boolean.FALSE);
+    factory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, Boolean.TRUE);
+
+    return factory;
+  }
+}
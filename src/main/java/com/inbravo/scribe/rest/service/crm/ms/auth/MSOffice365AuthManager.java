@@ -24,7 +24,6 @@ package com.inbravo.scribe.rest.service.crm.ms.auth;
 import java.io.IOException;
 import java.net.URL;
 import java.util.UUID;
-import java.util.regex.Matcher;
 
 import org.apache.log4j.Logger;
 import org.joda.time.DateTime;
@@ -49,6 +48,9 @@ public final class MSOffice365AuthManager extends MSAuthManager {
 
   private static String samlForMSLogin;
 
+  /* Login template compiled from SAML */
+  private static MSLoginRequestTemplate loginRequestTemplate;
+
   private SOAPExecutor sOAPExecutor;
 
   private int loginExpirationInMinutes = 5;
@@ -90,29 +92,30 @@ public final class MSOffice365AuthManager extends MSAuthManager {
 
     final URL fileURL = CRMMessageFormatUtils.getFileURL(loginFileName);
 
-    String msg = null;
+    MSLoginRequestTemplate template = loginRequestTemplate;
+
     try {
 
       /* Get SAML from login */
-      if (samlForMSLogin == null) {
+      if (template == null) {
 
         logger.debug("----Inside getCRMAuthToken reading security template from file");
 
         /* This logic is for reading the file once in lifetime only */
-        samlForMSLogin = MSCRMMessageFormatUtils.readStringFromFile(fileURL.getPath());
+        if (samlForMSLogin == null) {
+          samlForMSLogin = MSCRMMessageFormatUtils.readStringFromFile(fileURL.getPath());
+        }
 
-        /* Convert for local usage */
-        msg = samlForMSLogin;
+        /* Template is compiled once; logins only fill its values */
+        template = new MSLoginRequestTemplate(samlForMSLogin);
+        loginRequestTemplate = template;
       } else {
         logger.debug("----Inside getCRMAuthToken reading security template from memory");
-
-        /* Convert for local usage */
-        msg = samlForMSLogin;
       }
 
-      /* This is a trick to avoid error if password contains '$' */
-      userName = Matcher.quoteReplacement(userName);
-      password = Matcher.quoteReplacement(password);
+      /* Credentials are XML text in request */
+      userName = escapeXml(userName);
+      password = escapeXml(password);
 
       logger.debug("----Inside getCRMAuthToken userName: " + userName + " & password: " + password + " & stsEndpoint: " + stsEndpoint);
 
@@ -120,14 +123,16 @@ public final class MSOffice365AuthManager extends MSAuthManager {
       final DateTimeFormatter isoDateFormat = DateTimeFormat.forPattern(msOffice365RequestDateFormat);
 
       /* Get current time */
-      final String currentDateTime = isoDateFormat.print(DateTime.now(DateTimeZone.forID((msOffice365RequestTimeZone))));
+      final DateTime now = DateTime.now(DateTimeZone.forID((msOffice365RequestTimeZone)));
+
+      final String currentDateTime = isoDateFormat.print(now);
 
       /* Add 5 minutes expiry time from now */
-      final String expireDateTime =
-          isoDateFormat.print(DateTime.now(DateTimeZone.forID((msOffice365RequestTimeZone))).plusMinutes(loginExpirationInMinutes));
+      final String expireDateTime = isoDateFormat.print(now.plusMinutes(loginExpirationInMinutes));
 
       /* The final customer specific security header */
-      msg = String.format(msg, UUID.randomUUID().toString(), "ACQA", stsEndpoint, currentDateTime, expireDateTime, userName, password, urnAddress);
+      final String msg =
+          template.format(UUID.randomUUID().toString(), "ACQA", stsEndpoint, currentDateTime, expireDateTime, userName, password, urnAddress);
 
       logger.debug("----Inside getCRMAuthToken, login request: " + msg);
 
@@ -139,22 +144,21 @@ public final class MSOffice365AuthManager extends MSAuthManager {
       /* If a valid response */
       if (response != null && !response.contains("internalerror")) {
 
-        /* Extract all the values from response */
-        final String securityToken0 = MSCRMMessageFormatUtils.getValueFromXML(response, "//*[local-name()='CipherValue']/text()");
-        final String securityToken1 = MSCRMMessageFormatUtils.getValueFromXML(response, "//*[local-name()='CipherValue']/text()", 1);
-        final String keyIdentifier = MSCRMMessageFormatUtils.getValueFromXML(response, "//*[local-name()='KeyIdentifier']/text()");
+        /* Extract all the values from response in one pass */
+        final String[] securityTokens = MSLoginResponseParser.getSecurityTokens(response);
 
-        logger.debug("----Inside getCRMAuthToken securityToken0: " + securityToken0 + " & securityToken1: " + securityToken1 + " & keyIdentifier: "
-            + keyIdentifier);
-        return new String[] {securityToken0, securityToken1, keyIdentifier};
+        logger.debug("----Inside getCRMAuthToken securityToken0: " + securityTokens[0] + " & securityToken1: " + securityTokens[1]
+            + " & keyIdentifier: " + securityTokens[2]);
+
+        if (securityTokens[0] == null || securityTokens[1] == null || securityTokens[2] == null) {
+          throw new ScribeException(ScribeResponseCodes._1015 + " Security tokens are not found in office 365 login response");
+        }
+
+        return securityTokens;
       } else {
 
         /* Extract all the values from response */
-        final String error =
-            MSCRMMessageFormatUtils
-                .getValueFromXML(
-                    response,
-                    "//*[local-name()='Reason' and namespace-uri()='http://www.w3.org/2003/05/soap-envelope']/*[local-name()='Text' and namespace-uri()='http://www.w3.org/2003/05/soap-envelope']/text()");
+        final String error = (response != null) ? MSLoginResponseParser.getFaultReason(response) : null;
 
         throw new ScribeException(ScribeResponseCodes._1012 + " MS Login request failed : " + error);
       }
@@ -164,6 +168,10 @@ public final class MSOffice365AuthManager extends MSAuthManager {
     }
   }
 
+  private static final String escapeXml(final String value) {
+    return value == null ? null : value.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;");
+  }
+
   /**
    * @return the samlForMSLogin
    */
@@ -176,6 +184,9 @@ public final class MSOffice365AuthManager extends MSAuthManager {
    */
   public static final void setSamlForMSLogin(final String samlForMSLogin) {
     MSOffice365AuthManager.samlForMSLogin = samlForMSLogin;
+
+    /* Template is compiled again at next login */
+    MSOffice365AuthManager.loginRequestTemplate = null;
   }
 
   /**
@@ -21,11 +21,14 @@
 
 package com.inbravo.scribe.rest.service.crm.ms.session;
 
+import java.util.concurrent.Callable;
+
 import org.apache.log4j.Logger;
 
 import com.inbravo.scribe.exception.ScribeException;
 import com.inbravo.scribe.exception.ScribeResponseCodes;
 import com.inbravo.scribe.rest.service.crm.cache.CRMSessionCache;
+import com.inbravo.scribe.rest.service.crm.cache.CRMSingleFlight;
 import com.inbravo.scribe.rest.service.crm.cache.ScribeCacheObject;
 import com.inbravo.scribe.rest.service.crm.ms.auth.MSCRMDiscoveryManager;
 import com.inbravo.scribe.rest.service.crm.ms.dto.MSCRMUserInformation;
@@ -46,6 +49,9 @@ public final class MSCRMLiveIdSessionManager implements CRMSessionManager {
   /* MS CRM discovery service */
   private MSCRMDiscoveryManager mSCRMDiscoveryManager;
 
+  /* Logins in progress, per agent */
+  private final CRMSingleFlight<String> loginCoalescer = new CRMSingleFlight<String>();
+
   @Override
   public final boolean login(final String crmUserId, final String crmPassword) throws Exception {
 
@@ -111,7 +117,7 @@ public final class MSCRMLiveIdSessionManager implements CRMSessionManager {
   }
 
 
-  public final synchronized ScribeCacheObject getCrmUserInfoWithCRMSessionInformation(final String agentId) throws Exception {
+  public final ScribeCacheObject getCrmUserInfoWithCRMSessionInformation(final String agentId) throws Exception {
 
     logger.debug("----Inside getCrmUserInfoWithCRMSessionInformation agent: " + agentId);
 
@@ -129,20 +135,37 @@ public final class MSCRMLiveIdSessionManager implements CRMSessionManager {
 
       logger.debug("----Inside getCrmUserInfoWithCRMSessionInformation agent's CRM session is not found; Going to fetch session information");
 
-      /* Get CRM service information from CRM */
-      final MSCRMUserInformation mSCRMUserInformation = mSCRMDiscoveryManager.getMSCRMUserInformation(cacheObject);
+      /* Login once for all concurrent requests of this agent; waiting requests get the agent of this login */
+      return loginCoalescer.execute(agentId, new Callable<ScribeCacheObject>() {
 
-      logger.debug("----Inside getCrmUserInfoWithCRMSessionInformation : CrmSessionId: " + mSCRMUserInformation.getCrmTicket());
+        @Override
+        public final ScribeCacheObject call() throws Exception {
 
-      /* Set CRM ticket as session id at agent */
-      cacheObject.getScribeMetaObject().setCrmSessionId(mSCRMUserInformation.getCrmTicket());
+          /* Session may be fetched by a login which is finished meanwhile */
+          final ScribeCacheObject cachedObject = (ScribeCacheObject) cRMSessionCache.recover(agentId);
 
-      /* Set CRM organization information at agent */
-      cacheObject.getScribeMetaObject().setCrmOrgName(mSCRMUserInformation.getOrganizationName());
-    }
+          if (cachedObject != null && cachedObject.getScribeMetaObject().getCrmSessionId() != null) {
+            return cachedObject;
+          }
+
+          /* Get CRM service information from CRM */
+          final MSCRMUserInformation mSCRMUserInformation = mSCRMDiscoveryManager.getMSCRMUserInformation(cacheObject);
+
+          logger.debug("----Inside getCrmUserInfoWithCRMSessionInformation : CrmSessionId: " + mSCRMUserInformation.getCrmTicket());
 
-    /* Re-admit this agent with CRM session information */
-    cRMSessionCache.admit(agentId, cacheObject);
+          /* Set CRM organization information at agent */
+          cacheObject.getScribeMetaObject().setCrmOrgName(mSCRMUserInformation.getOrganizationName());
+
+          /* Set CRM ticket as session id at agent */
+          cacheObject.getScribeMetaObject().setCrmSessionId(mSCRMUserInformation.getCrmTicket());
+
+          /* Re-admit this agent with CRM session information */
+          cRMSessionCache.admit(agentId, cacheObject);
+
+          return cacheObject;
+        }
+      });
+    }
 
     return cacheObject;
   }
@@ -21,22 +21,25 @@
 
 package com.inbravo.scribe.rest.service.crm.ms.session;
 
+import java.util.concurrent.Callable;
+
 import org.apache.log4j.Logger;
 
 import com.inbravo.scribe.exception.ScribeException;
 import com.inbravo.scribe.exception.ScribeResponseCodes;
 import com.inbravo.scribe.rest.service.crm.cache.BasicObject;
 import com.inbravo.scribe.rest.service.crm.cache.CRMSessionCache;
+import com.inbravo.scribe.rest.service.crm.cache.CRMSingleFlight;
 import com.inbravo.scribe.rest.service.crm.cache.ScribeCacheObject;
 import com.inbravo.scribe.rest.service.crm.ms.auth.MSOffice365AuthManager;
-import com.inbravo.scribe.rest.service.crm.session.CRMSessionManager;
+import com.inbravo.scribe.rest.service.crm.session.RefreshableCRMSessionManager;
 
 /**
  * 
  * @author amit.dixit
  * 
  */
-public final class MSCRMOffice365SessionManager implements CRMSessionManager {
+public final class MSCRMOffice365SessionManager implements RefreshableCRMSessionManager {
 
   private final Logger logger = Logger.getLogger(MSCRMOffice365SessionManager.class.getName());
 
@@ -49,6 +52,9 @@ public final class MSCRMOffice365SessionManager implements CRMSessionManager {
   /* Office 365 authentication manager */
   private MSOffice365AuthManager mSOffice365AuthManager;
 
+  /* Concurrent logins of same user share one login at Office 365 */
+  private final CRMSingleFlight<String> loginCoalescer = new CRMSingleFlight<String>();
+
   @Override
   public final boolean login(final String crmUserId, final String crmPassword) throws Exception {
 
@@ -135,7 +141,7 @@ public final class MSCRMOffice365SessionManager implements CRMSessionManager {
    * @return
    * @throws Exception
    */
-  public final synchronized ScribeCacheObject getCrmUserInfoWithCRMSessionInformation(final String agentId) throws Exception {
+  public final ScribeCacheObject getCrmUserInfoWithCRMSessionInformation(final String agentId) throws Exception {
 
     logger.debug("----Inside getCrmUserInfoWithCRMSessionInformation agent: " + agentId);
 
@@ -153,19 +159,81 @@ public final class MSCRMOffice365SessionManager implements CRMSessionManager {
 
       logger.debug("----Inside getTenantWithCRMSessionInformation agent's CRM session is not found; Going to fetch session information");
 
-      /* Get user information from Microsoft CRM */
-      final String[] crmSecurityToken = mSOffice365AuthManager.getCRMAuthToken(cacheObject);
+      /* Login once for all concurrent requests of this agent; waiting requests get the agent of this login */
+      return loginCoalescer.execute(agentId, new Callable<ScribeCacheObject>() {
 
-      /* Set CRM security token in agent */
-      cacheObject.getScribeMetaObject().setCrmSecurityToken(crmSecurityToken);
-    }
+        @Override
+        public final ScribeCacheObject call() throws Exception {
+
+          /* Token may be fetched by a login which is finished meanwhile */
+          final ScribeCacheObject cachedObject = (ScribeCacheObject) cRMSessionCache.recover(agentId);
+
+          if (cachedObject != null && cachedObject.getScribeMetaObject().getCrmSecurityToken() != null) {
+            return cachedObject;
+          }
+
+          /* Get user information from Microsoft CRM */
+          final String[] crmSecurityToken = mSOffice365AuthManager.getCRMAuthToken(cacheObject);
+
+          /* Set CRM security token in agent */
+          cacheObject.getScribeMetaObject().setCrmSecurityToken(crmSecurityToken);
+
+          /* Re-admit this agent with CRM session information */
+          cRMSessionCache.admit(agentId, cacheObject);
 
-    /* Re-admit this agent with CRM session information */
-    cRMSessionCache.admit(agentId, cacheObject);
+          return cacheObject;
+        }
+      });
+    }
 
     return cacheObject;
   }
 
+  /**
+   * Fetch new Office 365 security token before cached token is expired
+   * 
+   * @param agentId
+   * @throws Exception
+   */
+  @Override
+  public final void refresh(final String agentId) throws Exception {
+
+    logger.debug("----Inside refresh agent: " + agentId);
+
+    /* Recover cacheObject from cache */
+    final ScribeCacheObject cacheObject = (ScribeCacheObject) cRMSessionCache.recover(agentId);
+
+    /* Only Office 365 agents carry security token */
+    if (cacheObject == null || cacheObject.getScribeMetaObject().getCrmSecurityToken() == null) {
+      return;
+    }
+
+    /* Share login with concurrent requests of this agent */
+    loginCoalescer.execute(agentId, new Callable<String[]>() {
+
+      @Override
+      public final String[] call() throws Exception {
+
+        /* Get user information from Microsoft CRM */
+        final String[] crmSecurityToken = mSOffice365AuthManager.getCRMAuthToken(cacheObject);
+
+        if (crmSecurityToken == null) {
+
+          /* Inform user about absent header value */
+          throw new ScribeException(ScribeResponseCodes._1012 + "Login attempt at MS-CRM is failed. Check credentials");
+        }
+
+        /* Set CRM security token in agent */
+        cacheObject.getScribeMetaObject().setCrmSecurityToken(crmSecurityToken);
+
+        /* Re-admit this agent with fresh CRM session information */
+        cRMSessionCache.admit(agentId, cacheObject);
+
+        return crmSecurityToken;
+      }
+    });
+  }
+
   public final String getCrmUserIdIdSplitCharacter() {
     return agentIdSplitCharacter;
   }
@@ -21,12 +21,16 @@
 
 package com.inbravo.scribe.rest.service.crm.ms.v5;
 
-import java.net.URL;
 import java.rmi.RemoteException;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.Callable;
 
+import javax.xml.namespace.QName;
 import javax.xml.stream.XMLStreamException;
 
 import org.apache.axiom.om.OMAbstractFactory;
@@ -40,24 +44,27 @@ import org.apache.axis2.AxisFault;
 import org.apache.axis2.addressing.EndpointReference;
 import org.apache.axis2.client.Options;
 import org.apache.axis2.client.ServiceClient;
-import org.apache.axis2.context.ConfigurationContext;
-import org.apache.axis2.context.ConfigurationContextFactory;
 import org.apache.log4j.Logger;
+import org.apache.xmlbeans.XmlCursor;
+import org.datacontract.schemas._2004._07.system_collections_generic.KeyValuePairOfstringanyType;
 import org.joda.time.DateTime;
 import org.joda.time.DateTimeZone;
 import org.joda.time.format.DateTimeFormat;
 import org.joda.time.format.DateTimeFormatter;
+import org.w3c.dom.Element;
 
 import com.inbravo.scribe.exception.ScribeException;
 import com.inbravo.scribe.exception.ScribeResponseCodes;
+import com.inbravo.scribe.rest.resource.ScribeCommandObject;
 import com.inbravo.scribe.rest.resource.ScribeObject;
-import com.inbravo.scribe.rest.service.crm.CRMMessageFormatUtils;
 import com.inbravo.scribe.rest.service.crm.ms.MSCRMMessageFormatUtils;
 import com.inbravo.scribe.rest.service.crm.ms.MSCRMSchemaConstants;
 import com.inbravo.scribe.rest.service.crm.ms.MSCRMServiceManager;
 import com.inbravo.scribe.rest.service.crm.ms.MSCRMSchemaConstants.MSCRM_2011_Schema_Constants;
+import com.inbravo.scribe.rest.service.crm.ms.MSCRMSchemaConstants.MSCRM_2012_Schema_Constants;
 import com.inbravo.scribe.rest.service.crm.ms.MSCRMSchemaConstants.MSCRM_SAML_Constants;
 import com.inbravo.scribe.rest.service.crm.ms.auth.SOAPExecutor;
+import com.inbravo.scribe.rest.service.msg.type.ScribeObjectStream;
 import com.microsoft.schemas._2003._10.serialization.arrays.ArrayOfstring;
 import com.microsoft.schemas.xrm._2011.contracts.ArrayOfEntity;
 import com.microsoft.schemas.xrm._2011.contracts.ColumnSet;
@@ -68,9 +75,13 @@ import com.microsoft.schemas.xrm._2011.contracts.EntityReferenceCollection;
 import com.microsoft.schemas.xrm._2011.contracts.EntityRole;
 import com.microsoft.schemas.xrm._2011.contracts.IOrganizationService_Associate_OrganizationServiceFaultFault_FaultMessage;
 import com.microsoft.schemas.xrm._2011.contracts.IOrganizationService_Create_OrganizationServiceFaultFault_FaultMessage;
+import com.microsoft.schemas.xrm._2011.contracts.IOrganizationService_Execute_OrganizationServiceFaultFault_FaultMessage;
 import com.microsoft.schemas.xrm._2011.contracts.IOrganizationService_RetrieveMultiple_OrganizationServiceFaultFault_FaultMessage;
+import com.microsoft.schemas.xrm._2011.contracts.OrganizationRequest;
+import com.microsoft.schemas.xrm._2011.contracts.OrganizationResponse;
 import com.microsoft.schemas.xrm._2011.contracts.OrganizationServiceStub;
 import com.microsoft.schemas.xrm._2011.contracts.PagingInfo;
+import com.microsoft.schemas.xrm._2011.contracts.ParameterCollection;
 import com.microsoft.schemas.xrm._2011.contracts.QueryExpression;
 import com.microsoft.schemas.xrm._2011.contracts.Relationship;
 import com.microsoft.schemas.xrm._2011.contracts.services.AssociateDocument;
@@ -81,10 +92,14 @@ import com.microsoft.schemas.xrm._2011.contracts.services.CreateDocument;
 import com.microsoft.schemas.xrm._2011.contracts.services.CreateDocument.Create;
 import com.microsoft.schemas.xrm._2011.contracts.services.CreateResponseDocument;
 import com.microsoft.schemas.xrm._2011.contracts.services.CreateResponseDocument.CreateResponse;
+import com.microsoft.schemas.xrm._2011.contracts.services.ExecuteDocument;
+import com.microsoft.schemas.xrm._2011.contracts.services.ExecuteResponseDocument;
 import com.microsoft.schemas.xrm._2011.contracts.services.RetrieveMultipleDocument;
 import com.microsoft.schemas.xrm._2011.contracts.services.RetrieveMultipleDocument.RetrieveMultiple;
 import com.microsoft.schemas.xrm._2011.contracts.services.RetrieveMultipleResponseDocument;
 import com.microsoft.schemas.xrm._2011.contracts.services.RetrieveMultipleResponseDocument.RetrieveMultipleResponse;
+import com.microsoft.schemas.xrm._2011.metadata.AttributeMetadata;
+import com.microsoft.schemas.xrm._2011.metadata.EntityMetadata;
 
 /**
  * 
@@ -119,8 +134,17 @@ public final class MSCRMOffice365basedServiceManager implements MSCRMServiceMana
   /* MS office 365 login validity */
   private int loginExpirationInMinutes = 5;
 
-  /* Path of axis client config file */
-  private String axisConfigFile = "axis2.xml";
+  /* Max objects sent in one ExecuteMultiple request; MS CRM accepts up to 1000 */
+  private int executeMultipleChunkSize = 200;
+
+  /* Whether MS CRM should process rest of ExecuteMultiple request after a failed object */
+  private boolean executeMultipleContinueOnError = true;
+
+  /* Attribute types of entities; used to type requests */
+  private MSCRMV5EntityMetadataCache entityMetadataCache;
+
+  /* Shared axis configuration and pool of organization service stubs */
+  private MSCRMOrganizationServiceStubPool organizationServiceStubPool;
 
   /* Version 5 MS CRM service end point */
   private String crmServiceEndpoint = SOAPExecutor.CRM_ENDPOINT_V5;
@@ -140,6 +164,27 @@ public final class MSCRMOffice365basedServiceManager implements MSCRMServiceMana
   /* MS CRM operation name for retrieve multiple use case */
   private static final String msCRMRetrieveMultipleCommand = "RetrieveMultiple";
 
+  /* MS CRM operation name for update use case */
+  private static final String msCRMUpdateCommand = "Update";
+
+  /* MS CRM operation name for delete use case */
+  private static final String msCRMDeleteCommand = "Delete";
+
+  /* MS CRM operation name for generic requests */
+  private static final String msCRMExecuteCommand = "Execute";
+
+  /* MS CRM request name for batch of requests */
+  private static final String msCRMExecuteMultipleCommand = "ExecuteMultiple";
+
+  /* MS CRM request name for entity metadata */
+  private static final String msCRMRetrieveEntityCommand = "RetrieveEntity";
+
+  /* Name of node carrying MS CRM object id */
+  private static final String idNode = "id";
+
+  /* Name of node carrying error of a failed object */
+  private static final String errorNode = "Error";
+
   /**
    * 
    */
@@ -152,6 +197,58 @@ public final class MSCRMOffice365basedServiceManager implements MSCRMServiceMana
           + scribeObject);
     }
 
+    /* Service end point of organization */
+    final String organizationServiceURL = appProtocolType + "://" + crmHost + crmServiceEndpoint;
+
+    try {
+      /* Create is sent once more with fresh attribute types if MS CRM rejects a typed value */
+      final String objectId = this.callWithAttributeTypes(organizationServiceURL, mSCRMObjectType, new Callable<String>() {
+
+        @Override
+        public final String call() throws Exception {
+          return create(organizationServiceURL, crmSecurityToken, mSCRMObjectType, scribeObject);
+        }
+      });
+
+      /* Check if object association is desired */
+      final String[] regardingObjInfo = MSCRMMessageFormatUtils.getRegardingObjectInfo(scribeObject);
+
+      /* Check if valid object association request from user */
+      if (regardingObjInfo != null && regardingObjInfo.length == 3) {
+
+        /* Go for object association */
+        this.associateObject(mSCRMObjectType, appProtocolType, crmHost, userId, password, orgName, crmSecurityToken, objectId,
+            regardingObjInfo[0], regardingObjInfo[1], regardingObjInfo[2]);
+      } else {
+        logger.debug("----Inside createObject no object reference found in request");
+      }
+
+      /* Add new node and return */
+      return MSCRMMessageFormatUtils.addNode("id", objectId, scribeObject);
+    } catch (final Exception e) {
+
+      /* Sentralized exception handling */
+      this.handleException(e);
+    }
+
+    return null;
+  }
+
+  /**
+   * Creates the object using Create request
+   * 
+   * @param organizationServiceURL
+   * @param crmSecurityToken
+   * @param mSCRMObjectType
+   * @param scribeObject
+   * @return id of created object
+   * @throws Exception
+   */
+  private final String create(final String organizationServiceURL, final String[] crmSecurityToken, final String mSCRMObjectType,
+      final ScribeObject scribeObject) throws Exception {
+
+    OrganizationServiceStub stub = null;
+
     try {
       /* Enable SOAP debugging using axis library */
       MSCRMMessageFormatUtils.debugSOAPMessage();
@@ -165,53 +262,554 @@ public final class MSCRMOffice365basedServiceManager implements MSCRMServiceMana
       scribeObject.setObjectType(mSCRMObjectType.toLowerCase());
 
       /* Add new account type xml beans object */
-      createRequest.setEntity(MSCRMMessageFormatUtils.createV5RetrieveCRMObjectReq(scribeObject, crmFieldIntraSeparator, permittedDateFormats));
+      createRequest.setEntity(MSCRMMessageFormatUtils.createV5RetrieveCRMObjectReq(scribeObject, crmFieldIntraSeparator, permittedDateFormats,
+          this.getAttributeTypes(organizationServiceURL, crmSecurityToken, mSCRMObjectType)));
 
-      /* Create new stub */
-      final OrganizationServiceStub stub =
-          this.createOrganizationServiceStub(appProtocolType + "://" + crmHost + crmServiceEndpoint, crmSecurityToken, msCRMCreateCommand);
+      /* Borrow stub from pool */
+      stub = this.createOrganizationServiceStub(organizationServiceURL, crmSecurityToken, msCRMCreateCommand);
 
       if (logger.isDebugEnabled()) {
-        logger.debug("----Inside createObject request: " + createDocument);
+        logger.debug("----Inside create request: " + createDocument);
       }
 
       /* Send SOAP request */
       final CreateResponseDocument responseDocument = stub.create(createDocument);
 
       if (logger.isDebugEnabled()) {
-        logger.debug("----Inside createObject response: " + responseDocument);
+        logger.debug("----Inside create response: " + responseDocument);
       }
       final CreateResponse createResponse = responseDocument.getCreateResponse();
 
       if (logger.isDebugEnabled()) {
-        logger.debug("----Inside createObject result: " + createResponse.getCreateResult());
+        logger.debug("----Inside create result: " + createResponse.getCreateResult());
       }
 
-      /* Check if object association is desired */
-      final String[] regardingObjInfo = MSCRMMessageFormatUtils.getRegardingObjectInfo(scribeObject);
+      return createResponse.getCreateResult();
+    } catch (final Exception e) {
 
-      /* Check if valid object association request from user */
-      if (regardingObjInfo != null && regardingObjInfo.length == 3) {
+      /* Sentralized exception handling */
+      this.handleException(e);
+    } finally {
 
-        /* Go for object association */
-        this.associateObject(mSCRMObjectType, appProtocolType, crmHost, userId, password, orgName, crmSecurityToken,
-            createResponse.getCreateResult(), regardingObjInfo[0], regardingObjInfo[1], regardingObjInfo[2]);
+      /* Give back stub to pool */
+      organizationServiceStubPool.release(organizationServiceURL, stub);
+    }
+
+    return null;
+  }
+
+  /**
+   * Creates all objects of request in chunks of ExecuteMultiple requests; id or error is set at each object
+   * 
+   * @param cADCommandObject
+   * @param appProtocolType
+   * @param crmHost
+   * @param crmSecurityToken
+   * @return
+   * @throws Exception
+   */
+  public final ScribeCommandObject createObjects(final ScribeCommandObject cADCommandObject, final String appProtocolType, final String crmHost,
+      final String[] crmSecurityToken) throws Exception {
+
+    if (logger.isDebugEnabled()) {
+      logger.debug("----Inside createObjects crmHost: " + crmHost + " & appProtocolType: " + appProtocolType + " & crm object type: "
+          + cADCommandObject.getObjectType());
+    }
+
+    this.executeMultiple(cADCommandObject, appProtocolType + "://" + crmHost + crmServiceEndpoint, crmSecurityToken, msCRMCreateCommand);
+
+    /* Association is not part of ExecuteMultiple; only objects asking for it are associated one by one */
+    for (final ScribeObject cADbject : cADCommandObject.getObject()) {
+
+      final String[] regardingObjInfo = MSCRMMessageFormatUtils.getRegardingObjectInfo(cADbject);
+
+      if (regardingObjInfo != null && regardingObjInfo.length == 3 && MSCRMMessageFormatUtils.getNodeValue(errorNode, cADbject) == null) {
+
+        final String objectId = MSCRMMessageFormatUtils.getNodeValue(idNode, cADbject);
+
+        try {
+          this.associateObject(cADCommandObject.getObjectType(), appProtocolType, crmHost, null, null, null, crmSecurityToken, objectId,
+              regardingObjInfo[0], regardingObjInfo[1], regardingObjInfo[2]);
+        } catch (final ScribeException e) {
+
+          /* Object is created; inform user about failed association at the object */
+          this.setRecordNode(errorNode, "Object is created but not associated : " + e.getMessage(), cADbject);
+        }
+      }
+    }
+
+    return cADCommandObject;
+  }
+
+  /**
+   * Updates all objects of request in chunks of ExecuteMultiple requests; each object must carry its id
+   * 
+   * @param cADCommandObject
+   * @param appProtocolType
+   * @param crmHost
+   * @param crmSecurityToken
+   * @return
+   * @throws Exception
+   */
+  public final ScribeCommandObject updateObjects(final ScribeCommandObject cADCommandObject, final String appProtocolType, final String crmHost,
+      final String[] crmSecurityToken) throws Exception {
+
+    if (logger.isDebugEnabled()) {
+      logger.debug("----Inside updateObjects crmHost: " + crmHost + " & appProtocolType: " + appProtocolType + " & crm object type: "
+          + cADCommandObject.getObjectType());
+    }
+
+    return this.executeMultiple(cADCommandObject, appProtocolType + "://" + crmHost + crmServiceEndpoint, crmSecurityToken, msCRMUpdateCommand);
+  }
+
+  /**
+   * Deletes all objects of request in chunks of ExecuteMultiple requests; each object must carry its id
+   * 
+   * @param cADCommandObject
+   * @param appProtocolType
+   * @param crmHost
+   * @param crmSecurityToken
+   * @return
+   * @throws Exception
+   */
+  public final ScribeCommandObject deleteObjects(final ScribeCommandObject cADCommandObject, final String appProtocolType, final String crmHost,
+      final String[] crmSecurityToken) throws Exception {
+
+    if (logger.isDebugEnabled()) {
+      logger.debug("----Inside deleteObjects crmHost: " + crmHost + " & appProtocolType: " + appProtocolType + " & crm object type: "
+          + cADCommandObject.getObjectType());
+    }
+
+    return this.executeMultiple(cADCommandObject, appProtocolType + "://" + crmHost + crmServiceEndpoint, crmSecurityToken, msCRMDeleteCommand);
+  }
+
+  /**
+   * Sends objects of request in chunks of ExecuteMultiple requests and maps response of each request back at its object
+   * 
+   * @param cADCommandObject
+   * @param organizationServiceURL
+   * @param crmSecurityToken
+   * @param msCRMOperationType
+   * @return
+   * @throws Exception
+   */
+  private final ScribeCommandObject executeMultiple(final ScribeCommandObject cADCommandObject, final String organizationServiceURL,
+      final String[] crmSecurityToken, final String msCRMOperationType) throws Exception {
+
+    final ScribeObject[] cADbjectArray = cADCommandObject.getObject();
+
+    if (cADbjectArray == null || cADbjectArray.length == 0) {
+      throw new ScribeException(ScribeResponseCodes._1008 + "Request should contain at least one object");
+    }
+
+    if (executeMultipleChunkSize <= 0) {
+      throw new ScribeException(ScribeResponseCodes._1002 + "'MS_Execute_Multiple_Chunk_Size' in scribe.properties");
+    }
+
+    /* Id and error of each object as responded by MS CRM */
+    final String[] ids = new String[cADbjectArray.length];
+    final String[] errors = new String[cADbjectArray.length];
+
+    boolean sentAgain = false;
+
+    try {
+      this.sendRequests(organizationServiceURL, crmSecurityToken, cADCommandObject.getObjectType(), cADbjectArray, msCRMOperationType, ids,
+          errors);
+    } catch (final ScribeException e) {
+
+      /* Nothing is written; whole request is sent once more if MS CRM rejected it for attribute types */
+      if (!this.invalidateAttributeTypes(organizationServiceURL, cADCommandObject.getObjectType(), e.getMessage())) {
+        throw e;
+      }
+
+      sentAgain = true;
+      this.sendRequests(organizationServiceURL, crmSecurityToken, cADCommandObject.getObjectType(), cADbjectArray, msCRMOperationType, ids,
+          errors);
+    }
+
+    if (!sentAgain) {
+
+      /* Objects rejected for attribute types are sent once more */
+      this.resendMetadataFaults(organizationServiceURL, crmSecurityToken, cADCommandObject.getObjectType(), cADbjectArray, msCRMOperationType,
+          ids, errors);
+    }
+
+    int failedCount = 0;
+
+    for (int i = 0; i < cADbjectArray.length; i++) {
+
+      if (errors[i] != null) {
+        failedCount++;
+
+        /* Add error at the object */
+        this.setRecordNode(errorNode, errors[i], cADbjectArray[i]);
+      } else if (ids[i] != null) {
+
+        /* Set object id in object before sending back */
+        this.setRecordNode(idNode, ids[i], cADbjectArray[i]);
+      }
+    }
+
+    final int count = cADbjectArray.length;
+
+    logger.debug("----Inside executeMultiple " + (count - failedCount) + " of " + count + " objects are processed by " + msCRMOperationType);
+
+    if (failedCount > 0) {
+
+      logger.info("----Inside executeMultiple: " + failedCount + " of " + count + " objects are not processed by " + msCRMOperationType
+          + " at MS CRM");
+
+      /* Inform user about failed objects */
+      cADCommandObject.setError(ScribeResponseCodes._1013 + cADCommandObject.getObjectType() + " : " + failedCount + " of " + count
+          + " objects are not processed by " + msCRMOperationType);
+    }
+
+    return cADCommandObject;
+  }
+
+  /**
+   * Sends requests of objects in chunks of ExecuteMultiple requests; id or error of each object is set as responded by MS CRM
+   * 
+   * @param organizationServiceURL
+   * @param crmSecurityToken
+   * @param mSCRMObjectType
+   * @param cADbjectArray
+   * @param msCRMOperationType
+   * @param ids
+   * @param errors
+   * @throws Exception if first chunk is failed; nothing is written at MS CRM
+   */
+  private final void sendRequests(final String organizationServiceURL, final String[] crmSecurityToken, final String mSCRMObjectType,
+      final ScribeObject[] cADbjectArray, final String msCRMOperationType, final String[] ids, final String[] errors) throws Exception {
+
+    /* Delete requests carry only the id */
+    final Map<String, String> attributeTypes =
+        msCRMDeleteCommand.equals(msCRMOperationType) ? null : this.getAttributeTypes(organizationServiceURL, crmSecurityToken, mSCRMObjectType);
+
+    /* Requests of all objects are created first; invalid object fails whole request before any write */
+    final OrganizationRequest[] requests = new OrganizationRequest[cADbjectArray.length];
+
+    for (int i = 0; i < cADbjectArray.length; i++) {
+      requests[i] = this.createOrganizationRequest(mSCRMObjectType, cADbjectArray[i], msCRMOperationType, attributeTypes);
+    }
+
+    boolean stopped = false;
+
+    for (int start = 0; start < cADbjectArray.length; start += executeMultipleChunkSize) {
+
+      final int end = Math.min(start + executeMultipleChunkSize, cADbjectArray.length);
+
+      if (stopped) {
+
+        /* Rest of the chunks are not sent after a failed object */
+        for (int i = start; i < end; i++) {
+          errors[i] = MSCRMV5ExecuteMultipleResponse.notProcessedError;
+        }
+        continue;
+      }
+
+      boolean processed = false;
+
+      try {
+        processed = this.executeChunk(organizationServiceURL, crmSecurityToken, requests, start, end, msCRMOperationType, ids, errors);
+      } catch (final ScribeException e) {
+
+        /* Nothing is written yet; fail the request */
+        if (start == 0) {
+          throw e;
+        }
+
+        /* Objects of earlier chunks are written; inform user at objects of this chunk */
+        for (int i = start; i < end; i++) {
+          errors[i] = e.getMessage();
+        }
+      }
+
+      stopped = !processed && !executeMultipleContinueOnError;
+    }
+  }
+
+  /**
+   * Objects rejected by MS CRM for an attribute or its value type are sent once more with fresh attribute types; objects not processed
+   * after such an object are also sent
+   * 
+   * @param organizationServiceURL
+   * @param crmSecurityToken
+   * @param mSCRMObjectType
+   * @param cADbjectArray
+   * @param msCRMOperationType
+   * @param ids
+   * @param errors
+   * @throws Exception
+   */
+  private final void resendMetadataFaults(final String organizationServiceURL, final String[] crmSecurityToken, final String mSCRMObjectType,
+      final ScribeObject[] cADbjectArray, final String msCRMOperationType, final String[] ids, final String[] errors) throws Exception {
+
+    final List<Integer> resendIndexes = new ArrayList<Integer>();
+
+    String metadataFault = null;
+
+    /* Whether first failed object is rejected for attribute types */
+    Boolean stoppedAtMetadataFault = null;
+
+    for (int i = 0; i < cADbjectArray.length; i++) {
+
+      if (errors[i] == null) {
+        continue;
+      }
+
+      if (MSCRMV5ExecuteMultipleResponse.notProcessedError.equals(errors[i])) {
+
+        if (Boolean.TRUE.equals(stoppedAtMetadataFault)) {
+          resendIndexes.add(i);
+        }
       } else {
-        logger.debug("----Inside createObject no object reference found in request");
+
+        final boolean isMetadataFault = MSCRMV5EntityMetadataCache.isMetadataFault(errors[i]);
+
+        if (stoppedAtMetadataFault == null) {
+          stoppedAtMetadataFault = isMetadataFault;
+        }
+
+        if (isMetadataFault) {
+          metadataFault = errors[i];
+          resendIndexes.add(i);
+        }
       }
+    }
 
-      /* Call stub cleanup */
-      stub.cleanup();
+    if (metadataFault == null || !this.invalidateAttributeTypes(organizationServiceURL, mSCRMObjectType, metadataFault)) {
+      return;
+    }
 
-      /* Add new node and return */
-      return MSCRMMessageFormatUtils.addNode("id", createResponse.getCreateResult(), scribeObject);
+    final ScribeObject[] resendObjects = new ScribeObject[resendIndexes.size()];
+
+    for (int i = 0; i < resendObjects.length; i++) {
+      resendObjects[i] = cADbjectArray[resendIndexes.get(i)];
+    }
+
+    final String[] resendIds = new String[resendObjects.length];
+    final String[] resendErrors = new String[resendObjects.length];
+
+    try {
+      this.sendRequests(organizationServiceURL, crmSecurityToken, mSCRMObjectType, resendObjects, msCRMOperationType, resendIds, resendErrors);
+    } catch (final ScribeException e) {
+
+      /* Other objects are written; inform user at objects sent again */
+      for (int i = 0; i < resendErrors.length; i++) {
+        resendErrors[i] = e.getMessage();
+      }
+    }
+
+    for (int i = 0; i < resendObjects.length; i++) {
+      ids[resendIndexes.get(i)] = resendIds[i];
+      errors[resendIndexes.get(i)] = resendErrors[i];
+    }
+  }
+
+  /**
+   * Sends one ExecuteMultiple request for the requests of chunk
+   * 
+   * @return true if all requests of chunk are processed
+   * @throws Exception
+   */
+  private final boolean executeChunk(final String organizationServiceURL, final String[] crmSecurityToken, final OrganizationRequest[] requests,
+      final int start, final int end, final String msCRMOperationType, final String[] ids, final String[] errors) throws Exception {
+
+    OrganizationServiceStub stub = null;
+
+    try {
+      /* Enable SOAP debugging using axis library */
+      MSCRMMessageFormatUtils.debugSOAPMessage();
+
+      /* Create main SOAP request document */
+      final ExecuteDocument executeDocument = ExecuteDocument.Factory.newInstance();
+
+      final OrganizationRequest executeMultipleRequest = executeDocument.addNewExecute().addNewRequest();
+
+      executeMultipleRequest.setRequestName(msCRMExecuteMultipleCommand);
+
+      final ParameterCollection parameters = executeMultipleRequest.addNewParameters();
+
+      /* Responses of successful requests are only needed to read ids of created objects */
+      this.addSettingsParameter(parameters, msCRMCreateCommand.equals(msCRMOperationType));
+
+      this.addRequestsParameter(parameters, requests, start, end);
+
+      /* Borrow stub from pool */
+      stub = this.createOrganizationServiceStub(organizationServiceURL, crmSecurityToken, msCRMExecuteCommand);
+
+      if (logger.isDebugEnabled()) {
+        logger.debug("----Inside executeChunk request: " + executeDocument);
+      }
+
+      /* Send SOAP request */
+      final ExecuteResponseDocument responseDocument = stub.execute(executeDocument);
+
+      if (logger.isDebugEnabled()) {
+        logger.debug("----Inside executeChunk response: " + responseDocument);
+      }
+
+      return MSCRMV5ExecuteMultipleResponse.setResponses(responseDocument.getExecuteResponse().getExecuteResult(), start, end,
+          msCRMCreateCommand.equals(msCRMOperationType), executeMultipleContinueOnError, ids, errors);
     } catch (final Exception e) {
 
       /* Sentralized exception handling */
       this.handleException(e);
+    } finally {
+
+      /* Give back stub to pool */
+      organizationServiceStubPool.release(organizationServiceURL, stub);
     }
 
-    return null;
+    return false;
+  }
+
+  /**
+   * Creates the create, update or delete request of an object
+   * 
+   * @param mSCRMObjectType
+   * @param cADbject
+   * @param msCRMOperationType
+   * @param attributeTypes
+   * @return
+   * @throws Exception
+   */
+  private final OrganizationRequest createOrganizationRequest(final String mSCRMObjectType, final ScribeObject cADbject,
+      final String msCRMOperationType, final Map<String, String> attributeTypes) throws Exception {
+
+    final OrganizationRequest request = OrganizationRequest.Factory.newInstance();
+
+    request.setRequestName(msCRMOperationType);
+
+    final KeyValuePairOfstringanyType target = request.addNewParameters().addNewKeyValuePairOfstringanyType();
+
+    target.setKey("Target");
+
+    /* Set object type in Scribe object */
+    cADbject.setObjectType(mSCRMObjectType.toLowerCase());
+
+    if (msCRMCreateCommand.equals(msCRMOperationType)) {
+
+      /* Add new entity */
+      target.addNewValue().changeType(Entity.type).set(
+          MSCRMMessageFormatUtils.createV5RetrieveCRMObjectReq(cADbject, crmFieldIntraSeparator, permittedDateFormats, attributeTypes));
+    } else {
+
+      final String objectId = MSCRMMessageFormatUtils.getNodeValue(idNode, cADbject);
+
+      if (objectId == null || "".equals(objectId.trim())) {
+        throw new ScribeException(ScribeResponseCodes._1008 + "Following object should contain node '" + idNode + "' : " + cADbject);
+      }
+
+      if (msCRMDeleteCommand.equals(msCRMOperationType)) {
+
+        /* Add reference of entity */
+        final EntityReference entityReference = EntityReference.Factory.newInstance();
+        entityReference.setId(objectId.trim());
+        entityReference.setLogicalName(cADbject.getObjectType());
+
+        target.addNewValue().changeType(EntityReference.type).set(entityReference);
+      } else {
+
+        /* Id node is not a CRM field; entity is created from rest of the nodes */
+        final ScribeObject fields = new ScribeObject();
+        fields.setObjectType(cADbject.getObjectType());
+        fields.setXmlContent(new ArrayList<Element>());
+
+        for (final Element element : cADbject.getXmlContent()) {
+          if (!element.getNodeName().equalsIgnoreCase(idNode)) {
+            fields.getXmlContent().add(element);
+          }
+        }
+
+        final Entity entity =
+            MSCRMMessageFormatUtils.createV5RetrieveCRMObjectReq(fields, crmFieldIntraSeparator, permittedDateFormats, attributeTypes);
+        entity.setId(objectId.trim());
+
+        target.addNewValue().changeType(Entity.type).set(entity);
+      }
+    }
+
+    return request;
+  }
+
+  /**
+   * Adds ExecuteMultipleSettings; stubs of this version are older than ExecuteMultiple, so the value is written as xml
+   * 
+   * @param parameters
+   * @param returnResponses
+   */
+  private final void addSettingsParameter(final ParameterCollection parameters, final boolean returnResponses) {
+
+    final KeyValuePairOfstringanyType settings = parameters.addNewKeyValuePairOfstringanyType();
+
+    settings.setKey("Settings");
+
+    final XmlCursor cursor = settings.addNewValue().newCursor();
+
+    try {
+      cursor.toNextToken();
+      cursor.insertNamespace("c", MSCRM_2012_Schema_Constants._CONTRACTS);
+      cursor.insertAttributeWithValue(new QName(MSCRMSchemaConstants.XML_SCHEMA_INSTANCE, "type"), "c:ExecuteMultipleSettings");
+      cursor.insertElementWithText(new QName(MSCRM_2012_Schema_Constants._CONTRACTS, "ContinueOnError"), String
+          .valueOf(executeMultipleContinueOnError));
+      cursor.insertElementWithText(new QName(MSCRM_2012_Schema_Constants._CONTRACTS, "ReturnResponses"), String.valueOf(returnResponses));
+    } finally {
+      cursor.dispose();
+    }
+  }
+
+  /**
+   * Adds OrganizationRequestCollection of requests from start to end
+   * 
+   * @param parameters
+   * @param requests
+   * @param start
+   * @param end
+   */
+  private final void addRequestsParameter(final ParameterCollection parameters, final OrganizationRequest[] requests, final int start,
+      final int end) {
+
+    final KeyValuePairOfstringanyType requestsParameter = parameters.addNewKeyValuePairOfstringanyType();
+
+    requestsParameter.setKey("Requests");
+
+    final XmlCursor cursor = requestsParameter.addNewValue().newCursor();
+
+    try {
+      cursor.toNextToken();
+      cursor.insertNamespace("a", MSCRM_2011_Schema_Constants._CONTRACTS);
+      cursor.insertAttributeWithValue(new QName(MSCRMSchemaConstants.XML_SCHEMA_INSTANCE, "type"), "a:OrganizationRequestCollection");
+
+      for (int i = start; i < end; i++) {
+
+        /* Copy the request into new collection item */
+        cursor.beginElement(new QName(MSCRM_2011_Schema_Constants._CONTRACTS, "OrganizationRequest"));
+
+        final XmlCursor requestCursor = requests[i].newCursor();
+
+        try {
+          requestCursor.copyXmlContents(cursor);
+        } finally {
+          requestCursor.dispose();
+        }
+
+        /* Move after the item */
+        cursor.toNextToken();
+      }
+    } finally {
+      cursor.dispose();
+    }
+  }
+
+  private final void setRecordNode(final String nodeName, final String nodeValue, final ScribeObject cADbject) throws Exception {
+
+    if (MSCRMMessageFormatUtils.getNodeValue(nodeName, cADbject) != null) {
+      MSCRMMessageFormatUtils.setNodeValue(nodeName, nodeValue, cADbject);
+    } else {
+      MSCRMMessageFormatUtils.addNode(nodeName, nodeValue, cADbject);
+    }
   }
 
   /**
@@ -242,6 +840,11 @@ public final class MSCRMOffice365basedServiceManager implements MSCRMServiceMana
           + " & regardingObjectType: " + regardingObjectType + " & regardingObjectSchema: " + regardingObjectSchema);
     }
 
+    /* Service end point of organization */
+    final String organizationServiceURL = appProtocolType + "://" + crmHost + crmServiceEndpoint;
+
+    OrganizationServiceStub stub = null;
+
     try {
       /* Enable SOAP debugging using axis library */
       MSCRMMessageFormatUtils.debugSOAPMessage();
@@ -275,9 +878,8 @@ public final class MSCRMOffice365basedServiceManager implements MSCRMServiceMana
       /* Set schema type */
       relationship.setSchemaName(regardingObjectSchema);
 
-      /* Create new stub */
-      final OrganizationServiceStub stub =
-          this.createOrganizationServiceStub(appProtocolType + "://" + crmHost + crmServiceEndpoint, crmSecurityToken, msCRMAssociateCommand);
+      /* Borrow stub from pool */
+      stub = this.createOrganizationServiceStub(organizationServiceURL, crmSecurityToken, msCRMAssociateCommand);
 
       if (logger.isDebugEnabled()) {
         logger.debug("----Inside associateObject request: " + associateDocument);
@@ -296,15 +898,16 @@ public final class MSCRMOffice365basedServiceManager implements MSCRMServiceMana
         logger.debug("----Inside associateObject result: " + associateResponse.xmlText());
       }
 
-      /* Call stub cleanup */
-      stub.cleanup();
-
       /* Add new node and return */
       return true;
     } catch (final Exception e) {
 
       /* Sentralized exception handling */
       this.handleException(e);
+    } finally {
+
+      /* Give back stub to pool */
+      organizationServiceStubPool.release(organizationServiceURL, stub);
     }
 
     return false;
@@ -312,24 +915,199 @@ public final class MSCRMOffice365basedServiceManager implements MSCRMServiceMana
 
   /**
    * 
-   * @param mSCRMObjectType
-   * @param crmHost
-   * @param userId
-   * @param password
-   * @param orgName
-   * @param crmTicket
-   * @param crmFields
+   * @param mSCRMObjectType
+   * @param crmHost
+   * @param userId
+   * @param password
+   * @param orgName
+   * @param crmTicket
+   * @param crmFields
+   * @return first page of objects
+   */
+  public final List<ScribeObject> getObjects(final String mSCRMObjectType, final String appProtocolType, final String crmHost, final String userId,
+      final String password, final String orgName, final String[] crmSecurityToken, final String[] crmFields) throws Exception {
+
+    if (logger.isDebugEnabled()) {
+      logger.debug("----Inside getObjects crmHost: " + crmHost + " & userId: " + userId + " & appProtocolType: " + appProtocolType + " & password: "
+          + password + " & orgName: " + orgName + " & crm object type: " + mSCRMObjectType + " & crmTicket length: " + crmSecurityToken.length
+          + " & crmFields: " + crmFields);
+    }
+
+    return this.getFirstPage(appProtocolType + "://" + crmHost + crmServiceEndpoint, crmSecurityToken, new MSCRMV5QueryBatch(mSCRMObjectType,
+        crmFields, null, null));
+  }
+
+  /**
+   * 
+   * @param mSCRMObjectType
+   * @param crmHost
+   * @param userId
+   * @param password
+   * @param orgName
+   * @param crmTicket
+   * @param crmFields
+   * @param query
+   * @return first page of objects
+   */
+  public final List<ScribeObject> getObjects(final String mSCRMObjectType, final String appProtocolType, final String crmHost, final String userId,
+      final String password, final String orgName, final String[] crmSecurityToken, final String[] crmFieldsToSelect, final String query)
+      throws Exception {
+
+    if (logger.isDebugEnabled()) {
+      logger.debug("----Inside getObjects crmHost: " + crmHost + " & userId: " + userId + " & appProtocolType: " + appProtocolType + " & password: "
+          + password + " & orgName: " + orgName + " & crm object type: " + mSCRMObjectType + " & crmTicket length: " + crmSecurityToken.length
+          + " & crmFieldsToSelect: " + crmFieldsToSelect + " & query: " + query);
+    }
+
+    return this.getFirstPage(appProtocolType + "://" + crmHost + crmServiceEndpoint, crmSecurityToken, new MSCRMV5QueryBatch(mSCRMObjectType,
+        crmFieldsToSelect, query, null));
+  }
+
+  /**
+   * 
+   * @return first page of objects
+   */
+  public final List<ScribeObject> getObjects(final String mSCRMObjectType, final String appProtocolType, final String crmHost, final String userId,
+      final String password, final String orgName, final String[] crmSecurityToken, final String[] crmFieldsToSelect, final String query,
+      final String order) throws Exception {
+
+    if (logger.isDebugEnabled()) {
+      logger.debug("----Inside getObjects crmHost: " + crmHost + " & userId: " + userId + " & appProtocolType: " + appProtocolType + " & password: "
+          + password + " & orgName: " + orgName + " crm object type: " + mSCRMObjectType + " & crmTicket length: " + crmSecurityToken.length
+          + " & crmFieldsToSelect: " + crmFieldsToSelect + " & query: " + query + " & order: " + order);
+    }
+
+    return this.getFirstPage(appProtocolType + "://" + crmHost + crmServiceEndpoint, crmSecurityToken, new MSCRMV5QueryBatch(mSCRMObjectType,
+        crmFieldsToSelect, query, order));
+  }
+
+  /**
+   * Gets a page of objects; if 'batch' of previous page is given in command object its query is
+   * continued, else first page of the query is fetched. 'batch' of next page is set in command
+   * object; no 'batch' if no more pages
+   * 
+   * @param cADCommandObject
+   * @param appProtocolType
+   * @param crmHost
+   * @param crmSecurityToken
+   * @param crmFieldsToSelect
+   * @param query
+   * @param order
+   * @return
+   * @throws Exception
+   */
+  public final ScribeCommandObject getObjects(final ScribeCommandObject cADCommandObject, final String appProtocolType, final String crmHost,
+      final String[] crmSecurityToken, final String[] crmFieldsToSelect, final String query, final String order) throws Exception {
+
+    if (logger.isDebugEnabled()) {
+      logger.debug("----Inside getObjects crmHost: " + crmHost + " & appProtocolType: " + appProtocolType + " & crm object type: "
+          + cADCommandObject.getObjectType() + " & query: " + query + " & order: " + order + " & batch: " + cADCommandObject.getBatch());
+    }
+
+    MSCRMV5QueryBatch queryBatch = null;
+
+    /* Check if batch is required */
+    if (cADCommandObject.getBatch() != null) {
+
+      /* Query of first page is continued */
+      queryBatch = MSCRMV5QueryBatch.decode(cADCommandObject.getBatch());
+
+      if (!queryBatch.getObjectType().equalsIgnoreCase(cADCommandObject.getObjectType())) {
+        throw new ScribeException(ScribeResponseCodes._1008 + "Batch is not of object type: " + cADCommandObject.getObjectType());
+      }
+    } else {
+      queryBatch = new MSCRMV5QueryBatch(cADCommandObject.getObjectType(), crmFieldsToSelect, query, order);
+    }
+
+    List<ScribeObject> ScribebjectList = null;
+
+    if (queryBatch.getPageNumber() == 1) {
+      ScribebjectList = this.getFirstPage(appProtocolType + "://" + crmHost + crmServiceEndpoint, crmSecurityToken, queryBatch);
+    } else {
+      ScribebjectList = this.getPage(appProtocolType + "://" + crmHost + crmServiceEndpoint, crmSecurityToken, queryBatch);
+    }
+
+    /* Add batch information for pagination */
+    if (queryBatch.isDone()) {
+      cADCommandObject.setBatch(null);
+    } else {
+      cADCommandObject.setBatch(queryBatch.encode());
+    }
+
+    /* Set the final object in command object */
+    cADCommandObject.setObject(ScribebjectList.toArray(new ScribeObject[ScribebjectList.size()]));
+
+    return cADCommandObject;
+  }
+
+  /**
+   * Streams all pages of the query; next page is fetched when previous page is written
+   * 
+   * @param mSCRMObjectType
+   * @param appProtocolType
+   * @param crmHost
+   * @param crmSecurityToken
+   * @param crmFieldsToSelect
+   * @param query
+   * @return
+   * @throws Exception
+   */
+  public final ScribeObjectStream streamObjects(final String mSCRMObjectType, final String appProtocolType, final String crmHost,
+      final String[] crmSecurityToken, final String[] crmFieldsToSelect, final String query) throws Exception {
+
+    if (logger.isDebugEnabled()) {
+      logger.debug("----Inside streamObjects crmHost: " + crmHost + " & appProtocolType: " + appProtocolType + " & crm object type: "
+          + mSCRMObjectType + " & query: " + query);
+    }
+
+    return new QueryStream(appProtocolType + "://" + crmHost + crmServiceEndpoint, crmSecurityToken, new MSCRMV5QueryBatch(mSCRMObjectType,
+        crmFieldsToSelect, query, null));
+  }
+
+  private final List<ScribeObject> getFirstPage(final String organizationServiceURL, final String[] crmSecurityToken,
+      final MSCRMV5QueryBatch queryBatch) throws Exception {
+
+    final List<ScribeObject> ScribebjectList = this.getPage(organizationServiceURL, crmSecurityToken, queryBatch);
+
+    /* Return error message for no record found */
+    if (ScribebjectList.size() == 0) {
+      logger.debug("----Inside getFirstPage no records in response");
+      throw new ScribeException(ScribeResponseCodes._1004 + queryBatch.getObjectType());
+    }
+    return ScribebjectList;
+  }
+
+  /**
+   * Fetches the page of batch and moves the batch to next page
+   * 
+   * @param organizationServiceURL
+   * @param crmSecurityToken
+   * @param queryBatch
    * @return
+   * @throws Exception
    */
-  public final List<ScribeObject> getObjects(final String mSCRMObjectType, final String appProtocolType, final String crmHost, final String userId,
-      final String password, final String orgName, final String[] crmSecurityToken, final String[] crmFields) throws Exception {
+  private final List<ScribeObject> getPage(final String organizationServiceURL, final String[] crmSecurityToken, final MSCRMV5QueryBatch queryBatch)
+      throws Exception {
+
+    /* Query is sent once more with fresh attribute types if MS CRM rejects a typed value of criteria */
+    return this.callWithAttributeTypes(organizationServiceURL, queryBatch.getObjectType(), new Callable<List<ScribeObject>>() {
+
+      @Override
+      public final List<ScribeObject> call() throws Exception {
+        return retrievePage(organizationServiceURL, crmSecurityToken, queryBatch);
+      }
+    });
+  }
+
+  private final List<ScribeObject> retrievePage(final String organizationServiceURL, final String[] crmSecurityToken,
+      final MSCRMV5QueryBatch queryBatch) throws Exception {
 
     if (logger.isDebugEnabled()) {
-      logger.debug("----Inside getObjects crmHost: " + crmHost + " & userId: " + userId + " & appProtocolType: " + appProtocolType + " & password: "
-          + password + " & orgName: " + orgName + " & crm object type: " + mSCRMObjectType + " & crmTicket length: " + crmSecurityToken.length
-          + " & crmFields: " + crmFields);
+      logger.debug("----Inside retrievePage queryBatch: " + queryBatch);
     }
 
+    OrganizationServiceStub stub = null;
+
     try {
       /* Enable SOAP debugging using axis library */
       MSCRMMessageFormatUtils.debugSOAPMessage();
@@ -340,337 +1118,357 @@ public final class MSCRMOffice365basedServiceManager implements MSCRMServiceMana
       /* Create request document */
       final RetrieveMultiple retrieveMultiple = requestDocument.addNewRetrieveMultiple();
 
-      /* Create new query expression */
-      final QueryExpression queryExpression = QueryExpression.Factory.newInstance();
-
-      /* Set CRM object type information */
-      queryExpression.setEntityName(mSCRMObjectType.toLowerCase());
-
-      /* Add pagination information to out outofmemory error */
-      final PagingInfo pInfo = queryExpression.addNewPageInfo();
-      pInfo.setCount(maxRecordInSearch);
-
-      /* TODO: Remove this page number while applying pagination */
-      pInfo.setPageNumber(1);
-
-      if (crmFields != null) {
-
-        /* Add attribute */
-        final ColumnSet columnSet = ColumnSet.Factory.newInstance();
-        final ArrayOfstring arrayOfString = columnSet.addNewColumns();
-        arrayOfString.setStringArray(crmFields);
-        queryExpression.setColumnSet(columnSet);
-      } else {
-
-        /* Add attribute */
-        final ColumnSet columnSet = ColumnSet.Factory.newInstance();
-
-        /* If crmFields is null; fetch all columns */
-        columnSet.setAllColumns(true);
-        queryExpression.setColumnSet(columnSet);
-      }
+      /* Attribute types are only needed to type values of query criteria */
+      final Map<String, String> attributeTypes =
+          this.hasQuery(queryBatch) ? this.getAttributeTypes(organizationServiceURL, crmSecurityToken, queryBatch.getObjectType()) : null;
 
       /* Set query information */
-      retrieveMultiple.setQuery(queryExpression);
+      retrieveMultiple.setQuery(this.createQueryExpression(queryBatch, attributeTypes));
 
       if (logger.isDebugEnabled()) {
-        logger.debug("----Inside getObjects request: " + requestDocument);
+        logger.debug("----Inside retrievePage request: " + requestDocument);
       }
 
-      /* Create new stub */
-      final OrganizationServiceStub stub =
-          this.createOrganizationServiceStub(appProtocolType + "://" + crmHost + crmServiceEndpoint, crmSecurityToken, msCRMRetrieveMultipleCommand);
+      /* Borrow stub from pool */
+      stub = this.createOrganizationServiceStub(organizationServiceURL, crmSecurityToken, msCRMRetrieveMultipleCommand);
 
       /* Send SOAP request */
       final RetrieveMultipleResponseDocument responseDocument = stub.retrieveMultiple(requestDocument);
 
       if (logger.isDebugEnabled()) {
-        logger.debug("----Inside getObjects response: " + responseDocument);
+        logger.debug("----Inside retrievePage response: " + responseDocument);
       }
 
       /* Parse the response */
       final RetrieveMultipleResponse multipleResponse = responseDocument.getRetrieveMultipleResponse();
       final EntityCollection be = multipleResponse.getRetrieveMultipleResult();
       final ArrayOfEntity entityArray = be.getEntities();
-      final Entity[] entityStringArray = entityArray.getEntityArray();
+      final Entity[] entities = entityArray.getEntityArray();
+
+      final List<ScribeObject> ScribebjectList = new ArrayList<ScribeObject>(entities.length);
 
-      final List<ScribeObject> ScribebjectList = new ArrayList<ScribeObject>();
-      for (int i = 0; i < entityStringArray.length; i++) {
+      /* Iterate over entities and create Scribe object */
+      for (int i = 0; i < entities.length; i++) {
 
         /* Create new Scribe object */
         final ScribeObject Scribebject = new ScribeObject();
 
         /* Add all CRM fields */
-        Scribebject.setXmlContent(MSCRMMessageFormatUtils.createV5EntityFromBusinessObject(entityStringArray[i]));
+        Scribebject.setXmlContent(MSCRMMessageFormatUtils.createV5EntityFromBusinessObject(entities[i]));
 
         /* Add Scribe object in list */
         ScribebjectList.add(Scribebject);
       }
 
       if (logger.isDebugEnabled()) {
-        logger.debug("----Inside getObjects ScribebjectList.size: " + ScribebjectList.size());
+        logger.debug("----Inside retrievePage ScribebjectList.size: " + ScribebjectList.size() + " & more records: " + be.getMoreRecords());
       }
 
-      /* Return error message for no record found */
-      if (ScribebjectList.size() == 0) {
-        logger.debug("----Inside getObjects no records in response");
-        throw new ScribeException(ScribeResponseCodes._1004 + mSCRMObjectType);
+      /* Paging cookie of this page is used to fetch next page */
+      if (be.getMoreRecords()) {
+        queryBatch.nextPage(be.isNilPagingCookie() ? null : be.getPagingCookie());
+      } else {
+        queryBatch.setDone();
       }
 
-      /* Call stub cleanup */
-      stub.cleanup();
       return ScribebjectList;
     } catch (final Exception e) {
 
       /* Sentralized exception handling */
       this.handleException(e);
+    } finally {
+
+      /* Give back stub to pool */
+      organizationServiceStubPool.release(organizationServiceURL, stub);
     }
 
     return null;
   }
 
-  /**
-   * 
-   * @param mSCRMObjectType
-   * @param crmHost
-   * @param userId
-   * @param password
-   * @param orgName
-   * @param crmTicket
-   * @param crmFields
-   * @param query
-   * @return
-   */
-  public final List<ScribeObject> getObjects(final String mSCRMObjectType, final String appProtocolType, final String crmHost, final String userId,
-      final String password, final String orgName, final String[] crmSecurityToken, final String[] crmFieldsToSelect, final String query)
+  private final QueryExpression createQueryExpression(final MSCRMV5QueryBatch queryBatch, final Map<String, String> attributeTypes)
       throws Exception {
 
-    if (logger.isDebugEnabled()) {
-      logger.debug("----Inside getObjects crmHost: " + crmHost + " & userId: " + userId + " & appProtocolType: " + appProtocolType + " & password: "
-          + password + " & orgName: " + orgName + " & crm object type: " + mSCRMObjectType + " & crmTicket length: " + crmSecurityToken.length
-          + " & crmFieldsToSelect: " + crmFieldsToSelect + " & query: " + query);
-    }
-
-    try {
-      /* Enable SOAP debugging using axis library */
-      MSCRMMessageFormatUtils.debugSOAPMessage();
-
-      /* Create main SOAP request document */
-      final RetrieveMultipleDocument requestDocument = RetrieveMultipleDocument.Factory.newInstance();
-
-      final RetrieveMultiple retrieveMultiple = requestDocument.addNewRetrieveMultiple();
-
-      /* Create new query expression */
-      final QueryExpression queryExpression = QueryExpression.Factory.newInstance();
+    /* Create new query expression */
+    final QueryExpression queryExpression = QueryExpression.Factory.newInstance();
 
-      /* Set CRM object type information */
-      queryExpression.setEntityName(mSCRMObjectType.toLowerCase());
+    /* Set CRM object type information */
+    queryExpression.setEntityName(queryBatch.getObjectType().toLowerCase());
 
-      /* Add pagination information to out outofmemory error */
-      final PagingInfo pInfo = queryExpression.addNewPageInfo();
-      pInfo.setCount(maxRecordInSearch);
+    /* Add pagination information to out outofmemory error */
+    final PagingInfo pInfo = queryExpression.addNewPageInfo();
+    pInfo.setCount(maxRecordInSearch);
+    pInfo.setPageNumber(queryBatch.getPageNumber());
 
-      /* TODO: Remove this page number while applying pagination */
-      pInfo.setPageNumber(1);
-
-      if (crmFieldsToSelect != null && !"ALL".equalsIgnoreCase(crmFieldsToSelect[0])) {
+    /* Paging cookie of previous page makes next page faster */
+    if (queryBatch.getPagingCookie() != null) {
+      pInfo.setPagingCookie(queryBatch.getPagingCookie());
+    }
 
-        /* Add attribute */
-        final ColumnSet columnSet = ColumnSet.Factory.newInstance();
-        final ArrayOfstring arrayOfString = columnSet.addNewColumns();
-        arrayOfString.setStringArray(crmFieldsToSelect);
-        queryExpression.setColumnSet(columnSet);
-      } else {
+    final String[] crmFieldsToSelect = queryBatch.getCrmFieldsToSelect();
 
-        /* Add attribute */
-        final ColumnSet columnSet = ColumnSet.Factory.newInstance();
+    if (crmFieldsToSelect != null && !"ALL".equalsIgnoreCase(crmFieldsToSelect[0])) {
 
-        /* If crmFields is null; fetch all columns */
-        columnSet.setAllColumns(true);
-        queryExpression.setColumnSet(columnSet);
-      }
+      /* Add attribute */
+      final ColumnSet columnSet = ColumnSet.Factory.newInstance();
+      final ArrayOfstring arrayOfString = columnSet.addNewColumns();
+      arrayOfString.setStringArray(crmFieldsToSelect);
+      queryExpression.setColumnSet(columnSet);
+    } else {
 
-      /* Add filter expression */
-      if (query != null && !"NONE".equalsIgnoreCase(query)) {
+      /* Add attribute */
+      final ColumnSet columnSet = ColumnSet.Factory.newInstance();
 
-        /* Add in query expression */
-        MSCRMMessageFormatUtils.createV5FilterInQuery(query, null, queryExpression, crmFieldsSeparator, orderFieldsSeparator);
-      }
+      /* If crmFields is null; fetch all columns */
+      columnSet.setAllColumns(true);
+      queryExpression.setColumnSet(columnSet);
+    }
 
-      /* Set query information */
-      retrieveMultiple.setQuery(queryExpression);
+    /* Add filter expression */
+    if (this.hasQuery(queryBatch)) {
+      MSCRMMessageFormatUtils.createV5FilterInQuery(queryBatch.getQuery(), queryBatch.getOrder(), queryExpression, crmFieldsSeparator,
+          orderFieldsSeparator, attributeTypes);
+    } else if (queryBatch.getOrder() != null) {
+      MSCRMMessageFormatUtils.createV5FilterInQuery(null, queryBatch.getOrder(), queryExpression, crmFieldsSeparator, orderFieldsSeparator,
+          null);
+    }
 
-      if (logger.isDebugEnabled()) {
-        logger.debug("----Inside getObjects request: " + requestDocument);
-      }
+    return queryExpression;
+  }
 
-      /* Create new stub */
-      final OrganizationServiceStub stub =
-          this.createOrganizationServiceStub(appProtocolType + "://" + crmHost + crmServiceEndpoint, crmSecurityToken, msCRMRetrieveMultipleCommand);
+  private final boolean hasQuery(final MSCRMV5QueryBatch queryBatch) {
+    return queryBatch.getQuery() != null && !"NONE".equalsIgnoreCase(queryBatch.getQuery());
+  }
 
-      /* Send SOAP request */
-      final RetrieveMultipleResponseDocument responseDocument = stub.retrieveMultiple(requestDocument);
+  /**
+   * Attribute types of entity from metadata cache; null if cache is not configured or metadata is not available
+   * 
+   * @param organizationServiceURL
+   * @param crmSecurityToken
+   * @param entityName
+   * @return
+   */
+  private final Map<String, String> getAttributeTypes(final String organizationServiceURL, final String[] crmSecurityToken,
+      final String entityName) {
 
-      if (logger.isDebugEnabled()) {
-        logger.debug("----Inside getObjects response: " + responseDocument);
-      }
+    if (entityMetadataCache == null) {
+      return null;
+    }
 
-      final RetrieveMultipleResponse multipleResponse = responseDocument.getRetrieveMultipleResponse();
-      final EntityCollection be = multipleResponse.getRetrieveMultipleResult();
-      final ArrayOfEntity entityArray = be.getEntities();
-      final Entity[] entities = entityArray.getEntityArray();
+    try {
+      return entityMetadataCache.getAttributeTypes(organizationServiceURL, entityName, new Callable<Map<String, String>>() {
 
-      final List<ScribeObject> ScribebjectList = new ArrayList<ScribeObject>();
+        @Override
+        public final Map<String, String> call() throws Exception {
+          return retrieveAttributeTypes(organizationServiceURL, crmSecurityToken, entityName);
+        }
+      });
+    } catch (final Exception e) {
 
-      /* Iterate over entities and create Scribe object */
-      for (int i = 0; i < entities.length; i++) {
+      /* Type information in field names is used without metadata */
+      logger.warn("----Inside getAttributeTypes metadata of entity: " + entityName + " is not available: " + e.getMessage());
+      return null;
+    }
+  }
 
-        /* Create new Scribe object */
-        final ScribeObject Scribebject = new ScribeObject();
+  /**
+   * Calls the request; if MS CRM rejects an attribute or its value type, attribute types of entity are removed from metadata cache and
+   * request is called once more
+   * 
+   * @param organizationServiceURL
+   * @param entityName
+   * @param request
+   * @return
+   * @throws Exception
+   */
+  private final <T> T callWithAttributeTypes(final String organizationServiceURL, final String entityName, final Callable<T> request)
+      throws Exception {
 
-        /* Add all CRM fields */
-        Scribebject.setXmlContent(MSCRMMessageFormatUtils.createV5EntityFromBusinessObject(entities[i]));
+    try {
+      return request.call();
+    } catch (final ScribeException e) {
 
-        /* Add Scribe object in list */
-        ScribebjectList.add(Scribebject);
+      if (!this.invalidateAttributeTypes(organizationServiceURL, entityName, e.getMessage())) {
+        throw e;
       }
+      return request.call();
+    }
+  }
 
-      if (logger.isDebugEnabled()) {
-        logger.debug("----Inside getObjects ScribebjectList.size: " + ScribebjectList.size());
-      }
+  /**
+   * Removes attribute types of entity from metadata cache if fault tells that MS CRM rejected an attribute or its value type
+   * 
+   * @param organizationServiceURL
+   * @param entityName
+   * @param faultMessage
+   * @return true if request should be sent once more with fresh attribute types
+   */
+  private final boolean invalidateAttributeTypes(final String organizationServiceURL, final String entityName, final String faultMessage) {
 
-      /* Return error message for no record found */
-      if (ScribebjectList.size() == 0) {
-        logger.debug("----Inside getObjects no records in response");
-        throw new ScribeException(ScribeResponseCodes._1004 + mSCRMObjectType);
-      }
+    if (entityMetadataCache == null || !MSCRMV5EntityMetadataCache.isMetadataFault(faultMessage)) {
+      return false;
+    }
 
-      /* Call stub cleanup */
-      return ScribebjectList;
-    } catch (final Exception e) {
+    logger.info("----Inside invalidateAttributeTypes MS CRM rejected attribute types of entity: " + entityName
+        + "; going to send again with fresh metadata: " + faultMessage);
 
-      /* Sentralized exception handling */
-      this.handleException(e);
-    }
+    entityMetadataCache.invalidate(organizationServiceURL, entityName);
 
-    return null;
+    return true;
   }
 
   /**
-	 * 
-	 */
-  public final List<ScribeObject> getObjects(final String mSCRMObjectType, final String appProtocolType, final String crmHost, final String userId,
-      final String password, final String orgName, final String[] crmSecurityToken, final String[] crmFieldsToSelect, final String query,
-      final String order) throws Exception {
+   * Retrieves attribute metadata of entity using RetrieveEntity request
+   * 
+   * @param organizationServiceURL
+   * @param crmSecurityToken
+   * @param entityName
+   * @return attribute type of each attribute; key is attribute logical name
+   * @throws Exception
+   */
+  private final Map<String, String> retrieveAttributeTypes(final String organizationServiceURL, final String[] crmSecurityToken,
+      final String entityName) throws Exception {
 
-    if (logger.isDebugEnabled()) {
-      logger.debug("----Inside getObjects crmHost: " + crmHost + " & userId: " + userId + " & appProtocolType: " + appProtocolType + " & password: "
-          + password + " & orgName: " + orgName + " crm object type: " + mSCRMObjectType + " & crmTicket length: " + crmSecurityToken.length
-          + " & crmFieldsToSelect: " + crmFieldsToSelect + " & query: " + query + " & order: " + order);
-    }
+    OrganizationServiceStub stub = null;
 
     try {
       /* Enable SOAP debugging using axis library */
       MSCRMMessageFormatUtils.debugSOAPMessage();
 
       /* Create main SOAP request document */
-      final RetrieveMultipleDocument requestDocument = RetrieveMultipleDocument.Factory.newInstance();
-
-      final RetrieveMultiple retrieveMultiple = requestDocument.addNewRetrieveMultiple();
-
-      /* Create new query expression */
-      final QueryExpression queryExpression = QueryExpression.Factory.newInstance();
+      final ExecuteDocument executeDocument = ExecuteDocument.Factory.newInstance();
 
-      /* Set CRM object type information */
-      queryExpression.setEntityName(mSCRMObjectType.toLowerCase());
+      final OrganizationRequest retrieveEntityRequest = executeDocument.addNewExecute().addNewRequest();
 
-      /* Add pagination information to out outofmemory error */
-      final PagingInfo pInfo = queryExpression.addNewPageInfo();
-      pInfo.setCount(maxRecordInSearch);
+      retrieveEntityRequest.setRequestName(msCRMRetrieveEntityCommand);
 
-      /* TODO: Remove this page number while applying pagination */
-      pInfo.setPageNumber(1);
-
-      if (crmFieldsToSelect != null && !"ALL".equalsIgnoreCase(crmFieldsToSelect[0])) {
-        /* Add attribute */
-        final ColumnSet columnSet = ColumnSet.Factory.newInstance();
-        final ArrayOfstring arrayOfString = columnSet.addNewColumns();
-        arrayOfString.setStringArray(crmFieldsToSelect);
-        queryExpression.setColumnSet(columnSet);
-      } else {
+      final ParameterCollection parameters = retrieveEntityRequest.addNewParameters();
 
-        /* Add attribute */
-        final ColumnSet columnSet = ColumnSet.Factory.newInstance();
+      /* Only attributes of entity are required */
+      this.addTypedParameter(parameters, "EntityFilters", MSCRM_2011_Schema_Constants._METADATA, "EntityFilters", "Attributes");
+      this.addTypedParameter(parameters, "MetadataId", MSCRM_2011_Schema_Constants._SERIALIZATION, "guid", "00000000-0000-0000-0000-000000000000");
+      this.addTypedParameter(parameters, "RetrieveAsIfPublished", MSCRMSchemaConstants.XML_SCHEMA, "boolean", "false");
+      this.addTypedParameter(parameters, "LogicalName", MSCRMSchemaConstants.XML_SCHEMA, "string", entityName.toLowerCase());
 
-        /* If crmFields is null; fetch all columns */
-        columnSet.setAllColumns(true);
-        queryExpression.setColumnSet(columnSet);
-      }
+      /* Borrow stub from pool */
+      stub = this.createOrganizationServiceStub(organizationServiceURL, crmSecurityToken, msCRMExecuteCommand);
 
-      /* Add filter expression */
-      if (query != null && !"NONE".equalsIgnoreCase(query)) {
-        MSCRMMessageFormatUtils.createV5FilterInQuery(query, order, queryExpression, crmFieldsSeparator, orderFieldsSeparator);
-      } else if (order != null) {
-        MSCRMMessageFormatUtils.createV5FilterInQuery(null, order, queryExpression, crmFieldsSeparator, orderFieldsSeparator);
+      if (logger.isDebugEnabled()) {
+        logger.debug("----Inside retrieveAttributeTypes request: " + executeDocument);
       }
 
-      /* Set query information */
-      retrieveMultiple.setQuery(queryExpression);
+      /* Send SOAP request */
+      final ExecuteResponseDocument responseDocument = stub.execute(executeDocument);
 
       if (logger.isDebugEnabled()) {
-        logger.debug("----Inside getObjects request: " + requestDocument);
+        logger.debug("----Inside retrieveAttributeTypes response: " + responseDocument);
       }
 
-      /* Create new stub */
-      final OrganizationServiceStub stub =
-          this.createOrganizationServiceStub(appProtocolType + "://" + crmHost + crmServiceEndpoint, crmSecurityToken, msCRMRetrieveMultipleCommand);
+      final Map<String, String> attributeTypes = new HashMap<String, String>();
 
-      /* Send SOAP request */
-      final RetrieveMultipleResponseDocument responseDocument = stub.retrieveMultiple(requestDocument);
+      final OrganizationResponse retrieveEntityResponse = responseDocument.getExecuteResponse().getExecuteResult();
 
-      if (logger.isDebugEnabled()) {
-        logger.debug("----Inside getObjects response: " + responseDocument);
-      }
+      if (retrieveEntityResponse != null && retrieveEntityResponse.getResults() != null) {
 
-      final RetrieveMultipleResponse multipleResponse = responseDocument.getRetrieveMultipleResponse();
-      final EntityCollection be = multipleResponse.getRetrieveMultipleResult();
-      final ArrayOfEntity entityArray = be.getEntities();
-      final Entity[] entityStringArray = entityArray.getEntityArray();
+        for (final KeyValuePairOfstringanyType result : retrieveEntityResponse.getResults().getKeyValuePairOfstringanyTypeArray()) {
 
-      final List<ScribeObject> ScribebjectList = new ArrayList<ScribeObject>();
-      for (int i = 0; i < entityStringArray.length; i++) {
+          if ("EntityMetadata".equals(result.getKey()) && result.getValue() != null) {
 
-        /* Create new Scribe object */
-        final ScribeObject Scribebject = new ScribeObject();
+            final EntityMetadata entityMetadata = (EntityMetadata) result.getValue().changeType(EntityMetadata.type);
 
-        /* Add all CRM fields */
-        Scribebject.setXmlContent(MSCRMMessageFormatUtils.createV5EntityFromBusinessObject(entityStringArray[i]));
+            if (entityMetadata.getAttributes() != null) {
 
-        /* Add Scribe object in list */
-        ScribebjectList.add(Scribebject);
-      }
+              for (final AttributeMetadata attributeMetadata : entityMetadata.getAttributes().getAttributeMetadataArray()) {
 
-      if (logger.isDebugEnabled()) {
-        logger.debug("----Inside getObjects ScribebjectList.size: " + ScribebjectList.size());
+                if (attributeMetadata.getLogicalName() != null && attributeMetadata.getAttributeType() != null) {
+                  attributeTypes.put(attributeMetadata.getLogicalName().toLowerCase(), attributeMetadata.getAttributeType().toString());
+                }
+              }
+            }
+          }
+        }
       }
 
-      /* Return error message for no record found */
-      if (ScribebjectList.size() == 0) {
-        logger.debug("----Inside getObjects no records in response");
-        throw new ScribeException(ScribeResponseCodes._1004 + mSCRMObjectType);
+      if (logger.isDebugEnabled()) {
+        logger.debug("----Inside retrieveAttributeTypes entity: " + entityName + " & attributes: " + attributeTypes.size());
       }
 
-      /* Call stub cleanup */
-      return ScribebjectList;
+      return Collections.unmodifiableMap(attributeTypes);
     } catch (final Exception e) {
 
       /* Sentralized exception handling */
       this.handleException(e);
+    } finally {
+
+      /* Give back stub to pool */
+      organizationServiceStubPool.release(organizationServiceURL, stub);
     }
 
     return null;
   }
 
+  /**
+   * Adds parameter having a simple value of given type
+   * 
+   * @param parameters
+   * @param key
+   * @param typeNamespace
+   * @param typeName
+   * @param value
+   */
+  private final void addTypedParameter(final ParameterCollection parameters, final String key, final String typeNamespace, final String typeName,
+      final String value) {
+
+    final KeyValuePairOfstringanyType parameter = parameters.addNewKeyValuePairOfstringanyType();
+
+    parameter.setKey(key);
+
+    final XmlCursor cursor = parameter.addNewValue().newCursor();
+
+    try {
+      cursor.toNextToken();
+      cursor.insertNamespace("c", typeNamespace);
+      cursor.insertAttributeWithValue(new QName(MSCRMSchemaConstants.XML_SCHEMA_INSTANCE, "type"), "c:" + typeName);
+      cursor.insertChars(value);
+    } finally {
+      cursor.dispose();
+    }
+  }
+
+  /**
+   * Follows pages of a MS CRM query; memory is bounded by the page size
+   */
+  private final class QueryStream extends ScribeObjectStream {
+
+    private final String organizationServiceURL;
+
+    private final String[] crmSecurityToken;
+
+    private MSCRMV5QueryBatch queryBatch;
+
+    public QueryStream(final String organizationServiceURL, final String[] crmSecurityToken, final MSCRMV5QueryBatch queryBatch) {
+      this.organizationServiceURL = organizationServiceURL;
+      this.crmSecurityToken = crmSecurityToken;
+      this.queryBatch = queryBatch;
+    }
+
+    @Override
+    public final ScribeObject[] nextPage() throws Exception {
+
+      if (queryBatch == null || queryBatch.isDone()) {
+        return null;
+      }
+
+      final List<ScribeObject> ScribebjectList = getPage(organizationServiceURL, crmSecurityToken, queryBatch);
+
+      return ScribebjectList.toArray(new ScribeObject[ScribebjectList.size()]);
+    }
+
+    @Override
+    public final void close() {
+      queryBatch = null;
+    }
+  }
+
   /**
    * 
    * @param organizationServiceURL
@@ -680,21 +1478,14 @@ public final class MSCRMOffice365basedServiceManager implements MSCRMServiceMana
    */
   private final OrganizationServiceStub createOrganizationServiceStub(final String organizationServiceURL, final String[] securityTokens,
       final String msCRMOperationType) throws Exception {
-    try {
-
-      /* Get axis config file URl */
-      final URL fileURL = CRMMessageFormatUtils.getFileURL(axisConfigFile);
+    /* Stub of pool is reused; only options and headers of this call are set */
+    final OrganizationServiceStub stub = organizationServiceStubPool.borrow(organizationServiceURL);
 
-      if (logger.isDebugEnabled()) {
-        logger.debug("----Inside createOrganizationServiceStub, organizationServiceURL: " + organizationServiceURL + " & axis config file path "
-            + fileURL.getPath());
-      }
-
-      final ConfigurationContext ctx =
-          ConfigurationContextFactory.createConfigurationContextFromFileSystem(System.getProperty("user.dir"), fileURL.getPath());
+    if (logger.isDebugEnabled()) {
+      logger.debug("----Inside createOrganizationServiceStub, organizationServiceURL: " + organizationServiceURL);
+    }
 
-      /* Create new organization stub */
-      final OrganizationServiceStub stub = new OrganizationServiceStub(ctx, organizationServiceURL);
+    try {
 
       /* Service client */
       final ServiceClient sc = stub._getServiceClient();
@@ -719,6 +1510,9 @@ public final class MSCRMOffice365basedServiceManager implements MSCRMServiceMana
       /* Set all options */
       sc.setOptions(options);
 
+      /* Remove headers of any earlier call */
+      sc.removeHeaders();
+
       /* Get all optional headers */
       final SOAPHeaderBlock[] blocks = this.createCRMOptionsHeaderBlock(organizationServiceURL, securityTokens, msCRMOperationType);
 
@@ -731,9 +1525,11 @@ public final class MSCRMOffice365basedServiceManager implements MSCRMServiceMana
       }
 
       return stub;
-    } catch (final AxisFault e) {
-      logger.debug("----Inside createOrganizationServiceStub, AxisFault: " + e, e);
-      throw new ScribeException(ScribeResponseCodes._1015 + "Problem in creating SOAP request for MS office 365 login server", e);
+    } catch (final RuntimeException e) {
+
+      /* Stub is not given to caller */
+      organizationServiceStubPool.release(organizationServiceURL, stub);
+      throw e;
     }
   }
 
@@ -872,6 +1668,20 @@ public final class MSCRMOffice365basedServiceManager implements MSCRMServiceMana
         final IOrganizationService_Create_OrganizationServiceFaultFault_FaultMessage message =
             (IOrganizationService_Create_OrganizationServiceFaultFault_FaultMessage) e;
 
+        if (message.getFaultMessage() != null && message.getFaultMessage().getOrganizationServiceFault() != null) {
+
+          /* Throw user error */
+          throw new ScribeException(ScribeResponseCodes._1013 + "SOAP error from MS CRM : "
+              + message.getFaultMessage().getOrganizationServiceFault().getMessage());
+        } else {
+          /* Throw user error */
+          throw new ScribeException(ScribeResponseCodes._1013 + "Problem while communicating with MS CRM server", e);
+        }
+      } else if (e instanceof IOrganizationService_Execute_OrganizationServiceFaultFault_FaultMessage) {
+
+        final IOrganizationService_Execute_OrganizationServiceFaultFault_FaultMessage message =
+            (IOrganizationService_Execute_OrganizationServiceFaultFault_FaultMessage) e;
+
         if (message.getFaultMessage() != null && message.getFaultMessage().getOrganizationServiceFault() != null) {
 
           /* Throw user error */
@@ -1040,4 +1850,60 @@ public final class MSCRMOffice365basedServiceManager implements MSCRMServiceMana
   public final void setMaxRecordInSearch(final int maxRecordInSearch) {
     this.maxRecordInSearch = maxRecordInSearch;
   }
+
+  /**
+   * @return the organizationServiceStubPool
+   */
+  public final MSCRMOrganizationServiceStubPool getOrganizationServiceStubPool() {
+    return organizationServiceStubPool;
+  }
+
+  /**
+   * @param organizationServiceStubPool the organizationServiceStubPool to set
+   */
+  public final void setOrganizationServiceStubPool(final MSCRMOrganizationServiceStubPool organizationServiceStubPool) {
+    this.organizationServiceStubPool = organizationServiceStubPool;
+  }
+
+  /**
+   * @return the executeMultipleChunkSize
+   */
+  public final int getExecuteMultipleChunkSize() {
+    return this.executeMultipleChunkSize;
+  }
+
+  /**
+   * @param executeMultipleChunkSize the executeMultipleChunkSize to set
+   */
+  public final void setExecuteMultipleChunkSize(final int executeMultipleChunkSize) {
+    this.executeMultipleChunkSize = executeMultipleChunkSize;
+  }
+
+  /**
+   * @return the executeMultipleContinueOnError
+   */
+  public final boolean isExecuteMultipleContinueOnError() {
+    return this.executeMultipleContinueOnError;
+  }
+
+  /**
+   * @param executeMultipleContinueOnError the executeMultipleContinueOnError to set
+   */
+  public final void setExecuteMultipleContinueOnError(final boolean executeMultipleContinueOnError) {
+    this.executeMultipleContinueOnError = executeMultipleContinueOnError;
+  }
+
+  /**
+   * @return the entityMetadataCache
+   */
+  public final MSCRMV5EntityMetadataCache getEntityMetadataCache() {
+    return this.entityMetadataCache;
+  }
+
+  /**
+   * @param entityMetadataCache the entityMetadataCache to set
+   */
+  public final void setEntityMetadataCache(final MSCRMV5EntityMetadataCache entityMetadataCache) {
+    this.entityMetadataCache = entityMetadataCache;
+  }
 }
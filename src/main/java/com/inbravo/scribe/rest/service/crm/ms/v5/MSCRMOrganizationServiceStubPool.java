@@ -0,0 +1,266 @@
+/*
+ * MIT License
+ * 
+ * Copyright (c) 2016 Amit Dixit (github.com/inbravo)
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.inbravo.scribe.rest.service.crm.ms.v5;
+
+import java.net.URL;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.LinkedBlockingQueue;
+
+import org.apache.axis2.AxisFault;
+import org.apache.axis2.client.ServiceClient;
+import org.apache.axis2.context.ConfigurationContext;
+import org.apache.axis2.context.ConfigurationContextFactory;
+import org.apache.axis2.transport.http.HTTPConstants;
+import org.apache.commons.httpclient.HttpClient;
+import org.apache.commons.httpclient.MultiThreadedHttpConnectionManager;
+import org.apache.log4j.Logger;
+
+import com.inbravo.scribe.exception.ScribeException;
+import com.inbravo.scribe.exception.ScribeResponseCodes;
+import com.inbravo.scribe.rest.service.crm.CRMMessageFormatUtils;
+import com.microsoft.schemas.xrm._2011.contracts.OrganizationServiceStub;
+
+/**
+ * Keeps one axis configuration context for all MS CRM V5 calls and a bounded pool of idle
+ * organization service stubs per service end point. Stubs share a multithreaded HTTP connection
+ * manager; options and headers of each call are set by the user of the stub
+ * 
+ * @author amit.dixit
+ * 
+ */
+public final class MSCRMOrganizationServiceStubPool {
+
+  private final Logger logger = Logger.getLogger(MSCRMOrganizationServiceStubPool.class.getName());
+
+  /* Path of axis client config file */
+  private String axisConfigFile = "axis2.xml";
+
+  /* Idle stubs kept per service end point */
+  private int maxIdleStubs = 20;
+
+  /* HTTP connections per MS CRM host */
+  private int maxConnectionsPerHost = 20;
+
+  /* HTTP connections to all MS CRM hosts */
+  private int maxTotalConnections = 100;
+
+  /* Axis configuration is read once */
+  private volatile ConfigurationContext configurationContext;
+
+  private MultiThreadedHttpConnectionManager connectionManager;
+
+  /* Service end point vs idle stubs */
+  private final ConcurrentMap<String, BlockingQueue<OrganizationServiceStub>> idleStubs =
+      new ConcurrentHashMap<String, BlockingQueue<OrganizationServiceStub>>();
+
+  public final synchronized void stop() {
+
+    logger.debug("----Inside stop");
+
+    /* Remove services of all idle stubs */
+    for (final BlockingQueue<OrganizationServiceStub> stubs : idleStubs.values()) {
+
+      OrganizationServiceStub stub = null;
+
+      while ((stub = stubs.poll()) != null) {
+        this.discard(stub);
+      }
+    }
+    idleStubs.clear();
+
+    if (connectionManager != null) {
+      connectionManager.shutdown();
+      connectionManager = null;
+    }
+
+    if (configurationContext != null) {
+      try {
+        configurationContext.terminate();
+      } catch (final AxisFault e) {
+        logger.debug("----Inside stop, AxisFault: " + e, e);
+      }
+      configurationContext = null;
+    }
+  }
+
+  /**
+   * Gives an idle stub of the end point or a new one; stub must be given back using release
+   * 
+   * @param organizationServiceURL
+   * @return
+   * @throws Exception
+   */
+  public final OrganizationServiceStub borrow(final String organizationServiceURL) throws Exception {
+
+    final BlockingQueue<OrganizationServiceStub> stubs = idleStubs.get(organizationServiceURL);
+
+    if (stubs != null) {
+
+      final OrganizationServiceStub stub = stubs.poll();
+
+      if (stub != null) {
+        return stub;
+      }
+    }
+
+    if (logger.isDebugEnabled()) {
+      logger.debug("----Inside borrow, creating new stub for organizationServiceURL: " + organizationServiceURL);
+    }
+
+    try {
+
+      /* Create new organization stub */
+      return new OrganizationServiceStub(this.getConfigurationContext(), organizationServiceURL);
+    } catch (final AxisFault e) {
+      logger.debug("----Inside borrow, AxisFault: " + e, e);
+      throw new ScribeException(ScribeResponseCodes._1013 + "Problem in creating organization service stub for: " + organizationServiceURL, e);
+    }
+  }
+
+  /**
+   * Takes back the stub after the call; stub is kept for next call if pool of the end point is not
+   * full
+   * 
+   * @param organizationServiceURL
+   * @param stub
+   */
+  public final void release(final String organizationServiceURL, final OrganizationServiceStub stub) {
+
+    if (stub == null) {
+      return;
+    }
+
+    final ServiceClient sc = stub._getServiceClient();
+
+    try {
+
+      /* Give back the HTTP connection */
+      sc.cleanupTransport();
+    } catch (final AxisFault e) {
+      logger.debug("----Inside release, AxisFault: " + e, e);
+
+      this.discard(stub);
+      return;
+    }
+
+    /* Headers belong to the call */
+    sc.removeHeaders();
+
+    BlockingQueue<OrganizationServiceStub> stubs = idleStubs.get(organizationServiceURL);
+
+    if (stubs == null) {
+
+      final BlockingQueue<OrganizationServiceStub> newStubs = new LinkedBlockingQueue<OrganizationServiceStub>(Math.max(maxIdleStubs, 1));
+
+      stubs = idleStubs.putIfAbsent(organizationServiceURL, newStubs);
+
+      if (stubs == null) {
+        stubs = newStubs;
+      }
+    }
+
+    /* Pool of end point is full */
+    if (!stubs.offer(stub)) {
+      this.discard(stub);
+    }
+  }
+
+  private final void discard(final OrganizationServiceStub stub) {
+
+    try {
+
+      /* Remove service of stub from shared axis configuration */
+      stub.cleanup();
+    } catch (final AxisFault e) {
+      logger.debug("----Inside discard, AxisFault: " + e, e);
+    }
+  }
+
+  private final ConfigurationContext getConfigurationContext() throws Exception {
+
+    ConfigurationContext ctx = configurationContext;
+
+    if (ctx == null) {
+
+      synchronized (this) {
+
+        ctx = configurationContext;
+
+        if (ctx == null) {
+
+          /* Get axis config file URl */
+          final URL fileURL = CRMMessageFormatUtils.getFileURL(axisConfigFile);
+
+          logger.debug("----Inside getConfigurationContext, axis config file path " + fileURL.getPath());
+
+          ctx = ConfigurationContextFactory.createConfigurationContextFromFileSystem(System.getProperty("user.dir"), fileURL.getPath());
+
+          /* All stubs share HTTP connections */
+          connectionManager = new MultiThreadedHttpConnectionManager();
+          connectionManager.getParams().setDefaultMaxConnectionsPerHost(maxConnectionsPerHost);
+          connectionManager.getParams().setMaxTotalConnections(maxTotalConnections);
+
+          ctx.setProperty(HTTPConstants.MULTITHREAD_HTTP_CONNECTION_MANAGER, connectionManager);
+          ctx.setProperty(HTTPConstants.REUSE_HTTP_CLIENT, Boolean.TRUE);
+          ctx.setProperty(HTTPConstants.CACHED_HTTP_CLIENT, new HttpClient(connectionManager));
+
+          configurationContext = ctx;
+        }
+      }
+    }
+    return ctx;
+  }
+
+  public final String getAxisConfigFile() {
+    return axisConfigFile;
+  }
+
+  public final void setAxisConfigFile(final String axisConfigFile) {
+    this.axisConfigFile = axisConfigFile;
+  }
+
+  public final int getMaxIdleStubs() {
+    return maxIdleStubs;
+  }
+
+  public final void setMaxIdleStubs(final int maxIdleStubs) {
+    this.maxIdleStubs = maxIdleStubs;
+  }
+
+  public final int getMaxConnectionsPerHost() {
+    return maxConnectionsPerHost;
+  }
+
+  public final void setMaxConnectionsPerHost(final int maxConnectionsPerHost) {
+    this.maxConnectionsPerHost = maxConnectionsPerHost;
+  }
+
+  public final int getMaxTotalConnections() {
+    return maxTotalConnections;
+  }
+
+  public final void setMaxTotalConnections(final int maxTotalConnections) {
+    this.maxTotalConnections = maxTotalConnections;
+  }
+}
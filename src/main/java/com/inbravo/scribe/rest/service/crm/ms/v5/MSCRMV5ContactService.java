@@ -30,10 +30,10 @@ import org.apache.log4j.Logger;
 import com.inbravo.scribe.exception.ScribeException;
 import com.inbravo.scribe.exception.ScribeResponseCodes;
 import com.inbravo.scribe.rest.resource.ScribeCommandObject;
-import com.inbravo.scribe.rest.resource.ScribeObject;
 import com.inbravo.scribe.rest.service.crm.cache.ScribeCacheObject;
 import com.inbravo.scribe.rest.service.crm.ms.MSCRMObjectService;
 import com.inbravo.scribe.rest.service.crm.ms.session.MSCRMOffice365SessionManager;
+import com.inbravo.scribe.rest.service.msg.type.ScribeObjectStream;
 
 /**
  * 
@@ -61,14 +61,9 @@ public final class MSCRMV5ContactService extends MSCRMObjectService {
 
     final ScribeCacheObject cacheObject = mSCRMSessionManager.getCrmUserInfoWithCRMSessionInformation(cADCommandObject.getCrmUserId());
 
-    final List<ScribeObject> cADbjectList =
-        mSCRMServiceManager.getObjects(cADCommandObject.getObjectType(), cacheObject.getScribeMetaObject().getCrmServiceProtocol(), cacheObject.getScribeMetaObject().getCrmServiceURL(),
-            cacheObject.getScribeMetaObject().getCrmUserId(), cacheObject.getScribeMetaObject().getCrmPassword(), cacheObject.getScribeMetaObject().getCrmOrgName(), cacheObject.getScribeMetaObject().getCrmSecurityToken(), null);
-
-    /* Set the final object in command object */
-    cADCommandObject.setObject(cADbjectList.toArray(new ScribeObject[cADbjectList.size()]));
-
-    return cADCommandObject;
+    /* Get a page of objects; next pages are asked using batch */
+    return mSCRMServiceManager.getObjects(cADCommandObject, cacheObject.getScribeMetaObject().getCrmServiceProtocol(), cacheObject
+        .getScribeMetaObject().getCrmServiceURL(), cacheObject.getScribeMetaObject().getCrmSecurityToken(), null, null, null);
   }
 
   @Override
@@ -77,14 +72,9 @@ public final class MSCRMV5ContactService extends MSCRMObjectService {
 
     final ScribeCacheObject cacheObject = mSCRMSessionManager.getCrmUserInfoWithCRMSessionInformation(cADCommandObject.getCrmUserId());
 
-    final List<ScribeObject> cADbjectList =
-        mSCRMServiceManager.getObjects(cADCommandObject.getObjectType(), cacheObject.getScribeMetaObject().getCrmServiceProtocol(), cacheObject.getScribeMetaObject().getCrmServiceURL(),
-            cacheObject.getScribeMetaObject().getCrmUserId(), cacheObject.getScribeMetaObject().getCrmPassword(), cacheObject.getScribeMetaObject().getCrmOrgName(), cacheObject.getScribeMetaObject().getCrmSecurityToken(), null, query);
-
-    /* Set the final object in command object */
-    cADCommandObject.setObject(cADbjectList.toArray(new ScribeObject[cADbjectList.size()]));
-
-    return cADCommandObject;
+    /* Get a page of objects; next pages are asked using batch */
+    return mSCRMServiceManager.getObjects(cADCommandObject, cacheObject.getScribeMetaObject().getCrmServiceProtocol(), cacheObject
+        .getScribeMetaObject().getCrmServiceURL(), cacheObject.getScribeMetaObject().getCrmSecurityToken(), null, query, null);
   }
 
   @Override
@@ -111,15 +101,10 @@ public final class MSCRMV5ContactService extends MSCRMObjectService {
 
     final ScribeCacheObject cacheObject = mSCRMSessionManager.getCrmUserInfoWithCRMSessionInformation(cADCommandObject.getCrmUserId());
 
-    final List<ScribeObject> cADbjectList =
-        mSCRMServiceManager.getObjects(cADCommandObject.getObjectType(), cacheObject.getScribeMetaObject().getCrmServiceProtocol(), cacheObject.getScribeMetaObject().getCrmServiceURL(),
-            cacheObject.getScribeMetaObject().getCrmUserId(), cacheObject.getScribeMetaObject().getCrmPassword(), cacheObject.getScribeMetaObject().getCrmOrgName(), cacheObject.getScribeMetaObject().getCrmSecurityToken(),
-            crmFieldToBeSelectedList.toArray(new String[crmFieldToBeSelectedList.size()]), query);
-
-    /* Set the final object in command object */
-    cADCommandObject.setObject(cADbjectList.toArray(new ScribeObject[cADbjectList.size()]));
-
-    return cADCommandObject;
+    /* Get a page of objects; next pages are asked using batch */
+    return mSCRMServiceManager.getObjects(cADCommandObject, cacheObject.getScribeMetaObject().getCrmServiceProtocol(), cacheObject
+        .getScribeMetaObject().getCrmServiceURL(), cacheObject.getScribeMetaObject().getCrmSecurityToken(), crmFieldToBeSelectedList
+        .toArray(new String[crmFieldToBeSelectedList.size()]), query, null);
   }
 
   @Override
@@ -147,16 +132,23 @@ public final class MSCRMV5ContactService extends MSCRMObjectService {
 
     final ScribeCacheObject cacheObject = mSCRMSessionManager.getCrmUserInfoWithCRMSessionInformation(cADCommandObject.getCrmUserId());
 
-    final List<ScribeObject> cADbjectList =
-        mSCRMServiceManager.getObjects(cADCommandObject.getObjectType(), cacheObject.getScribeMetaObject().getCrmServiceProtocol(), cacheObject.getScribeMetaObject().getCrmServiceURL(),
- cacheObject.getScribeMetaObject().getCrmUserId(), cacheObject.getScribeMetaObject().getCrmPassword(),
-            cacheObject.getScribeMetaObject().getCrmOrgName(), cacheObject.getScribeMetaObject().getCrmSecurityToken(),
-            crmFieldToBeSelectedList.toArray(new String[crmFieldToBeSelectedList.size()]), query, order);
+    /* Get a page of objects; next pages are asked using batch */
+    return mSCRMServiceManager.getObjects(cADCommandObject, cacheObject.getScribeMetaObject().getCrmServiceProtocol(), cacheObject
+        .getScribeMetaObject().getCrmServiceURL(), cacheObject.getScribeMetaObject().getCrmSecurityToken(), crmFieldToBeSelectedList
+        .toArray(new String[crmFieldToBeSelectedList.size()]), query, order);
+  }
 
-    /* Set the final object in command object */
-    cADCommandObject.setObject(cADbjectList.toArray(new ScribeObject[cADbjectList.size()]));
+  @Override
+  public final ScribeObjectStream streamObjects(final ScribeCommandObject cADCommandObject, final String query, final String select) throws Exception {
+    logger.debug("----Inside streamObjects query: " + query + " & select: " + select);
+
+    /* Get agent from session */
+    final ScribeCacheObject cacheObject = mSCRMSessionManager.getCrmUserInfoWithCRMSessionInformation(cADCommandObject.getCrmUserId());
 
-    return cADCommandObject;
+    /* Pages are fetched one by one while objects are written */
+    return mSCRMServiceManager.streamObjects(cADCommandObject.getObjectType(), cacheObject.getScribeMetaObject().getCrmServiceProtocol(),
+        cacheObject.getScribeMetaObject().getCrmServiceURL(), cacheObject.getScribeMetaObject().getCrmSecurityToken(),
+        select != null ? select.split(",") : null, query);
   }
 
   @Override
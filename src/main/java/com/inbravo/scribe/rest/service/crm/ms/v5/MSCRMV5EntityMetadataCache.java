@@ -0,0 +1,109 @@
+/*
+ * MIT License
+ * 
+ * Copyright (c) 2016 Amit Dixit (github.com/inbravo)
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.inbravo.scribe.rest.service.crm.ms.v5;
+
+import java.util.Map;
+import java.util.concurrent.Callable;
+
+import org.apache.log4j.Logger;
+
+import com.inbravo.scribe.rest.service.crm.cache.CRMTimedCache;
+
+/**
+ * Per organization, per entity cache of MS CRM V5 attribute types; requests are typed from entity
+ * metadata instead of type information in field names
+ * 
+ * @author amit.dixit
+ * 
+ */
+public final class MSCRMV5EntityMetadataCache {
+
+  private final Logger logger = Logger.getLogger(MSCRMV5EntityMetadataCache.class.getName());
+
+  /* Faults of MS CRM telling that an attribute or its value type is not as per metadata */
+  private static final String[] metadataFaults =
+      {"doesn't contain attribute", "does not contain attribute", "incorrect attribute value type", "error while trying to deserialize"};
+
+  /* Cached attribute types; key is organization service end point and entity name */
+  private final CRMTimedCache<String, Map<String, String>> metadataCache = new CRMTimedCache<String, Map<String, String>>(3600000);
+
+  /**
+   * 
+   * @param organizationServiceURL
+   * @param entityName
+   * @param metadataRetriever retrieves attribute types of entity if not found in cache
+   * @return attribute type of each attribute; key is attribute logical name
+   * @throws Exception
+   */
+  public final Map<String, String> getAttributeTypes(final String organizationServiceURL, final String entityName,
+      final Callable<Map<String, String>> metadataRetriever) throws Exception {
+
+    /* Retrieve once for all concurrent requests of same organization and entity */
+    return metadataCache.get(this.createKey(organizationServiceURL, entityName), metadataRetriever);
+  }
+
+  /**
+   * Removes metadata of entity of the organization
+   * 
+   * @param organizationServiceURL
+   * @param entityName
+   */
+  public final void invalidate(final String organizationServiceURL, final String entityName) {
+
+    logger.debug("----Inside invalidate entityName: " + entityName);
+
+    metadataCache.invalidate(this.createKey(organizationServiceURL, entityName));
+  }
+
+  /**
+   * 
+   * @param faultMessage
+   * @return true if MS CRM rejected an attribute or its value type; metadata of entity may be stale
+   */
+  public static final boolean isMetadataFault(final String faultMessage) {
+
+    if (faultMessage == null) {
+      return false;
+    }
+
+    final String message = faultMessage.toLowerCase();
+
+    for (final String metadataFault : metadataFaults) {
+      if (message.contains(metadataFault)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private final String createKey(final String organizationServiceURL, final String entityName) {
+    return organizationServiceURL.toLowerCase() + "#" + entityName.toLowerCase();
+  }
+
+  public final long getTimeToLive() {
+    return metadataCache.getTimeToLive();
+  }
+
+  public final void setTimeToLive(final long timeToLive) {
+    metadataCache.setTimeToLive(timeToLive);
+  }
+}
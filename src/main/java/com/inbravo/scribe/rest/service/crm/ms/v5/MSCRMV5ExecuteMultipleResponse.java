@@ -0,0 +1,192 @@
+/*
+ * MIT License
+ * 
+ * Copyright (c) 2016 Amit Dixit (github.com/inbravo)
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.inbravo.scribe.rest.service.crm.ms.v5;
+
+import javax.xml.namespace.QName;
+
+import org.apache.xmlbeans.XmlCursor;
+import org.apache.xmlbeans.XmlObject;
+import org.datacontract.schemas._2004._07.system_collections_generic.KeyValuePairOfstringanyType;
+
+import com.inbravo.scribe.rest.service.crm.ms.MSCRMSchemaConstants.MSCRM_2011_Schema_Constants;
+import com.inbravo.scribe.rest.service.crm.ms.MSCRMSchemaConstants.MSCRM_2012_Schema_Constants;
+import com.microsoft.schemas.xrm._2011.contracts.OrganizationResponse;
+
+/**
+ * Maps ExecuteMultipleResponseItems of an ExecuteMultiple response back at the requests of a chunk
+ * 
+ * @author amit.dixit
+ * 
+ */
+final class MSCRMV5ExecuteMultipleResponse {
+
+  /* Error of a request not sent or skipped by MS CRM after a failed request */
+  static final String notProcessedError = "Not processed because of an earlier failed object";
+
+  /* Error of a create request without response */
+  static final String noResponseError = "No response from MS CRM";
+
+  /* Name of result carrying id of created object */
+  private static final String idResult = "id";
+
+  /* Namespace of key value pairs of MS CRM parameters */
+  private static final String collectionsNamespace = "http://schemas.datacontract.org/2004/07/System.Collections.Generic";
+
+  private MSCRMV5ExecuteMultipleResponse() {
+
+  }
+
+  /**
+   * Reads ExecuteMultipleResponseItems; a request without response is not processed if MS CRM stopped at a failed request
+   * 
+   * @param executeMultipleResponse
+   * @param start index of first request of chunk
+   * @param end index after last request of chunk
+   * @param readIds true if responses carry ids of created objects
+   * @param continueOnError true if MS CRM processes rest of the requests after a failed request
+   * @param ids id of each request
+   * @param errors error of each request
+   * @return true if all requests of chunk are processed
+   */
+  static final boolean setResponses(final OrganizationResponse executeMultipleResponse, final int start, final int end, final boolean readIds,
+      final boolean continueOnError, final String[] ids, final String[] errors) {
+
+    XmlObject responses = null;
+
+    if (executeMultipleResponse != null && executeMultipleResponse.getResults() != null) {
+
+      for (final KeyValuePairOfstringanyType result : executeMultipleResponse.getResults().getKeyValuePairOfstringanyTypeArray()) {
+        if ("Responses".equals(result.getKey())) {
+          responses = result.getValue();
+        }
+      }
+    }
+
+    /* Index of first failed request */
+    int failedIndex = end;
+
+    if (responses != null) {
+
+      final XmlCursor cursor = responses.newCursor();
+
+      try {
+        for (boolean found = cursor.toFirstChild(); found; found = cursor.toNextSibling()) {
+
+          final String requestIndex = getChildText(cursor, new QName(MSCRM_2012_Schema_Constants._CONTRACTS, "RequestIndex"));
+
+          if (requestIndex == null) {
+            continue;
+          }
+
+          final int index = start + Integer.parseInt(requestIndex.trim());
+
+          if (index < start || index >= end) {
+            continue;
+          }
+
+          final String fault =
+              getChildText(cursor, new QName(MSCRM_2012_Schema_Constants._CONTRACTS, "Fault"), new QName(MSCRM_2011_Schema_Constants._CONTRACTS,
+                  "Message"));
+
+          if (fault != null) {
+            errors[index] = "Message : " + fault;
+            failedIndex = Math.min(failedIndex, index);
+          } else if (readIds) {
+            ids[index] = getResponseId(cursor);
+          }
+        }
+      } finally {
+        cursor.dispose();
+      }
+    }
+
+    boolean processed = failedIndex == end;
+
+    for (int i = start; i < end; i++) {
+
+      if (errors[i] == null) {
+
+        if (!continueOnError && i > failedIndex) {
+
+          /* MS CRM stops at first failed request */
+          errors[i] = notProcessedError;
+        } else if (readIds && ids[i] == null) {
+
+          errors[i] = noResponseError;
+          processed = false;
+        }
+      }
+    }
+
+    return processed;
+  }
+
+  /**
+   * Reads id from results of a create response item
+   * 
+   * @param cursor
+   * @return
+   */
+  private static final String getResponseId(final XmlCursor cursor) {
+
+    cursor.push();
+
+    try {
+      if (cursor.toChild(new QName(MSCRM_2012_Schema_Constants._CONTRACTS, "Response"))
+          && cursor.toChild(new QName(MSCRM_2011_Schema_Constants._CONTRACTS, "Results"))) {
+
+        for (boolean found = cursor.toFirstChild(); found; found = cursor.toNextSibling()) {
+
+          if (idResult.equals(getChildText(cursor, new QName(collectionsNamespace, "key")))) {
+            return getChildText(cursor, new QName(collectionsNamespace, "value"));
+          }
+        }
+      }
+      return null;
+    } finally {
+      cursor.pop();
+    }
+  }
+
+  /**
+   * Text of the child element found by following path from cursor; cursor is not moved
+   * 
+   * @param cursor
+   * @param path
+   * @return
+   */
+  private static final String getChildText(final XmlCursor cursor, final QName... path) {
+
+    cursor.push();
+
+    try {
+      for (final QName name : path) {
+        if (!cursor.toChild(name)) {
+          return null;
+        }
+      }
+      return cursor.getTextValue();
+    } finally {
+      cursor.pop();
+    }
+  }
+}
@@ -30,6 +30,7 @@ import com.inbravo.scribe.exception.ScribeResponseCodes;
 import com.inbravo.scribe.rest.constants.CRMConstants.MSCRMObjectType;
 import com.inbravo.scribe.rest.resource.ScribeCommandObject;
 import com.inbravo.scribe.rest.service.crm.ms.MSCRMObjectService;
+import com.inbravo.scribe.rest.service.msg.type.ScribeObjectStream;
 
 /**
  * 
@@ -72,6 +73,12 @@ public final class MSCRMV5ObjectService extends MSCRMObjectService implements Ap
     return this.getMSCRMObjectService(cADCommandObject.getObjectType()).deleteObject(cADCommandObject, idToBeDeleted);
   }
 
+  @Override
+  public final ScribeCommandObject deleteObjects(final ScribeCommandObject cADCommandObject) throws Exception {
+    logger.debug("----Inside deleteObjects");
+    return this.getMSCRMObjectService(cADCommandObject.getObjectType()).deleteObjects(cADCommandObject);
+  }
+
   @Override
   public final ScribeCommandObject getObjects(final ScribeCommandObject cADCommandObject) throws Exception {
     logger.debug("----Inside getObjects");
@@ -97,6 +104,13 @@ public final class MSCRMV5ObjectService extends MSCRMObjectService implements Ap
     return this.getMSCRMObjectService(cADCommandObject.getObjectType()).getObjects(cADCommandObject, query, select, order);
   }
 
+  @Override
+  public final ScribeObjectStream streamObjects(final ScribeCommandObject cADCommandObject, final String query, final String select)
+      throws Exception {
+    logger.debug("----Inside streamObjects query: " + query + " & select: " + select);
+    return this.getMSCRMObjectService(cADCommandObject.getObjectType()).streamObjects(cADCommandObject, query, select);
+  }
+
   @Override
   public ScribeCommandObject getObjectsCount(ScribeCommandObject cADCommandObject) throws Exception {
     return this.getMSCRMObjectService(cADCommandObject.getObjectType()).getObjectsCount(cADCommandObject);
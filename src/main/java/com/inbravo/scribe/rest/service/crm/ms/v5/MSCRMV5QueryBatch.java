@@ -0,0 +1,210 @@
+/*
+ * MIT License
+ * 
+ * Copyright (c) 2016 Amit Dixit (github.com/inbravo)
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.inbravo.scribe.rest.service.crm.ms.v5;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+import org.apache.commons.codec.binary.Base64;
+
+import com.inbravo.scribe.exception.ScribeException;
+import com.inbravo.scribe.exception.ScribeResponseCodes;
+
+/**
+ * Query of MS CRM V5 retrieve multiple with its paging position. User gets it as opaque 'batch' of a
+ * page and sends it back for next page; query of first page is carried so next pages are same
+ * query
+ * 
+ * @author amit.dixit
+ * 
+ */
+public final class MSCRMV5QueryBatch {
+
+  private final String objectType;
+
+  private final String[] crmFieldsToSelect;
+
+  private final String query;
+
+  private final String order;
+
+  /* Page to be fetched */
+  private int pageNumber = 1;
+
+  /* Paging cookie given by MS CRM with previous page */
+  private String pagingCookie;
+
+  /* No more pages */
+  private boolean done;
+
+  public MSCRMV5QueryBatch(final String objectType, final String[] crmFieldsToSelect, final String query, final String order) {
+    this.objectType = objectType;
+    this.crmFieldsToSelect = crmFieldsToSelect;
+    this.query = query;
+    this.order = order;
+  }
+
+  /**
+   * Moves to next page
+   * 
+   * @param pagingCookie of current page
+   */
+  public final void nextPage(final String pagingCookie) {
+    this.pageNumber++;
+    this.pagingCookie = pagingCookie;
+  }
+
+  public final void setDone() {
+    this.done = true;
+  }
+
+  public final boolean isDone() {
+    return done;
+  }
+
+  /**
+   * 
+   * @return URL safe 'batch' for next page
+   */
+  public final String encode() {
+
+    final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+    try {
+      final DataOutputStream out = new DataOutputStream(bytes);
+
+      out.writeUTF(objectType);
+      out.writeInt(crmFieldsToSelect != null ? crmFieldsToSelect.length : -1);
+
+      if (crmFieldsToSelect != null) {
+
+        for (final String crmField : crmFieldsToSelect) {
+          writeString(out, crmField);
+        }
+      }
+
+      writeString(out, query);
+      writeString(out, order);
+      out.writeInt(pageNumber);
+      writeString(out, pagingCookie);
+      out.flush();
+    } catch (final IOException e) {
+      throw new ScribeException(ScribeResponseCodes._1000 + "Problem in creating batch", e);
+    }
+
+    /* URL safe base 64 without padding */
+    return new String(Base64.encodeBase64(bytes.toByteArray())).replace('+', '-').replace('/', '_').replace("=", "");
+  }
+
+  /**
+   * 
+   * @param batch of previous page
+   * @return
+   */
+  public static final MSCRMV5QueryBatch decode(final String batch) {
+
+    final StringBuilder base64 = new StringBuilder(batch.trim().replace('-', '+').replace('_', '/'));
+
+    /* Add padding */
+    while (base64.length() % 4 != 0) {
+      base64.append('=');
+    }
+
+    try {
+      final DataInputStream in = new DataInputStream(new ByteArrayInputStream(Base64.decodeBase64(base64.toString().getBytes())));
+
+      final String objectType = in.readUTF();
+      final int fieldCount = in.readInt();
+
+      String[] crmFieldsToSelect = null;
+
+      if (fieldCount >= 0) {
+
+        /* Each field takes at least one byte: do not allocate for a count the batch can not hold */
+        if (fieldCount > in.available()) {
+          throw new ScribeException(ScribeResponseCodes._1008 + "Batch");
+        }
+
+        crmFieldsToSelect = new String[fieldCount];
+
+        for (int i = 0; i < fieldCount; i++) {
+          crmFieldsToSelect[i] = readString(in);
+        }
+      }
+
+      final MSCRMV5QueryBatch queryBatch = new MSCRMV5QueryBatch(objectType, crmFieldsToSelect, readString(in), readString(in));
+      queryBatch.pageNumber = in.readInt();
+      queryBatch.pagingCookie = readString(in);
+
+      return queryBatch;
+    } catch (final IOException e) {
+      throw new ScribeException(ScribeResponseCodes._1008 + "Batch", e);
+    } catch (final RuntimeException e) {
+      throw new ScribeException(ScribeResponseCodes._1008 + "Batch", e);
+    }
+  }
+
+  private static final void writeString(final DataOutputStream out, final String value) throws IOException {
+
+    out.writeBoolean(value != null);
+
+    if (value != null) {
+      out.writeUTF(value);
+    }
+  }
+
+  private static final String readString(final DataInputStream in) throws IOException {
+    return in.readBoolean() ? in.readUTF() : null;
+  }
+
+  public final String getObjectType() {
+    return objectType;
+  }
+
+  public final String[] getCrmFieldsToSelect() {
+    return crmFieldsToSelect;
+  }
+
+  public final String getQuery() {
+    return query;
+  }
+
+  public final String getOrder() {
+    return order;
+  }
+
+  public final int getPageNumber() {
+    return pageNumber;
+  }
+
+  public final String getPagingCookie() {
+    return pagingCookie;
+  }
+
+  @Override
+  public final String toString() {
+    return "MSCRMV5QueryBatch [objectType=" + objectType + ", query=" + query + ", order=" + order + ", pageNumber=" + pageNumber + "]";
+  }
+}
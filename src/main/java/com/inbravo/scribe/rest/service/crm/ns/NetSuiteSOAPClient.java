@@ -66,7 +66,7 @@ public final class NetSuiteSOAPClient {
    * @return
    * @throws Exception
    */
-  private final synchronized NetSuiteBindingStub createSoapBinding(final String userEmail, final String password, final String webserviceDomain)
+  private final NetSuiteBindingStub createSoapBinding(final String userEmail, final String password, final String webserviceDomain)
       throws Exception {
 
     if (logger.isDebugEnabled()) {
@@ -133,7 +133,7 @@ public final class NetSuiteSOAPClient {
    * @param externalPassword
    * @return
    */
-  public final synchronized NetSuiteBindingStub login(final String externalUsername, final String externalPassword, final String accountId,
+  public final NetSuiteBindingStub login(final String externalUsername, final String externalPassword, final String accountId,
       final String webserviceDomain) throws Exception {
 
     if (logger.isDebugEnabled()) {
@@ -21,10 +21,13 @@
 
 package com.inbravo.scribe.rest.service.crm.ns.session;
 
+import java.util.concurrent.Callable;
+
 import org.apache.log4j.Logger;
 
 import com.inbravo.scribe.rest.service.crm.cache.BasicObject;
 import com.inbravo.scribe.rest.service.crm.cache.CRMSessionCache;
+import com.inbravo.scribe.rest.service.crm.cache.CRMSingleFlight;
 import com.inbravo.scribe.rest.service.crm.cache.ScribeCacheObject;
 import com.inbravo.scribe.rest.service.crm.ns.NetSuiteSOAPClient;
 import com.inbravo.scribe.rest.service.crm.ns.v2k9.NSCRMV2k9ClientInfoProvidor;
@@ -50,6 +53,9 @@ public final class NetSuiteCRMSessionManager implements CRMSessionManager {
   /* REST based web service URL info provider */
   private NSCRMV2k9ClientInfoProvidor clientInfoProvidor;
 
+  /* Concurrent logins of same user share one login at NetSuite */
+  private final CRMSingleFlight<String> loginCoalescer = new CRMSingleFlight<String>();
+
   /**
    * API to get web service stub for Agent
    * 
@@ -57,7 +63,7 @@ public final class NetSuiteCRMSessionManager implements CRMSessionManager {
    * @return
    * @throws Exception
    */
-  public final synchronized NetSuiteBindingStub getSoapBindingStub(final String crmUserId, final String crmPassword) throws Exception {
+  public final NetSuiteBindingStub getSoapBindingStub(final String crmUserId, final String crmPassword) throws Exception {
 
     logger.debug("----Inside getSoapBindingStub: " + crmUserId);
 
@@ -73,36 +79,47 @@ public final class NetSuiteCRMSessionManager implements CRMSessionManager {
       logger.debug("----Inside getSoapBindingStub, user is found in cache");
     }
 
-    NetSuiteBindingStub soapBindingStub = null;
-
     /* Get SOAP stub */
     if (cacheObject.getSoapStub() != null) {
 
       logger.debug("----Inside getSoapBindingStub, using stub from cache");
 
       /* Get stub from cache */
-      soapBindingStub = (NetSuiteBindingStub) cacheObject.getSoapStub();
-    } else {
+      return (NetSuiteBindingStub) cacheObject.getSoapStub();
+    }
 
-      /* Get service URL information */
-      final NSCRMV2k9ClientInfo clientInfo =
-          clientInfoProvidor.getNSCRMV2k9ClientInfo(cacheObject.getScribeMetaObject().getCrmUserId(), cacheObject.getScribeMetaObject().getCrmPassword());
+    /* Login once for all concurrent requests of this user */
+    return loginCoalescer.execute(crmUserId, new Callable<NetSuiteBindingStub>() {
 
-      logger.debug("----Inside getSoapBindingStub, creating fresh stub, client info: " + clientInfo);
+      @Override
+      public final NetSuiteBindingStub call() throws Exception {
 
-      /* TODO : Login at NetSuite : pass role id as 3 for admin role */
-      soapBindingStub =
-          netSuiteSOAPClient.login(cacheObject.getScribeMetaObject().getCrmUserId(), cacheObject.getScribeMetaObject().getCrmPassword(), cacheObject
-              .getScribeMetaObject().getCrmAccountId(), clientInfo.getWebservicesDomain());
+        /* Stub may be created by a login which is finished meanwhile */
+        if (cacheObject.getSoapStub() != null) {
+          return (NetSuiteBindingStub) cacheObject.getSoapStub();
+        }
 
-      /* Set this stub in agent */
-      cacheObject.setSoapStub(soapBindingStub);
-    }
+        /* Get service URL information */
+        final NSCRMV2k9ClientInfo clientInfo =
+            clientInfoProvidor.getNSCRMV2k9ClientInfo(cacheObject.getScribeMetaObject().getCrmUserId(), cacheObject.getScribeMetaObject()
+                .getCrmPassword());
 
-    /* Re-admit this agent with CRM session information */
-    cRMSessionCache.admit(crmUserId, cacheObject);
+        logger.debug("----Inside getSoapBindingStub, creating fresh stub, client info: " + clientInfo);
+
+        /* TODO : Login at NetSuite : pass role id as 3 for admin role */
+        final NetSuiteBindingStub soapBindingStub =
+            netSuiteSOAPClient.login(cacheObject.getScribeMetaObject().getCrmUserId(), cacheObject.getScribeMetaObject().getCrmPassword(), cacheObject
+                .getScribeMetaObject().getCrmAccountId(), clientInfo.getWebservicesDomain());
+
+        /* Set this stub in agent */
+        cacheObject.setSoapStub(soapBindingStub);
+
+        /* Re-admit this agent with CRM session information */
+        cRMSessionCache.admit(crmUserId, cacheObject);
 
-    return soapBindingStub;
+        return soapBindingStub;
+      }
+    });
   }
 
   @Override
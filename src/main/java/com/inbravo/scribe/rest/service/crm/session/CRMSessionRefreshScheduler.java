@@ -0,0 +1,324 @@
+/*
+ * MIT License
+ * 
+ * Copyright (c) 2016 Amit Dixit (github.com/inbravo)
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.inbravo.scribe.rest.service.crm.session;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.log4j.Logger;
+
+import com.inbravo.scribe.rest.service.crm.cache.CRMSessionCache;
+import com.inbravo.scribe.rest.service.crm.cache.CRMSessionCacheListener;
+import com.inbravo.scribe.rest.service.crm.cache.ScribeCacheObject;
+
+/**
+ * Renews hot CRM sessions before their time to live is over. A session is refreshed at a fraction
+ * of its time to live, only if it is accessed after its last login. Number of refreshes running in
+ * parallel is limited for each CRM type
+ * 
+ * @author amit.dixit
+ * 
+ */
+public final class CRMSessionRefreshScheduler implements CRMSessionCacheListener {
+
+  private final Logger logger = Logger.getLogger(CRMSessionRefreshScheduler.class.getName());
+
+  /* Retry delay if no refresh permit is available for CRM type */
+  private static final long PERMIT_RETRY_DELAY = 1000;
+
+  /* CRM session cache */
+  private CRMSessionCache cRMSessionCache;
+
+  /* Refreshable session managers by CRM type */
+  private Map<String, RefreshableCRMSessionManager> sessionManagers = new HashMap<String, RefreshableCRMSessionManager>();
+
+  private boolean enabled = true;
+
+  /* Fraction of time to live after which session is refreshed */
+  private double ttlFraction = 0.75;
+
+  private int maxConcurrentRefreshPerCRM = 2;
+
+  private int refreshThreads = 4;
+
+  /* Refresh permits by CRM type */
+  private final ConcurrentHashMap<String, Semaphore> permits = new ConcurrentHashMap<String, Semaphore>();
+
+  /* Scheduled refreshes ordered by due time */
+  private final DelayQueue<RefreshTicket> refreshQueue = new DelayQueue<RefreshTicket>();
+
+  private ExecutorService refreshExecutor;
+
+  private Thread schedulerThread;
+
+  public final synchronized void start() {
+
+    if (!enabled || schedulerThread != null) {
+      return;
+    }
+
+    logger.debug("----Inside start, ttlFraction: " + ttlFraction + ", maxConcurrentRefreshPerCRM: " + maxConcurrentRefreshPerCRM);
+
+    final AtomicInteger threadCount = new AtomicInteger();
+
+    refreshExecutor =
+        new ThreadPoolExecutor(refreshThreads, refreshThreads, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+
+          @Override
+          public final Thread newThread(final Runnable runnable) {
+            final Thread thread = new Thread(runnable, "CRMSessionRefresh-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+          }
+        });
+
+    schedulerThread = new Thread(new Runnable() {
+
+      @Override
+      public void run() {
+
+        while (!Thread.currentThread().isInterrupted()) {
+          try {
+            dispatch(refreshQueue.take());
+          } catch (final InterruptedException e) {
+
+            /* Scheduler is stopped */
+            Thread.currentThread().interrupt();
+          } catch (final RuntimeException e) {
+            logger.error("=*=Inside CRMSessionRefreshScheduler: error in scheduling refresh", e);
+          }
+        }
+      }
+    }, "CRMSessionRefresh-Scheduler");
+
+    schedulerThread.setDaemon(true);
+    schedulerThread.start();
+
+    /* Listen to all logins from now on */
+    cRMSessionCache.addListener(this);
+  }
+
+  public final synchronized void stop() {
+
+    if (schedulerThread == null) {
+      return;
+    }
+
+    cRMSessionCache.removeListener(this);
+    schedulerThread.interrupt();
+    refreshExecutor.shutdownNow();
+    refreshQueue.clear();
+    schedulerThread = null;
+    refreshExecutor = null;
+  }
+
+  @Override
+  public final void admitted(final Object key, final Object cachedData, final long timeToLive) {
+
+    if (!(key instanceof String) || !(cachedData instanceof ScribeCacheObject) || timeToLive <= 0) {
+      return;
+    }
+
+    final ScribeCacheObject cacheObject = (ScribeCacheObject) cachedData;
+
+    if (cacheObject.getScribeMetaObject() == null || cacheObject.getScribeMetaObject().getCrmType() == null) {
+      return;
+    }
+
+    /* Only sessions of refreshable CRMs are scheduled */
+    final String crmType = cacheObject.getScribeMetaObject().getCrmType().toUpperCase();
+    if (!sessionManagers.containsKey(crmType)) {
+      return;
+    }
+
+    /* Restored sessions are cached before now */
+    final long timeCached = cRMSessionCache.whenCached(key);
+    refreshQueue.offer(new RefreshTicket((String) key, crmType, timeCached, timeCached + (long) (timeToLive * ttlFraction), timeCached + timeToLive));
+  }
+
+  private final void dispatch(final RefreshTicket ticket) {
+
+    /* Session is re-admitted or removed after this ticket is issued */
+    if (cRMSessionCache.whenCached(ticket.crmUserId) != ticket.timeCached || cRMSessionCache.peek(ticket.crmUserId) == null) {
+      return;
+    }
+
+    /* Idle sessions are left to expire */
+    if (cRMSessionCache.whenLastAccessed(ticket.crmUserId) <= ticket.timeCached) {
+      logger.debug("----Inside dispatch, session is not accessed since login; not refreshing: " + ticket.crmUserId);
+      return;
+    }
+
+    final Semaphore permit = this.getPermit(ticket.crmType);
+
+    if (!permit.tryAcquire()) {
+
+      /* Try again later if session is still valid by then */
+      if (System.currentTimeMillis() + PERMIT_RETRY_DELAY < ticket.expiresAt) {
+        refreshQueue.offer(ticket.retry(System.currentTimeMillis() + PERMIT_RETRY_DELAY));
+      }
+      return;
+    }
+
+    try {
+      refreshExecutor.execute(new Runnable() {
+
+        @Override
+        public void run() {
+          try {
+            logger.debug("----Inside CRMSessionRefreshScheduler, refreshing session of: " + ticket.crmUserId);
+
+            sessionManagers.get(ticket.crmType).refresh(ticket.crmUserId);
+          } catch (final Exception e) {
+
+            /* Session will be created again by next request */
+            logger.error("=*=Inside CRMSessionRefreshScheduler: refresh failed for: " + ticket.crmUserId, e);
+          } finally {
+            permit.release();
+          }
+        }
+      });
+    } catch (final RejectedExecutionException e) {
+      permit.release();
+    }
+  }
+
+  private final Semaphore getPermit(final String crmType) {
+
+    Semaphore permit = permits.get(crmType);
+
+    if (permit == null) {
+      final Semaphore newPermit = new Semaphore(maxConcurrentRefreshPerCRM);
+      permit = permits.putIfAbsent(crmType, newPermit);
+      if (permit == null) {
+        permit = newPermit;
+      }
+    }
+    return permit;
+  }
+
+  /**
+   * Scheduled refresh of one session
+   */
+  private static final class RefreshTicket implements Delayed {
+
+    private final String crmUserId;
+
+    private final String crmType;
+
+    /* Cache time of session for which this ticket is issued */
+    private final long timeCached;
+
+    private final long refreshAt;
+
+    private final long expiresAt;
+
+    RefreshTicket(final String crmUserId, final String crmType, final long timeCached, final long refreshAt, final long expiresAt) {
+      this.crmUserId = crmUserId;
+      this.crmType = crmType;
+      this.timeCached = timeCached;
+      this.refreshAt = refreshAt;
+      this.expiresAt = expiresAt;
+    }
+
+    final RefreshTicket retry(final long retryAt) {
+      return new RefreshTicket(crmUserId, crmType, timeCached, retryAt, expiresAt);
+    }
+
+    @Override
+    public final long getDelay(final TimeUnit unit) {
+      return unit.convert(refreshAt - System.currentTimeMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public final int compareTo(final Delayed other) {
+
+      final long otherRefreshAt = ((RefreshTicket) other).refreshAt;
+      return (refreshAt < otherRefreshAt) ? -1 : ((refreshAt == otherRefreshAt) ? 0 : 1);
+    }
+  }
+
+  public final CRMSessionCache getcRMSessionCache() {
+    return cRMSessionCache;
+  }
+
+  public final void setcRMSessionCache(final CRMSessionCache cRMSessionCache) {
+    this.cRMSessionCache = cRMSessionCache;
+  }
+
+  public final Map<String, RefreshableCRMSessionManager> getSessionManagers() {
+    return sessionManagers;
+  }
+
+  public final void setSessionManagers(final Map<String, RefreshableCRMSessionManager> sessionManagers) {
+
+    this.sessionManagers = new HashMap<String, RefreshableCRMSessionManager>();
+
+    /* CRM type is matched without case */
+    for (final Map.Entry<String, RefreshableCRMSessionManager> entry : sessionManagers.entrySet()) {
+      this.sessionManagers.put(entry.getKey().trim().toUpperCase(), entry.getValue());
+    }
+  }
+
+  public final boolean isEnabled() {
+    return enabled;
+  }
+
+  public final void setEnabled(final boolean enabled) {
+    this.enabled = enabled;
+  }
+
+  public final double getTtlFraction() {
+    return ttlFraction;
+  }
+
+  public final void setTtlFraction(final double ttlFraction) {
+    this.ttlFraction = ttlFraction;
+  }
+
+  public final int getMaxConcurrentRefreshPerCRM() {
+    return maxConcurrentRefreshPerCRM;
+  }
+
+  public final void setMaxConcurrentRefreshPerCRM(final int maxConcurrentRefreshPerCRM) {
+    this.maxConcurrentRefreshPerCRM = maxConcurrentRefreshPerCRM;
+  }
+
+  public final int getRefreshThreads() {
+    return refreshThreads;
+  }
+
+  public final void setRefreshThreads(final int refreshThreads) {
+    this.refreshThreads = refreshThreads;
+  }
+}
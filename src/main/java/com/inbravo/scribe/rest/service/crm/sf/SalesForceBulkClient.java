@@ -0,0 +1,476 @@
+/*
+ * MIT License
+ * 
+ * Copyright (c) 2016 Amit Dixit (github.com/inbravo)
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.inbravo.scribe.rest.service.crm.sf;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.log4j.Logger;
+
+import com.sforce.soap.partner.DeleteResult;
+import com.sforce.soap.partner.SaveResult;
+import com.sforce.soap.partner.SoapBindingStub;
+import com.sforce.soap.partner.UpsertResult;
+import com.sforce.soap.partner.fault.ApiFault;
+import com.sforce.soap.partner.fault.ExceptionCode;
+import com.sforce.soap.partner.sobject.SObject;
+
+/**
+ * Sends create, update, upsert and delete of many records to Sales Force in chunks of at most 200
+ * records per call, and retrieve in chunks of at most 2000 ids per call; independent chunks are
+ * sent in parallel, each with its own copy of the stub. Results are returned in order of input
+ * records. A failed write chunk does not fail the records of other chunks; its error is set in the
+ * result of each of its records. A chunk rejected for an expired session is sent again with a
+ * fresh session; chunks already written are not sent again
+ * 
+ * @author amit.dixit
+ * 
+ */
+public final class SalesForceBulkClient {
+
+  private final Logger logger = Logger.getLogger(SalesForceBulkClient.class.getName());
+
+  /* Maximum records per call accepted by Sales Force */
+  public static final int MAX_CHUNK_SIZE = 200;
+
+  /* Maximum ids per retrieve call accepted by Sales Force */
+  public static final int MAX_RETRIEVE_CHUNK_SIZE = 2000;
+
+  /* Records per call */
+  private int chunkSize = MAX_CHUNK_SIZE;
+
+  /* Ids per retrieve call */
+  private int retrieveChunkSize = MAX_RETRIEVE_CHUNK_SIZE;
+
+  /* Threads sending chunks in parallel; zero sends all chunks from request thread */
+  private int threads = 4;
+
+  private ExecutorService chunkExecutor;
+
+  public final void start() {
+
+    if (threads <= 0) {
+
+      logger.debug("----Inside start, chunks will be sent from request thread");
+      return;
+    }
+
+    logger.debug("----Inside start, threads: " + threads + " & chunkSize: " + chunkSize + " & retrieveChunkSize: " + retrieveChunkSize);
+
+    final AtomicInteger threadCount = new AtomicInteger();
+
+    final ThreadPoolExecutor executor =
+        new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+
+          @Override
+          public final Thread newThread(final Runnable runnable) {
+            final Thread thread = new Thread(runnable, "SalesForceBulk-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+          }
+        });
+
+    /* Release idle threads between loads */
+    executor.allowCoreThreadTimeOut(true);
+
+    chunkExecutor = executor;
+  }
+
+  public final void stop() {
+
+    logger.debug("----Inside stop");
+
+    if (chunkExecutor != null) {
+      chunkExecutor.shutdownNow();
+      chunkExecutor = null;
+    }
+  }
+
+  /**
+   * 
+   * @param soapBindingStub
+   * @param sessionRenewer gives fresh stub if session is expired; null to fail the chunk
+   * @param sObjects
+   * @return save result of each record
+   * @throws Exception
+   */
+  public final SaveResult[] create(final SoapBindingStub soapBindingStub, final SessionRenewer sessionRenewer, final SObject[] sObjects)
+      throws Exception {
+
+    final SaveResult[] saveResults = new SaveResult[sObjects.length];
+
+    this.execute(soapBindingStub, sessionRenewer, sObjects.length, Math.min(chunkSize, MAX_CHUNK_SIZE), saveResults, new Chunk<SaveResult>() {
+
+      @Override
+      public final SaveResult[] send(final SoapBindingStub chunkStub, final int from, final int to) throws Exception {
+        return chunkStub.create(copyOfRange(sObjects, new SObject[to - from], from));
+      }
+
+      @Override
+      public final SaveResult failed(final Exception e) {
+        return new SaveResult(createErrors(e), null, false);
+      }
+    });
+
+    return saveResults;
+  }
+
+  /**
+   * 
+   * @param soapBindingStub
+   * @param sessionRenewer gives fresh stub if session is expired; null to fail the chunk
+   * @param sObjects
+   * @return save result of each record
+   * @throws Exception
+   */
+  public final SaveResult[] update(final SoapBindingStub soapBindingStub, final SessionRenewer sessionRenewer, final SObject[] sObjects)
+      throws Exception {
+
+    final SaveResult[] saveResults = new SaveResult[sObjects.length];
+
+    this.execute(soapBindingStub, sessionRenewer, sObjects.length, Math.min(chunkSize, MAX_CHUNK_SIZE), saveResults, new Chunk<SaveResult>() {
+
+      @Override
+      public final SaveResult[] send(final SoapBindingStub chunkStub, final int from, final int to) throws Exception {
+        return chunkStub.update(copyOfRange(sObjects, new SObject[to - from], from));
+      }
+
+      @Override
+      public final SaveResult failed(final Exception e) {
+        return new SaveResult(createErrors(e), null, false);
+      }
+    });
+
+    return saveResults;
+  }
+
+  /**
+   * 
+   * @param soapBindingStub
+   * @param sessionRenewer gives fresh stub if session is expired; null to fail the chunk
+   * @param externalIdField field used to match existing records
+   * @param sObjects
+   * @return upsert result of each record
+   * @throws Exception
+   */
+  public final UpsertResult[] upsert(final SoapBindingStub soapBindingStub, final SessionRenewer sessionRenewer, final String externalIdField,
+      final SObject[] sObjects) throws Exception {
+
+    final UpsertResult[] upsertResults = new UpsertResult[sObjects.length];
+
+    this.execute(soapBindingStub, sessionRenewer, sObjects.length, Math.min(chunkSize, MAX_CHUNK_SIZE), upsertResults, new Chunk<UpsertResult>() {
+
+      @Override
+      public final UpsertResult[] send(final SoapBindingStub chunkStub, final int from, final int to) throws Exception {
+        return chunkStub.upsert(externalIdField, copyOfRange(sObjects, new SObject[to - from], from));
+      }
+
+      @Override
+      public final UpsertResult failed(final Exception e) {
+        return new UpsertResult(false, createErrors(e), null, false);
+      }
+    });
+
+    return upsertResults;
+  }
+
+  /**
+   * 
+   * @param soapBindingStub
+   * @param sessionRenewer gives fresh stub if session is expired; null to fail the chunk
+   * @param ids
+   * @return delete result of each record
+   * @throws Exception
+   */
+  public final DeleteResult[] delete(final SoapBindingStub soapBindingStub, final SessionRenewer sessionRenewer, final String[] ids)
+      throws Exception {
+
+    final DeleteResult[] deleteResults = new DeleteResult[ids.length];
+
+    this.execute(soapBindingStub, sessionRenewer, ids.length, Math.min(chunkSize, MAX_CHUNK_SIZE), deleteResults, new Chunk<DeleteResult>() {
+
+      @Override
+      public final DeleteResult[] send(final SoapBindingStub chunkStub, final int from, final int to) throws Exception {
+        return chunkStub.delete(copyOfRange(ids, new String[to - from], from));
+      }
+
+      @Override
+      public final DeleteResult failed(final Exception e) {
+        return new DeleteResult(createErrors(e), null, false);
+      }
+    });
+
+    return deleteResults;
+  }
+
+  /**
+   * 
+   * @param soapBindingStub
+   * @param sessionRenewer gives fresh stub if session is expired; null to fail the chunk
+   * @param fieldList comma separated fields to be retrieved
+   * @param objectType
+   * @param ids
+   * @return record of each id; null if record is not found
+   * @throws Exception if any chunk is failed; nothing is written by retrieve
+   */
+  public final SObject[] retrieve(final SoapBindingStub soapBindingStub, final SessionRenewer sessionRenewer, final String fieldList,
+      final String objectType, final String[] ids) throws Exception {
+
+    final SObject[] sObjects = new SObject[ids.length];
+
+    this.execute(soapBindingStub, sessionRenewer, ids.length, Math.min(retrieveChunkSize, MAX_RETRIEVE_CHUNK_SIZE), sObjects, new Chunk<SObject>() {
+
+      @Override
+      public final SObject[] send(final SoapBindingStub chunkStub, final int from, final int to) throws Exception {
+        return chunkStub.retrieve(fieldList, objectType, copyOfRange(ids, new String[to - from], from));
+      }
+    });
+
+    return sObjects;
+  }
+
+  private final <T> void execute(final SoapBindingStub soapBindingStub, final SessionRenewer sessionRenewer, final int size,
+      final int maxRecordsPerChunk, final T[] results, final Chunk<T> chunk) throws Exception {
+
+    final int recordsPerChunk = Math.max(1, maxRecordsPerChunk);
+
+    final int chunks = (size + recordsPerChunk - 1) / recordsPerChunk;
+
+    logger.debug("----Inside execute, records: " + size + " & chunks: " + chunks);
+
+    /* Find start time */
+    final long startTime = System.currentTimeMillis();
+
+    /* Error of each failed chunk */
+    final Exception[] chunkErrors = new Exception[chunks];
+
+    final ExecutorService executor = chunkExecutor;
+
+    if (executor == null || chunks == 1) {
+
+      for (int i = 0; i < chunks; i++) {
+
+        final int from = i * recordsPerChunk;
+
+        try {
+          this.copyResults(this.send(soapBindingStub, false, sessionRenewer, chunk, from, Math.min(from + recordsPerChunk, size)), results, from);
+        } catch (final Exception e) {
+          chunkErrors[i] = e;
+        }
+      }
+    } else {
+
+      final List<Future<T[]>> futures = new ArrayList<Future<T[]>>(chunks);
+
+      for (int from = 0; from < size; from += recordsPerChunk) {
+
+        final int chunkFrom = from;
+        final int chunkTo = Math.min(from + recordsPerChunk, size);
+
+        futures.add(executor.submit(new Callable<T[]>() {
+
+          @Override
+          public final T[] call() throws Exception {
+
+            /* Stub is not shared between threads */
+            return send(soapBindingStub, true, sessionRenewer, chunk, chunkFrom, chunkTo);
+          }
+        }));
+      }
+
+      /* Wait for all chunks; records of finished chunks are written already */
+      for (int i = 0; i < futures.size(); i++) {
+
+        try {
+          this.copyResults(futures.get(i).get(), results, i * recordsPerChunk);
+        } catch (final ExecutionException e) {
+
+          if (e.getCause() instanceof Exception) {
+            chunkErrors[i] = (Exception) e.getCause();
+          } else {
+            chunkErrors[i] = e;
+          }
+        }
+      }
+    }
+
+    this.setChunkErrors(chunkErrors, recordsPerChunk, results, chunk);
+
+    /* Calculate processing time by Sales Force */
+    logger.debug("----Inside execute time taken in Sales Force processing: " + (System.currentTimeMillis() - startTime) + " msec(s)");
+  }
+
+  private final <T> T[] send(final SoapBindingStub soapBindingStub, final boolean copyStub, final SessionRenewer sessionRenewer,
+      final Chunk<T> chunk, final int from, final int to) throws Exception {
+
+    try {
+      return chunk.send(copyStub ? SalesForceSOAPClient.copySoapBinding(soapBindingStub) : soapBindingStub, from, to);
+    } catch (final ApiFault e) {
+
+      /* Only expired session is recovered; Sales Force did not accept any record of the chunk */
+      if (sessionRenewer == null || !ExceptionCode.INVALID_SESSION_ID.equals(e.getExceptionCode())) {
+        throw e;
+      }
+
+      logger.debug("----Inside send found INVALID_SESSION_ID from Sales Force; going to send records " + from + " to " + (to - 1) + " again");
+
+      /* Concurrent chunks of the request share one login */
+      final SoapBindingStub freshStub = sessionRenewer.renew(soapBindingStub);
+
+      return chunk.send(copyStub ? SalesForceSOAPClient.copySoapBinding(freshStub) : freshStub, from, to);
+    }
+  }
+
+  private final <T> void setChunkErrors(final Exception[] chunkErrors, final int recordsPerChunk, final T[] results, final Chunk<T> chunk)
+      throws Exception {
+
+    Exception firstError = null;
+
+    int failedChunks = 0;
+
+    for (final Exception chunkError : chunkErrors) {
+
+      if (chunkError != null) {
+
+        if (firstError == null) {
+          firstError = chunkError;
+        }
+        failedChunks++;
+      }
+    }
+
+    if (firstError == null) {
+      return;
+    }
+
+    /* Throw the original error if nothing is sent, or if result of a record can not carry the error */
+    if (failedChunks == chunkErrors.length || chunk.failed(firstError) == null) {
+      throw firstError;
+    }
+
+    for (int i = 0; i < chunkErrors.length; i++) {
+
+      if (chunkErrors[i] != null) {
+
+        final int from = i * recordsPerChunk;
+        final int to = Math.min(from + recordsPerChunk, results.length);
+
+        logger.error("=*=Inside setChunkErrors, chunk of records " + from + " to " + (to - 1) + " is failed", chunkErrors[i]);
+
+        final T failedResult = chunk.failed(chunkErrors[i]);
+
+        for (int j = from; j < to; j++) {
+          results[j] = failedResult;
+        }
+      }
+    }
+  }
+
+  private final <T> void copyResults(final T[] chunkResults, final T[] results, final int from) {
+
+    if (chunkResults != null) {
+      System.arraycopy(chunkResults, 0, results, from, Math.min(chunkResults.length, results.length - from));
+    }
+  }
+
+  private static final com.sforce.soap.partner.Error[] createErrors(final Exception e) {
+
+    String message = e.getMessage();
+
+    /* Sales Force faults carry their code and message separately */
+    if (e instanceof ApiFault) {
+      message = ((ApiFault) e).getExceptionCode() + " : " + ((ApiFault) e).getExceptionMessage();
+    }
+
+    return new com.sforce.soap.partner.Error[] {new com.sforce.soap.partner.Error(null, "Chunk is failed at Sales Force : " + message, null)};
+  }
+
+  private static final <T> T[] copyOfRange(final T[] source, final T[] target, final int from) {
+
+    System.arraycopy(source, from, target, 0, target.length);
+    return target;
+  }
+
+  public final int getChunkSize() {
+    return chunkSize;
+  }
+
+  public final void setChunkSize(final int chunkSize) {
+    this.chunkSize = chunkSize;
+  }
+
+  public final int getRetrieveChunkSize() {
+    return retrieveChunkSize;
+  }
+
+  public final void setRetrieveChunkSize(final int retrieveChunkSize) {
+    this.retrieveChunkSize = retrieveChunkSize;
+  }
+
+  public final int getThreads() {
+    return threads;
+  }
+
+  public final void setThreads(final int threads) {
+    this.threads = threads;
+  }
+
+  /**
+   * Gives stub of a fresh session when Sales Force rejects the session of a chunk
+   */
+  public static interface SessionRenewer {
+
+    /**
+     * 
+     * @param invalidStub stub given by the request
+     * @return stub with fresh session
+     * @throws Exception
+     */
+    public SoapBindingStub renew(final SoapBindingStub invalidStub) throws Exception;
+  }
+
+  /**
+   * One Sales Force call for records from index 'from' to index 'to' (exclusive)
+   */
+  private static abstract class Chunk<T> {
+
+    public abstract T[] send(final SoapBindingStub chunkStub, final int from, final int to) throws Exception;
+
+    /**
+     * 
+     * @param e error of chunk
+     * @return result of each record of the failed chunk; null if chunk error fails the whole request
+     */
+    public T failed(final Exception e) {
+      return null;
+    }
+  }
+}
@@ -0,0 +1,172 @@
+/*
+ * MIT License
+ * 
+ * Copyright (c) 2016 Amit Dixit (github.com/inbravo)
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.inbravo.scribe.rest.service.crm.sf;
+
+import java.util.concurrent.Callable;
+
+import org.apache.log4j.Logger;
+
+import com.inbravo.scribe.exception.ScribeException;
+import com.inbravo.scribe.exception.ScribeResponseCodes;
+import com.inbravo.scribe.rest.service.crm.cache.CRMTimedCache;
+import com.sforce.soap.partner.DescribeSObjectResult;
+import com.sforce.soap.partner.Field;
+import com.sforce.soap.partner.SoapBindingStub;
+
+/**
+ * Per organization, per object cache of Sales Force describe results and of the 'Select all fields'
+ * SOQL built from them; a select all query makes one call at Sales Force instead of two
+ * 
+ * @author amit.dixit
+ * 
+ */
+public final class SalesForceDescribeCache {
+
+  private final Logger logger = Logger.getLogger(SalesForceDescribeCache.class.getName());
+
+  /* Cached describe results; key is organization end point and object type */
+  private final CRMTimedCache<String, DescribeEntry> describeCache = new CRMTimedCache<String, DescribeEntry>(3600000);
+
+  /**
+   * 
+   * @param soapBindingStub
+   * @param objectType
+   * @return 'Select f1 , f2 ... From objectType'
+   * @throws Exception
+   */
+  public final String getSelectAllQuery(final SoapBindingStub soapBindingStub, final String objectType) throws Exception {
+    return this.getDescribeEntry(soapBindingStub, objectType).selectAllQuery;
+  }
+
+  /**
+   * 
+   * @param soapBindingStub
+   * @param objectType
+   * @return 'f1, f2 ...'; all fields of object type
+   * @throws Exception
+   */
+  public final String getFieldList(final SoapBindingStub soapBindingStub, final String objectType) throws Exception {
+    return this.getDescribeEntry(soapBindingStub, objectType).fieldList;
+  }
+
+  /**
+   * 
+   * @param soapBindingStub
+   * @param objectType
+   * @return describe result of object type
+   * @throws Exception
+   */
+  public final DescribeSObjectResult describeSObject(final SoapBindingStub soapBindingStub, final String objectType) throws Exception {
+    return this.getDescribeEntry(soapBindingStub, objectType).describeSObjectResult;
+  }
+
+  /**
+   * Removes describe result of object type of the organization
+   * 
+   * @param soapBindingStub
+   * @param objectType
+   */
+  public final void invalidate(final SoapBindingStub soapBindingStub, final String objectType) {
+
+    logger.debug("----Inside invalidate objectType: " + objectType);
+
+    describeCache.invalidate(this.createKey(soapBindingStub, objectType));
+  }
+
+  private final DescribeEntry getDescribeEntry(final SoapBindingStub soapBindingStub, final String objectType) throws Exception {
+
+    /* Describe once for all concurrent requests of same organization and object */
+    return describeCache.get(this.createKey(soapBindingStub, objectType), new Callable<DescribeEntry>() {
+
+      @Override
+      public final DescribeEntry call() throws Exception {
+        return createDescribeEntry(soapBindingStub, objectType);
+      }
+    });
+  }
+
+  private final DescribeEntry createDescribeEntry(final SoapBindingStub soapBindingStub, final String objectType) throws Exception {
+
+    /* Make a Sales Force query to know the Object Fields */
+    final DescribeSObjectResult describeSObjectResult = soapBindingStub.describeSObject(objectType);
+
+    if (describeSObjectResult == null) {
+      logger.debug("----Inside createDescribeEntry no response from Sales Force");
+      throw new ScribeException(ScribeResponseCodes._1005);
+    }
+
+    final Field[] fields = describeSObjectResult.getFields();
+
+    if (fields == null) {
+      logger.debug("----Inside createDescribeEntry no records in response");
+      throw new ScribeException(ScribeResponseCodes._1004 + "Any " + objectType + " at Sales Force");
+    }
+
+    final StringBuilder query = new StringBuilder("Select ");
+
+    final StringBuilder fieldList = new StringBuilder();
+
+    for (int i = 0; i < fields.length; i++) {
+
+      if (i > 0) {
+        query.append(" , ");
+        fieldList.append(", ");
+      }
+      query.append(fields[i].getName());
+      fieldList.append(fields[i].getName());
+    }
+
+    /* Add 'From' clause */
+    query.append(" From ").append(objectType);
+
+    return new DescribeEntry(describeSObjectResult, query.toString(), fieldList.toString());
+  }
+
+  private final String createKey(final SoapBindingStub soapBindingStub, final String objectType) {
+
+    /* Server URL given at login ends with organization id */
+    return soapBindingStub._getProperty(SoapBindingStub.ENDPOINT_ADDRESS_PROPERTY) + "#" + objectType.toLowerCase();
+  }
+
+  public final long getTimeToLive() {
+    return describeCache.getTimeToLive();
+  }
+
+  public final void setTimeToLive(final long timeToLive) {
+    describeCache.setTimeToLive(timeToLive);
+  }
+
+  private static final class DescribeEntry {
+
+    private final DescribeSObjectResult describeSObjectResult;
+
+    private final String selectAllQuery;
+
+    private final String fieldList;
+
+    private DescribeEntry(final DescribeSObjectResult describeSObjectResult, final String selectAllQuery, final String fieldList) {
+      this.describeSObjectResult = describeSObjectResult;
+      this.selectAllQuery = selectAllQuery;
+      this.fieldList = fieldList;
+    }
+  }
+}
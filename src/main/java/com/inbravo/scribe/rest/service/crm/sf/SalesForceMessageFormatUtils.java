@@ -21,6 +21,11 @@
 
 package com.inbravo.scribe.rest.service.crm.sf;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
 
@@ -31,6 +36,8 @@ import org.w3c.dom.Element;
 
 import com.inbravo.scribe.rest.resource.ScribeObject;
 import com.inbravo.scribe.rest.service.crm.CRMMessageFormatUtils;
+import com.sforce.soap.partner.SearchRecord;
+import com.sforce.soap.partner.sobject.SObject;
 
 /**
  * 
@@ -41,6 +48,9 @@ public final class SalesForceMessageFormatUtils extends CRMMessageFormatUtils {
 
   private static final Logger logger = Logger.getLogger(SalesForceMessageFormatUtils.class.getName());
 
+  /* Creates documents owning the elements of Sales Force records */
+  private static final DocumentBuilderFactory recordDocumentFactory = DocumentBuilderFactory.newInstance();
+
   private SalesForceMessageFormatUtils() {
     super();
   }
@@ -65,6 +75,56 @@ public final class SalesForceMessageFormatUtils extends CRMMessageFormatUtils {
     return messageElementArray;
   }
 
+  /**
+   * 
+   * @param sObject
+   * @return ScribeObject with all fields of Sales Force record
+   * @throws Exception
+   */
+  public final static ScribeObject createScribeObject(final SObject sObject) throws Exception {
+    return new RecordMapper().createScribeObject(sObject);
+  }
+
+  /**
+   * Converts a page of Sales Force records; null records stay null
+   * 
+   * @param sObjects
+   * @return ScribeObject with all fields of each Sales Force record
+   * @throws Exception
+   */
+  public final static ScribeObject[] createScribeObjectArray(final SObject[] sObjects) throws Exception {
+
+    final RecordMapper recordMapper = new RecordMapper();
+
+    /* Create Object array with records length */
+    final ScribeObject[] cADbjectArray = new ScribeObject[sObjects.length];
+
+    for (int i = 0; i < sObjects.length; i++) {
+      cADbjectArray[i] = recordMapper.createScribeObject(sObjects[i]);
+    }
+    return cADbjectArray;
+  }
+
+  /**
+   * Converts a page of Sales Force search records
+   * 
+   * @param searchRecords
+   * @return ScribeObject with all fields of each Sales Force record
+   * @throws Exception
+   */
+  public final static ScribeObject[] createScribeObjectArray(final SearchRecord[] searchRecords) throws Exception {
+
+    final RecordMapper recordMapper = new RecordMapper();
+
+    /* Create Object array with records length */
+    final ScribeObject[] cADbjectArray = new ScribeObject[searchRecords.length];
+
+    for (int i = 0; i < searchRecords.length; i++) {
+      cADbjectArray[i] = recordMapper.createScribeObject(searchRecords[i].getRecord());
+    }
+    return cADbjectArray;
+  }
+
   public final static Element[] createElementArray(final MessageElement[] messageElementArray) throws Exception {
     logger.debug("----Inside createElementArray");
     final Element[] elementArray = new Element[messageElementArray.length];
@@ -88,4 +148,75 @@ public final class SalesForceMessageFormatUtils extends CRMMessageFormatUtils {
     }
     return elementArray;
   }
+
+  /**
+   * Converts Sales Force records to ScribeObject. Elements are created at one plain DOM document per
+   * page instead of copying the template Axis element for each field; field names repeated in each
+   * record of the page share one string
+   */
+  private static final class RecordMapper {
+
+    private final Document document;
+
+    private final Map<String, String> fieldNames = new HashMap<String, String>();
+
+    private RecordMapper() throws Exception {
+
+      /* Factory is not guaranteed to be thread safe */
+      synchronized (recordDocumentFactory) {
+        document = recordDocumentFactory.newDocumentBuilder().newDocument();
+      }
+    }
+
+    private final ScribeObject createScribeObject(final SObject sObject) {
+
+      if (sObject == null) {
+        return null;
+      }
+
+      /* Create one Object each record */
+      final ScribeObject cADbject = new ScribeObject();
+
+      /* Set object type */
+      cADbject.setObjectType(sObject.getType());
+
+      /* Get all fields from the record */
+      final MessageElement[] fields = sObject.get_any();
+
+      /* Create list of elements */
+      final List<Element> elementList = new ArrayList<Element>(fields != null ? fields.length : 0);
+
+      if (fields != null) {
+        for (int j = 0; j < fields.length; j++) {
+
+          /* Create inner tags <Field_Name> inside <Object> */
+          final Element element = document.createElement(this.getFieldName(fields[j].getName()));
+
+          final String value = fields[j].getValue();
+
+          if (value != null) {
+            element.appendChild(document.createTextNode(value));
+          }
+          elementList.add(element);
+        }
+      }
+
+      /* Add all CRM fields */
+      cADbject.setXmlContent(elementList);
+
+      return cADbject;
+    }
+
+    private final String getFieldName(final String name) {
+
+      final String fieldName = fieldNames.get(name);
+
+      if (fieldName != null) {
+        return fieldName;
+      }
+
+      fieldNames.put(name, name);
+      return name;
+    }
+  }
 }
@@ -0,0 +1,314 @@
+/*
+ * MIT License
+ * 
+ * Copyright (c) 2016 Amit Dixit (github.com/inbravo)
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.inbravo.scribe.rest.service.crm.sf;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.log4j.Logger;
+
+import com.sforce.soap.partner.QueryResult;
+import com.sforce.soap.partner.SoapBindingStub;
+
+/**
+ * Fetches next batch of a Sales Force query while current batch is being converted and written. A
+ * prefetched batch is kept against the query locator (Batch) of the user till user asks for it
+ * 
+ * @author amit.dixit
+ * 
+ */
+public final class SalesForceQueryPrefetcher {
+
+  private final Logger logger = Logger.getLogger(SalesForceQueryPrefetcher.class.getName());
+
+  /* Prefetch is optional; each prefetch costs a Sales Force call even if user never asks for it */
+  private boolean enabled;
+
+  /* Threads fetching next batches */
+  private int threads = 4;
+
+  /* Maximum prefetched batches waiting for users */
+  private int maxPrefetchedBatches = 100;
+
+  /* Time in msec(s) for which a prefetched batch waits for user */
+  private long timeToLive = 60000;
+
+  /* Background fetch uses its own copy of stub; Axis stub is not safe for concurrent calls */
+  private boolean copyStub = true;
+
+  /* Prefetched batches; key is user and query locator */
+  private final ConcurrentHashMap<String, PrefetchedBatch> prefetchedBatches = new ConcurrentHashMap<String, PrefetchedBatch>();
+
+  /* Prefetched batches in order of expiry; all batches live for same time */
+  private final ConcurrentLinkedQueue<PrefetchedBatch> expiryQueue = new ConcurrentLinkedQueue<PrefetchedBatch>();
+
+  private ThreadPoolExecutor prefetchExecutor;
+
+  public final void start() {
+
+    if (!enabled || threads <= 0) {
+
+      logger.debug("----Inside start, prefetch is disabled");
+      return;
+    }
+
+    logger.debug("----Inside start, threads: " + threads + " & maxPrefetchedBatches: " + maxPrefetchedBatches);
+
+    final AtomicInteger threadCount = new AtomicInteger();
+
+    prefetchExecutor =
+        new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(maxPrefetchedBatches), new ThreadFactory() {
+
+          @Override
+          public final Thread newThread(final Runnable runnable) {
+            final Thread thread = new Thread(runnable, "SalesForcePrefetch-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+          }
+        });
+
+    /* Release idle threads between exports */
+    prefetchExecutor.allowCoreThreadTimeOut(true);
+  }
+
+  public final void stop() {
+
+    logger.debug("----Inside stop");
+
+    if (prefetchExecutor != null) {
+      prefetchExecutor.shutdownNow();
+      prefetchExecutor = null;
+    }
+    prefetchedBatches.clear();
+    expiryQueue.clear();
+  }
+
+  /**
+   * Starts fetching the batch of query locator; user will ask for it using
+   * {@link #queryMore(SoapBindingStub, String, String)}
+   * 
+   * @param soapBindingStub
+   * @param crmUserId
+   * @param queryLocator
+   */
+  public final void prefetch(final SoapBindingStub soapBindingStub, final String crmUserId, final String queryLocator) {
+
+    if (queryLocator == null || prefetchExecutor == null) {
+      return;
+    }
+
+    /* Remove batches which are not asked till now */
+    this.removeExpiredBatches();
+
+    if (prefetchedBatches.size() >= maxPrefetchedBatches) {
+      logger.debug("----Inside prefetch, maximum prefetched batches are waiting; not prefetching: " + queryLocator);
+      return;
+    }
+
+    final Future<QueryResult> future = this.fetch(soapBindingStub, queryLocator);
+
+    if (future != null) {
+
+      logger.debug("----Inside prefetch, fetching batch with query locator: " + queryLocator);
+
+      final PrefetchedBatch prefetchedBatch =
+          new PrefetchedBatch(this.createKey(crmUserId, queryLocator), future, System.currentTimeMillis() + timeToLive);
+
+      prefetchedBatches.put(prefetchedBatch.key, prefetchedBatch);
+      expiryQueue.add(prefetchedBatch);
+    }
+  }
+
+  /**
+   * 
+   * @param soapBindingStub
+   * @param crmUserId
+   * @param queryLocator
+   * @return prefetched batch of query locator, or a new batch from Sales Force if it is not prefetched
+   * @throws Exception
+   */
+  public final QueryResult queryMore(final SoapBindingStub soapBindingStub, final String crmUserId, final String queryLocator) throws Exception {
+
+    this.removeExpiredBatches();
+
+    final PrefetchedBatch prefetchedBatch = prefetchedBatches.remove(this.createKey(crmUserId, queryLocator));
+
+    if (prefetchedBatch != null) {
+
+      try {
+
+        logger.debug("----Inside queryMore, batch is prefetched for query locator: " + queryLocator);
+
+        return this.getResult(prefetchedBatch.future);
+      } catch (final Exception e) {
+
+        /* Prefetch may fail for a reason not applicable now e.g. expired session; query again */
+        logger.debug("----Inside queryMore, prefetch is failed; going to fetch again: " + e);
+      }
+    }
+
+    /* Query Sales Force with batch information */
+    return soapBindingStub.queryMore(queryLocator);
+  }
+
+  /**
+   * 
+   * @param soapBindingStub
+   * @param queryLocator
+   * @return batch being fetched in background; null if prefetch is disabled or busy
+   */
+  public final Future<QueryResult> fetch(final SoapBindingStub soapBindingStub, final String queryLocator) {
+
+    final ThreadPoolExecutor executor = prefetchExecutor;
+
+    if (queryLocator == null || executor == null) {
+      return null;
+    }
+
+    try {
+      return executor.submit(new Callable<QueryResult>() {
+
+        @Override
+        public final QueryResult call() throws Exception {
+          return (copyStub ? SalesForceSOAPClient.copySoapBinding(soapBindingStub) : soapBindingStub).queryMore(queryLocator);
+        }
+      });
+    } catch (final RejectedExecutionException e) {
+
+      logger.debug("----Inside fetch, prefetch queue is full; batch will be fetched on request: " + queryLocator);
+      return null;
+    }
+  }
+
+  /**
+   * 
+   * @param future
+   * @return result of batch being fetched in background
+   * @throws Exception
+   */
+  public final QueryResult getResult(final Future<QueryResult> future) throws Exception {
+
+    try {
+      return future.get();
+    } catch (final ExecutionException e) {
+
+      /* Throw the original error of query */
+      if (e.getCause() instanceof Exception) {
+        throw (Exception) e.getCause();
+      }
+      throw e;
+    }
+  }
+
+  /**
+   * 
+   * @return number of prefetched batches waiting for users
+   */
+  public final int getPrefetchedBatchCount() {
+    return prefetchedBatches.size();
+  }
+
+  private final void removeExpiredBatches() {
+
+    final long now = System.currentTimeMillis();
+
+    /* Only expired batches at head of queue are visited */
+    PrefetchedBatch prefetchedBatch = null;
+
+    while ((prefetchedBatch = expiryQueue.peek()) != null && prefetchedBatch.expiresAt <= now) {
+
+      if (expiryQueue.remove(prefetchedBatch) && prefetchedBatches.remove(prefetchedBatch.key, prefetchedBatch)) {
+
+        logger.debug("----Inside removeExpiredBatches, batch is not asked by user: " + prefetchedBatch.key);
+
+        prefetchedBatch.future.cancel(true);
+      }
+    }
+  }
+
+  private final String createKey(final String crmUserId, final String queryLocator) {
+
+    /* Batch of one user is never given to other user */
+    return crmUserId + "#" + queryLocator;
+  }
+
+  public final boolean isEnabled() {
+    return enabled;
+  }
+
+  public final void setEnabled(final boolean enabled) {
+    this.enabled = enabled;
+  }
+
+  public final int getThreads() {
+    return threads;
+  }
+
+  public final void setThreads(final int threads) {
+    this.threads = threads;
+  }
+
+  public final int getMaxPrefetchedBatches() {
+    return maxPrefetchedBatches;
+  }
+
+  public final void setMaxPrefetchedBatches(final int maxPrefetchedBatches) {
+    this.maxPrefetchedBatches = maxPrefetchedBatches;
+  }
+
+  public final long getTimeToLive() {
+    return timeToLive;
+  }
+
+  public final void setTimeToLive(final long timeToLive) {
+    this.timeToLive = timeToLive;
+  }
+
+  /* Stubs of tests record their calls and can not be copied */
+  final void setCopyStub(final boolean copyStub) {
+    this.copyStub = copyStub;
+  }
+
+  private static final class PrefetchedBatch {
+
+    private final String key;
+
+    private final Future<QueryResult> future;
+
+    private final long expiresAt;
+
+    private PrefetchedBatch(final String key, final Future<QueryResult> future, final long expiresAt) {
+      this.key = key;
+      this.future = future;
+      this.expiresAt = expiresAt;
+    }
+  }
+}
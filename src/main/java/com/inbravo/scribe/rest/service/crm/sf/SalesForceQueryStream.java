@@ -0,0 +1,167 @@
+/*
+ * MIT License
+ * 
+ * Copyright (c) 2016 Amit Dixit (github.com/inbravo)
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.inbravo.scribe.rest.service.crm.sf;
+
+import java.util.concurrent.Future;
+
+import org.apache.log4j.Logger;
+
+import com.inbravo.scribe.rest.resource.ScribeObject;
+import com.inbravo.scribe.rest.service.crm.sf.SalesForceBulkClient.SessionRenewer;
+import com.inbravo.scribe.rest.service.msg.type.ScribeObjectStream;
+import com.sforce.soap.partner.QueryResult;
+import com.sforce.soap.partner.SoapBindingStub;
+import com.sforce.soap.partner.fault.ApiFault;
+import com.sforce.soap.partner.fault.ExceptionCode;
+import com.sforce.soap.partner.sobject.SObject;
+
+/**
+ * Follows query locators of a Sales Force query. If prefetch is enabled next batch is fetched while
+ * current batch is being written; at most one batch is fetched ahead, hence memory is bounded by the
+ * query batch size. Batches are fetched after request is returned; stream uses its own stub and
+ * logs in again if session is expired meanwhile
+ * 
+ * @author amit.dixit
+ * 
+ */
+public final class SalesForceQueryStream extends ScribeObjectStream {
+
+  private final Logger logger = Logger.getLogger(SalesForceQueryStream.class.getName());
+
+  /* Stub of this stream; replaced if session is renewed */
+  private SoapBindingStub soapBindingStub;
+
+  private final SessionRenewer sessionRenewer;
+
+  private final SalesForceQueryPrefetcher queryPrefetcher;
+
+  /* Next batch being fetched in background */
+  private Future<QueryResult> nextResult;
+
+  /* Batch which is not returned yet */
+  private QueryResult queryResult;
+
+  /* Query locator of next batch; null if no more batches */
+  private String queryLocator;
+
+  /**
+   * 
+   * @param soapBindingStub stub which is not used by any other thread
+   * @param sessionRenewer gives a fresh stub if session is expired; may be null
+   * @param queryResult first batch
+   * @param queryPrefetcher may be null
+   */
+  public SalesForceQueryStream(final SoapBindingStub soapBindingStub, final SessionRenewer sessionRenewer, final QueryResult queryResult,
+      final SalesForceQueryPrefetcher queryPrefetcher) {
+    this.soapBindingStub = soapBindingStub;
+    this.sessionRenewer = sessionRenewer;
+    this.queryResult = queryResult;
+    this.queryPrefetcher = queryPrefetcher;
+  }
+
+  @Override
+  public final ScribeObject[] nextPage() throws Exception {
+
+    if (queryResult == null) {
+
+      if (queryLocator == null) {
+        return null;
+      }
+
+      if (nextResult != null) {
+
+        try {
+
+          /* Batch is already being fetched */
+          queryResult = queryPrefetcher.getResult(nextResult);
+        } catch (final Exception e) {
+
+          /* Prefetch may fail for a reason not applicable now e.g. expired session; query again */
+          logger.debug("----Inside nextPage, prefetch is failed; going to fetch again: " + e);
+        } finally {
+          nextResult = null;
+        }
+      }
+
+      if (queryResult == null) {
+
+        logger.debug("----Inside nextPage going to fetch a batch with query locator: " + queryLocator);
+
+        /* Query Sales Force with batch information */
+        queryResult = this.queryMore();
+      }
+    }
+
+    final QueryResult currentResult = queryResult;
+
+    /* Release the batch before it is written */
+    queryResult = null;
+
+    queryLocator = currentResult.isDone() ? null : currentResult.getQueryLocator();
+
+    /* Fetch next batch while this batch is being written */
+    if (queryLocator != null && queryPrefetcher != null) {
+      nextResult = queryPrefetcher.fetch(soapBindingStub, queryLocator);
+    }
+
+    final SObject[] records = currentResult.getRecords();
+
+    if (records == null) {
+      return queryLocator == null ? null : new ScribeObject[0];
+    }
+
+    return SalesForceMessageFormatUtils.createScribeObjectArray(records);
+  }
+
+  private final QueryResult queryMore() throws Exception {
+
+    try {
+      return soapBindingStub.queryMore(queryLocator);
+    } catch (final ApiFault e) {
+
+      /* Only expired session is recovered */
+      if (sessionRenewer == null || !ExceptionCode.INVALID_SESSION_ID.equals(e.getExceptionCode())) {
+        throw e;
+      }
+
+      logger.debug("----Inside queryMore found INVALID_SESSION_ID from Sales Force; going to relogin");
+
+      /* Login again and retry once with fresh stub */
+      soapBindingStub = sessionRenewer.renew(soapBindingStub);
+
+      return soapBindingStub.queryMore(queryLocator);
+    }
+  }
+
+  @Override
+  public final void close() {
+
+    /* Next batch is not required anymore */
+    if (nextResult != null) {
+      nextResult.cancel(true);
+      nextResult = null;
+    }
+
+    queryResult = null;
+    queryLocator = null;
+  }
+}
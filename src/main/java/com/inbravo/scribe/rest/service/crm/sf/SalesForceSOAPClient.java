@@ -25,6 +25,7 @@ import java.rmi.RemoteException;
 
 import javax.xml.rpc.ServiceException;
 
+import org.apache.axis.message.SOAPHeaderElement;
 import org.apache.log4j.Logger;
 
 import com.inbravo.scribe.exception.ScribeException;
@@ -49,6 +50,9 @@ public final class SalesForceSOAPClient {
 
   private final Logger logger = Logger.getLogger(SalesForceSOAPClient.class.getName());
 
+  /* Sales Force service namespace; resolved once instead of creating a locator for each header */
+  private static final String SFORCE_NAMESPACE_URI = new SforceServiceLocator().getServiceName().getNamespaceURI();
+
   /* Sales Force web service client id */
   private String clientId;
 
@@ -58,7 +62,7 @@ public final class SalesForceSOAPClient {
   /* Sales Force query batch size */
   private String queryBatchSize;
 
-  private final synchronized SoapBindingStub createSoapBinding() throws Exception {
+  private final SoapBindingStub createSoapBinding() throws Exception {
 
     logger.debug("----Inside createSoapBinding");
     SoapBindingStub soapBindingStub = null;
@@ -80,29 +84,16 @@ public final class SalesForceSOAPClient {
    * @param externalPassword
    * @return
    */
-  public final synchronized SoapBindingStub login(final String externalUsername, final String externalPassword) throws Exception {
+  public final SoapBindingStub login(final String externalUsername, final String externalPassword) throws Exception {
     logger.debug("----Inside login CRM user name: " + externalUsername + " & CRM Password:" + externalPassword);
 
     if (externalUsername == null & externalUsername == null) {
       throw new ScribeException(ScribeResponseCodes._1008 + "Sales Force CRM credentials not found");
     }
 
-    /* Call options */
-    final CallOptions callOptions = new CallOptions();
-    callOptions.setClient(clientId);
-
     /* Create new Stub */
-    final SoapBindingStub soapBindingStub = this.createSoapBinding();
-
-    /* Set header */
-    soapBindingStub.setHeader("SforceService", "CallOptions", callOptions);
+    final SoapBindingStub soapBindingStub = this.createClientSoapBinding();
 
-    try {
-      /* Set timeout */
-      soapBindingStub.setTimeout(Integer.parseInt(getTimeout()));
-    } catch (final NumberFormatException e) {
-      throw new ScribeException(ScribeResponseCodes._1002 + "'Timeout'");
-    }
     LoginResult loginResult = null;
     try {
       /* Trim the parameters. Do not trim password */
@@ -144,10 +135,90 @@ public final class SalesForceSOAPClient {
       throw new ScribeException(ScribeResponseCodes._1006 + "Password expired");
     }
 
-    /* Set end point address */
-    soapBindingStub._setProperty(SoapBindingStub.ENDPOINT_ADDRESS_PROPERTY, loginResult.getServerUrl());
     logger.debug("----Inside login SalesForce URL: " + loginResult.getServerUrl());
 
+    /* Use the session of login */
+    this.setSession(soapBindingStub, loginResult.getServerUrl(), loginResult.getSessionId());
+
+    return soapBindingStub;
+  }
+
+  /**
+   * Creates stub for an existing session, e.g. a session shared by another node. No login is made;
+   * an invalid session is reported by Sales Force at first call.
+   * 
+   * @param serverUrl
+   * @param sessionId
+   * @return
+   * @throws Exception
+   */
+  public final SoapBindingStub createSoapBinding(final String serverUrl, final String sessionId) throws Exception {
+
+    logger.debug("----Inside createSoapBinding SalesForce URL: " + serverUrl);
+
+    /* Create new Stub */
+    final SoapBindingStub soapBindingStub = this.createClientSoapBinding();
+
+    /* Use the existing session */
+    this.setSession(soapBindingStub, serverUrl, sessionId);
+
+    return soapBindingStub;
+  }
+
+  /**
+   * Creates a new stub with end point, timeout and headers of the stub. Axis stub adds its header
+   * elements to each outgoing message and is not safe for concurrent calls; each thread calling
+   * Sales Force in parallel uses its own copy
+   * 
+   * @param soapBindingStub
+   * @return
+   * @throws Exception
+   */
+  public static final SoapBindingStub copySoapBinding(final SoapBindingStub soapBindingStub) throws Exception {
+
+    /* Create new Stub */
+    final SoapBindingStub copy = (SoapBindingStub) new SforceServiceLocator().getSoap();
+
+    copy._setProperty(SoapBindingStub.ENDPOINT_ADDRESS_PROPERTY, soapBindingStub._getProperty(SoapBindingStub.ENDPOINT_ADDRESS_PROPERTY));
+    copy.setTimeout(soapBindingStub.getTimeout());
+    copy.setMaintainSession(true);
+
+    /* New header elements over same header values; values are only read while sending */
+    for (final SOAPHeaderElement header : soapBindingStub.getHeaders()) {
+      copy.setHeader(header.getNamespaceURI(), header.getName(), header.getObjectValue());
+    }
+
+    return copy;
+  }
+
+  /* Stub with client id and timeout */
+  private final SoapBindingStub createClientSoapBinding() throws Exception {
+
+    /* Call options */
+    final CallOptions callOptions = new CallOptions();
+    callOptions.setClient(clientId);
+
+    /* Create new Stub */
+    final SoapBindingStub soapBindingStub = this.createSoapBinding();
+
+    /* Set header */
+    soapBindingStub.setHeader("SforceService", "CallOptions", callOptions);
+
+    try {
+      /* Set timeout */
+      soapBindingStub.setTimeout(Integer.parseInt(getTimeout()));
+    } catch (final NumberFormatException e) {
+      throw new ScribeException(ScribeResponseCodes._1002 + "'Timeout'");
+    }
+
+    return soapBindingStub;
+  }
+
+  private final void setSession(final SoapBindingStub soapBindingStub, final String serverUrl, final String sessionId) throws Exception {
+
+    /* Set end point address */
+    soapBindingStub._setProperty(SoapBindingStub.ENDPOINT_ADDRESS_PROPERTY, serverUrl);
+
     /* Maintain the session */
     soapBindingStub.setMaintainSession(true);
 
@@ -159,14 +230,12 @@ public final class SalesForceSOAPClient {
       throw new ScribeException(ScribeResponseCodes._1002 + "'BatchSize'", numberFormatException);
     }
 
-    soapBindingStub.setHeader(new SforceServiceLocator().getServiceName().getNamespaceURI(), "QueryOptions", qo);
+    soapBindingStub.setHeader(SFORCE_NAMESPACE_URI, "QueryOptions", qo);
 
     /* Set session id as last element in header list */
     final SessionHeader sh = new SessionHeader();
-    sh.setSessionId(loginResult.getSessionId());
-    soapBindingStub.setHeader(new SforceServiceLocator().getServiceName().getNamespaceURI(), "SessionHeader", sh);
-
-    return soapBindingStub;
+    sh.setSessionId(sessionId);
+    soapBindingStub.setHeader(SFORCE_NAMESPACE_URI, "SessionHeader", sh);
   }
 
   public final String getClientId() {
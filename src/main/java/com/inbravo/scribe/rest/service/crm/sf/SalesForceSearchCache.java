@@ -0,0 +1,216 @@
+/*
+ * MIT License
+ * 
+ * Copyright (c) 2016 Amit Dixit (github.com/inbravo)
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.inbravo.scribe.rest.service.crm.sf;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.StringTokenizer;
+import java.util.concurrent.Callable;
+
+import org.apache.log4j.Logger;
+
+import com.inbravo.scribe.rest.service.crm.cache.CRMTimedCache;
+import com.sforce.soap.partner.SearchResult;
+import com.sforce.soap.partner.SoapBindingStub;
+
+/**
+ * Keeps results of Sales Force SOSL searches for a few seconds. Same search of a user is repeated
+ * many times by screen pop integrations; caching is enabled only for configured users. A search may
+ * return many object types; any write through Scribe removes all cached searches of the organization
+ * 
+ * @author amit.dixit
+ * 
+ */
+public final class SalesForceSearchCache {
+
+  private final Logger logger = Logger.getLogger(SalesForceSearchCache.class.getName());
+
+  /* CRM users for whom searches are cached; 'ALL' for all users */
+  private Set<String> users = new HashSet<String>();
+
+  private boolean allUsers = true;
+
+  /* Cached search results; key is organization end point, user, object type and search */
+  private final CRMTimedCache<String, SearchResult> searchCache = new CRMTimedCache<String, SearchResult>(0);
+
+  public SalesForceSearchCache() {
+    searchCache.setMaxEntries(1000);
+  }
+
+  /**
+   * 
+   * @param soapBindingStub
+   * @param crmUserId
+   * @param objectType
+   * @param searchCriteria SOSL search
+   * @return cached search result, or a new search result from Sales Force
+   * @throws Exception
+   */
+  public final SearchResult search(final SoapBindingStub soapBindingStub, final String crmUserId, final String objectType,
+      final String searchCriteria) throws Exception {
+
+    if (searchCache.getTimeToLive() <= 0 || (!allUsers && !users.contains(crmUserId))) {
+
+      /* Search Sales Force without cache */
+      return soapBindingStub.search(searchCriteria);
+    }
+
+    final String key =
+        this.getEndPoint(soapBindingStub) + "#" + crmUserId + "#" + objectType.toLowerCase() + "#" + this.normalize(searchCriteria);
+
+    /* Search once for all concurrent requests of same search */
+    return searchCache.get(key, new Callable<SearchResult>() {
+
+      @Override
+      public final SearchResult call() throws Exception {
+        return soapBindingStub.search(searchCriteria);
+      }
+    });
+  }
+
+  /**
+   * Removes cached searches of the organization for all users; a search returns records of all types
+   * in its RETURNING clause, so a write to any object type may change it
+   * 
+   * @param soapBindingStub
+   */
+  public final void invalidate(final SoapBindingStub soapBindingStub) {
+
+    final String keyPrefix = this.getEndPoint(soapBindingStub) + "#";
+
+    logger.debug("----Inside invalidate organization: " + keyPrefix);
+
+    searchCache.invalidate(new CRMTimedCache.KeyFilter<String>() {
+
+      @Override
+      public final boolean accept(final String key) {
+        return key.startsWith(keyPrefix);
+      }
+    });
+  }
+
+  /**
+   * Removes all cached searches
+   */
+  public final void invalidateAll() {
+
+    logger.debug("----Inside invalidateAll");
+
+    searchCache.invalidateAll();
+  }
+
+  private final String normalize(final String searchCriteria) {
+
+    final StringBuilder normalizedSearch = new StringBuilder(searchCriteria.length());
+
+    /* Closing character of the literal being copied; zero outside literals */
+    char literalEnd = 0;
+
+    boolean space = false;
+
+    for (int i = 0; i < searchCriteria.length(); i++) {
+
+      final char c = searchCriteria.charAt(i);
+
+      if (literalEnd != 0) {
+
+        /* Search terms in braces and quoted values are kept as it is */
+        normalizedSearch.append(c);
+
+        if (c == '\\' && i + 1 < searchCriteria.length()) {
+          normalizedSearch.append(searchCriteria.charAt(++i));
+        } else if (c == literalEnd) {
+          literalEnd = 0;
+        }
+      } else if (Character.isWhitespace(c)) {
+        space = normalizedSearch.length() > 0;
+      } else {
+
+        /* Extra spaces, and case of keywords and names, do not change a SOSL search */
+        if (space) {
+          normalizedSearch.append(' ');
+          space = false;
+        }
+
+        if (c == '{') {
+          literalEnd = '}';
+        } else if (c == '\'') {
+          literalEnd = '\'';
+        }
+        normalizedSearch.append(Character.toLowerCase(c));
+      }
+    }
+    return normalizedSearch.toString();
+  }
+
+  private final String getEndPoint(final SoapBindingStub soapBindingStub) {
+
+    /* Server URL given at login ends with organization id */
+    return "" + soapBindingStub._getProperty(SoapBindingStub.ENDPOINT_ADDRESS_PROPERTY);
+  }
+
+  public final long getTimeToLive() {
+    return searchCache.getTimeToLive();
+  }
+
+  public final void setTimeToLive(final long timeToLive) {
+    searchCache.setTimeToLive(timeToLive);
+  }
+
+  public final int getMaxEntries() {
+    return searchCache.getMaxEntries();
+  }
+
+  public final void setMaxEntries(final int maxEntries) {
+    searchCache.setMaxEntries(maxEntries);
+  }
+
+  /**
+   * 
+   * @param users comma separated CRM user ids; 'ALL' for all users
+   */
+  public final void setUsers(final String users) {
+
+    final Set<String> userSet = new HashSet<String>();
+
+    boolean all = false;
+
+    if (users != null) {
+
+      final StringTokenizer stringTokenizer = new StringTokenizer(users, ",");
+
+      while (stringTokenizer.hasMoreTokens()) {
+
+        final String user = stringTokenizer.nextToken().trim();
+
+        if (user.equalsIgnoreCase("ALL")) {
+          all = true;
+        } else if (user.length() > 0) {
+          userSet.add(user);
+        }
+      }
+    }
+
+    this.users = userSet;
+    this.allUsers = all;
+  }
+}
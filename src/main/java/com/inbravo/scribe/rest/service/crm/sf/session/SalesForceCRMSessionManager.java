@@ -21,6 +21,10 @@
 
 package com.inbravo.scribe.rest.service.crm.sf.session;
 
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+
 import org.apache.axis.message.SOAPHeaderElement;
 import org.apache.log4j.Logger;
 
@@ -28,8 +32,9 @@ import com.inbravo.scribe.exception.ScribeException;
 import com.inbravo.scribe.exception.ScribeResponseCodes;
 import com.inbravo.scribe.rest.service.crm.cache.BasicObject;
 import com.inbravo.scribe.rest.service.crm.cache.CRMSessionCache;
+import com.inbravo.scribe.rest.service.crm.cache.CRMSingleFlight;
 import com.inbravo.scribe.rest.service.crm.cache.ScribeCacheObject;
-import com.inbravo.scribe.rest.service.crm.session.CRMSessionManager;
+import com.inbravo.scribe.rest.service.crm.session.RefreshableCRMSessionManager;
 import com.inbravo.scribe.rest.service.crm.sf.SalesForceSOAPClient;
 import com.sforce.soap.partner.SforceServiceLocator;
 import com.sforce.soap.partner.SoapBindingStub;
@@ -39,10 +44,13 @@ import com.sforce.soap.partner.SoapBindingStub;
  * @author amit.dixit
  * 
  */
-public class SalesForceCRMSessionManager implements CRMSessionManager {
+public class SalesForceCRMSessionManager implements RefreshableCRMSessionManager {
 
   private final Logger logger = Logger.getLogger(SalesForceCRMSessionManager.class.getName());
 
+  /* Server URL of session; kept at agent so that the session can be shared with other nodes */
+  private static final String SERVER_URL = "SalesForceServerURL";
+
   /* CRM session cache */
   private CRMSessionCache cRMSessionCache;
 
@@ -51,13 +59,145 @@ public class SalesForceCRMSessionManager implements CRMSessionManager {
 
   private String agentIdSplitCharacter;
 
-  public final synchronized SoapBindingStub getSoapBindingStub(final String crmUserId, final String crmPassword) throws Exception {
+  /* Concurrent logins of same user share one login at Sales Force */
+  private final CRMSingleFlight<String> loginCoalescer = new CRMSingleFlight<String>();
+
+  /**
+   * Stub of the cached session; stub at agent only holds the session and each request gets its own
+   * copy, since Axis stub is not safe for concurrent calls
+   * 
+   * @param crmUserId
+   * @param crmPassword
+   * @return stub of this request
+   * @throws Exception
+   */
+  public final SoapBindingStub getSoapBindingStub(final String crmUserId, final String crmPassword) throws Exception {
 
     logger.debug("----Inside getSoapBindingStub: " + crmUserId);
 
     /* Recover agent from cache */
     final ScribeCacheObject cacheObject = (ScribeCacheObject) cRMSessionCache.recover(crmUserId);
 
+    /* Reuse stub of the agent until its session is expired */
+    if (cacheObject != null && cacheObject.getSoapStub() != null) {
+
+      logger.debug("----Inside getSoapBindingStub, using stub from cache");
+
+      /* Copy stub from cache */
+      return SalesForceSOAPClient.copySoapBinding((SoapBindingStub) cacheObject.getSoapStub());
+    }
+
+    /* Login once for all concurrent requests of this user; each request gets its own copy of stub */
+    return SalesForceSOAPClient.copySoapBinding(loginCoalescer.execute(crmUserId, new Callable<SoapBindingStub>() {
+
+      @Override
+      public final SoapBindingStub call() throws Exception {
+
+        /* Stub may be created by a login which is finished meanwhile */
+        if (cacheObject != null && cacheObject.getSoapStub() != null) {
+          return (SoapBindingStub) cacheObject.getSoapStub();
+        }
+
+        /* Session may be shared by another node; stub is created without login */
+        if (cacheObject != null && cacheObject.getScribeMetaObject().getCrmSessionId() != null && cacheObject.getAdditionalInfo() != null
+            && cacheObject.getAdditionalInfo().get(SERVER_URL) != null) {
+
+          logger.debug("----Inside getSoapBindingStub, creating stub from cached session");
+
+          final SoapBindingStub soapBindingStub =
+              salesForceSOAPClient.createSoapBinding(cacheObject.getAdditionalInfo().get(SERVER_URL), cacheObject.getScribeMetaObject()
+                  .getCrmSessionId());
+
+          /* Set this stub in agent */
+          cacheObject.setSoapStub(soapBindingStub);
+
+          return soapBindingStub;
+        }
+
+        return createSoapBindingStub(crmUserId, crmPassword);
+      }
+    }));
+  }
+
+  /**
+   * Login again at Sales Force if session of stub is found invalid
+   * 
+   * @param crmUserId
+   * @param crmPassword
+   * @param invalidStub stub which is rejected by Sales Force
+   * @return copy of fresh stub for this request
+   * @throws Exception
+   */
+  public final SoapBindingStub resetSoapBindingStub(final String crmUserId, final String crmPassword, final SoapBindingStub invalidStub)
+      throws Exception {
+
+    logger.debug("----Inside resetSoapBindingStub: " + crmUserId);
+
+    /* Session which is rejected by Sales Force */
+    final String invalidSessionId = getSessionId(invalidStub);
+
+    /* Login once for all concurrent requests of this user; each request gets its own copy of stub */
+    return SalesForceSOAPClient.copySoapBinding(loginCoalescer.execute(crmUserId, new Callable<SoapBindingStub>() {
+
+      @Override
+      public final SoapBindingStub call() throws Exception {
+
+        /* Recover agent from cache */
+        final ScribeCacheObject cacheObject = (ScribeCacheObject) cRMSessionCache.recover(crmUserId);
+
+        /* Session may be replaced by a login which is finished meanwhile; requests hold copies of stub, so sessions are compared */
+        if (cacheObject != null && cacheObject.getSoapStub() != null && cacheObject.getScribeMetaObject().getCrmSessionId() != null
+            && !cacheObject.getScribeMetaObject().getCrmSessionId().equals(invalidSessionId)) {
+          return (SoapBindingStub) cacheObject.getSoapStub();
+        }
+
+        return createSoapBindingStub(crmUserId, crmPassword);
+      }
+    }));
+  }
+
+  /* Session id which is sent by the stub */
+  private static final String getSessionId(final SoapBindingStub soapBindingStub) throws Exception {
+
+    final SOAPHeaderElement sOAPHeaderElement =
+        soapBindingStub.getHeader(new SforceServiceLocator().getServiceName().getNamespaceURI(), "SessionHeader");
+
+    return sOAPHeaderElement != null ? sOAPHeaderElement.getAsDOM().getFirstChild().getTextContent() : null;
+  }
+
+  /**
+   * Login again at Sales Force before cached session is expired
+   * 
+   * @param crmUserId
+   * @throws Exception
+   */
+  @Override
+  public final void refresh(final String crmUserId) throws Exception {
+
+    logger.debug("----Inside refresh: " + crmUserId);
+
+    /* Recover agent from cache */
+    final ScribeCacheObject cacheObject = (ScribeCacheObject) cRMSessionCache.recover(crmUserId);
+
+    if (cacheObject == null) {
+      return;
+    }
+
+    /* Share login with concurrent requests of this user */
+    loginCoalescer.execute(crmUserId, new Callable<SoapBindingStub>() {
+
+      @Override
+      public final SoapBindingStub call() throws Exception {
+        return createSoapBindingStub(crmUserId, cacheObject.getScribeMetaObject().getCrmPassword());
+      }
+    });
+  }
+
+  private final SoapBindingStub createSoapBindingStub(final String crmUserId, final String crmPassword) throws Exception {
+
+    /* Recover agent from cache */
+    final ScribeCacheObject cacheObject = (ScribeCacheObject) cRMSessionCache.recover(crmUserId);
+
     SoapBindingStub soapBindingStub = null;
 
     /* This code block will be usefull if cache size limit is reached */
@@ -84,17 +224,35 @@ public class SalesForceCRMSessionManager implements CRMSessionManager {
       /* Set session information at agent */
       /* Following session will be used for pagination */
       cacheObject.getScribeMetaObject().setCrmSessionId(sOAPHeaderElement.getAsDOM().getFirstChild().getTextContent());
+
+      /* Server of session is shared with other nodes along with the session */
+      this.setServerURL(cacheObject, soapBindingStub);
     } else {
       /* Inform user about absent header value */
       throw new ScribeException(ScribeResponseCodes._1008 + "CRM session id not set with cache object");
     }
 
+    /* Set this stub in agent */
+    cacheObject.setSoapStub(soapBindingStub);
+
     /* Re-admit this agent with CRM session information */
     cRMSessionCache.admit(crmUserId, cacheObject);
 
     return soapBindingStub;
   }
 
+  private final void setServerURL(final ScribeCacheObject cacheObject, final SoapBindingStub soapBindingStub) {
+
+    Map<String, String> additionalInfo = cacheObject.getAdditionalInfo();
+
+    if (additionalInfo == null) {
+      additionalInfo = new HashMap<String, String>();
+      cacheObject.setAdditionalInfo(additionalInfo);
+    }
+
+    additionalInfo.put(SERVER_URL, (String) soapBindingStub._getProperty(SoapBindingStub.ENDPOINT_ADDRESS_PROPERTY));
+  }
+
   /**
    * 
    * @param crmUserId
@@ -151,11 +309,17 @@ public class SalesForceCRMSessionManager implements CRMSessionManager {
       /* Set session information at agent */
       /* Following session will be used for pagination */
       cacheObject.getScribeMetaObject().setCrmSessionId(sOAPHeaderElement.getAsDOM().getFirstChild().getTextContent());
+
+      /* Server of session is shared with other nodes along with the session */
+      this.setServerURL(cacheObject, soapBindingStub);
     } else {
       /* Inform user about absent header value */
       throw new ScribeException(ScribeResponseCodes._1008 + "CRM session id not set with cache object");
     }
 
+    /* Set this stub in agent */
+    cacheObject.setSoapStub(soapBindingStub);
+
     /* Save this freshly updated user in cache */
     cRMSessionCache.admit(crmUserId, cacheObject);
 
@@ -22,6 +22,7 @@
 package com.inbravo.scribe.rest.service.crm.zd.session;
 
 import java.util.Map;
+import java.util.concurrent.Callable;
 
 import org.apache.log4j.Logger;
 
@@ -29,6 +30,7 @@ import com.inbravo.scribe.exception.ScribeException;
 import com.inbravo.scribe.exception.ScribeResponseCodes;
 import com.inbravo.scribe.rest.service.crm.cache.BasicObject;
 import com.inbravo.scribe.rest.service.crm.cache.CRMSessionCache;
+import com.inbravo.scribe.rest.service.crm.cache.CRMSingleFlight;
 import com.inbravo.scribe.rest.service.crm.cache.ScribeCacheObject;
 import com.inbravo.scribe.rest.service.crm.session.CRMSessionManager;
 import com.inbravo.scribe.rest.service.crm.zd.auth.ZDAuthManager;
@@ -51,6 +53,9 @@ public final class ZDCRMSessionManager implements CRMSessionManager {
   /* CRM session cache */
   private CRMSessionCache cRMSessionCache;
 
+  /* Concurrent logins of same user share one login at Zendesk */
+  private final CRMSingleFlight<String> loginCoalescer = new CRMSingleFlight<String>();
+
   @Override
   public final boolean login(final String crmUserId, final String crmPassword) throws Exception {
 
@@ -127,7 +132,7 @@ public final class ZDCRMSessionManager implements CRMSessionManager {
     }
   }
 
-  public final synchronized ScribeCacheObject getCrmUserIdWithCRMSessionInformation(final String agentId) throws Exception {
+  public final ScribeCacheObject getCrmUserIdWithCRMSessionInformation(final String agentId) throws Exception {
     logger.debug("----Inside getCrmUserIdWithCRMSessionInformation");
 
     /* Recover agent from cache */
@@ -136,27 +141,44 @@ public final class ZDCRMSessionManager implements CRMSessionManager {
     /* Validate crm service params */
     this.validateUser(cacheObject);
 
-    String crmUserId = cacheObject.getScribeMetaObject().getCrmUserId();
-    String crmPassword = cacheObject.getScribeMetaObject().getCrmPassword();
+    /* Check for ZD session id */
+    if (cacheObject.getScribeMetaObject().getCrmSessionId() == null) {
 
-    /* Check if CRM API token is present */
-    if (cacheObject.getScribeMetaObject().getCrmSecurityToken() != null && !cacheObject.getScribeMetaObject().getCrmSecurityToken()[0].equals("")) {
+      /* Login once for all concurrent requests of this agent; waiting requests get the agent of this login */
+      return loginCoalescer.execute(agentId, new Callable<ScribeCacheObject>() {
 
-      crmUserId += "/token";
-      crmPassword = cacheObject.getScribeMetaObject().getCrmSecurityToken()[0];
-    }
+        @Override
+        public final ScribeCacheObject call() throws Exception {
 
-    /* Check for ZD session id */
-    if (cacheObject.getScribeMetaObject().getCrmSessionId() == null) {
+          /* Session may be created by a login which is finished meanwhile */
+          final ScribeCacheObject cachedObject = (ScribeCacheObject) cRMSessionCache.recover(agentId);
 
-      /* Set CRM session id in cache object */
-      cacheObject.getScribeMetaObject().setCrmSessionId(
-          zDAuthManager.getSessionId(crmUserId, crmPassword, cacheObject.getScribeMetaObject().getCrmServiceURL(), cacheObject.getScribeMetaObject()
-              .getCrmServiceProtocol(), cacheObject.getScribeMetaObject().getCrmPort()));
-    }
+          if (cachedObject != null && cachedObject.getScribeMetaObject().getCrmSessionId() != null) {
+            return cachedObject;
+          }
+
+          String crmUserId = cacheObject.getScribeMetaObject().getCrmUserId();
+          String crmPassword = cacheObject.getScribeMetaObject().getCrmPassword();
+
+          /* Check if CRM API token is present */
+          if (cacheObject.getScribeMetaObject().getCrmSecurityToken() != null && !cacheObject.getScribeMetaObject().getCrmSecurityToken()[0].equals("")) {
+
+            crmUserId += "/token";
+            crmPassword = cacheObject.getScribeMetaObject().getCrmSecurityToken()[0];
+          }
 
-    /* Re-admit this agent with CRM session information */
-    cRMSessionCache.admit(agentId, cacheObject);
+          /* Set CRM session id in cache object */
+          cacheObject.getScribeMetaObject().setCrmSessionId(
+              zDAuthManager.getSessionId(crmUserId, crmPassword, cacheObject.getScribeMetaObject().getCrmServiceURL(), cacheObject
+                  .getScribeMetaObject().getCrmServiceProtocol(), cacheObject.getScribeMetaObject().getCrmPort()));
+
+          /* Re-admit this agent with CRM session information */
+          cRMSessionCache.admit(agentId, cacheObject);
+
+          return cacheObject;
+        }
+      });
+    }
 
     return cacheObject;
   }
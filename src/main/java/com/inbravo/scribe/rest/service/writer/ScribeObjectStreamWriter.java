@@ -0,0 +1,250 @@
+/*
+ * MIT License
+ * 
+ * Copyright (c) 2016 Amit Dixit (github.com/inbravo)
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.inbravo.scribe.rest.service.writer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+
+import javax.ws.rs.Produces;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.MultivaluedMap;
+import javax.ws.rs.ext.MessageBodyWriter;
+import javax.ws.rs.ext.Provider;
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.JAXBElement;
+import javax.xml.bind.JAXBException;
+import javax.xml.bind.Marshaller;
+import javax.xml.namespace.QName;
+
+import org.apache.log4j.Logger;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+
+import com.inbravo.scribe.exception.ScribeResponseCodes;
+import com.inbravo.scribe.rest.constants.HTTPConstants;
+import com.inbravo.scribe.rest.resource.ScribeObject;
+import com.inbravo.scribe.rest.service.msg.type.ScribeObjectStream;
+
+/**
+ * Writes objects of stream as soon as each page is fetched from CRM; as chunked XML or as one JSON
+ * object per line
+ * 
+ * @author amit.dixit
+ * 
+ */
+@Provider
+@Produces({HTTPConstants.mimeTypeXML, HTTPConstants.mimeTypeNDJSON})
+public final class ScribeObjectStreamWriter implements MessageBodyWriter<ScribeObjectStream> {
+
+  private final Logger logger = Logger.getLogger(ScribeObjectStreamWriter.class.getName());
+
+  private static final QName objectName = new QName("Object");
+
+  private static final MediaType ndjsonType = new MediaType("application", "x-ndjson");
+
+  @Override
+  public final long getSize(final ScribeObjectStream scribeObjectStream, final Class<?> classObject, final Type type, final Annotation[] annotation,
+      final MediaType mediaType) {
+
+    return -1;
+  }
+
+  @Override
+  public final boolean isWriteable(final Class<?> classObject, final Type type, final Annotation[] annotations, final MediaType mediaType) {
+
+    return ScribeObjectStream.class.isAssignableFrom(classObject);
+  }
+
+  @Override
+  public final void writeTo(final ScribeObjectStream scribeObjectStream, final Class<?> classObject, final Type type,
+      final Annotation[] annotations, final MediaType mediaType, final MultivaluedMap<String, Object> httpHeaderMap, final OutputStream outputStream)
+      throws IOException {
+
+    final boolean ndjson = mediaType != null && mediaType.isCompatible(ndjsonType);
+
+    logger.debug("----Inside writeTo, mediaType: " + mediaType + " & ndjson: " + ndjson);
+
+    final Writer writer = new OutputStreamWriter(outputStream, "UTF-8");
+
+    int count = 0;
+    try {
+
+      Marshaller marshaller = null;
+
+      if (!ndjson) {
+
+        marshaller = ContextHolder.scribeObjectContext.createMarshaller();
+        marshaller.setProperty(Marshaller.JAXB_FRAGMENT, Boolean.TRUE);
+        marshaller.setProperty(Marshaller.JAXB_ENCODING, "UTF-8");
+
+        writer.write("<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?><Scribe>");
+      }
+
+      ScribeObject[] page = null;
+
+      /* Write each page as soon as it is fetched */
+      while ((page = scribeObjectStream.nextPage()) != null) {
+
+        for (final ScribeObject scribeObject : page) {
+
+          if (ndjson) {
+            this.writeJSON(scribeObject, writer);
+          } else {
+            marshaller.marshal(new JAXBElement<ScribeObject>(objectName, ScribeObject.class, scribeObject), writer);
+          }
+        }
+
+        count = count + page.length;
+
+        /* Send the page to user */
+        writer.flush();
+
+        logger.debug("----Inside writeTo, objects written: " + count);
+      }
+
+      if (!ndjson) {
+        writer.write("</Scribe>");
+      }
+    } catch (final Exception e) {
+
+      logger.error("=*=Inside writeTo, problem while writing objects after: " + count + " objects", e);
+
+      /* Status is already sent; inform user about the error at the end of stream */
+      final String error = ScribeResponseCodes._1000 + "Problem while fetching objects from CRM : " + e.getMessage();
+
+      if (ndjson) {
+        writer.write("{\"Error\":" + quoteJSON(error) + "}\n");
+      } else {
+        writer.write("<Error>" + escapeXML(error) + "</Error></Scribe>");
+      }
+    } finally {
+
+      /* Release CRM resources */
+      scribeObjectStream.close();
+
+      writer.flush();
+    }
+  }
+
+  private final void writeJSON(final ScribeObject scribeObject, final Writer writer) throws IOException {
+
+    writer.write("{\"ObjectType\":");
+    writer.write(quoteJSON(scribeObject.getObjectType()));
+
+    if (scribeObject.getXmlContent() != null) {
+
+      for (final Element element : scribeObject.getXmlContent()) {
+
+        writer.write(',');
+        writer.write(quoteJSON(element.getNodeName()));
+        writer.write(':');
+        writer.write(quoteJSON(getText(element)));
+      }
+    }
+    writer.write("}\n");
+  }
+
+  /**
+   * DOM level 2 text of element; CRM elements (e.g. Axis message elements) may not support
+   * getTextContent
+   */
+  private static final String getText(final Element element) {
+
+    StringBuilder text = null;
+
+    for (Node child = element.getFirstChild(); child != null; child = child.getNextSibling()) {
+
+      if (child.getNodeType() == Node.TEXT_NODE || child.getNodeType() == Node.CDATA_SECTION_NODE) {
+
+        if (text == null) {
+          text = new StringBuilder();
+        }
+        text.append(child.getNodeValue());
+      }
+    }
+    return text == null ? null : text.toString();
+  }
+
+  private static final String quoteJSON(final String value) {
+
+    if (value == null) {
+      return "null";
+    }
+
+    final StringBuilder quoted = new StringBuilder(value.length() + 2).append('"');
+
+    for (int i = 0; i < value.length(); i++) {
+
+      final char character = value.charAt(i);
+
+      switch (character) {
+        case '"':
+          quoted.append("\\\"");
+          break;
+        case '\\':
+          quoted.append("\\\\");
+          break;
+        case '\n':
+          quoted.append("\\n");
+          break;
+        case '\r':
+          quoted.append("\\r");
+          break;
+        case '\t':
+          quoted.append("\\t");
+          break;
+        default:
+          if (character < 0x20) {
+            quoted.append(String.format("\\u%04x", (int) character));
+          } else {
+            quoted.append(character);
+          }
+      }
+    }
+    return quoted.append('"').toString();
+  }
+
+  private static final String escapeXML(final String value) {
+    return value == null ? "" : value.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;");
+  }
+
+  /**
+   * JAXB context is thread safe; created once, at first XML response
+   */
+  private static final class ContextHolder {
+
+    private static final JAXBContext scribeObjectContext = createContext();
+
+    private static final JAXBContext createContext() {
+
+      try {
+        return JAXBContext.newInstance(ScribeObject.class);
+      } catch (final JAXBException e) {
+        throw new IllegalStateException("Unable to create JAXB context for ScribeObject", e);
+      }
+    }
+  }
+}
@@ -0,0 +1,214 @@
+package com.inbravo.scribe.external.test.perf.ms;
+
+import java.io.BufferedReader;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.UUID;
+
+import com.inbravo.scribe.rest.service.crm.CRMMessageFormatUtils;
+import com.inbravo.scribe.rest.service.crm.ms.auth.MSLoginRequestTemplate;
+import com.inbravo.scribe.rest.service.crm.ms.auth.MSLoginResponseParser;
+
+/**
+ * Calculates the CPU time and allocation of an office 365 login, outside the network call: request
+ * by String.format and three XPath lookups of response, and request by compiled template and one
+ * streaming pass of response
+ * 
+ * @author amit.dixit
+ * 
+ */
+public final class LoginParserPerfTester {
+
+  private static final int LOGINS = 2000;
+
+  private static final int ROUNDS = 5;
+
+  /* Size of each encrypted value in a STS response */
+  private static final int CIPHER_VALUE_LENGTH = 8000;
+
+  /**
+   * @param args
+   * @throws Exception
+   */
+  public static final void main(final String[] args) throws Exception {
+
+    final String saml = readLoginTemplate();
+    final String response = createSTSResponse();
+
+    System.out.println("----Inside main " + LOGINS + " logins; template: " + saml.length() + " chars & response: " + response.length() + " chars");
+
+    final MSLoginRequestTemplate template = new MSLoginRequestTemplate(saml);
+
+    /* Both ways should read same values */
+    final String[] xPathTokens = loginByXPath(saml, response);
+    final String[] streamingTokens = loginByStreaming(template, response);
+
+    System.out.println("----Inside main same values: " + Arrays.equals(xPathTokens, streamingTokens));
+
+    final ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+
+    /* Warm up */
+    for (int i = 0; i < LOGINS / 4; i++) {
+      loginByXPath(saml, response);
+      loginByStreaming(template, response);
+    }
+
+    long bestXPathTime = Long.MAX_VALUE;
+    long bestStreamingTime = Long.MAX_VALUE;
+
+    /* Alternate both ways; garbage of one way is collected before the other is timed */
+    for (int round = 0; round < ROUNDS; round++) {
+
+      System.gc();
+
+      long start = threadMXBean.getCurrentThreadCpuTime();
+      long allocated = getAllocatedBytes(threadMXBean);
+
+      for (int i = 0; i < LOGINS; i++) {
+        loginByXPath(saml, response);
+      }
+
+      final long xPathTime = (threadMXBean.getCurrentThreadCpuTime() - start) / LOGINS / 1000;
+      final long xPathAllocation = (getAllocatedBytes(threadMXBean) - allocated) / LOGINS / 1024;
+
+      System.gc();
+
+      start = threadMXBean.getCurrentThreadCpuTime();
+      allocated = getAllocatedBytes(threadMXBean);
+
+      for (int i = 0; i < LOGINS; i++) {
+        loginByStreaming(template, response);
+      }
+
+      final long streamingTime = (threadMXBean.getCurrentThreadCpuTime() - start) / LOGINS / 1000;
+      final long streamingAllocation = (getAllocatedBytes(threadMXBean) - allocated) / LOGINS / 1024;
+
+      System.out.println("----Inside main round " + round + "; format & XPath: " + xPathTime + " micro sec(s) & " + xPathAllocation
+          + " KB per login; template & streaming: " + streamingTime + " micro sec(s) & " + streamingAllocation + " KB per login");
+
+      bestXPathTime = Math.min(bestXPathTime, xPathTime);
+      bestStreamingTime = Math.min(bestStreamingTime, streamingTime);
+    }
+
+    System.out.println("----Inside main best; format & XPath: " + bestXPathTime + " & template & streaming: " + bestStreamingTime
+        + " micro sec(s) per login");
+  }
+
+  /* Login done before compiled template and streaming parser */
+  private static final String[] loginByXPath(final String saml, final String response) throws Exception {
+
+    final String request = String.format(saml, createValues());
+
+    /* Request is read so that its creation is not optimized away */
+    if (request.length() == 0) {
+      throw new IllegalStateException();
+    }
+
+    return new String[] {CRMMessageFormatUtils.getValueFromXML(response, "//*[local-name()='CipherValue']/text()"),
+        CRMMessageFormatUtils.getValueFromXML(response, "//*[local-name()='CipherValue']/text()", 1),
+        CRMMessageFormatUtils.getValueFromXML(response, "//*[local-name()='KeyIdentifier']/text()")};
+  }
+
+  private static final String[] loginByStreaming(final MSLoginRequestTemplate template, final String response) throws Exception {
+
+    final String request = template.format(createValues());
+
+    /* Request is read so that its creation is not optimized away */
+    if (request.length() == 0) {
+      throw new IllegalStateException();
+    }
+
+    return MSLoginResponseParser.getSecurityTokens(response);
+  }
+
+  private static final String[] createValues() {
+
+    return new String[] {UUID.randomUUID().toString(), "ACQA", "https://login.microsoftonline.com/RST2.srf", "2016-01-01T10:00:00.000Z",
+        "2016-01-01T10:05:00.000Z", "scribe@scribe.onmicrosoft.com", "Password$1", "urn:crmna:dynamics.com"};
+  }
+
+  private static final long getAllocatedBytes(final ThreadMXBean threadMXBean) {
+
+    /* Allocation is only known on JVMs giving it per thread */
+    if (threadMXBean instanceof com.sun.management.ThreadMXBean) {
+      return ((com.sun.management.ThreadMXBean) threadMXBean).getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+    return 0;
+  }
+
+  private static final String readLoginTemplate() throws Exception {
+
+    final InputStream inputStream = LoginParserPerfTester.class.getClassLoader().getResourceAsStream("MSOffice365Login.xml");
+
+    if (inputStream == null) {
+      throw new IllegalStateException("MSOffice365Login.xml is not found in class path");
+    }
+
+    final BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream, "UTF-8"));
+
+    try {
+      final StringBuilder saml = new StringBuilder();
+
+      for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+        saml.append(line).append('\n');
+      }
+      return saml.toString();
+    } finally {
+      reader.close();
+    }
+  }
+
+  /* Response of STS has same shape as of office 365; encrypted values are random */
+  private static final String createSTSResponse() {
+
+    final StringBuilder response = new StringBuilder();
+
+    response.append("<s:Envelope xmlns:s=\"http://www.w3.org/2003/05/soap-envelope\" xmlns:a=\"http://www.w3.org/2005/08/addressing\"");
+    response.append(" xmlns:u=\"http://docs.oasis-open.org/wss/2004/01/oasis-200401-wss-wssecurity-utility-1.0.xsd\">");
+    response.append("<s:Header><a:Action s:mustUnderstand=\"1\">http://schemas.xmlsoap.org/ws/2005/02/trust/RSTR/Issue</a:Action>");
+    response.append("<o:Security s:mustUnderstand=\"1\" xmlns:o=\"http://docs.oasis-open.org/wss/2004/01/oasis-200401-wss-wssecurity-secext-1.0.xsd\">");
+    response.append("<u:Timestamp u:Id=\"_0\"><u:Created>2016-01-01T10:00:00Z</u:Created><u:Expires>2016-01-01T10:05:00Z</u:Expires></u:Timestamp>");
+    response.append("</o:Security></s:Header><s:Body>");
+    response.append("<wst:RequestSecurityTokenResponse xmlns:wst=\"http://schemas.xmlsoap.org/ws/2005/02/trust\">");
+    response.append("<wst:TokenType>urn:oasis:names:tc:SAML:1.0:assertion</wst:TokenType>");
+    response.append("<wsp:AppliesTo xmlns:wsp=\"http://schemas.xmlsoap.org/ws/2004/09/policy\"><a:EndpointReference>");
+    response.append("<a:Address>urn:crmna:dynamics.com</a:Address></a:EndpointReference></wsp:AppliesTo>");
+    response.append("<wst:RequestedSecurityToken><EncryptedData Id=\"Assertion0\" Type=\"http://www.w3.org/2001/04/xmlenc#Element\"");
+    response.append(" xmlns=\"http://www.w3.org/2001/04/xmlenc#\"><EncryptionMethod Algorithm=\"http://www.w3.org/2001/04/xmlenc#tripledes-cbc\"/>");
+    response.append("<ds:KeyInfo xmlns:ds=\"http://www.w3.org/2000/09/xmldsig#\"><EncryptedKey><EncryptionMethod");
+    response.append(" Algorithm=\"http://www.w3.org/2001/04/xmlenc#rsa-oaep-mgf1p\"/><ds:KeyInfo Id=\"keyinfo\">");
+    response.append("<wsse:SecurityTokenReference xmlns:wsse=\"http://docs.oasis-open.org/wss/2004/01/oasis-200401-wss-wssecurity-secext-1.0.xsd\">");
+    response.append("<wsse:KeyIdentifier EncodingType=\"http://docs.oasis-open.org/wss/2004/01/oasis-200401-wss-soap-message-security-1.0#Base64Binary\"");
+    response.append(" ValueType=\"http://docs.oasis-open.org/wss/2004/01/oasis-200401-wss-x509-token-profile-1.0#X509SubjectKeyIdentifier\">");
+    response.append("D3xjUG3HGaQuKyuGdTWuf6547Lo=</wsse:KeyIdentifier></wsse:SecurityTokenReference></ds:KeyInfo>");
+    response.append("<CipherData><CipherValue>").append(createCipherValue(344, 1)).append("</CipherValue></CipherData></EncryptedKey></ds:KeyInfo>");
+    response.append("<CipherData><CipherValue>").append(createCipherValue(CIPHER_VALUE_LENGTH, 2)).append("</CipherValue></CipherData>");
+    response.append("</EncryptedData></wst:RequestedSecurityToken>");
+
+    /* Proof token and lifetime follow the tokens */
+    response.append("<wst:RequestedProofToken><wst:BinarySecret>").append(createCipherValue(44, 3)).append("</wst:BinarySecret>");
+    response.append("</wst:RequestedProofToken><wst:Lifetime><u:Created>2016-01-01T10:00:00Z</u:Created>");
+    response.append("<u:Expires>2016-01-01T18:00:00Z</u:Expires></wst:Lifetime>");
+    response.append("</wst:RequestSecurityTokenResponse></s:Body></s:Envelope>");
+
+    return response.toString();
+  }
+
+  private static final String createCipherValue(final int length, final long seed) {
+
+    final String base64 = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/";
+
+    final Random random = new Random(seed);
+
+    final StringBuilder cipherValue = new StringBuilder(length);
+
+    for (int i = 0; i < length; i++) {
+      cipherValue.append(base64.charAt(random.nextInt(base64.length())));
+    }
+    return cipherValue.toString();
+  }
+}
@@ -0,0 +1,150 @@
+package com.inbravo.scribe.external.test.perf.session;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.inbravo.scribe.rest.resource.ScribeMetaObject;
+import com.inbravo.scribe.rest.service.crm.cache.CRMSessionCache;
+import com.inbravo.scribe.rest.service.crm.cache.ScribeCacheObject;
+import com.inbravo.scribe.rest.service.crm.zd.auth.ZDAuthManager;
+import com.inbravo.scribe.rest.service.crm.zd.session.ZDCRMSessionManager;
+
+/**
+ * Calculates the time in first requests of many tenants, when their logins are serialized behind one
+ * monitor and when concurrent logins of each user are coalesced. Login at CRM is simulated.
+ * 
+ * @author amit.dixit
+ * 
+ */
+public final class CRMLoginPerfTester {
+
+  private static final int TENANTS = 20;
+
+  private static final int REQUESTS_PER_TENANT = 10;
+
+  private static final int THREADS = 64;
+
+  /* Time of one simulated CRM login */
+  private static final long LOGIN_TIME = 50;
+
+  /**
+   * @param args
+   * @throws Exception
+   */
+  public static final void main(final String[] args) throws Exception {
+
+    System.out.println("----Inside main " + TENANTS * REQUESTS_PER_TENANT + " first requests of " + TENANTS + " tenants on " + THREADS
+        + " threads; login time: " + LOGIN_TIME + " msec(s)");
+
+    /* Warm up */
+    run(false);
+
+    run(true);
+    run(false);
+  }
+
+  private static final void run(final boolean globalMonitor) throws Exception {
+
+    final AtomicInteger logins = new AtomicInteger();
+
+    final CRMSessionCache cRMSessionCache = new CRMSessionCache();
+
+    final ZDCRMSessionManager sessionManager = new ZDCRMSessionManager();
+    sessionManager.setcRMSessionCache(cRMSessionCache);
+    sessionManager.setzDAuthManager(new SimulatedZDAuthManager(logins));
+
+    /* Agents of request, without CRM session */
+    for (int i = 0; i < TENANTS; i++) {
+
+      final ScribeMetaObject metaObject = new ScribeMetaObject();
+      metaObject.setCrmUserId("agent" + i);
+      metaObject.setCrmPassword("password");
+      metaObject.setCrmServiceURL("tenant" + i + ".zendesk.com");
+      metaObject.setCrmServiceProtocol("https");
+
+      cRMSessionCache.admit("agent" + i, new ScribeCacheObject(metaObject));
+    }
+
+    final Object monitor = new Object();
+    final ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+    final List<Future<ScribeCacheObject>> results = new ArrayList<Future<ScribeCacheObject>>();
+
+    final long start = System.nanoTime();
+
+    for (int i = 0; i < TENANTS * REQUESTS_PER_TENANT; i++) {
+
+      final String agentId = "agent" + (i % TENANTS);
+
+      results.add(pool.submit(new Callable<ScribeCacheObject>() {
+
+        @Override
+        public final ScribeCacheObject call() throws Exception {
+
+          if (globalMonitor) {
+
+            /* Session manager method used to be synchronized */
+            synchronized (monitor) {
+              return sessionManager.getCrmUserIdWithCRMSessionInformation(agentId);
+            }
+          }
+          return sessionManager.getCrmUserIdWithCRMSessionInformation(agentId);
+        }
+      }));
+    }
+
+    int withoutSession = 0;
+
+    for (final Future<ScribeCacheObject> result : results) {
+      if (result.get().getScribeMetaObject().getCrmSessionId() == null) {
+        withoutSession++;
+      }
+    }
+
+    final long elapsed = (System.nanoTime() - start) / 1000000;
+
+    pool.shutdown();
+    cRMSessionCache.destroy();
+
+    System.out.println("----Inside run " + (globalMonitor ? "global monitor" : "per user coalescing") + ": " + elapsed + " msec(s); logins: "
+        + logins.get() + "; requests without session: " + withoutSession);
+  }
+
+  /**
+   * Zendesk login which takes a fixed time
+   */
+  private static final class SimulatedZDAuthManager implements ZDAuthManager {
+
+    private final AtomicInteger logins;
+
+    SimulatedZDAuthManager(final AtomicInteger logins) {
+      this.logins = logins;
+    }
+
+    @Override
+    public final String getSessionId(final String userId, final String password, final String crmURL, final String crmProtocol, final String port)
+        throws Exception {
+
+      logins.incrementAndGet();
+      Thread.sleep(LOGIN_TIME);
+      return "session-" + userId;
+    }
+
+    @Override
+    public final boolean login(final String userId, final String password, final String crmURL, final String crmProtocol, final String port)
+        throws Exception {
+      return this.getSessionId(userId, password, crmURL, crmProtocol, port) != null;
+    }
+
+    @Override
+    public final Map<String, String> getSessionInfoAfterValidLogin(final String userId, final String password, final String crmURL,
+        final String crmProtocol, final String port) throws Exception {
+      throw new UnsupportedOperationException();
+    }
+  }
+}
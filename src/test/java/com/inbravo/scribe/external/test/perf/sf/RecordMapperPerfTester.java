@@ -0,0 +1,130 @@
+package com.inbravo.scribe.external.test.perf.sf;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.xml.namespace.QName;
+
+import org.apache.axis.message.MessageElement;
+import org.w3c.dom.Element;
+
+import com.inbravo.scribe.rest.resource.ScribeObject;
+import com.inbravo.scribe.rest.service.crm.sf.SalesForceMessageFormatUtils;
+import com.sforce.soap.partner.sobject.SObject;
+
+/**
+ * Calculates the time to convert a page of Sales Force records to Scribe objects, by copying the
+ * template Axis element for each field and by the shared record mapper
+ * 
+ * @author amit.dixit
+ * 
+ */
+public final class RecordMapperPerfTester {
+
+  private static final int RECORDS = 2000;
+
+  private static final int FIELDS = 30;
+
+  private static final int PAGES = 10;
+
+  private static final int ROUNDS = 5;
+
+  /**
+   * @param args
+   * @throws Exception
+   */
+  public static final void main(final String[] args) throws Exception {
+
+    System.out.println("----Inside main " + PAGES + " pages of " + RECORDS + " records with " + FIELDS + " fields");
+
+    final SObject[] page = createPage();
+
+    /* Warm up */
+    for (int i = 0; i < 5; i++) {
+      convertByElementCopies(page);
+      SalesForceMessageFormatUtils.createScribeObjectArray(page);
+    }
+
+    long bestCopies = Long.MAX_VALUE;
+    long bestMapper = Long.MAX_VALUE;
+
+    /* Alternate both ways; garbage of one way is collected before the other is timed */
+    for (int round = 0; round < ROUNDS; round++) {
+
+      System.gc();
+
+      long start = System.nanoTime();
+
+      for (int i = 0; i < PAGES; i++) {
+        convertByElementCopies(page);
+      }
+
+      final long copies = (System.nanoTime() - start) / PAGES / 1000;
+
+      System.gc();
+
+      start = System.nanoTime();
+
+      for (int i = 0; i < PAGES; i++) {
+        SalesForceMessageFormatUtils.createScribeObjectArray(page);
+      }
+
+      final long mapper = (System.nanoTime() - start) / PAGES / 1000;
+
+      System.out.println("----Inside main round " + round + "; template element copies: " + copies + " & shared record mapper: " + mapper
+          + " micro sec(s) per page");
+
+      bestCopies = Math.min(bestCopies, copies);
+      bestMapper = Math.min(bestMapper, mapper);
+    }
+
+    System.out.println("----Inside main best; template element copies: " + bestCopies + " & shared record mapper: " + bestMapper
+        + " micro sec(s) per page");
+  }
+
+  /* Conversion done by each query operation before shared mapper */
+  private static final ScribeObject[] convertByElementCopies(final SObject[] sObjects) throws Exception {
+
+    final ScribeObject[] cADbjectArray = new ScribeObject[sObjects.length];
+
+    for (int i = 0; i < sObjects.length; i++) {
+
+      final ScribeObject cADbject = new ScribeObject();
+      cADbject.setObjectType(sObjects[i].getType());
+
+      final MessageElement[] fields = sObjects[i].get_any();
+
+      final List<Element> elementList = new ArrayList<Element>();
+
+      for (int j = 0; j < fields.length; j++) {
+        elementList.add(SalesForceMessageFormatUtils.createMessageElement(fields[j].getName(), fields[j].getValue()));
+      }
+
+      cADbject.setXmlContent(elementList);
+      cADbjectArray[i] = cADbject;
+    }
+    return cADbjectArray;
+  }
+
+  private static final SObject[] createPage() throws Exception {
+
+    final SObject[] sObjects = new SObject[RECORDS];
+
+    for (int i = 0; i < RECORDS; i++) {
+
+      final MessageElement[] fields = new MessageElement[FIELDS];
+
+      for (int j = 0; j < FIELDS; j++) {
+
+        /* Deserialized fields carry their value as text child */
+        fields[j] = new MessageElement(new QName("urn:sobject.partner.soap.sforce.com", "Field" + j + "__c"));
+        fields[j].addTextNode("Value " + i + "-" + j);
+      }
+
+      sObjects[i] = new SObject();
+      sObjects[i].setType("Account");
+      sObjects[i].set_any(fields);
+    }
+    return sObjects;
+  }
+}
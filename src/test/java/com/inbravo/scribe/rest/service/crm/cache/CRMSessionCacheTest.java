@@ -0,0 +1,204 @@
+package com.inbravo.scribe.rest.service.crm.cache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Collections;
+import java.util.Map;
+
+import org.junit.After;
+import org.junit.Before;
+
+import com.inbravo.scribe.rest.service.crm.cache.CRMSessionCache.PartitionSummary;
+
+/**
+ * Eviction of CRM session cache: second chance within a partition and selection of the partition to
+ * evict
+ * 
+ * @author amit.dixit
+ * 
+ */
+public class CRMSessionCacheTest {
+
+  private CRMSessionCache cache;
+
+  @Before
+  public void setUp() throws Exception {
+
+    cache = new CRMSessionCache();
+
+    /* Partition is the prefix of key */
+    cache.setPartitioner(new CRMSessionPartitioner() {
+
+      @Override
+      public final String partitionOf(final Object key, final Object cachedData) {
+        return ((String) key).substring(0, ((String) key).indexOf('-'));
+      }
+    });
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    cache.destroy();
+  }
+
+  /**
+   * Recently accessed object gets a second chance; the oldest unreferenced object is evicted
+   * 
+   * @throws Exception
+   */
+  @org.junit.Test
+  public void Test_Recently_Accessed_Object_Gets_Second_Chance() throws Exception {
+
+    cache.setMcq(3);
+
+    this.admit("SFDC", 3);
+
+    /* Reference the oldest object */
+    assertNotNull("Object is not found", cache.recover("SFDC-0"));
+
+    this.admit("SFDC", 1, 3);
+
+    assertEquals("Cache is beyond its capacity", 3, cache.howManyObjects());
+    assertTrue("Referenced object is evicted", cache.keys().contains("SFDC-0"));
+    assertFalse("Unreferenced object is not evicted", cache.keys().contains("SFDC-1"));
+  }
+
+  /**
+   * Lowered time to live applies to cached objects; they are removed without being accessed
+   * 
+   * @throws Exception
+   */
+  @org.junit.Test
+  public void Test_Lowered_Time_To_Live_Expires_Cached_Objects() throws Exception {
+
+    this.admit("SFDC", 3);
+
+    cache.setTimeToLive(50);
+
+    final long deadline = System.currentTimeMillis() + 5000;
+
+    while (cache.howManyObjects() > 0 && System.currentTimeMillis() < deadline) {
+      Thread.sleep(20);
+    }
+
+    assertEquals("Cached objects keep their old expiry", 0, cache.howManyObjects());
+  }
+
+  /**
+   * Partition beyond its maximum share evicts its own objects, even if cache is not full
+   * 
+   * @throws Exception
+   */
+  @org.junit.Test
+  public void Test_Partition_Beyond_Maximum_Share_Evicts_Own_Objects() throws Exception {
+
+    cache.setMcq(10);
+    cache.setMaximumShare(0.5);
+
+    this.admit("MS", 3);
+    this.admit("SFDC", 8);
+
+    final Map<String, PartitionSummary> summaries = cache.partitionSummaries();
+
+    assertEquals("Partition is beyond its maximum share", 5, summaries.get("SFDC").getCount());
+    assertEquals("Evictions are not counted", 3, summaries.get("SFDC").getEvictions());
+    assertEquals("Other partition is evicted", 3, summaries.get("MS").getCount());
+  }
+
+  /**
+   * Full cache evicts the partition which is beyond its fair share
+   * 
+   * @throws Exception
+   */
+  @org.junit.Test
+  public void Test_Full_Cache_Evicts_Partition_Beyond_Its_Share() throws Exception {
+
+    cache.setMcq(10);
+
+    this.admit("SFDC", 9);
+    this.admit("MS", 3);
+
+    final Map<String, PartitionSummary> summaries = cache.partitionSummaries();
+
+    assertEquals("Cache is beyond its capacity", 10, cache.howManyObjects());
+    assertEquals("Large partition is not evicted", 7, summaries.get("SFDC").getCount());
+    assertEquals("Small partition is evicted", 3, summaries.get("MS").getCount());
+  }
+
+  /**
+   * Partition within its minimum share is not evicted for growth of other partitions
+   * 
+   * @throws Exception
+   */
+  @org.junit.Test
+  public void Test_Partition_Within_Minimum_Share_Is_Kept() throws Exception {
+
+    cache.setMcq(10);
+    cache.setMinimumShares(Collections.singletonMap("MS", 0.3));
+
+    this.admit("MS", 3);
+    this.admit("SFDC", 20);
+
+    final Map<String, PartitionSummary> summaries = cache.partitionSummaries();
+
+    assertEquals("Partition within its minimum share is evicted", 3, summaries.get("MS").getCount());
+    assertEquals("Growing partition is not evicted", 7, summaries.get("SFDC").getCount());
+  }
+
+  /**
+   * Every partition is evicted in turn, when each is within its minimum share
+   * 
+   * @throws Exception
+   */
+  @org.junit.Test
+  public void Test_Partitions_Within_Minimum_Share_Are_Evicted_When_All_Are() throws Exception {
+
+    cache.setMcq(4);
+    cache.setMinimumShare(0.5);
+
+    this.admit("SFDC", 2);
+    this.admit("MS", 2);
+    this.admit("ZD", 2);
+
+    assertEquals("Cache is beyond its capacity", 4, cache.howManyObjects());
+  }
+
+  /**
+   * Partition is removed when its last object leaves
+   * 
+   * @throws Exception
+   */
+  @org.junit.Test
+  public void Test_Empty_Partition_Is_Removed() throws Exception {
+
+    this.admit("ZD", 2);
+    this.admit("SFDC", 1);
+
+    assertTrue("Partition is not created", cache.partitionSummaries().containsKey("ZD"));
+
+    cache.discard("ZD-0");
+    cache.discard("ZD-1");
+
+    assertFalse("Empty partition is not removed", cache.partitionSummaries().containsKey("ZD"));
+    assertTrue("Other partition is removed", cache.partitionSummaries().containsKey("SFDC"));
+
+    /* Partition is created again at next use */
+    this.admit("ZD", 1);
+
+    assertEquals("Partition is not created again", 1, cache.partitionSummaries().get("ZD").getCount());
+  }
+
+  private final void admit(final String partition, final int count) {
+    this.admit(partition, count, 0);
+  }
+
+  private final void admit(final String partition, final int count, final int from) {
+
+    for (int i = from; i < from + count; i++) {
+      cache.admit(partition + "-" + i, partition + " session " + i);
+    }
+  }
+}
@@ -0,0 +1,104 @@
+package com.inbravo.scribe.rest.service.crm.cache;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.fail;
+
+import java.security.GeneralSecurityException;
+import java.util.Arrays;
+
+/**
+ * Encryption and authentication of CRM session information
+ * 
+ * @author amit.dixit
+ * 
+ */
+public class CRMSessionCipherTest {
+
+  private static final byte[] SALT = "crm-session-cipher-test".getBytes();
+
+  private static final byte[] CONTENT = "crmUserId=agent1;crmSessionId=00D0000000000AB!AQ".getBytes();
+
+  /**
+   * Sealed content is opened with same secret
+   * 
+   * @throws Exception
+   */
+  @org.junit.Test
+  public void Test_Sealed_Content_Is_Opened() throws Exception {
+
+    final CRMSessionCipher cipher = new CRMSessionCipher("secret", SALT);
+    final byte[] sealed = cipher.seal(CONTENT);
+
+    assertFalse("Content is not encrypted", new String(sealed, "ISO-8859-1").contains("agent1"));
+    assertArrayEquals("Opened content is changed", CONTENT, cipher.open(sealed));
+
+    /* Another cipher of same secret and salt opens it too */
+    assertArrayEquals("Content is not opened by other node", CONTENT, new CRMSessionCipher("secret", SALT).open(sealed));
+
+    /* Empty content */
+    assertArrayEquals("Empty content is changed", new byte[0], cipher.open(cipher.seal(new byte[0])));
+  }
+
+  /**
+   * Each seal uses its own IV
+   * 
+   * @throws Exception
+   */
+  @org.junit.Test
+  public void Test_Same_Content_Is_Sealed_Differently() throws Exception {
+
+    final CRMSessionCipher cipher = new CRMSessionCipher("secret", SALT);
+
+    assertFalse("IV is reused", Arrays.equals(cipher.seal(CONTENT), cipher.seal(CONTENT)));
+  }
+
+  /**
+   * Changed content is rejected
+   * 
+   * @throws Exception
+   */
+  @org.junit.Test
+  public void Test_Tampered_Content_Is_Rejected() throws Exception {
+
+    final CRMSessionCipher cipher = new CRMSessionCipher("secret", SALT);
+    final byte[] sealed = cipher.seal(CONTENT);
+
+    /* Flip one bit each in IV, cipher text and MAC */
+    for (final int index : new int[] {0, 20, sealed.length - 1}) {
+
+      final byte[] tampered = sealed.clone();
+      tampered[index] ^= 1;
+
+      this.assertRejected(cipher, tampered);
+    }
+
+    /* Truncated content */
+    this.assertRejected(cipher, Arrays.copyOf(sealed, sealed.length - 1));
+    this.assertRejected(cipher, new byte[10]);
+  }
+
+  /**
+   * Content sealed with another secret or salt is rejected
+   * 
+   * @throws Exception
+   */
+  @org.junit.Test
+  public void Test_Other_Secret_Is_Rejected() throws Exception {
+
+    final byte[] sealed = new CRMSessionCipher("secret", SALT).seal(CONTENT);
+
+    this.assertRejected(new CRMSessionCipher("other secret", SALT), sealed);
+    this.assertRejected(new CRMSessionCipher("secret", CRMSessionCipher.createSalt()), sealed);
+  }
+
+  private final void assertRejected(final CRMSessionCipher cipher, final byte[] sealed) {
+
+    try {
+      cipher.open(sealed);
+      fail("Changed content is opened");
+    } catch (final GeneralSecurityException e) {
+      /* Expected */
+    }
+  }
+}
@@ -0,0 +1,284 @@
+package com.inbravo.scribe.rest.service.crm.cache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Time to live, single flight loading and invalidation of CRM timed cache
+ * 
+ * @author amit.dixit
+ * 
+ */
+public class CRMTimedCacheTest {
+
+  /**
+   * Cached value is returned until it expires
+   * 
+   * @throws Exception
+   */
+  @org.junit.Test
+  public void Test_Value_Is_Loaded_Again_After_Expiry() throws Exception {
+
+    final CRMTimedCache<String, String> cache = new CRMTimedCache<String, String>(50);
+    final CountingLoader loader = new CountingLoader("Account");
+
+    assertEquals("Value is changed", "Account", cache.get("org#account", loader));
+    assertEquals("Value is changed", "Account", cache.get("org#account", loader));
+    assertEquals("Cached value is loaded again", 1, loader.loads.get());
+
+    Thread.sleep(80);
+
+    assertEquals("Value is changed", "Account", cache.get("org#account", loader));
+    assertEquals("Expired value is not loaded again", 2, loader.loads.get());
+
+    cache.invalidate("org#account");
+    cache.get("org#account", loader);
+    assertEquals("Invalidated value is not loaded again", 3, loader.loads.get());
+  }
+
+  /**
+   * Zero time to live loads every time
+   * 
+   * @throws Exception
+   */
+  @org.junit.Test
+  public void Test_Zero_Time_To_Live_Disables_Cache() throws Exception {
+
+    final CRMTimedCache<String, String> cache = new CRMTimedCache<String, String>(0);
+    final CountingLoader loader = new CountingLoader("Lead");
+
+    cache.get("org#lead", loader);
+    cache.get("org#lead", loader);
+
+    assertEquals("Value is cached", 2, loader.loads.get());
+    assertEquals("Value is cached", 0, cache.size());
+  }
+
+  /**
+   * Concurrent requests of a missing key load once
+   * 
+   * @throws Exception
+   */
+  @org.junit.Test
+  public void Test_Concurrent_Requests_Load_Once() throws Exception {
+
+    final CRMTimedCache<String, String> cache = new CRMTimedCache<String, String>(60000);
+    final CountDownLatch release = new CountDownLatch(1);
+    final AtomicInteger loads = new AtomicInteger();
+
+    final Callable<String> slowLoader = new Callable<String>() {
+
+      @Override
+      public String call() throws Exception {
+        loads.incrementAndGet();
+        release.await(5, TimeUnit.SECONDS);
+        return "Contact";
+      }
+    };
+
+    final ExecutorService executorService = Executors.newFixedThreadPool(8);
+
+    try {
+      final Future<?>[] results = new Future<?>[8];
+
+      for (int i = 0; i < results.length; i++) {
+        results[i] = executorService.submit(new Callable<String>() {
+
+          @Override
+          public String call() throws Exception {
+            return cache.get("org#contact", slowLoader);
+          }
+        });
+      }
+
+      /* Let all requests reach the cache */
+      Thread.sleep(100);
+      release.countDown();
+
+      for (final Future<?> result : results) {
+        assertEquals("Value is changed", "Contact", result.get(5, TimeUnit.SECONDS));
+      }
+      assertEquals("Value is loaded more than once", 1, loads.get());
+    } finally {
+      executorService.shutdownNow();
+    }
+  }
+
+  /**
+   * Error of load is thrown and nothing is cached
+   * 
+   * @throws Exception
+   */
+  @org.junit.Test
+  public void Test_Failed_Load_Is_Not_Cached() throws Exception {
+
+    final CRMTimedCache<String, String> cache = new CRMTimedCache<String, String>(60000);
+
+    try {
+      cache.get("org#case", new Callable<String>() {
+
+        @Override
+        public String call() throws Exception {
+          throw new IllegalStateException("describe failed");
+        }
+      });
+      fail("Error of load is not thrown");
+    } catch (final IllegalStateException e) {
+      assertEquals("describe failed", e.getMessage());
+    }
+
+    final CountingLoader loader = new CountingLoader("Case");
+
+    assertEquals("Value is changed", "Case", cache.get("org#case", loader));
+    assertEquals("Failed load is cached", 1, loader.loads.get());
+  }
+
+  /**
+   * Values beyond maximum entries are returned but not cached
+   * 
+   * @throws Exception
+   */
+  @org.junit.Test
+  public void Test_Maximum_Entries_Are_Cached() throws Exception {
+
+    final CRMTimedCache<String, String> cache = new CRMTimedCache<String, String>(60000);
+    cache.setMaxEntries(2);
+
+    final CountingLoader loader = new CountingLoader("Task");
+
+    cache.get("org#1", loader);
+    cache.get("org#2", loader);
+
+    assertEquals("Value is changed", "Task", cache.get("org#3", loader));
+    assertEquals("Maximum entries are exceeded", 2, cache.size());
+
+    cache.get("org#3", loader);
+    assertEquals("Value beyond maximum entries is cached", 4, loader.loads.get());
+  }
+
+  /**
+   * Value loaded before an invalidation is not cached, and is not given to a request started after it
+   * 
+   * @throws Exception
+   */
+  @org.junit.Test
+  public void Test_Load_Started_Before_Invalidation_Is_Not_Cached() throws Exception {
+
+    final CRMTimedCache<String, String> cache = new CRMTimedCache<String, String>(60000);
+    final CountDownLatch loadStarted = new CountDownLatch(1);
+    final CountDownLatch release = new CountDownLatch(1);
+    final AtomicInteger loads = new AtomicInteger();
+
+    final Callable<String> slowLoader = new Callable<String>() {
+
+      @Override
+      public String call() throws Exception {
+
+        /* First load reads the value before it is changed at CRM */
+        if (loads.incrementAndGet() == 1) {
+          loadStarted.countDown();
+          release.await(5, TimeUnit.SECONDS);
+          return "old";
+        }
+        return "new";
+      }
+    };
+
+    final ExecutorService executorService = Executors.newFixedThreadPool(2);
+
+    try {
+      final Future<String> firstRequest = executorService.submit(new Callable<String>() {
+
+        @Override
+        public String call() throws Exception {
+          return cache.get("org#search", slowLoader);
+        }
+      });
+
+      assertTrue(loadStarted.await(5, TimeUnit.SECONDS));
+
+      /* Value is changed at CRM */
+      cache.invalidate(new CRMTimedCache.KeyFilter<String>() {
+
+        @Override
+        public boolean accept(final String key) {
+          return key.startsWith("org#");
+        }
+      });
+
+      /* Request after the change waits for the running load, but does not take its value */
+      final Future<String> secondRequest = executorService.submit(new Callable<String>() {
+
+        @Override
+        public String call() throws Exception {
+          return cache.get("org#search", slowLoader);
+        }
+      });
+
+      Thread.sleep(100);
+      release.countDown();
+
+      assertEquals("old", firstRequest.get(5, TimeUnit.SECONDS));
+      assertEquals("Value loaded before change is given", "new", secondRequest.get(5, TimeUnit.SECONDS));
+      assertEquals("Value loaded before change is cached", "new", cache.get("org#search", slowLoader));
+      assertEquals(2, loads.get());
+    } finally {
+      executorService.shutdownNow();
+    }
+  }
+
+  /**
+   * Only keys accepted by filter are invalidated
+   * 
+   * @throws Exception
+   */
+  @org.junit.Test
+  public void Test_Keys_Are_Invalidated_By_Filter() throws Exception {
+
+    final CRMTimedCache<String, String> cache = new CRMTimedCache<String, String>(60000);
+    final CountingLoader loader = new CountingLoader("Opportunity");
+
+    cache.get("org1#a", loader);
+    cache.get("org1#b", loader);
+    cache.get("org2#a", loader);
+
+    cache.invalidate(new CRMTimedCache.KeyFilter<String>() {
+
+      @Override
+      public boolean accept(final String key) {
+        return key.startsWith("org1#");
+      }
+    });
+
+    assertEquals("Keys of other organization are invalidated", 1, cache.size());
+
+    cache.get("org2#a", loader);
+    assertEquals(3, loader.loads.get());
+  }
+
+  private static final class CountingLoader implements Callable<String> {
+
+    private final AtomicInteger loads = new AtomicInteger();
+
+    private final String value;
+
+    private CountingLoader(final String value) {
+      this.value = value;
+    }
+
+    @Override
+    public String call() throws Exception {
+      loads.incrementAndGet();
+      return value;
+    }
+  }
+}
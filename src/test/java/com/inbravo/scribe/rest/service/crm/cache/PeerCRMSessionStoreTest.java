@@ -0,0 +1,204 @@
+package com.inbravo.scribe.rest.service.crm.cache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.net.ServerSocket;
+
+import org.junit.After;
+import org.junit.Before;
+
+import com.inbravo.scribe.rest.resource.ScribeMetaObject;
+
+/**
+ * Two peer session stores, on local ports, sharing sessions of their caches
+ * 
+ * @author amit.dixit
+ * 
+ */
+public class PeerCRMSessionStoreTest {
+
+  private static final String SECRET = "peer-store-test-secret";
+
+  private static final long RETRY_INTERVAL = 500;
+
+  private int firstPort;
+
+  private int secondPort;
+
+  private CRMSessionCache firstCache;
+
+  private CRMSessionCache secondCache;
+
+  private PeerCRMSessionStore firstStore;
+
+  private PeerCRMSessionStore secondStore;
+
+  @Before
+  public void setUp() throws Exception {
+
+    firstPort = freePort();
+    secondPort = freePort();
+
+    firstCache = new CRMSessionCache();
+    secondCache = new CRMSessionCache();
+
+    firstStore = this.createStore(firstCache, firstPort);
+    secondStore = this.createStore(secondCache, secondPort);
+  }
+
+  @After
+  public void tearDown() throws Exception {
+
+    firstStore.stop();
+    secondStore.stop();
+    firstCache.destroy();
+    secondCache.destroy();
+  }
+
+  /**
+   * Session admitted at one node is pushed to the other
+   * 
+   * @throws Exception
+   */
+  @org.junit.Test
+  public void Test_Stored_Session_Is_Pushed_To_Peer() throws Exception {
+
+    firstCache.admit("agent1", createCacheObject("agent1", "session1"));
+
+    final long waitUntil = System.currentTimeMillis() + 5000;
+
+    while (secondCache.peek("agent1") == null && System.currentTimeMillis() < waitUntil) {
+      Thread.sleep(20);
+    }
+
+    final ScribeCacheObject pushed = (ScribeCacheObject) secondCache.peek("agent1");
+
+    assertNotNull("Session is not pushed to peer", pushed);
+    assertEquals("Pushed session is changed", "session1", pushed.getScribeMetaObject().getCrmSessionId());
+
+    /* Discard is pushed too */
+    firstCache.discard("agent1");
+
+    while (secondCache.peek("agent1") != null && System.currentTimeMillis() < waitUntil) {
+      Thread.sleep(20);
+    }
+
+    assertNull("Discard is not pushed to peer", secondCache.peek("agent1"));
+  }
+
+  /**
+   * Session not found locally is loaded from the peer which has it
+   * 
+   * @throws Exception
+   */
+  @org.junit.Test
+  public void Test_Missing_Session_Is_Loaded_From_Peer() throws Exception {
+
+    /* Restored sessions are not pushed */
+    this.restore(firstCache, "agent2", "session2");
+
+    assertNull("Restored session is pushed", secondCache.peek("agent2"));
+
+    final ScribeCacheObject loaded = (ScribeCacheObject) secondCache.recover("agent2");
+
+    assertNotNull("Session is not loaded from peer", loaded);
+    assertEquals("Loaded session is changed", "session2", loaded.getScribeMetaObject().getCrmSessionId());
+  }
+
+  /**
+   * Key which is not found at peers is not asked again in retry interval
+   * 
+   * @throws Exception
+   */
+  @org.junit.Test
+  public void Test_Missing_Key_Is_Asked_Once_In_Retry_Interval() throws Exception {
+
+    assertNull("Unknown session is loaded", secondCache.recover("agent3"));
+
+    this.restore(firstCache, "agent3", "session3");
+
+    assertNull("Key is asked again in retry interval", secondCache.recover("agent3"));
+
+    Thread.sleep(RETRY_INTERVAL + 100);
+
+    assertNotNull("Key is not asked again after retry interval", secondCache.recover("agent3"));
+  }
+
+  /**
+   * Unreachable peer is not contacted in retry interval, and is used again once it is back
+   * 
+   * @throws Exception
+   */
+  @org.junit.Test
+  public void Test_Unreachable_Peer_Is_Backed_Off_And_Recovered() throws Exception {
+
+    firstStore.stop();
+
+    long start = System.currentTimeMillis();
+
+    assertNull("Session is loaded from stopped peer", secondCache.recover("agent4"));
+    assertTrue("Request is blocked by unreachable peer", System.currentTimeMillis() - start < 1000);
+
+    /* Peer comes back */
+    firstStore = this.createStore(firstCache, firstPort);
+    this.restore(firstCache, "agent5", "session5");
+    this.restore(firstCache, "agent6", "session6");
+
+    start = System.currentTimeMillis();
+
+    assertNull("Peer is contacted in retry interval", secondCache.recover("agent5"));
+    assertTrue("Request is blocked by backed off peer", System.currentTimeMillis() - start < 100);
+
+    Thread.sleep(RETRY_INTERVAL + 100);
+
+    assertNotNull("Peer is not contacted after retry interval", secondCache.recover("agent5"));
+
+    /* Peer is not backed off after a successful call */
+    assertNotNull("Peer is still backed off after recovery", secondCache.recover("agent6"));
+  }
+
+  private final PeerCRMSessionStore createStore(final CRMSessionCache cache, final int port) throws Exception {
+
+    final PeerCRMSessionStore store = new PeerCRMSessionStore();
+    store.setBindAddress("127.0.0.1");
+    store.setPort(port);
+    store.setPeers("127.0.0.1:" + firstPort + ", 127.0.0.1:" + secondPort);
+    store.setSecret(SECRET);
+    store.setTimeout(500);
+    store.setRetryInterval(RETRY_INTERVAL);
+    store.setLoadTimeout(2000);
+
+    cache.setStore(store);
+    store.start();
+    return store;
+  }
+
+  private final void restore(final CRMSessionCache cache, final String key, final String sessionId) {
+
+    final long now = System.currentTimeMillis();
+    cache.restore(key, createCacheObject(key, sessionId), now, now, CRMSessionCache.DEFAULT_TIME_TO_LIVE, CRMSessionCache.DEFAULT_ACCESS_TIMEOUT);
+  }
+
+  private static final ScribeCacheObject createCacheObject(final String crmUserId, final String sessionId) {
+
+    final ScribeMetaObject metaObject = new ScribeMetaObject();
+    metaObject.setCrmUserId(crmUserId);
+    metaObject.setCrmPassword("password");
+    metaObject.setCrmType("SFDC");
+    metaObject.setCrmSessionId(sessionId);
+    return new ScribeCacheObject(metaObject);
+  }
+
+  private static final int freePort() throws Exception {
+
+    final ServerSocket socket = new ServerSocket(0);
+    try {
+      return socket.getLocalPort();
+    } finally {
+      socket.close();
+    }
+  }
+}
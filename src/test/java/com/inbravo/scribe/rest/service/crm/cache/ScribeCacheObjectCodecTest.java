@@ -0,0 +1,131 @@
+package com.inbravo.scribe.rest.service.crm.cache;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.util.HashMap;
+import java.util.Map;
+
+import com.inbravo.scribe.rest.resource.ScribeMetaObject;
+
+/**
+ * Binary form of cached objects
+ * 
+ * @author amit.dixit
+ * 
+ */
+public class ScribeCacheObjectCodecTest {
+
+  /**
+   * All CRM information of object is read back
+   * 
+   * @throws Exception
+   */
+  @org.junit.Test
+  public void Test_Cache_Object_Round_Trip() throws Exception {
+
+    final ScribeMetaObject metaObject = new ScribeMetaObject();
+    metaObject.setCrmUserId("agent1@tenant.com");
+    metaObject.setCrmPassword("p$ss\u00e9");
+    metaObject.setCrmType("MS");
+    metaObject.setCrmURL("crm.dynamics.com");
+    metaObject.setCrmAccountId("account");
+    metaObject.setCrmSessionId("session");
+    metaObject.setCrmOrgName("org");
+    metaObject.setCrmServiceURL("tenant.crm.dynamics.com");
+    metaObject.setCrmServiceProtocol("https");
+    metaObject.setCrmPort("443");
+    metaObject.setCrmSecurityToken(new String[] {"token0", this.repeat('t', 70000), null});
+
+    final ScribeCacheObject cacheObject = new ScribeCacheObject(metaObject);
+
+    final Map<String, String> additionalInfo = new HashMap<String, String>();
+    additionalInfo.put("STSEnpoint", "https://login.microsoftonline.com/extSTS.srf");
+    additionalInfo.put("Empty", null);
+    cacheObject.setAdditionalInfo(additionalInfo);
+
+    final ScribeCacheObject read = this.roundTrip(cacheObject);
+    final ScribeMetaObject readMetaObject = read.getScribeMetaObject();
+
+    assertEquals("agent1@tenant.com", readMetaObject.getCrmUserId());
+    assertEquals("p$ss\u00e9", readMetaObject.getCrmPassword());
+    assertEquals("MS", readMetaObject.getCrmType());
+    assertEquals("crm.dynamics.com", readMetaObject.getCrmURL());
+    assertEquals("account", readMetaObject.getCrmAccountId());
+    assertEquals("session", readMetaObject.getCrmSessionId());
+    assertEquals("org", readMetaObject.getCrmOrgName());
+    assertEquals("tenant.crm.dynamics.com", readMetaObject.getCrmServiceURL());
+    assertEquals("https", readMetaObject.getCrmServiceProtocol());
+    assertEquals("443", readMetaObject.getCrmPort());
+    assertArrayEquals(metaObject.getCrmSecurityToken(), readMetaObject.getCrmSecurityToken());
+    assertEquals(additionalInfo, read.getAdditionalInfo());
+  }
+
+  /**
+   * Absent information is read back as absent
+   * 
+   * @throws Exception
+   */
+  @org.junit.Test
+  public void Test_Empty_Cache_Object_Round_Trip() throws Exception {
+
+    final ScribeMetaObject metaObject = new ScribeMetaObject();
+    metaObject.setCrmSecurityToken(new String[0]);
+
+    final ScribeCacheObject read = this.roundTrip(new ScribeCacheObject(metaObject));
+
+    assertNull(read.getScribeMetaObject().getCrmUserId());
+    assertNull(read.getScribeMetaObject().getCrmSessionId());
+    assertEquals(0, read.getScribeMetaObject().getCrmSecurityToken().length);
+    assertNull(read.getAdditionalInfo());
+
+    /* Absent token */
+    assertNull(this.roundTrip(new ScribeCacheObject(new ScribeMetaObject())).getScribeMetaObject().getCrmSecurityToken());
+  }
+
+  /**
+   * Truncated content is not read as an object
+   * 
+   * @throws Exception
+   */
+  @org.junit.Test(expected = EOFException.class)
+  public void Test_Truncated_Cache_Object_Is_Rejected() throws Exception {
+
+    final ScribeMetaObject metaObject = new ScribeMetaObject();
+    metaObject.setCrmUserId("agent1");
+
+    final byte[] written = this.write(new ScribeCacheObject(metaObject));
+    final byte[] truncated = new byte[written.length - 4];
+    System.arraycopy(written, 0, truncated, 0, truncated.length);
+
+    ScribeCacheObjectCodec.readCacheObject(new DataInputStream(new ByteArrayInputStream(truncated)));
+  }
+
+  private final ScribeCacheObject roundTrip(final ScribeCacheObject cacheObject) throws Exception {
+    return ScribeCacheObjectCodec.readCacheObject(new DataInputStream(new ByteArrayInputStream(this.write(cacheObject))));
+  }
+
+  private final byte[] write(final ScribeCacheObject cacheObject) throws Exception {
+
+    final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    final DataOutputStream out = new DataOutputStream(bytes);
+    ScribeCacheObjectCodec.writeCacheObject(out, cacheObject);
+    out.flush();
+    return bytes.toByteArray();
+  }
+
+  private final String repeat(final char c, final int count) {
+
+    final StringBuilder value = new StringBuilder(count);
+    for (int i = 0; i < count; i++) {
+      value.append(c);
+    }
+    return value.toString();
+  }
+}
@@ -0,0 +1,101 @@
+package com.inbravo.scribe.rest.service.crm.ms.v5;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Attribute types of MS CRM V5 entities and faults making them stale
+ * 
+ * @author amit.dixit
+ * 
+ */
+public class MSCRMV5EntityMetadataCacheTest {
+
+  private static final String organizationServiceURL = "https://scribe.crm.dynamics.com/XRMServices/2011/Organization.svc";
+
+  /**
+   * Invalidated entity is retrieved again; other entities stay cached
+   * 
+   * @throws Exception
+   */
+  @org.junit.Test
+  public void Test_Invalidated_Entity_Is_Retrieved_Again() throws Exception {
+
+    final MSCRMV5EntityMetadataCache metadataCache = new MSCRMV5EntityMetadataCache();
+
+    final AtomicInteger accountRetrieves = new AtomicInteger();
+    final AtomicInteger contactRetrieves = new AtomicInteger();
+
+    assertEquals("Money", metadataCache.getAttributeTypes(organizationServiceURL, "account", retriever(accountRetrieves)).get("revenue"));
+    metadataCache.getAttributeTypes(organizationServiceURL, "contact", retriever(contactRetrieves));
+
+    /* Entity name and end point are not case sensitive */
+    metadataCache.getAttributeTypes(organizationServiceURL.toUpperCase(), "Account", retriever(accountRetrieves));
+    assertEquals(1, accountRetrieves.get());
+
+    metadataCache.invalidate(organizationServiceURL, "ACCOUNT");
+
+    metadataCache.getAttributeTypes(organizationServiceURL, "account", retriever(accountRetrieves));
+    metadataCache.getAttributeTypes(organizationServiceURL, "contact", retriever(contactRetrieves));
+
+    assertEquals(2, accountRetrieves.get());
+    assertEquals(1, contactRetrieves.get());
+  }
+
+  /**
+   * Zero time to live disables caching
+   * 
+   * @throws Exception
+   */
+  @org.junit.Test
+  public void Test_Zero_Time_To_Live_Retrieves_Each_Time() throws Exception {
+
+    final MSCRMV5EntityMetadataCache metadataCache = new MSCRMV5EntityMetadataCache();
+    metadataCache.setTimeToLive(0);
+
+    final AtomicInteger retrieves = new AtomicInteger();
+
+    metadataCache.getAttributeTypes(organizationServiceURL, "account", retriever(retrieves));
+    metadataCache.getAttributeTypes(organizationServiceURL, "account", retriever(retrieves));
+
+    assertEquals(2, retrieves.get());
+  }
+
+  /**
+   * Only attribute and value type faults make metadata stale
+   * 
+   * @throws Exception
+   */
+  @org.junit.Test
+  public void Test_Metadata_Faults() throws Exception {
+
+    assertTrue(MSCRMV5EntityMetadataCache
+        .isMetadataFault("1013: SOAP error from MS CRM : 'account' entity doesn't contain attribute with Name = 'revenue_base'."));
+    assertTrue(MSCRMV5EntityMetadataCache.isMetadataFault("Message : Incorrect attribute value type System.String"));
+    assertTrue(MSCRMV5EntityMetadataCache.isMetadataFault("1013: Recieved a web service error : The formatter threw an exception while trying"
+        + " to deserialize the message: There was an error while trying to deserialize parameter request."));
+
+    assertFalse(MSCRMV5EntityMetadataCache.isMetadataFault("Message : A record with matching key values already exists."));
+    assertFalse(MSCRMV5EntityMetadataCache.isMetadataFault(MSCRMV5ExecuteMultipleResponse.notProcessedError));
+    assertFalse(MSCRMV5EntityMetadataCache.isMetadataFault(null));
+  }
+
+  private static final Callable<Map<String, String>> retriever(final AtomicInteger retrieves) {
+
+    return new Callable<Map<String, String>>() {
+
+      @Override
+      public final Map<String, String> call() throws Exception {
+
+        retrieves.incrementAndGet();
+        return Collections.singletonMap("revenue", "Money");
+      }
+    };
+  }
+}
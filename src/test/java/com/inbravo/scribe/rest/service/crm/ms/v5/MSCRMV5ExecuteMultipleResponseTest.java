@@ -0,0 +1,163 @@
+package com.inbravo.scribe.rest.service.crm.ms.v5;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.microsoft.schemas.xrm._2011.contracts.OrganizationResponse;
+import com.microsoft.schemas.xrm._2011.contracts.services.ExecuteResponseDocument;
+
+/**
+ * Mapping of ExecuteMultiple responses at objects of request
+ * 
+ * @author amit.dixit
+ * 
+ */
+public class MSCRMV5ExecuteMultipleResponseTest {
+
+  private static final String notProcessed = MSCRMV5ExecuteMultipleResponse.notProcessedError;
+
+  private static final String noResponse = MSCRMV5ExecuteMultipleResponse.noResponseError;
+
+  /**
+   * Ids of created objects are set at objects of chunk
+   * 
+   * @throws Exception
+   */
+  @org.junit.Test
+  public void Test_Created_Ids_Are_Set_At_Objects_Of_Chunk() throws Exception {
+
+    final String[] ids = new String[4];
+    final String[] errors = new String[4];
+
+    /* Second chunk of two objects; request index is within the chunk */
+    final boolean processed =
+        MSCRMV5ExecuteMultipleResponse.setResponses(response(false, created(1, "id-3"), created(0, "id-2")), 2, 4, true, true, ids, errors);
+
+    assertTrue(processed);
+    assertArrayEquals(new String[] {null, null, "id-2", "id-3"}, ids);
+    assertArrayEquals(new String[4], errors);
+  }
+
+  /**
+   * Fault is set at its object; MS CRM processed rest of the objects
+   * 
+   * @throws Exception
+   */
+  @org.junit.Test
+  public void Test_Fault_Is_Set_At_Failed_Object() throws Exception {
+
+    final String[] ids = new String[3];
+    final String[] errors = new String[3];
+
+    final boolean processed =
+        MSCRMV5ExecuteMultipleResponse.setResponses(response(true, created(0, "id-0"), fault(1, "Attribute 'revenue' is not valid"),
+            created(2, "id-2")), 0, 3, true, true, ids, errors);
+
+    assertFalse(processed);
+    assertArrayEquals(new String[] {"id-0", null, "id-2"}, ids);
+    assertArrayEquals(new String[] {null, "Message : Attribute 'revenue' is not valid", null}, errors);
+  }
+
+  /**
+   * MS CRM stops at first fault if it should not continue on error
+   * 
+   * @throws Exception
+   */
+  @org.junit.Test
+  public void Test_Objects_After_Fault_Are_Not_Processed() throws Exception {
+
+    final String[] ids = new String[4];
+    final String[] errors = new String[4];
+
+    final boolean processed =
+        MSCRMV5ExecuteMultipleResponse.setResponses(response(true, created(0, "id-0"), fault(1, "Duplicate record")), 0, 4, true, false, ids,
+            errors);
+
+    assertFalse(processed);
+    assertArrayEquals(new String[] {"id-0", null, null, null}, ids);
+    assertArrayEquals(new String[] {null, "Message : Duplicate record", notProcessed, notProcessed}, errors);
+  }
+
+  /**
+   * Update and delete responses carry only faults; objects without response are processed
+   * 
+   * @throws Exception
+   */
+  @org.junit.Test
+  public void Test_Update_Without_Responses_Is_Processed() throws Exception {
+
+    String[] ids = new String[3];
+    String[] errors = new String[3];
+
+    assertTrue(MSCRMV5ExecuteMultipleResponse.setResponses(response(false), 0, 3, false, true, ids, errors));
+    assertArrayEquals(new String[3], ids);
+    assertArrayEquals(new String[3], errors);
+
+    ids = new String[3];
+    errors = new String[3];
+
+    assertFalse(MSCRMV5ExecuteMultipleResponse.setResponses(response(true, fault(2, "Record does not exist")), 0, 3, false, true, ids, errors));
+    assertArrayEquals(new String[3], ids);
+    assertArrayEquals(new String[] {null, null, "Message : Record does not exist"}, errors);
+  }
+
+  /**
+   * Created object without response is failed
+   * 
+   * @throws Exception
+   */
+  @org.junit.Test
+  public void Test_Create_Without_Response_Is_Failed() throws Exception {
+
+    String[] ids = new String[2];
+    String[] errors = new String[2];
+
+    assertFalse(MSCRMV5ExecuteMultipleResponse.setResponses(response(false, created(0, "id-0")), 0, 2, true, true, ids, errors));
+    assertArrayEquals(new String[] {"id-0", null}, ids);
+    assertArrayEquals(new String[] {null, noResponse}, errors);
+
+    ids = new String[2];
+    errors = new String[2];
+
+    assertFalse(MSCRMV5ExecuteMultipleResponse.setResponses(null, 0, 2, true, true, ids, errors));
+    assertArrayEquals(new String[] {noResponse, noResponse}, errors);
+  }
+
+  private static final OrganizationResponse response(final boolean faulted, final String... items) throws Exception {
+
+    final StringBuilder xml =
+        new StringBuilder("<ExecuteResponse xmlns=\"http://schemas.microsoft.com/xrm/2011/Contracts/Services\">"
+            + "<ExecuteResult xmlns:a=\"http://schemas.microsoft.com/xrm/2011/Contracts\""
+            + " xmlns:b=\"http://schemas.datacontract.org/2004/07/System.Collections.Generic\""
+            + " xmlns:c=\"http://schemas.microsoft.com/xrm/2012/Contracts\" xmlns:i=\"http://www.w3.org/2001/XMLSchema-instance\">");
+
+    xml.append("<a:ResponseName>ExecuteMultiple</a:ResponseName><a:Results>");
+    xml.append("<a:KeyValuePairOfstringanyType><b:key>IsFaulted</b:key>");
+    xml.append("<b:value i:type=\"d:boolean\" xmlns:d=\"http://www.w3.org/2001/XMLSchema\">" + faulted + "</b:value>");
+    xml.append("</a:KeyValuePairOfstringanyType>");
+    xml.append("<a:KeyValuePairOfstringanyType><b:key>Responses</b:key><b:value i:type=\"c:ExecuteMultipleResponseItemCollection\">");
+
+    for (final String item : items) {
+      xml.append(item);
+    }
+
+    xml.append("</b:value></a:KeyValuePairOfstringanyType></a:Results></ExecuteResult></ExecuteResponse>");
+
+    return ExecuteResponseDocument.Factory.parse(xml.toString()).getExecuteResponse().getExecuteResult();
+  }
+
+  private static final String created(final int requestIndex, final String id) {
+
+    return "<c:ExecuteMultipleResponseItem><c:Fault i:nil=\"true\"/><c:RequestIndex>" + requestIndex + "</c:RequestIndex>"
+        + "<c:Response><a:ResponseName>Create</a:ResponseName><a:Results><a:KeyValuePairOfstringanyType><b:key>id</b:key>"
+        + "<b:value i:type=\"e:guid\" xmlns:e=\"http://schemas.microsoft.com/2003/10/Serialization/\">" + id + "</b:value>"
+        + "</a:KeyValuePairOfstringanyType></a:Results></c:Response></c:ExecuteMultipleResponseItem>";
+  }
+
+  private static final String fault(final int requestIndex, final String message) {
+
+    return "<c:ExecuteMultipleResponseItem><c:Fault><a:ErrorCode>-2147220891</a:ErrorCode><a:Message>" + message + "</a:Message></c:Fault>"
+        + "<c:RequestIndex>" + requestIndex + "</c:RequestIndex><c:Response i:nil=\"true\"/></c:ExecuteMultipleResponseItem>";
+  }
+}
@@ -0,0 +1,117 @@
+package com.inbravo.scribe.rest.service.crm.ms.v5;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+
+import org.apache.commons.codec.binary.Base64;
+
+import com.inbravo.scribe.exception.ScribeException;
+import com.inbravo.scribe.exception.ScribeResponseCodes;
+
+/**
+ * Encoding of MS CRM V5 query batch given to user for next page
+ * 
+ * @author amit.dixit
+ * 
+ */
+public class MSCRMV5QueryBatchTest {
+
+  private static final String PAGING_COOKIE =
+      "<cookie page=\"1\"><accountid last=\"{E062B974-7F8D-DC11-9048-0003FF27AC3B}\" first=\"{60B934EF-7F8D-DC11-9048-0003FF27AC3B}\" /></cookie>";
+
+  /**
+   * Batch of next page gives same query and paging position
+   * 
+   * @throws Exception
+   */
+  @org.junit.Test
+  public void Test_Batch_Is_Decoded_As_Encoded() throws Exception {
+
+    final MSCRMV5QueryBatch queryBatch =
+        new MSCRMV5QueryBatch("account", new String[] {"name", "telephone1", "address1_city"}, "name LIKE 'Caf\u00e9%' AND statecode = 0",
+            "name ASC");
+    queryBatch.nextPage(PAGING_COOKIE);
+
+    final String batch = queryBatch.encode();
+
+    /* Batch is sent back as URL parameter */
+    assertFalse("Batch is not URL safe", batch.contains("+") || batch.contains("/") || batch.contains("="));
+
+    final MSCRMV5QueryBatch decodedBatch = MSCRMV5QueryBatch.decode(batch);
+
+    assertEquals("account", decodedBatch.getObjectType());
+    assertArrayEquals(new String[] {"name", "telephone1", "address1_city"}, decodedBatch.getCrmFieldsToSelect());
+    assertEquals("name LIKE 'Caf\u00e9%' AND statecode = 0", decodedBatch.getQuery());
+    assertEquals("name ASC", decodedBatch.getOrder());
+    assertEquals(2, decodedBatch.getPageNumber());
+    assertEquals(PAGING_COOKIE, decodedBatch.getPagingCookie());
+    assertFalse(decodedBatch.isDone());
+
+    /* Spaces around batch in request are ignored */
+    assertEquals(PAGING_COOKIE, MSCRMV5QueryBatch.decode(" " + batch + "\n").getPagingCookie());
+  }
+
+  /**
+   * Missing fields, query, order and paging cookie stay missing
+   * 
+   * @throws Exception
+   */
+  @org.junit.Test
+  public void Test_Null_Fields_Are_Decoded_As_Null() throws Exception {
+
+    final MSCRMV5QueryBatch decodedBatch = MSCRMV5QueryBatch.decode(new MSCRMV5QueryBatch("contact", null, null, null).encode());
+
+    assertEquals("contact", decodedBatch.getObjectType());
+    assertNull("All fields are not selected", decodedBatch.getCrmFieldsToSelect());
+    assertNull(decodedBatch.getQuery());
+    assertNull(decodedBatch.getOrder());
+    assertEquals(1, decodedBatch.getPageNumber());
+    assertNull(decodedBatch.getPagingCookie());
+
+    /* No field is different from all fields */
+    assertArrayEquals(new String[0], MSCRMV5QueryBatch.decode(new MSCRMV5QueryBatch("contact", new String[0], "", null).encode())
+        .getCrmFieldsToSelect());
+  }
+
+  /**
+   * Batch not given by Scribe is reported as invalid input
+   * 
+   * @throws Exception
+   */
+  @org.junit.Test
+  public void Test_Malformed_Batch_Is_Invalid_Input() throws Exception {
+
+    final String batch = new MSCRMV5QueryBatch("account", new String[] {"name"}, "name = 'A'", null).encode();
+
+    assertInvalidBatch("");
+    assertInvalidBatch("01gD0000002HU6KIAW-500");
+    assertInvalidBatch("%%%%");
+    assertInvalidBatch(batch.substring(0, batch.length() / 2));
+
+    /* Field count larger than the batch */
+    final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    final DataOutputStream out = new DataOutputStream(bytes);
+    out.writeUTF("account");
+    out.writeInt(Integer.MAX_VALUE);
+    out.flush();
+
+    assertInvalidBatch(new String(Base64.encodeBase64(bytes.toByteArray())).replace('+', '-').replace('/', '_').replace("=", ""));
+  }
+
+  private static final void assertInvalidBatch(final String batch) {
+
+    try {
+      MSCRMV5QueryBatch.decode(batch);
+      fail("Malformed batch is decoded: " + batch);
+    } catch (final ScribeException e) {
+      assertTrue("Malformed batch is not invalid input: " + e.getMessage(), e.getMessage().startsWith(ScribeResponseCodes._1008));
+    }
+  }
+}
@@ -0,0 +1,340 @@
+package com.inbravo.scribe.rest.service.crm.sf;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.rmi.RemoteException;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.sforce.soap.partner.DeleteResult;
+import com.sforce.soap.partner.SaveResult;
+import com.sforce.soap.partner.SessionHeader;
+import com.sforce.soap.partner.SoapBindingStub;
+import com.sforce.soap.partner.fault.ApiFault;
+import com.sforce.soap.partner.fault.ExceptionCode;
+import com.sforce.soap.partner.sobject.SObject;
+
+/**
+ * Chunking, chunk failures and session renewal of Sales Force bulk client
+ * 
+ * @author amit.dixit
+ * 
+ */
+public class SalesForceBulkClientTest {
+
+  /**
+   * Writes are sent in chunks of at most 200 records; results are in order of records
+   * 
+   * @throws Exception
+   */
+  @org.junit.Test
+  public void Test_Writes_Are_Chunked_At_200_Records() throws Exception {
+
+    final SalesForceBulkClient bulkClient = createBulkClient();
+
+    final ChunkRecordingStub stub = new ChunkRecordingStub(-1);
+    final SaveResult[] saveResults = bulkClient.create(stub, null, createSObjects(450));
+
+    assertEquals("Chunks are changed", "[200, 200, 50]", stub.chunkSizes.toString());
+    assertEquals(450, saveResults.length);
+
+    for (int i = 0; i < saveResults.length; i++) {
+      assertTrue(saveResults[i].isSuccess());
+      assertEquals("Result is not in order of records", "R" + i, saveResults[i].getId());
+    }
+
+    /* Boundaries */
+    stub.chunkSizes.clear();
+    bulkClient.update(stub, null, createSObjects(200));
+    assertEquals("200 records are not one chunk", "[200]", stub.chunkSizes.toString());
+
+    stub.chunkSizes.clear();
+    bulkClient.delete(stub, null, createIds(201));
+    assertEquals("201 records are not two chunks", "[200, 1]", stub.chunkSizes.toString());
+  }
+
+  /**
+   * Configured chunk size above 200 is limited to 200
+   * 
+   * @throws Exception
+   */
+  @org.junit.Test
+  public void Test_Chunk_Size_Is_Limited_To_200() throws Exception {
+
+    final SalesForceBulkClient bulkClient = createBulkClient();
+    bulkClient.setChunkSize(500);
+
+    final ChunkRecordingStub stub = new ChunkRecordingStub(-1);
+    bulkClient.create(stub, null, createSObjects(401));
+
+    assertEquals("Chunks are changed", "[200, 200, 1]", stub.chunkSizes.toString());
+  }
+
+  /**
+   * Retrieves are sent in chunks of at most 2000 ids
+   * 
+   * @throws Exception
+   */
+  @org.junit.Test
+  public void Test_Retrieves_Are_Chunked_At_2000_Ids() throws Exception {
+
+    final SalesForceBulkClient bulkClient = createBulkClient();
+
+    final ChunkRecordingStub stub = new ChunkRecordingStub(-1);
+    final SObject[] sObjects = bulkClient.retrieve(stub, null, "Id, Name", "Account", createIds(4001));
+
+    assertEquals("Chunks are changed", "[2000, 2000, 1]", stub.chunkSizes.toString());
+
+    for (int i = 0; i < sObjects.length; i++) {
+      assertEquals("Record is not in order of ids", "R" + i, sObjects[i].getId());
+    }
+
+    stub.chunkSizes.clear();
+    bulkClient.retrieve(stub, null, "Id", "Account", createIds(2000));
+    assertEquals("2000 ids are not one chunk", "[2000]", stub.chunkSizes.toString());
+  }
+
+  /**
+   * Failed chunk fails only its records; results of other chunks are returned
+   * 
+   * @throws Exception
+   */
+  @org.junit.Test
+  public void Test_Failed_Chunk_Keeps_Results_Of_Other_Chunks() throws Exception {
+
+    final SalesForceBulkClient bulkClient = createBulkClient();
+
+    /* Second chunk is failed */
+    final SaveResult[] saveResults = bulkClient.create(new ChunkRecordingStub(1), null, createSObjects(450));
+
+    for (int i = 0; i < saveResults.length; i++) {
+
+      if (i >= 200 && i < 400) {
+        assertFalse("Record of failed chunk is successful", saveResults[i].isSuccess());
+        assertTrue(saveResults[i].getErrors()[0].getMessage().contains("REQUEST_LIMIT_EXCEEDED"));
+      } else {
+        assertTrue("Record of other chunk is failed", saveResults[i].isSuccess());
+        assertEquals("R" + i, saveResults[i].getId());
+      }
+    }
+
+    final DeleteResult[] deleteResults = bulkClient.delete(new ChunkRecordingStub(0), null, createIds(201));
+    assertFalse(deleteResults[0].isSuccess());
+    assertTrue(deleteResults[200].isSuccess());
+  }
+
+  /**
+   * Only the chunk rejected for expired session is sent again, with fresh session
+   * 
+   * @throws Exception
+   */
+  @org.junit.Test
+  public void Test_Chunk_Of_Expired_Session_Is_Sent_Again() throws Exception {
+
+    final SalesForceBulkClient bulkClient = createBulkClient();
+
+    /* Session expires at third chunk */
+    final ChunkRecordingStub stub = new ChunkRecordingStub(2, ExceptionCode.INVALID_SESSION_ID);
+    final ChunkRecordingStub freshStub = new ChunkRecordingStub(-1);
+
+    final List<SoapBindingStub> invalidStubs = new ArrayList<SoapBindingStub>();
+
+    final SaveResult[] saveResults = bulkClient.update(stub, new SalesForceBulkClient.SessionRenewer() {
+
+      @Override
+      public SoapBindingStub renew(final SoapBindingStub invalidStub) throws Exception {
+        invalidStubs.add(invalidStub);
+        return freshStub;
+      }
+    }, createSObjects(450));
+
+    assertEquals("Chunks are not sent once", "[200, 200, 50]", stub.chunkSizes.toString());
+    assertEquals("Only expired chunk is not sent again", "[50]", freshStub.chunkSizes.toString());
+    assertEquals(1, invalidStubs.size());
+    assertSame(stub, invalidStubs.get(0));
+
+    for (int i = 0; i < saveResults.length; i++) {
+      assertTrue("Record is failed", saveResults[i].isSuccess());
+      assertEquals("R" + i, saveResults[i].getId());
+    }
+
+    /* Other errors are not retried */
+    final DeleteResult[] deleteResults = bulkClient.delete(new ChunkRecordingStub(0), new SalesForceBulkClient.SessionRenewer() {
+
+      @Override
+      public SoapBindingStub renew(final SoapBindingStub invalidStub) throws Exception {
+        fail("Session is renewed for other error");
+        return null;
+      }
+    }, createIds(201));
+
+    assertFalse(deleteResults[0].isSuccess());
+  }
+
+  /**
+   * Error is thrown if all chunks are failed, or if a retrieve chunk is failed
+   * 
+   * @throws Exception
+   */
+  @org.junit.Test
+  public void Test_Error_Is_Thrown_If_Nothing_Is_Sent() throws Exception {
+
+    final SalesForceBulkClient bulkClient = createBulkClient();
+
+    try {
+      bulkClient.create(new ChunkRecordingStub(0), null, createSObjects(150));
+      fail("Error of only chunk is not thrown");
+    } catch (final ApiFault e) {
+      assertEquals(ExceptionCode.REQUEST_LIMIT_EXCEEDED, e.getExceptionCode());
+    }
+
+    try {
+      bulkClient.retrieve(new ChunkRecordingStub(1), null, "Id", "Account", createIds(2500));
+      fail("Error of retrieve chunk is not thrown");
+    } catch (final ApiFault e) {
+      assertEquals(ExceptionCode.REQUEST_LIMIT_EXCEEDED, e.getExceptionCode());
+    }
+  }
+
+  /**
+   * Stub copy for a parallel chunk has same end point and session but its own header elements
+   * 
+   * @throws Exception
+   */
+  @org.junit.Test
+  public void Test_Stub_Copy_Does_Not_Share_Headers() throws Exception {
+
+    final SoapBindingStub stub = new SoapBindingStub();
+    stub._setProperty(SoapBindingStub.ENDPOINT_ADDRESS_PROPERTY, "https://na1.salesforce.com/services/Soap/u/8.0/00D000000000001");
+    stub.setTimeout(30000);
+
+    final SessionHeader sessionHeader = new SessionHeader();
+    sessionHeader.setSessionId("00D000000000001!AQ");
+    stub.setHeader("urn:partner.soap.sforce.com", "SessionHeader", sessionHeader);
+
+    final SoapBindingStub copy = SalesForceSOAPClient.copySoapBinding(stub);
+
+    assertNotSame(stub, copy);
+    assertEquals(stub._getProperty(SoapBindingStub.ENDPOINT_ADDRESS_PROPERTY), copy._getProperty(SoapBindingStub.ENDPOINT_ADDRESS_PROPERTY));
+    assertEquals(30000, copy.getTimeout());
+    assertEquals(1, copy.getHeaders().length);
+    assertNotSame("Header element is shared", stub.getHeaders()[0], copy.getHeaders()[0]);
+    assertSame(sessionHeader, copy.getHeader("urn:partner.soap.sforce.com", "SessionHeader").getObjectValue());
+  }
+
+  private static final SalesForceBulkClient createBulkClient() {
+
+    /* Chunks are sent from test thread */
+    final SalesForceBulkClient bulkClient = new SalesForceBulkClient();
+    bulkClient.setThreads(0);
+    bulkClient.start();
+    return bulkClient;
+  }
+
+  private static final SObject[] createSObjects(final int count) {
+
+    final SObject[] sObjects = new SObject[count];
+
+    for (int i = 0; i < count; i++) {
+      sObjects[i] = new SObject();
+      sObjects[i].setType("Account");
+      sObjects[i].setId("R" + i);
+    }
+    return sObjects;
+  }
+
+  private static final String[] createIds(final int count) {
+
+    final String[] ids = new String[count];
+
+    for (int i = 0; i < count; i++) {
+      ids[i] = "R" + i;
+    }
+    return ids;
+  }
+
+  /**
+   * Stub which records size of each call and echoes ids; one call can be failed
+   */
+  private static final class ChunkRecordingStub extends SoapBindingStub {
+
+    private final List<Integer> chunkSizes = new ArrayList<Integer>();
+
+    private final int failedCall;
+
+    private final ExceptionCode exceptionCode;
+
+    private ChunkRecordingStub(final int failedCall) throws Exception {
+      this(failedCall, ExceptionCode.REQUEST_LIMIT_EXCEEDED);
+    }
+
+    private ChunkRecordingStub(final int failedCall, final ExceptionCode exceptionCode) throws Exception {
+      this.failedCall = failedCall;
+      this.exceptionCode = exceptionCode;
+    }
+
+    @Override
+    public SaveResult[] create(final SObject[] sObjects) throws RemoteException {
+      return this.save(sObjects);
+    }
+
+    @Override
+    public SaveResult[] update(final SObject[] sObjects) throws RemoteException {
+      return this.save(sObjects);
+    }
+
+    @Override
+    public DeleteResult[] delete(final String[] ids) throws RemoteException {
+
+      this.record(ids.length);
+
+      final DeleteResult[] deleteResults = new DeleteResult[ids.length];
+
+      for (int i = 0; i < ids.length; i++) {
+        deleteResults[i] = new DeleteResult(null, ids[i], true);
+      }
+      return deleteResults;
+    }
+
+    @Override
+    public SObject[] retrieve(final String fieldList, final String objectType, final String[] ids) throws RemoteException {
+
+      this.record(ids.length);
+
+      final SObject[] sObjects = new SObject[ids.length];
+
+      for (int i = 0; i < ids.length; i++) {
+        sObjects[i] = new SObject();
+        sObjects[i].setType(objectType);
+        sObjects[i].setId(ids[i]);
+      }
+      return sObjects;
+    }
+
+    private final SaveResult[] save(final SObject[] sObjects) throws RemoteException {
+
+      this.record(sObjects.length);
+
+      final SaveResult[] saveResults = new SaveResult[sObjects.length];
+
+      for (int i = 0; i < sObjects.length; i++) {
+        saveResults[i] = new SaveResult(null, sObjects[i].getId(), true);
+      }
+      return saveResults;
+    }
+
+    private final void record(final int size) throws RemoteException {
+
+      chunkSizes.add(size);
+
+      if (chunkSizes.size() - 1 == failedCall) {
+        throw new ApiFault(exceptionCode, "Call is failed");
+      }
+    }
+  }
+}
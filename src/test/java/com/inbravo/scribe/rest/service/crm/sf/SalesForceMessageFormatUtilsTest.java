@@ -0,0 +1,167 @@
+package com.inbravo.scribe.rest.service.crm.sf;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.xml.namespace.QName;
+
+import org.apache.axis.message.MessageElement;
+import org.w3c.dom.Element;
+
+import com.inbravo.scribe.rest.resource.ScribeObject;
+import com.sforce.soap.partner.QueryResult;
+import com.sforce.soap.partner.SearchRecord;
+import com.sforce.soap.partner.sobject.SObject;
+
+/**
+ * Conversion of Sales Force records to Scribe objects
+ * 
+ * @author amit.dixit
+ * 
+ */
+public class SalesForceMessageFormatUtilsTest {
+
+  private static final String SOBJECT_NAMESPACE = "urn:sobject.partner.soap.sforce.com";
+
+  /**
+   * Records of a query page are converted to same objects as by per field Axis element copies
+   * 
+   * @throws Exception
+   */
+  @org.junit.Test
+  public void Test_Query_Page_Is_Converted_As_Before() throws Exception {
+
+    final QueryResult queryResult = createQueryResult();
+
+    final ScribeObject[] cADbjectArray = SalesForceMessageFormatUtils.createScribeObjectArray(queryResult.getRecords());
+
+    assertEquals(queryResult.getRecords().length, cADbjectArray.length);
+
+    for (int i = 0; i < cADbjectArray.length; i++) {
+      assertSameObject(createScribeObjectAsBefore(queryResult.getRecords()[i]), cADbjectArray[i]);
+    }
+
+    /* Field without value */
+    assertEquals("Phone", cADbjectArray[1].getXmlContent().get(3).getNodeName());
+    assertNull(valueOf(cADbjectArray[1].getXmlContent().get(3)));
+
+    /* Single record */
+    assertSameObject(createScribeObjectAsBefore(queryResult.getRecords()[2]),
+        SalesForceMessageFormatUtils.createScribeObject(queryResult.getRecords()[2]));
+  }
+
+  /**
+   * Records not found by retrieve stay null
+   * 
+   * @throws Exception
+   */
+  @org.junit.Test
+  public void Test_Null_Records_Stay_Null() throws Exception {
+
+    final SObject[] sObjects = new SObject[] {null, createSObject("Account", "001D000000IqhSLIAZ", "Edge", "", null)};
+
+    final ScribeObject[] cADbjectArray = SalesForceMessageFormatUtils.createScribeObjectArray(sObjects);
+
+    assertNull(cADbjectArray[0]);
+    assertSameObject(createScribeObjectAsBefore(sObjects[1]), cADbjectArray[1]);
+  }
+
+  /**
+   * Records of a search are converted to same objects as by per field Axis element copies
+   * 
+   * @throws Exception
+   */
+  @org.junit.Test
+  public void Test_Search_Records_Are_Converted_As_Before() throws Exception {
+
+    final SObject[] sObjects = createQueryResult().getRecords();
+
+    final SearchRecord[] searchRecords = new SearchRecord[sObjects.length];
+
+    for (int i = 0; i < sObjects.length; i++) {
+      searchRecords[i] = new SearchRecord();
+      searchRecords[i].setRecord(sObjects[i]);
+    }
+
+    final ScribeObject[] cADbjectArray = SalesForceMessageFormatUtils.createScribeObjectArray(searchRecords);
+
+    for (int i = 0; i < cADbjectArray.length; i++) {
+      assertSameObject(createScribeObjectAsBefore(sObjects[i]), cADbjectArray[i]);
+    }
+  }
+
+  /**
+   * Conversion of each record as done by query and search operations before shared mapper
+   */
+  private static final ScribeObject createScribeObjectAsBefore(final SObject sObject) throws Exception {
+
+    final ScribeObject cADbject = new ScribeObject();
+    cADbject.setObjectType(sObject.getType());
+
+    final MessageElement[] fields = sObject.get_any();
+
+    final List<Element> elementList = new ArrayList<Element>();
+
+    for (int j = 0; j < fields.length; j++) {
+      elementList.add(SalesForceMessageFormatUtils.createMessageElement(fields[j].getName(), fields[j].getValue()));
+    }
+
+    cADbject.setXmlContent(elementList);
+    return cADbject;
+  }
+
+  private static final void assertSameObject(final ScribeObject expected, final ScribeObject actual) {
+
+    assertEquals("Object type is changed", expected.getObjectType(), actual.getObjectType());
+    assertEquals("Fields are changed", expected.getXmlContent().size(), actual.getXmlContent().size());
+
+    for (int i = 0; i < expected.getXmlContent().size(); i++) {
+      assertEquals("Field name is changed", ((MessageElement) expected.getXmlContent().get(i)).getName(), actual.getXmlContent().get(i).getNodeName());
+      assertEquals("Field value is changed", valueOf(expected.getXmlContent().get(i)), valueOf(actual.getXmlContent().get(i)));
+    }
+  }
+
+  private static final String valueOf(final Element element) {
+
+    /* Axis element does not implement DOM level 3 text content; value is its text child */
+    return element.getFirstChild() != null ? element.getFirstChild().getNodeValue() : null;
+  }
+
+  private static final QueryResult createQueryResult() {
+
+    final QueryResult queryResult = new QueryResult();
+    queryResult.setRecords(new SObject[] {createSObject("Account", "001D000000IqhSLIAZ", "Burlington Textiles Corp of America", "Apparel", "(336) 222-7000"),
+        createSObject("Account", "001D000000IqhSMIAZ", "Pyramid Construction Inc. & Sons", "<Construction>", null),
+        createSObject("Contact", "003D000000QV9n2IAD", "Rose Gonzalez", "", "(512) 757-6000")});
+    queryResult.setSize(3);
+    queryResult.setDone(true);
+    return queryResult;
+  }
+
+  private static final SObject createSObject(final String type, final String id, final String name, final String industry, final String phone) {
+
+    final SObject sObject = new SObject();
+    sObject.setType(type);
+    sObject.set_any(new MessageElement[] {createField("Id", id), createField("Name", name), createField("Industry", industry),
+        createField("Phone", phone)});
+    return sObject;
+  }
+
+  private static final MessageElement createField(final String name, final String value) {
+
+    /* Deserialized fields carry their value as text child */
+    final MessageElement field = new MessageElement(new QName(SOBJECT_NAMESPACE, name));
+
+    if (value != null) {
+      try {
+        field.addTextNode(value);
+      } catch (final Exception e) {
+        throw new IllegalStateException(e);
+      }
+    }
+    return field;
+  }
+}
@@ -0,0 +1,204 @@
+package com.inbravo.scribe.rest.service.crm.sf;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.rmi.RemoteException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import com.sforce.soap.partner.QueryResult;
+import com.sforce.soap.partner.SoapBindingStub;
+import com.sforce.soap.partner.fault.ApiFault;
+import com.sforce.soap.partner.fault.ExceptionCode;
+
+/**
+ * Prefetch of next batches of Sales Force queries
+ * 
+ * @author amit.dixit
+ * 
+ */
+public class SalesForceQueryPrefetcherTest {
+
+  /**
+   * Unknown query locator is fetched from Sales Force in request thread
+   * 
+   * @throws Exception
+   */
+  @org.junit.Test
+  public void Test_Unknown_Locator_Is_Queried_Directly() throws Exception {
+
+    final SalesForceQueryPrefetcher prefetcher = createPrefetcher(60000);
+
+    try {
+      final QueryMoreStub stub = new QueryMoreStub(false);
+
+      final QueryResult queryResult = prefetcher.queryMore(stub, "agent1", "01gD0000002HU6KIAW-500");
+
+      assertEquals("01gD0000002HU6KIAW-500", queryResult.getQueryLocator());
+      assertEquals("Unknown locator is not queried directly", Collections.singletonList(Thread.currentThread().getName()), stub.callers);
+
+      /* Batch prefetched for other user is not given */
+      prefetcher.prefetch(stub, "agent1", "01gD0000002HU6KIAW-1000");
+      prefetcher.queryMore(stub, "agent2", "01gD0000002HU6KIAW-1000");
+      assertEquals(Thread.currentThread().getName(), stub.callers.get(stub.callers.size() - 1));
+    } finally {
+      prefetcher.stop();
+    }
+  }
+
+  /**
+   * Disabled prefetcher queries directly
+   * 
+   * @throws Exception
+   */
+  @org.junit.Test
+  public void Test_Disabled_Prefetcher_Queries_Directly() throws Exception {
+
+    final SalesForceQueryPrefetcher prefetcher = new SalesForceQueryPrefetcher();
+    prefetcher.start();
+
+    final QueryMoreStub stub = new QueryMoreStub(false);
+
+    prefetcher.prefetch(stub, "agent1", "01gD0000002HU6KIAW-500");
+    assertEquals("Batch is prefetched", 0, prefetcher.getPrefetchedBatchCount());
+
+    prefetcher.queryMore(stub, "agent1", "01gD0000002HU6KIAW-500");
+    assertEquals(Collections.singletonList(Thread.currentThread().getName()), stub.callers);
+  }
+
+  /**
+   * Prefetched batch is given once; failed prefetch is queried again
+   * 
+   * @throws Exception
+   */
+  @org.junit.Test
+  public void Test_Prefetched_Batch_Is_Given_Once() throws Exception {
+
+    final SalesForceQueryPrefetcher prefetcher = createPrefetcher(60000);
+
+    try {
+      final QueryMoreStub stub = new QueryMoreStub(false);
+
+      prefetcher.prefetch(stub, "agent1", "01gD0000002HU6KIAW-500");
+      assertEquals(1, prefetcher.getPrefetchedBatchCount());
+
+      final QueryResult queryResult = prefetcher.queryMore(stub, "agent1", "01gD0000002HU6KIAW-500");
+
+      assertEquals("01gD0000002HU6KIAW-500", queryResult.getQueryLocator());
+      assertEquals("Batch is fetched again", 1, stub.callers.size());
+      assertTrue("Batch is not prefetched", stub.callers.get(0).startsWith("SalesForcePrefetch-"));
+      assertEquals(0, prefetcher.getPrefetchedBatchCount());
+
+      /* Prefetch is failed; batch is queried in request thread */
+      final QueryMoreStub failingStub = new QueryMoreStub(true);
+
+      prefetcher.prefetch(failingStub, "agent1", "01gD0000002HU6KIAW-1000");
+
+      assertEquals("01gD0000002HU6KIAW-1000", prefetcher.queryMore(failingStub, "agent1", "01gD0000002HU6KIAW-1000").getQueryLocator());
+      assertEquals("Failed prefetch is not queried again", 2, failingStub.callers.size());
+      assertEquals(Thread.currentThread().getName(), failingStub.callers.get(1));
+    } finally {
+      prefetcher.stop();
+    }
+  }
+
+  /**
+   * Expired batches are removed at next prefetch, before maximum batches are reached
+   * 
+   * @throws Exception
+   */
+  @org.junit.Test
+  public void Test_Expired_Batches_Are_Removed_At_Each_Prefetch() throws Exception {
+
+    final SalesForceQueryPrefetcher prefetcher = createPrefetcher(50);
+
+    try {
+      final QueryMoreStub stub = new QueryMoreStub(false);
+
+      prefetcher.prefetch(stub, "agent1", "01gD0000002HU6KIAW-500");
+      prefetcher.prefetch(stub, "agent2", "01gD0000002HU6KIAX-500");
+      assertEquals(2, prefetcher.getPrefetchedBatchCount());
+
+      Thread.sleep(80);
+
+      prefetcher.prefetch(stub, "agent3", "01gD0000002HU6KIAY-500");
+      assertEquals("Expired batches are not removed", 1, prefetcher.getPrefetchedBatchCount());
+
+      Thread.sleep(80);
+
+      /* Request of any user removes expired batches too */
+      prefetcher.queryMore(stub, "agent4", "01gD0000002HU6KIAZ-500");
+      assertEquals("Expired batch is not removed", 0, prefetcher.getPrefetchedBatchCount());
+    } finally {
+      prefetcher.stop();
+    }
+  }
+
+  /**
+   * Background fetch does not call the stub of request; it uses its own copy
+   * 
+   * @throws Exception
+   */
+  @org.junit.Test
+  public void Test_Prefetch_Uses_Copy_Of_Stub() throws Exception {
+
+    final SalesForceQueryPrefetcher prefetcher = createPrefetcher(60000);
+    prefetcher.setCopyStub(true);
+
+    try {
+      final QueryMoreStub stub = new QueryMoreStub(false);
+
+      /* Copy is refused by end point; batch is queried again with stub of request */
+      stub._setProperty(SoapBindingStub.ENDPOINT_ADDRESS_PROPERTY, "http://localhost:1/services/Soap/u/20.0");
+
+      prefetcher.prefetch(stub, "agent1", "01gD0000002HU6KIAW-500");
+
+      assertEquals("01gD0000002HU6KIAW-500", prefetcher.queryMore(stub, "agent1", "01gD0000002HU6KIAW-500").getQueryLocator());
+      assertEquals("Stub of request is called by prefetch", Collections.singletonList(Thread.currentThread().getName()), stub.callers);
+    } finally {
+      prefetcher.stop();
+    }
+  }
+
+  private static final SalesForceQueryPrefetcher createPrefetcher(final long timeToLive) {
+
+    final SalesForceQueryPrefetcher prefetcher = new SalesForceQueryPrefetcher();
+    prefetcher.setEnabled(true);
+    prefetcher.setThreads(2);
+    prefetcher.setTimeToLive(timeToLive);
+    prefetcher.setCopyStub(false);
+    prefetcher.start();
+    return prefetcher;
+  }
+
+  /**
+   * Stub which records the threads calling queryMore
+   */
+  private static final class QueryMoreStub extends SoapBindingStub {
+
+    private final List<String> callers = Collections.synchronizedList(new ArrayList<String>());
+
+    private final boolean failFirstCall;
+
+    private QueryMoreStub(final boolean failFirstCall) throws Exception {
+      this.failFirstCall = failFirstCall;
+    }
+
+    @Override
+    public QueryResult queryMore(final String queryLocator) throws RemoteException {
+
+      callers.add(Thread.currentThread().getName());
+
+      if (failFirstCall && callers.size() == 1) {
+        throw new ApiFault(ExceptionCode.INVALID_SESSION_ID, "Invalid Session ID found in SessionHeader");
+      }
+
+      final QueryResult queryResult = new QueryResult();
+      queryResult.setQueryLocator(queryLocator);
+      queryResult.setDone(true);
+      return queryResult;
+    }
+  }
+}
@@ -0,0 +1,130 @@
+package com.inbravo.scribe.rest.service.crm.sf;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+import java.rmi.RemoteException;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.inbravo.scribe.rest.service.crm.sf.SalesForceBulkClient.SessionRenewer;
+import com.sforce.soap.partner.QueryResult;
+import com.sforce.soap.partner.SoapBindingStub;
+import com.sforce.soap.partner.fault.ApiFault;
+import com.sforce.soap.partner.fault.ExceptionCode;
+
+/**
+ * Session renewal of Sales Force query stream
+ * 
+ * @author amit.dixit
+ * 
+ */
+public class SalesForceQueryStreamTest {
+
+  /**
+   * Expired session is renewed once and the batch is queried again with the fresh stub
+   * 
+   * @throws Exception
+   */
+  @org.junit.Test
+  public void Test_Expired_Session_Is_Renewed() throws Exception {
+
+    final QueryMoreStub expiredStub = new QueryMoreStub(true);
+    final QueryMoreStub freshStub = new QueryMoreStub(false);
+    final RecordingRenewer renewer = new RecordingRenewer(freshStub);
+
+    final SalesForceQueryStream stream = new SalesForceQueryStream(expiredStub, renewer, createQueryResult("01gD0000002HU6KIAW-500", false), null);
+
+    /* First batch is given by request */
+    assertEquals(0, stream.nextPage().length);
+    assertEquals(0, expiredStub.queryLocators.size());
+
+    /* Next batch is queried again after login */
+    assertNull(stream.nextPage());
+    assertEquals("[01gD0000002HU6KIAW-500]", expiredStub.queryLocators.toString());
+    assertEquals("[01gD0000002HU6KIAW-500]", freshStub.queryLocators.toString());
+    assertEquals(1, renewer.invalidStubs.size());
+    assertSame("Rejected stub is not given to login", expiredStub, renewer.invalidStubs.get(0));
+  }
+
+  /**
+   * Session is renewed only once for a batch; second rejection is sent to user
+   * 
+   * @throws Exception
+   */
+  @org.junit.Test
+  public void Test_Session_Is_Renewed_Once() throws Exception {
+
+    final RecordingRenewer renewer = new RecordingRenewer(new QueryMoreStub(true));
+
+    final SalesForceQueryStream stream =
+        new SalesForceQueryStream(new QueryMoreStub(true), renewer, createQueryResult("01gD0000002HU6KIAW-500", false), null);
+
+    stream.nextPage();
+
+    try {
+      stream.nextPage();
+      fail("Second expired session is not sent to user");
+    } catch (final ApiFault e) {
+      assertEquals(ExceptionCode.INVALID_SESSION_ID, e.getExceptionCode());
+    }
+
+    assertEquals(1, renewer.invalidStubs.size());
+  }
+
+  private static final QueryResult createQueryResult(final String queryLocator, final boolean done) {
+
+    final QueryResult queryResult = new QueryResult();
+    queryResult.setQueryLocator(queryLocator);
+    queryResult.setDone(done);
+    return queryResult;
+  }
+
+  /**
+   * Login which gives a fixed stub
+   */
+  private static final class RecordingRenewer implements SessionRenewer {
+
+    private final List<SoapBindingStub> invalidStubs = new ArrayList<SoapBindingStub>();
+
+    private final SoapBindingStub freshStub;
+
+    private RecordingRenewer(final SoapBindingStub freshStub) {
+      this.freshStub = freshStub;
+    }
+
+    @Override
+    public SoapBindingStub renew(final SoapBindingStub invalidStub) throws Exception {
+      invalidStubs.add(invalidStub);
+      return freshStub;
+    }
+  }
+
+  /**
+   * Stub which records the query locators and may reject its session
+   */
+  private static final class QueryMoreStub extends SoapBindingStub {
+
+    private final List<String> queryLocators = new ArrayList<String>();
+
+    private final boolean expired;
+
+    private QueryMoreStub(final boolean expired) throws Exception {
+      this.expired = expired;
+    }
+
+    @Override
+    public QueryResult queryMore(final String queryLocator) throws RemoteException {
+
+      queryLocators.add(queryLocator);
+
+      if (expired) {
+        throw new ApiFault(ExceptionCode.INVALID_SESSION_ID, "Invalid Session ID found in SessionHeader");
+      }
+
+      return createQueryResult(queryLocator, true);
+    }
+  }
+}
@@ -0,0 +1,143 @@
+package com.inbravo.scribe.rest.service.crm.sf;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.rmi.RemoteException;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.sforce.soap.partner.SearchResult;
+import com.sforce.soap.partner.SoapBindingStub;
+
+/**
+ * Keys and invalidation of cached Sales Force searches
+ * 
+ * @author amit.dixit
+ * 
+ */
+public class SalesForceSearchCacheTest {
+
+  private static final String ORG1 = "https://na1.salesforce.com/services/Soap/u/8.0/00D000000000001";
+
+  private static final String ORG2 = "https://na2.salesforce.com/services/Soap/u/8.0/00D000000000002";
+
+  /**
+   * Spaces and case of keywords do not make a new search
+   * 
+   * @throws Exception
+   */
+  @org.junit.Test
+  public void Test_Spaces_And_Keywords_Do_Not_Make_New_Search() throws Exception {
+
+    final SalesForceSearchCache searchCache = createSearchCache();
+    final SearchStub stub = new SearchStub(ORG1);
+
+    final SearchResult searchResult = searchCache.search(stub, "agent1", "Contact", "FIND {4155551212} IN PHONE FIELDS RETURNING Contact(Id)");
+
+    assertSame(searchResult,
+        searchCache.search(stub, "agent1", "Contact", "  find  {4155551212}\tin phone fields\nreturning contact(id) "));
+    assertEquals("Same search is sent again", 1, stub.searches.size());
+  }
+
+  /**
+   * Case and spaces inside search terms and quoted values make a new search
+   * 
+   * @throws Exception
+   */
+  @org.junit.Test
+  public void Test_Literals_Are_Not_Normalized() throws Exception {
+
+    final SalesForceSearchCache searchCache = createSearchCache();
+    final SearchStub stub = new SearchStub(ORG1);
+
+    searchCache.search(stub, "agent1", "Account", "FIND {Acme} RETURNING Account(Name WHERE Type = 'Partner')");
+    searchCache.search(stub, "agent1", "Account", "FIND {acme} RETURNING Account(Name WHERE Type = 'Partner')");
+    searchCache.search(stub, "agent1", "Account", "FIND {Acme} RETURNING Account(Name WHERE Type = 'partner')");
+    searchCache.search(stub, "agent1", "Account", "FIND {Acme  Inc} RETURNING Account(Name)");
+    searchCache.search(stub, "agent1", "Account", "FIND {Acme Inc} RETURNING Account(Name)");
+
+    /* Escaped brace does not end the search term */
+    searchCache.search(stub, "agent1", "Account", "FIND {Acme\\} X} RETURNING Account(Name)");
+    searchCache.search(stub, "agent1", "Account", "FIND {Acme\\} x} RETURNING Account(Name)");
+
+    assertEquals("Search with other literal is taken from cache", 7, stub.searches.size());
+  }
+
+  /**
+   * Write to any object type removes all searches of the organization
+   * 
+   * @throws Exception
+   */
+  @org.junit.Test
+  public void Test_Write_Invalidates_All_Searches_Of_Organization() throws Exception {
+
+    final SalesForceSearchCache searchCache = createSearchCache();
+    final SearchStub stub = new SearchStub(ORG1);
+    final SearchStub otherOrgStub = new SearchStub(ORG2);
+
+    /* Search returning many object types, cached against Contact */
+    final String search = "FIND {Acme} RETURNING Contact(Name), Account(Name)";
+
+    searchCache.search(stub, "agent1", "Contact", search);
+    searchCache.search(otherOrgStub, "agent2", "Contact", search);
+
+    /* Account is written */
+    searchCache.invalidate(stub);
+
+    searchCache.search(stub, "agent1", "Contact", search);
+    searchCache.search(otherOrgStub, "agent2", "Contact", search);
+
+    assertEquals("Search is not removed by write to other object type", 2, stub.searches.size());
+    assertEquals("Search of other organization is removed", 1, otherOrgStub.searches.size());
+  }
+
+  /**
+   * Searches of users not configured are not cached
+   * 
+   * @throws Exception
+   */
+  @org.junit.Test
+  public void Test_Only_Configured_Users_Are_Cached() throws Exception {
+
+    final SalesForceSearchCache searchCache = createSearchCache();
+    searchCache.setUsers("agent1, agent2");
+
+    final SearchStub stub = new SearchStub(ORG1);
+
+    searchCache.search(stub, "agent3", "Lead", "FIND {Acme}");
+    searchCache.search(stub, "agent3", "Lead", "FIND {Acme}");
+    assertEquals(2, stub.searches.size());
+
+    searchCache.search(stub, "agent2", "Lead", "FIND {Acme}");
+    searchCache.search(stub, "agent2", "Lead", "FIND {Acme}");
+    assertEquals(3, stub.searches.size());
+  }
+
+  private static final SalesForceSearchCache createSearchCache() {
+
+    final SalesForceSearchCache searchCache = new SalesForceSearchCache();
+    searchCache.setTimeToLive(60000);
+    searchCache.setUsers("ALL");
+    return searchCache;
+  }
+
+  /**
+   * Stub of an organization which records searches
+   */
+  private static final class SearchStub extends SoapBindingStub {
+
+    private final List<String> searches = new ArrayList<String>();
+
+    private SearchStub(final String endPoint) throws Exception {
+      this._setProperty(SoapBindingStub.ENDPOINT_ADDRESS_PROPERTY, endPoint);
+    }
+
+    @Override
+    public SearchResult search(final String searchString) throws RemoteException {
+
+      searches.add(searchString);
+      return new SearchResult();
+    }
+  }
+}